@@ -0,0 +1,114 @@
+package com.banking.benchmark;
+
+import com.banking.cache.CompactTransactionCache;
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionType;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jol.info.GraphLayout;
+import org.openjdk.jol.vm.VM;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * transactions 缓存按原对象存放与按紧凑编码存放的对比：
+ * 初始化时用JOL遍历缓存中的键与值统计每个条目的保留字节数并打印类直方图，基准方法衡量命中时的读取与写入开销（紧凑编码需要解码/编码）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(jvmArgsAppend = "-Djdk.attach.allowAttachSelf=true")
+public class CompactCacheBenchmark {
+    private static final int ENTRIES = 100_000;
+
+    @Param({"object", "compact"})
+    private String encoding;
+
+    private Cache cache;
+    private List<String> keys;
+    private List<TransactionDTO> values;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 不限容量，统计的是全部条目的实际占用
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = Caffeine.newBuilder()
+                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .recordStats()
+                .build();
+        cache = "compact".equals(encoding)
+                ? new CompactTransactionCache("transactions", nativeCache)
+                : new CaffeineCache("transactions", nativeCache);
+
+        keys = new ArrayList<>(ENTRIES);
+        values = new ArrayList<>(ENTRIES);
+        for (int i = 0; i < ENTRIES; i++) {
+            TransactionDTO dto = storedTransaction(i);
+            keys.add(dto.getId().toString());
+            values.add(dto);
+            cache.put(dto.getId().toString(), dto);
+        }
+
+        // Caffeine内部结构引用线程池等全局对象，无法整体遍历；两种编码的节点开销相同，只统计键与缓存中实际存放的值
+        Object[] storedValues = nativeCache.asMap().values().toArray();
+        Object[] storedKeys = nativeCache.asMap().keySet().toArray();
+        GraphLayout valueLayout = GraphLayout.parseInstance((Object) storedValues);
+        long valueBytes = valueLayout.totalSize() - VM.current().sizeOf(storedValues);
+        long keyBytes = GraphLayout.parseInstance((Object) storedKeys).totalSize() - VM.current().sizeOf(storedKeys);
+        System.out.printf("%n[%s] %d 个条目：值共 %d 字节（每条目 %d 字节），键每条目 %d 字节%n",
+                encoding, ENTRIES, valueBytes, valueBytes / ENTRIES, keyBytes / ENTRIES);
+        System.out.println(valueLayout.toFootprint());
+    }
+
+    @Benchmark
+    public void get(Blackhole blackhole) {
+        String key = keys.get(ThreadLocalRandom.current().nextInt(ENTRIES));
+        blackhole.consume(cache.get(key, TransactionDTO.class));
+    }
+
+    @Benchmark
+    public void put() {
+        int index = ThreadLocalRandom.current().nextInt(ENTRIES);
+        cache.put(keys.get(index), values.get(index));
+    }
+
+    /**
+     * 与从数据库读出的交易形态一致：金额标度4，时间精确到微秒，四分之一为带对方账户的转账
+     */
+    private static TransactionDTO storedTransaction(int index) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime createdAt = LocalDateTime.now().minusSeconds(random.nextInt(86_400 * 365))
+                .truncatedTo(ChronoUnit.MICROS);
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(index % 4 == 0 ? TransactionType.TRANSFER_OUT : TransactionType.DEPOSIT);
+        dto.setAmount(BigDecimal.valueOf(random.nextLong(1, 10_000_000), 2).setScale(4));
+        dto.setAccountId(UUID.randomUUID());
+        if (index % 4 == 0) {
+            dto.setRelatedAccountId(UUID.randomUUID());
+        }
+        dto.setDescription("工资入账 " + index);
+        dto.setCreatedAt(createdAt);
+        dto.setUpdatedAt(createdAt.plusSeconds(random.nextInt(1, 60)));
+        dto.setVersion(0L);
+        return dto;
+    }
+}
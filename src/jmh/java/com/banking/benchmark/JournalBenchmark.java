@@ -0,0 +1,89 @@
+package com.banking.benchmark;
+
+import com.banking.BankingSystemApplication;
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionType;
+import com.banking.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * prod 配置（文件型H2）下8个并发客户端单笔创建交易的吞吐量与延迟分布：
+ * direct 在请求线程内提交数据库事务，journal 只追加预写日志并等待组提交落盘，写库由后台线程批量完成
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class JournalBenchmark {
+    private static final int ACCOUNTS = 1000;
+
+    @Param({"direct", "journal"})
+    private String path;
+
+    private Path dataDir;
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private List<UUID> accounts;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("banking-benchmark-");
+        List<String> args = new ArrayList<>(List.of(
+                "--logging.level.root=WARN",
+                "--spring.profiles.active=prod",
+                "--BANKING_DATA_DIR=" + dataDir.toAbsolutePath()));
+        if ("journal".equals(path)) {
+            args.add("--banking.journal.enabled=true");
+            args.add("--banking.journal.directory=" + dataDir.resolve("journal").toAbsolutePath());
+        }
+        context = new SpringApplicationBuilder(BankingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        transactionService = context.getBean(TransactionService.class);
+        accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(UUID.randomUUID());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        try (var files = Files.walk(dataDir)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public TransactionDTO createTransaction() {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(TransactionType.DEPOSIT);
+        dto.setAmount(BigDecimal.ONE);
+        dto.setAccountId(accounts.get(ThreadLocalRandom.current().nextInt(ACCOUNTS)));
+        return transactionService.createTransaction(dto);
+    }
+}
@@ -0,0 +1,129 @@
+package com.banking.benchmark;
+
+import com.banking.cache.CompactTransactionCache;
+import com.banking.cache.OffHeapTransactionStore;
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionType;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 百万条热点交易分别放在堆上Caffeine（原对象/紧凑编码）与堆外存储中，对比按ID读取、覆盖写入的耗时。
+ * 初始化后打印装满时的堆占用；配合 -prof gc 可对比每次操作的分配量与GC次数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(jvmArgsAppend = {"-Xms2g", "-Xmx2g", "-XX:MaxDirectMemorySize=512m"})
+public class OffHeapStoreBenchmark {
+    private static final int ENTRIES = 1_000_000;
+
+    @Param({"caffeine", "caffeine-compact", "offheap"})
+    private String store;
+
+    private Cache cache;
+    private OffHeapTransactionStore offHeapStore;
+    private UUID[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 只保留ID用于随机查询，缓存中的值没有其他引用，堆占用即缓存本身的占用
+        ids = new UUID[ENTRIES];
+        for (int i = 0; i < ENTRIES; i++) {
+            ids[i] = UUID.randomUUID();
+        }
+        long heapBefore = usedHeapAfterGc();
+        if ("offheap".equals(store)) {
+            offHeapStore = new OffHeapTransactionStore(256L * 1024 * 1024, 128, Duration.ofMinutes(10),
+                    new SimpleMeterRegistry());
+        } else {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = Caffeine.newBuilder()
+                    .expireAfterWrite(10, TimeUnit.MINUTES)
+                    .recordStats()
+                    .build();
+            cache = "caffeine".equals(store)
+                    ? new CaffeineCache("transactions", nativeCache)
+                    : new CompactTransactionCache("transactions", nativeCache);
+        }
+
+        for (int i = 0; i < ENTRIES; i++) {
+            put(storedTransaction(i));
+        }
+        long heapAfter = usedHeapAfterGc();
+        System.out.printf("%n[%s] %d 条：堆占用增加 %d MB，直接内存 %d MB%n",
+                store, ENTRIES, (heapAfter - heapBefore) >> 20,
+                offHeapStore == null ? 0 : offHeapStore.capacityBytes() >> 20);
+    }
+
+    @Benchmark
+    public TransactionDTO get() {
+        UUID id = ids[ThreadLocalRandom.current().nextInt(ENTRIES)];
+        if (offHeapStore != null) {
+            return offHeapStore.get(id).orElse(null);
+        }
+        return cache.get(id.toString(), TransactionDTO.class);
+    }
+
+    /**
+     * 覆盖已有条目，每次新建DTO的开销三种方式相同
+     */
+    @Benchmark
+    public void put() {
+        put(storedTransaction(ThreadLocalRandom.current().nextInt(ENTRIES)));
+    }
+
+    private void put(TransactionDTO dto) {
+        if (offHeapStore != null) {
+            offHeapStore.put(dto);
+        } else {
+            cache.put(dto.getId().toString(), dto);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private TransactionDTO storedTransaction(int index) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDateTime createdAt = LocalDateTime.now().minusSeconds(random.nextInt(86_400))
+                .truncatedTo(ChronoUnit.MICROS);
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(ids[index]);
+        dto.setType(index % 4 == 0 ? TransactionType.TRANSFER_OUT : TransactionType.DEPOSIT);
+        dto.setAmount(BigDecimal.valueOf(random.nextLong(1, 10_000_000), 2).setScale(4));
+        dto.setAccountId(UUID.randomUUID());
+        if (index % 4 == 0) {
+            dto.setRelatedAccountId(UUID.randomUUID());
+        }
+        dto.setDescription("工资入账 " + index);
+        dto.setCreatedAt(createdAt);
+        dto.setUpdatedAt(createdAt.plusSeconds(random.nextInt(1, 60)));
+        dto.setVersion(0L);
+        return dto;
+    }
+}
@@ -0,0 +1,184 @@
+package com.banking.benchmark;
+
+import com.banking.BankingSystemApplication;
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionType;
+import com.banking.service.TransactionService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据库周期性停顿时，远超服务能力的并发查询对比同步查询（sync，请求线程内等待连接）与
+ * 有界执行器加负载卸载（async）下的延迟分布，以及同时访问不涉及数据库的接口（/actuator/info）的延迟。
+ * <p>
+ * 服务端限制为64个Tomcat线程、4个数据库连接；后台线程每秒占用全部连接500毫秒模拟数据库停顿。
+ * 192个客户端线程持续查询单笔交易（关闭缓存，每次都查库），8个客户端线程访问 info 接口。
+ * Throughput 模式下的辅助计数 ok/shed/failed 分别为每秒成功、被503拒绝、超时或出错的查询数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OverloadBenchmark {
+    private static final int TRANSACTIONS = 1000;
+    private static final int POOL_SIZE = 4;
+
+    @Param({"sync", "async"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private List<UUID> ids;
+    private Thread staller;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long ok;
+        public long shed;
+        public long failed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            ok = 0;
+            shed = 0;
+            failed = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingSystemApplication.class)
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=64",
+                        "--spring.datasource.url=jdbc:h2:mem:overload-" + mode,
+                        "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "--spring.jpa.show-sql=false",
+                        "--banking.cache.enabled=false",
+                        "--banking.async.read.enabled=" + "async".equals(mode),
+                        "--banking.async.read.threads=" + POOL_SIZE,
+                        "--logging.level.root=WARN");
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        TransactionService transactionService = context.getBean(TransactionService.class);
+        UUID accountId = UUID.randomUUID();
+        ids = new ArrayList<>(TRANSACTIONS);
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            TransactionDTO dto = new TransactionDTO();
+            dto.setId(UUID.randomUUID());
+            dto.setType(TransactionType.DEPOSIT);
+            dto.setAmount(BigDecimal.ONE);
+            dto.setAccountId(accountId);
+            ids.add(transactionService.createTransaction(dto).getId());
+        }
+
+        DataSource dataSource = context.getBean(DataSource.class);
+        staller = Thread.ofPlatform().daemon().name("db-staller").start(() -> stallPeriodically(dataSource));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        staller.interrupt();
+        staller.join();
+        context.close();
+    }
+
+    @Benchmark
+    @Group("overload")
+    @GroupThreads(192)
+    public int getTransaction(Outcomes outcomes) {
+        int status = send("/api/transactions/" + ids.get(ThreadLocalRandom.current().nextInt(TRANSACTIONS)));
+        if (status == 200) {
+            outcomes.ok++;
+        } else if (status == 503) {
+            outcomes.shed++;
+        } else {
+            outcomes.failed++;
+        }
+        return status;
+    }
+
+    @Benchmark
+    @Group("overload")
+    @GroupThreads(8)
+    public int info() {
+        return send("/actuator/info");
+    }
+
+    private int send(String path) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    /**
+     * 每秒占用连接池的全部连接500毫秒，期间所有查询都拿不到连接
+     */
+    private static void stallPeriodically(DataSource dataSource) {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<Connection> held = new ArrayList<>(POOL_SIZE);
+            try {
+                for (int i = 0; i < POOL_SIZE; i++) {
+                    held.add(dataSource.getConnection());
+                }
+                Thread.sleep(500);
+            } catch (SQLException e) {
+                // 获取超时说明连接一直被查询占用，直接进入下一轮
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                held.forEach(connection -> {
+                    try {
+                        connection.close();
+                    } catch (SQLException ignored) {
+                        // 归还连接失败不影响下一轮
+                    }
+                });
+            }
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
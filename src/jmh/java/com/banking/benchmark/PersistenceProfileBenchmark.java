@@ -0,0 +1,129 @@
+package com.banking.benchmark;
+
+import com.banking.BankingSystemApplication;
+import com.banking.dto.BatchTransactionResultDTO;
+import com.banking.dto.CursorPageDTO;
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionType;
+import com.banking.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 8个并发客户端下对比默认配置（内存H2、打印SQL）与 prod 配置（文件型H2、关闭SQL日志、调优的连接池与批量写入）的吞吐量。
+ * prod-mem 使用 prod 的调优项但保留内存H2，用于区分调优本身的收益与落盘的开销。
+ * 各配置的标准输出都重定向到临时文件，SQL日志的开销按写入日志文件计算，而不是终端输出
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class PersistenceProfileBenchmark {
+    private static final int ACCOUNTS = 1000;
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"default", "prod-mem", "prod"})
+    private String profile;
+
+    private Path dataDir;
+    private PrintStream originalOut;
+    private PrintStream logFile;
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private List<UUID> accounts;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataDir = Files.createTempDirectory("banking-benchmark-");
+        originalOut = System.out;
+        logFile = new PrintStream(new FileOutputStream(dataDir.resolve("stdout.log").toFile()), true);
+        System.setOut(logFile);
+
+        List<String> args = new ArrayList<>(List.of("--logging.level.root=WARN"));
+        if (profile.startsWith("prod")) {
+            args.add("--spring.profiles.active=prod");
+            args.add("--BANKING_DATA_DIR=" + dataDir.toAbsolutePath());
+        }
+        if ("prod-mem".equals(profile)) {
+            args.add("--BANKING_DB_URL=jdbc:h2:mem:benchmark;QUERY_CACHE_SIZE=64");
+        }
+        context = new SpringApplicationBuilder(BankingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        transactionService = context.getBean(TransactionService.class);
+        accounts = new ArrayList<>(ACCOUNTS);
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts.add(UUID.randomUUID());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        System.setOut(originalOut);
+        logFile.close();
+        try (var files = Files.walk(dataDir)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public TransactionDTO createTransaction() {
+        return transactionService.createTransaction(newDeposit());
+    }
+
+    @Benchmark
+    public List<BatchTransactionResultDTO> createTransactionsBatch() {
+        List<TransactionDTO> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(newDeposit());
+        }
+        return transactionService.createTransactions(batch);
+    }
+
+    /**
+     * 带类型过滤的账户历史不走缓存，每次都查询数据库
+     */
+    @Benchmark
+    public CursorPageDTO<TransactionDTO> accountHistory() {
+        return transactionService.accountTransactions(randomAccount(), TransactionType.DEPOSIT, null, null, null,
+                TransactionService.ACCOUNT_HISTORY_PAGE_SIZE);
+    }
+
+    private UUID randomAccount() {
+        return accounts.get(ThreadLocalRandom.current().nextInt(ACCOUNTS));
+    }
+
+    private TransactionDTO newDeposit() {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(TransactionType.DEPOSIT);
+        dto.setAmount(BigDecimal.ONE);
+        dto.setAccountId(randomAccount());
+        return dto;
+    }
+}
@@ -0,0 +1,59 @@
+package com.banking.benchmark;
+
+import com.banking.concurrent.WriteRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 写接口准入控制的单次开销：随机选取10000个账户之一，取得许可（按账户取令牌加全局并发计数）后立即关闭。
+ * 速率与突发容量设得足够大，测的是放行路径本身；disabled 为关闭限流时的基线
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RateLimiterBenchmark {
+    private static final int ACCOUNTS = 10_000;
+
+    @Param({"enabled", "disabled"})
+    private String mode;
+
+    private WriteRateLimiter limiter;
+    private UUID[] accounts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        limiter = new WriteRateLimiter("enabled".equals(mode), 1_000_000, 1_000_000, 100_000, Duration.ofMinutes(10),
+                256, 4, 1024, Duration.ofMillis(500), Duration.ofSeconds(1), new SimpleMeterRegistry());
+        accounts = new UUID[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = UUID.randomUUID();
+        }
+    }
+
+    @Benchmark
+    public WriteRateLimiter.Permit acquireAndRelease() {
+        WriteRateLimiter.Permit permit = limiter.acquire(accounts[ThreadLocalRandom.current().nextInt(ACCOUNTS)]);
+        permit.close();
+        return permit;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public WriteRateLimiter.Permit acquireAndReleaseContended() {
+        return acquireAndRelease();
+    }
+}
@@ -0,0 +1,86 @@
+package com.banking.benchmark;
+
+import com.banking.BankingSystemApplication;
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionType;
+import com.banking.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片数对写入吞吐的影响：每个分片一个独立的H2文件数据库与连接池（每池4个连接），
+ * 16个线程持续向随机的1万个账户之一写入存款。分片数为1时不启用路由，即原有的单库路径。
+ * <p>
+ * 每个分片代表一台数据库，吞吐能否随分片数线性增长取决于单库是否是瓶颈：
+ * 单机运行时所有分片共享同一组CPU与磁盘，CPU饱和后增加分片不会再提高吞吐
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+public class ShardingBenchmark {
+    private static final int ACCOUNTS = 10_000;
+
+    @Param({"1", "2", "4"})
+    private int shards;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private UUID[] accounts;
+    private Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("sharding-benchmark");
+        String urlPattern = "jdbc:h2:file:" + directory.toAbsolutePath() + "/shard-%d";
+        context = new SpringApplicationBuilder(BankingSystemApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + String.format(urlPattern, 0),
+                        "--spring.datasource.hikari.maximum-pool-size=4",
+                        "--spring.jpa.show-sql=false",
+                        "--banking.sharding.shards=" + shards,
+                        "--banking.sharding.url-pattern=" + urlPattern,
+                        "--logging.level.root=WARN");
+        transactionService = context.getBean(TransactionService.class);
+        accounts = new UUID[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accounts[i] = UUID.randomUUID();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public TransactionDTO createTransaction() {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(TransactionType.DEPOSIT);
+        dto.setAmount(BigDecimal.ONE);
+        dto.setAccountId(accounts[ThreadLocalRandom.current().nextInt(ACCOUNTS)]);
+        return transactionService.createTransaction(dto);
+    }
+}
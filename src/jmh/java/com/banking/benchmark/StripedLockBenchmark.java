@@ -0,0 +1,56 @@
+package com.banking.benchmark;
+
+import com.google.common.util.concurrent.Striped;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * 条带锁在不同条带数下的竞争开销，模拟 TransactionLocks 按交易ID加锁的场景
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+public class StripedLockBenchmark {
+    private static final int KEYS = 4096;
+
+    @Param({"1", "16", "256", "2048"})
+    private int stripes;
+
+    private Striped<Lock> locks;
+    private UUID[] keys;
+
+    @Setup
+    public void setUp() {
+        locks = Striped.lock(stripes);
+        keys = new UUID[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = UUID.randomUUID();
+        }
+    }
+
+    @Benchmark
+    public void lockUnlock() {
+        Lock lock = locks.get(keys[ThreadLocalRandom.current().nextInt(KEYS)]);
+        lock.lock();
+        try {
+            // 模拟临界区内的少量工作
+            Blackhole.consumeCPU(64);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.banking.benchmark;
+
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransactionDTO的JSON序列化与反序列化开销，ObjectMapper与Spring MVC使用相同的构建方式
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionJsonBenchmark {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private TransactionDTO dto;
+    private String json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(TransactionType.TRANSFER_OUT);
+        dto.setAmount(new BigDecimal("100.00"));
+        dto.setAccountId(UUID.randomUUID());
+        dto.setRelatedAccountId(UUID.randomUUID());
+        dto.setDescription("基准测试交易");
+        dto.setCreatedAt(LocalDateTime.now());
+        dto.setUpdatedAt(LocalDateTime.now());
+        dto.setVersion(0L);
+        json = objectMapper.writeValueAsString(dto);
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(dto);
+    }
+
+    @Benchmark
+    public TransactionDTO deserialize() throws JsonProcessingException {
+        return objectMapper.readValue(json, TransactionDTO.class);
+    }
+}
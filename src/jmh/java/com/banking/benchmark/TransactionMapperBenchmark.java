@@ -0,0 +1,54 @@
+package com.banking.benchmark;
+
+import com.banking.dto.TransactionDTO;
+import com.banking.entity.Transaction;
+import com.banking.enums.TransactionType;
+import com.banking.mapper.TransactionMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实体与DTO互转的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransactionMapperBenchmark {
+    private final TransactionMapper transactionMapper = new TransactionMapper();
+    private Transaction entity;
+    private TransactionDTO dto;
+
+    @Setup
+    public void setUp() {
+        entity = new Transaction();
+        entity.setId(UUID.randomUUID());
+        entity.setType(TransactionType.DEPOSIT);
+        entity.setAmount(new BigDecimal("100.00"));
+        entity.setAccountId(UUID.randomUUID());
+        entity.setDescription("基准测试交易");
+        entity.setCreatedAt(LocalDateTime.now());
+        entity.setUpdatedAt(LocalDateTime.now());
+        entity.setVersion(0L);
+        dto = transactionMapper.toDTO(entity);
+    }
+
+    @Benchmark
+    public TransactionDTO toDTO() {
+        return transactionMapper.toDTO(entity);
+    }
+
+    @Benchmark
+    public Transaction toEntity() {
+        return transactionMapper.toEntity(dto);
+    }
+}
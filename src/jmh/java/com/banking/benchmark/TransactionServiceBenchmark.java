@@ -0,0 +1,76 @@
+package com.banking.benchmark;
+
+import com.banking.BankingSystemApplication;
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionType;
+import com.banking.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于内存H2的服务层创建与查询开销，分别在开启与关闭缓存时运行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransactionServiceBenchmark {
+    @Param({"true", "false"})
+    private boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private UUID accountId;
+    private UUID existingId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark-" + cacheEnabled,
+                        "--banking.cache.enabled=" + cacheEnabled,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        transactionService = context.getBean(TransactionService.class);
+        accountId = UUID.randomUUID();
+        existingId = transactionService.createTransaction(newDeposit()).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionDTO createTransaction() {
+        return transactionService.createTransaction(newDeposit());
+    }
+
+    @Benchmark
+    public TransactionDTO getTransaction() {
+        return transactionService.getTransaction(existingId);
+    }
+
+    private TransactionDTO newDeposit() {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(TransactionType.DEPOSIT);
+        dto.setAmount(BigDecimal.ONE);
+        dto.setAccountId(accountId);
+        return dto;
+    }
+}
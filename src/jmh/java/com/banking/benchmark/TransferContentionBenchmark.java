@@ -0,0 +1,83 @@
+package com.banking.benchmark;
+
+import com.banking.BankingSystemApplication;
+import com.banking.dto.TransactionDTO;
+import com.banking.dto.TransferRequest;
+import com.banking.dto.TransferResultDTO;
+import com.banking.enums.TransactionType;
+import com.banking.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 热点账户转账吞吐量：32个线程在少量账户间双向转账，衡量按账户有序加锁在竞争下的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(32)
+public class TransferContentionBenchmark {
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000000.00");
+
+    @Param({"4", "64"})
+    private int accounts;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private UUID[] accountIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:transfer-benchmark-" + accounts,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        transactionService = context.getBean(TransactionService.class);
+        accountIds = new UUID[accounts];
+        for (int i = 0; i < accounts; i++) {
+            accountIds[i] = UUID.randomUUID();
+            TransactionDTO deposit = new TransactionDTO();
+            deposit.setId(UUID.randomUUID());
+            deposit.setType(TransactionType.DEPOSIT);
+            deposit.setAmount(INITIAL_BALANCE);
+            deposit.setAccountId(accountIds[i]);
+            transactionService.createTransaction(deposit);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransferResultDTO transfer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accounts);
+        int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+        TransferRequest request = new TransferRequest();
+        request.setId(UUID.randomUUID());
+        request.setFromAccountId(accountIds[from]);
+        request.setToAccountId(accountIds[to]);
+        request.setAmount(BigDecimal.ONE);
+        return transactionService.transfer(request);
+    }
+}
@@ -0,0 +1,113 @@
+package com.banking.benchmark;
+
+import com.banking.BankingSystemApplication;
+import com.banking.dto.TransactionDTO;
+import com.banking.dto.TransferRequest;
+import com.banking.enums.TransactionType;
+import com.banking.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 1000个并发客户端（创建、转账、按ID查询、列表查询）分别运行在200个平台线程与虚拟线程上时一轮的耗时，
+ * 应用以虚拟线程模式启动；内存H2下负载受CPU与连接池限制，真实数据库延迟下差异更明显
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VirtualThreadBenchmark {
+    private static final int CLIENTS = 1000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int HOT_ACCOUNTS = 4;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private List<UUID> accounts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(BankingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:virtual-thread-benchmark-" + threads,
+                        "--spring.threads.virtual.enabled=true",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        transactionService = context.getBean(TransactionService.class);
+        accounts = new ArrayList<>();
+        for (int i = 0; i < HOT_ACCOUNTS; i++) {
+            UUID accountId = UUID.randomUUID();
+            accounts.add(accountId);
+            transactionService.createTransaction(deposit(accountId, new BigDecimal("1000000000.00")));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void concurrentClients() throws Exception {
+        ExecutorService executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+        try (executor) {
+            List<Future<?>> futures = new ArrayList<>(CLIENTS);
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(executor.submit(this::client));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    private void client() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(HOT_ACCOUNTS);
+        int to = (from + 1 + random.nextInt(HOT_ACCOUNTS - 1)) % HOT_ACCOUNTS;
+
+        TransactionDTO created = transactionService.createTransaction(deposit(accounts.get(from), BigDecimal.ONE));
+        TransferRequest transfer = new TransferRequest();
+        transfer.setId(UUID.randomUUID());
+        transfer.setFromAccountId(accounts.get(from));
+        transfer.setToAccountId(accounts.get(to));
+        transfer.setAmount(BigDecimal.ONE);
+        transactionService.transfer(transfer);
+        transactionService.getTransaction(created.getId());
+        transactionService.transactionList(0, 20);
+    }
+
+    private static TransactionDTO deposit(UUID accountId, BigDecimal amount) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(TransactionType.DEPOSIT);
+        dto.setAmount(amount);
+        dto.setAccountId(accountId);
+        return dto;
+    }
+}
@@ -0,0 +1,86 @@
+package com.banking.cache;
+
+import com.banking.dto.TransactionDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.function.Function;
+
+/**
+ * 以 {@link CompactTransactionCodec} 编码存放 {@link TransactionDTO} 的 Caffeine 缓存
+ * <p>
+ * 写入时编码为 byte[]，读取时解码为新的 DTO，调用方修改返回值不会影响缓存内容。
+ * 无法无损编码的值按原对象存放。容量按 {@link #WEIGHER} 估算的字节数限制，而不是按条目数。
+ */
+public class CompactTransactionCache extends CaffeineCache {
+    /**
+     * 每个条目除值内容以外的固定开销：Caffeine节点与哈希表节点（约80字节）、键字符串（UUID的36个字符，80字节）、byte[] 对象头（16字节）
+     */
+    static final int ENTRY_OVERHEAD = 176;
+    /**
+     * 未编码的 TransactionDTO 的近似大小，按JOL统计（见 CompactCacheBenchmark）：
+     * DTO、2~3个UUID、BigDecimal、两个LocalDateTime及其日期与时间对象、描述字符串
+     */
+    static final int OBJECT_VALUE_SIZE = 344;
+
+    public static final Weigher<Object, Object> WEIGHER = (key, value) ->
+            ENTRY_OVERHEAD + (value instanceof byte[] bytes ? bytes.length : OBJECT_VALUE_SIZE);
+
+    public CompactTransactionCache(String name, Cache<Object, Object> cache) {
+        super(name, cache);
+    }
+
+    /**
+     * 创建带刷新的缓存，builder 需已配置 refreshAfterWrite
+     * <p>
+     * 未命中不经过加载函数（见 {@link #lookup}），仍由 @Cacheable 方法加载并写入；条目写入超过刷新间隔后的下一次读取先返回旧值，
+     * 同时在后台用 {@code loader} 重新读取，loader 返回 null（交易已删除）时移除条目。
+     */
+    public static CompactTransactionCache refreshing(String name, Caffeine<Object, Object> builder,
+                                                     Function<String, TransactionDTO> loader) {
+        return new CompactTransactionCache(name, builder.build(new CacheLoader<Object, Object>() {
+            @Override
+            public Object load(Object key) {
+                return null;
+            }
+
+            @Override
+            public Object reload(Object key, Object oldValue) {
+                TransactionDTO reloaded = loader.apply((String) key);
+                return reloaded == null ? null : encode(reloaded);
+            }
+        }));
+    }
+
+    /**
+     * 始终按 getIfPresent 查询：未命中不调用加载函数，也不计为加载失败；到期的刷新同样会由这次读取触发
+     */
+    @Override
+    protected Object lookup(Object key) {
+        return getNativeCache().getIfPresent(key);
+    }
+
+    @Override
+    protected Object toStoreValue(Object userValue) {
+        if (userValue instanceof TransactionDTO dto) {
+            return encode(dto);
+        }
+        return super.toStoreValue(userValue);
+    }
+
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        if (storeValue instanceof byte[] encoded) {
+            return CompactTransactionCodec.decode(encoded);
+        }
+        return super.fromStoreValue(storeValue);
+    }
+
+    private static Object encode(TransactionDTO dto) {
+        byte[] encoded = CompactTransactionCodec.encode(dto);
+        return encoded != null ? encoded : dto;
+    }
+}
@@ -0,0 +1,136 @@
+package com.banking.cache;
+
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * 缓存用的交易紧凑编码
+ * <p>
+ * 一条交易打包为一个 byte[]：UUID按两个long存储，金额按标度4（与 amount 列一致）的long存储，
+ * 时间按UTC纪元微秒（与 timestamp(6) 列一致）存储，类型按枚举序号存储，描述以UTF-8字节存放在末尾。
+ * 编码是无损的：超出 long 范围、小数位超过4位或含纳秒的值无法编码，{@link #encode} 返回 null，由调用方按原对象缓存。
+ * 解码后的金额标度固定为4，与从数据库读出的值一致。
+ */
+public final class CompactTransactionCodec {
+    private static final int AMOUNT_SCALE = 4;
+
+    private static final int HAS_RELATED_ACCOUNT = 1;
+    private static final int HAS_DESCRIPTION = 1 << 1;
+    private static final int HAS_CREATED_AT = 1 << 2;
+    private static final int HAS_UPDATED_AT = 1 << 3;
+    private static final int HAS_VERSION = 1 << 4;
+
+    private static final TransactionType[] TYPES = TransactionType.values();
+
+    private CompactTransactionCodec() {
+    }
+
+    public static byte[] encode(TransactionDTO dto) {
+        if (dto.getId() == null || dto.getType() == null || dto.getAmount() == null || dto.getAccountId() == null) {
+            return null;
+        }
+        long amount;
+        try {
+            amount = dto.getAmount().setScale(AMOUNT_SCALE).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            return null;
+        }
+        if (!isMicros(dto.getCreatedAt()) || !isMicros(dto.getUpdatedAt())) {
+            return null;
+        }
+
+        byte[] description = dto.getDescription() == null
+                ? null : dto.getDescription().getBytes(StandardCharsets.UTF_8);
+        int flags = (dto.getRelatedAccountId() != null ? HAS_RELATED_ACCOUNT : 0)
+                | (description != null ? HAS_DESCRIPTION : 0)
+                | (dto.getCreatedAt() != null ? HAS_CREATED_AT : 0)
+                | (dto.getUpdatedAt() != null ? HAS_UPDATED_AT : 0)
+                | (dto.getVersion() != null ? HAS_VERSION : 0);
+        int size = 1 + 16 + 1 + 8 + 16
+                + ((flags & HAS_RELATED_ACCOUNT) != 0 ? 16 : 0)
+                + ((flags & HAS_CREATED_AT) != 0 ? 8 : 0)
+                + ((flags & HAS_UPDATED_AT) != 0 ? 8 : 0)
+                + ((flags & HAS_VERSION) != 0 ? 8 : 0)
+                + (description != null ? description.length : 0);
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put((byte) flags);
+        putUuid(buffer, dto.getId());
+        buffer.put((byte) dto.getType().ordinal());
+        buffer.putLong(amount);
+        putUuid(buffer, dto.getAccountId());
+        if (dto.getRelatedAccountId() != null) {
+            putUuid(buffer, dto.getRelatedAccountId());
+        }
+        if (dto.getCreatedAt() != null) {
+            buffer.putLong(toEpochMicros(dto.getCreatedAt()));
+        }
+        if (dto.getUpdatedAt() != null) {
+            buffer.putLong(toEpochMicros(dto.getUpdatedAt()));
+        }
+        if (dto.getVersion() != null) {
+            buffer.putLong(dto.getVersion());
+        }
+        // 描述放在最后，长度即剩余字节数
+        if (description != null) {
+            buffer.put(description);
+        }
+        return buffer.array();
+    }
+
+    public static TransactionDTO decode(byte[] value) {
+        ByteBuffer buffer = ByteBuffer.wrap(value);
+        int flags = buffer.get();
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(getUuid(buffer));
+        dto.setType(TYPES[buffer.get()]);
+        dto.setAmount(BigDecimal.valueOf(buffer.getLong(), AMOUNT_SCALE));
+        dto.setAccountId(getUuid(buffer));
+        if ((flags & HAS_RELATED_ACCOUNT) != 0) {
+            dto.setRelatedAccountId(getUuid(buffer));
+        }
+        if ((flags & HAS_CREATED_AT) != 0) {
+            dto.setCreatedAt(fromEpochMicros(buffer.getLong()));
+        }
+        if ((flags & HAS_UPDATED_AT) != 0) {
+            dto.setUpdatedAt(fromEpochMicros(buffer.getLong()));
+        }
+        if ((flags & HAS_VERSION) != 0) {
+            dto.setVersion(buffer.getLong());
+        }
+        if ((flags & HAS_DESCRIPTION) != 0) {
+            dto.setDescription(new String(value, buffer.position(), buffer.remaining(), StandardCharsets.UTF_8));
+        }
+        return dto;
+    }
+
+    private static boolean isMicros(LocalDateTime time) {
+        return time == null || time.getNano() % 1000 == 0;
+    }
+
+    private static long toEpochMicros(LocalDateTime time) {
+        return ChronoUnit.MICROS.between(LocalDateTime.of(1970, 1, 1, 0, 0), time);
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
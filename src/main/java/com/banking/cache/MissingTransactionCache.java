@@ -0,0 +1,79 @@
+package com.banking.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 查询不存在的交易ID的负缓存，存放在名为 missingTransactions 的缓存中，重复查询同一不存在的ID不再访问数据库
+ * <p>
+ * 新建交易提交后递增 {@code epoch} 并移除对应ID。查询方在读库前记下 epoch，写入负缓存后若 epoch 已变化则撤销写入，
+ * 这样读库未命中与并发创建交错时不会把刚创建的交易记为不存在。
+ * 其他实例创建的交易无法通知到本实例，由负缓存较短的过期时间（默认5秒）兜底。
+ */
+@Component
+public class MissingTransactionCache {
+    public static final String NAME = "missingTransactions";
+
+    private final CacheManager cacheManager;
+    private final AtomicLong epoch = new AtomicLong();
+
+    public MissingTransactionCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    public boolean isMissing(UUID id) {
+        Cache cache = cacheManager.getCache(NAME);
+        return cache != null && cache.get(id.toString()) != null;
+    }
+
+    /**
+     * 读库前调用，返回值传给 {@link #markMissing}
+     */
+    public long epoch() {
+        return epoch.get();
+    }
+
+    public void markMissing(UUID id, long observedEpoch) {
+        Cache cache = cacheManager.getCache(NAME);
+        if (cache == null) {
+            return;
+        }
+        cache.put(id.toString(), Boolean.TRUE);
+        if (epoch.get() != observedEpoch) {
+            // 读库之后有交易被创建，无法确定是否就是该ID，撤销本次写入
+            cache.evict(id.toString());
+        }
+    }
+
+    /**
+     * 新建交易后调用；在事务内调用时等提交后再生效，否则提交前的并发查询仍可能写入负缓存
+     */
+    public void onCreated(Collection<UUID> ids) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(ids);
+                }
+            });
+        } else {
+            evict(ids);
+        }
+    }
+
+    private void evict(Collection<UUID> ids) {
+        // 先递增再移除：与 markMissing 的写入后校验配合，任意交错下都不会留下过期的负缓存条目
+        epoch.incrementAndGet();
+        Cache cache = cacheManager.getCache(NAME);
+        if (cache != null) {
+            ids.forEach(id -> cache.evict(id.toString()));
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.banking.cache;
+
+import com.banking.dto.TransactionDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongSupplier;
+
+/**
+ * 堆外热点交易存储
+ * <p>
+ * 以直接内存（{@link ByteBuffer#allocateDirect}）实现的开放寻址（线性探测）哈希表，键为交易ID的两个long，
+ * 值为 {@link CompactTransactionCodec} 编码，存放在固定大小的槽中。条目不是Java对象，数量再多也不增加GC扫描与复制的负担。
+ * <p>
+ * 表按键的哈希分为若干段，每段一把 {@link StampedLock}：读取先走乐观读，校验失败再加读锁；写入加写锁。
+ * 每段最多装填75%的槽，装满后按CLOCK算法淘汰：指针扫过的条目若被访问过则清除引用位并跳过，否则淘汰。
+ * 删除采用反向移位，不留墓碑，探测链长度不随删除累积。
+ * <p>
+ * 槽布局：[long 高位][long 低位][byte 占用][byte 引用位][short 值长度][long 写入时间][值]；编码后超过槽容量的交易不存放。
+ * 写入超过 maxAge 的条目按未命中处理，回填时被覆盖：其他实例的更新、删除不会同步到本存储，最多在 maxAge 内读到旧值。
+ */
+public class OffHeapTransactionStore {
+    private static final int SEGMENTS = 64;
+    private static final int SEGMENT_SHIFT = Long.SIZE - Integer.numberOfTrailingZeros(SEGMENTS);
+    private static final int STATE = 16;
+    private static final int REFERENCED = 17;
+    private static final int LENGTH = 18;
+    private static final int WRITTEN_AT = 20;
+    private static final int HEADER = 28;
+    private static final double MAX_LOAD = 0.75;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final int recordSize;
+    private final long capacityBytes;
+    private final long maxAgeNanos;
+    private final LongSupplier nanoClock;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter rejected;
+
+    /**
+     * @param maxAge 条目写入后的最长有效期，为0时不过期
+     */
+    public OffHeapTransactionStore(long maxMemory, int recordSize, Duration maxAge, MeterRegistry meterRegistry) {
+        this(maxMemory, recordSize, maxAge, meterRegistry, System::nanoTime);
+    }
+
+    OffHeapTransactionStore(long maxMemory, int recordSize, Duration maxAge, MeterRegistry meterRegistry,
+                            LongSupplier nanoClock) {
+        if (recordSize < HEADER + 64) {
+            throw new IllegalArgumentException("记录大小不能小于 " + (HEADER + 64) + " 字节");
+        }
+        long slotsPerSegment = Math.min(Integer.MAX_VALUE / recordSize, maxMemory / recordSize / SEGMENTS);
+        if (slotsPerSegment < 2) {
+            throw new IllegalArgumentException("内存预算过小，至少需要 " + 2L * recordSize * SEGMENTS + " 字节");
+        }
+        this.recordSize = recordSize;
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment((int) slotsPerSegment);
+        }
+        this.capacityBytes = slotsPerSegment * recordSize * SEGMENTS;
+        this.maxAgeNanos = maxAge.isZero() ? Long.MAX_VALUE : maxAge.toNanos();
+        this.nanoClock = nanoClock;
+
+        this.hits = Counter.builder("banking.offheap.requests").tag("result", "hit")
+                .description("堆外交易存储的查询次数").register(meterRegistry);
+        this.misses = Counter.builder("banking.offheap.requests").tag("result", "miss")
+                .description("堆外交易存储的查询次数").register(meterRegistry);
+        this.evictions = Counter.builder("banking.offheap.evictions")
+                .description("堆外交易存储按CLOCK淘汰的条目数").register(meterRegistry);
+        this.rejected = Counter.builder("banking.offheap.rejected")
+                .description("编码后超过槽容量而未存放的交易数").register(meterRegistry);
+        Gauge.builder("banking.offheap.entries", this, OffHeapTransactionStore::size)
+                .description("堆外交易存储的条目数").register(meterRegistry);
+        Gauge.builder("banking.offheap.memory", this, store -> store.capacityBytes)
+                .description("堆外交易存储占用的直接内存").baseUnit("bytes").register(meterRegistry);
+    }
+
+    public Optional<TransactionDTO> get(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        byte[] value = segmentFor(hash).read(msb, lsb, hash, nanoClock.getAsLong());
+        if (value == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(CompactTransactionCodec.decode(value));
+    }
+
+    /**
+     * 写入或覆盖；无法存放的交易同时移除旧值，保证不会读到过期数据
+     */
+    public void put(TransactionDTO transaction) {
+        write(transaction, true);
+    }
+
+    /**
+     * 仅在不存在时写入，用于查询未命中后的回填，不会覆盖并发写入的较新值
+     */
+    public void putIfAbsent(TransactionDTO transaction) {
+        write(transaction, false);
+    }
+
+    public void remove(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        segmentFor(hash).remove(msb, lsb, hash);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    public long capacityBytes() {
+        return capacityBytes;
+    }
+
+    private void write(TransactionDTO transaction, boolean overwrite) {
+        byte[] value = CompactTransactionCodec.encode(transaction);
+        if (value == null || value.length > recordSize - HEADER) {
+            rejected.increment();
+            remove(transaction.getId());
+            return;
+        }
+        long msb = transaction.getId().getMostSignificantBits();
+        long lsb = transaction.getId().getLeastSignificantBits();
+        long hash = hash(msb, lsb);
+        segmentFor(hash).write(msb, lsb, hash, value, overwrite, nanoClock.getAsLong());
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments[(int) (hash >>> SEGMENT_SHIFT)];
+    }
+
+    /**
+     * UUID的随机位分布已经较均匀，这里再做一次murmur3终结混合，使高位（选段）与低位（选槽）相互独立
+     */
+    private static long hash(long msb, long lsb) {
+        long h = msb ^ Long.rotateLeft(lsb, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private final class Segment {
+        private final ByteBuffer buffer;
+        private final int slots;
+        private final int maxEntries;
+        private final StampedLock lock = new StampedLock();
+        // size 与 hand 只在写锁内修改
+        private volatile int size;
+        private int hand;
+
+        Segment(int slots) {
+            this.buffer = ByteBuffer.allocateDirect(slots * recordSize);
+            this.slots = slots;
+            this.maxEntries = Math.max(1, (int) (slots * MAX_LOAD));
+        }
+
+        byte[] read(long msb, long lsb, long hash, long now) {
+            long stamp = lock.tryOptimisticRead();
+            int slot = find(msb, lsb, hash);
+            byte[] value = slot < 0 || expired(slot, now) ? null : copy(slot);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    slot = find(msb, lsb, hash);
+                    value = slot < 0 || expired(slot, now) ? null : copy(slot);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            if (value != null) {
+                // 引用位在锁外设置，与淘汰并发时最多让一个条目多留或早走一轮，不影响读到的值
+                buffer.put(slot * recordSize + REFERENCED, (byte) 1);
+            }
+            return value;
+        }
+
+        void write(long msb, long lsb, long hash, byte[] value, boolean overwrite, long now) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = find(msb, lsb, hash);
+                // 已过期的条目视同不存在，回填时覆盖
+                if (slot >= 0 && !overwrite && !expired(slot, now)) {
+                    return;
+                }
+                if (slot < 0) {
+                    if (size >= maxEntries) {
+                        evictOne();
+                    }
+                    slot = home(hash);
+                    while (buffer.get(slot * recordSize + STATE) != 0) {
+                        slot = next(slot);
+                    }
+                    int base = slot * recordSize;
+                    buffer.putLong(base, msb);
+                    buffer.putLong(base + 8, lsb);
+                    buffer.put(base + STATE, (byte) 1);
+                    buffer.put(base + REFERENCED, (byte) 0);
+                    size++;
+                }
+                int base = slot * recordSize;
+                buffer.putShort(base + LENGTH, (short) value.length);
+                buffer.putLong(base + WRITTEN_AT, now);
+                buffer.put(base + HEADER, value);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void remove(long msb, long lsb, long hash) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = find(msb, lsb, hash);
+                if (slot >= 0) {
+                    delete(slot);
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * 乐观读期间槽可能被并发移动，探测次数以槽数为上限，读到的长度越界时按未命中处理，随后的校验会失败并重读
+         */
+        private int find(long msb, long lsb, long hash) {
+            int slot = home(hash);
+            for (int probes = 0; probes < slots; probes++) {
+                int base = slot * recordSize;
+                if (buffer.get(base + STATE) == 0) {
+                    return -1;
+                }
+                if (buffer.getLong(base) == msb && buffer.getLong(base + 8) == lsb) {
+                    return slot;
+                }
+                slot = next(slot);
+            }
+            return -1;
+        }
+
+        private boolean expired(int slot, long now) {
+            return now - buffer.getLong(slot * recordSize + WRITTEN_AT) > maxAgeNanos;
+        }
+
+        private byte[] copy(int slot) {
+            int base = slot * recordSize;
+            int length = buffer.getShort(base + LENGTH);
+            if (length <= 0 || length > recordSize - HEADER) {
+                return null;
+            }
+            byte[] value = new byte[length];
+            buffer.get(base + HEADER, value);
+            return value;
+        }
+
+        /**
+         * CLOCK淘汰：至少存在一个条目，指针最多绕两圈必然找到引用位为0的条目
+         */
+        private void evictOne() {
+            while (true) {
+                int base = hand * recordSize;
+                if (buffer.get(base + STATE) != 0) {
+                    if (buffer.get(base + REFERENCED) != 0) {
+                        buffer.put(base + REFERENCED, (byte) 0);
+                    } else {
+                        // 反向移位可能把后面的条目移入当前槽，指针停在原地，下次淘汰时检查它
+                        delete(hand);
+                        evictions.increment();
+                        return;
+                    }
+                }
+                hand = next(hand);
+            }
+        }
+
+        /**
+         * 反向移位删除：把探测链上后续可以前移的条目移入空出的槽，直到遇到空槽
+         */
+        private void delete(int slot) {
+            int hole = slot;
+            int current = slot;
+            while (true) {
+                current = next(current);
+                int base = current * recordSize;
+                if (buffer.get(base + STATE) == 0) {
+                    break;
+                }
+                int home = home(hash(buffer.getLong(base), buffer.getLong(base + 8)));
+                // 条目的起始槽位于 (hole, current] 的循环区间内时不能前移，否则查找时会先遇到空槽
+                boolean stays = hole <= current
+                        ? home > hole && home <= current
+                        : home > hole || home <= current;
+                if (!stays) {
+                    buffer.put(hole * recordSize, buffer, base, recordSize);
+                    hole = current;
+                }
+            }
+            buffer.put(hole * recordSize + STATE, (byte) 0);
+            size--;
+        }
+
+        private int home(long hash) {
+            return (int) ((hash & Long.MAX_VALUE) % slots);
+        }
+
+        private int next(int slot) {
+            return slot + 1 == slots ? 0 : slot + 1;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.banking.cache;
+
+import com.banking.dto.TransactionCursor;
+import com.banking.dto.TransactionDTO;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 基于代数(generation)的交易列表缓存
+ * <p>
+ * 列表按 (created_at, id) 排序，新交易通常追加在末尾，因此：
+ * <ul>
+ *     <li>更新、删除会改变任意页内容，递增 {@code generation}，所有旧页自然失效</li>
+ *     <li>新增只会影响末尾未满的页，递增 {@code appendGeneration}，已满的页继续命中</li>
+ *     <li>但 created_at 在提交前生成，并发写入与预写日志的延迟写库都会让较早的行较晚提交；
+ *     新增行排在已缓存满页的最后一行之前时会插入该页并使其后各页错位，此时按更新处理，递增 {@code generation}</li>
+ * </ul>
+ * 失效只是递增计数器，旧代的条目由容量和过期策略淘汰；同一键的并发未命中合并为一次数据库加载。
+ * <p>
+ * 合并通过 putIfAbsent 占位 future 实现，数据库加载在映射锁之外执行，等待者阻塞在 future 上；
+ * 不使用同步缓存的 {@code get(key, loader)}，因为其加载在 ConcurrentHashMap 的 synchronized 桶内执行，会钉住虚拟线程的载体线程。
+ * <p>
+ * 容量与过期策略由 {@code banking.cache.specs.transactionList} 配置，见 {@link com.banking.config.CacheConfig}。
+ */
+public class TransactionListCache {
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong appendGeneration = new AtomicLong();
+    /**
+     * 已缓存满页中最大的末行排序键，新增行低于它时可能落入已缓存的满页
+     */
+    private final AtomicReference<TransactionCursor> fullPageHighWater = new AtomicReference<>();
+
+    private final AsyncCache<String, List<TransactionDTO>> cache;
+
+    public TransactionListCache() {
+        this(Caffeine.newBuilder()
+                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .maximumSize(1000)
+                .recordStats());
+    }
+
+    public TransactionListCache(Caffeine<Object, Object> builder) {
+        this.cache = builder.buildAsync();
+    }
+
+    public List<TransactionDTO> get(int page, int size, Supplier<List<TransactionDTO>> loader) {
+        long currentGeneration = generation.get();
+        String fullPageKey = currentGeneration + ":page:" + page + ":size:" + size;
+        CompletableFuture<List<TransactionDTO>> fullPage = cache.getIfPresent(fullPageKey);
+        if (fullPage != null) {
+            return join(fullPage);
+        }
+
+        long currentAppendGeneration = appendGeneration.get();
+        String key = currentGeneration + ":" + currentAppendGeneration + ":page:" + page + ":size:" + size;
+        CompletableFuture<List<TransactionDTO>> promise = new CompletableFuture<>();
+        CompletableFuture<List<TransactionDTO>> inFlight = cache.asMap().putIfAbsent(key, promise);
+        if (inFlight != null) {
+            // 已有线程在加载同一页，等待其结果而不是重复查库
+            return join(inFlight);
+        }
+
+        try {
+            List<TransactionDTO> result = loader.get();
+            promise.complete(result);
+            if (result.size() == size && raiseHighWater(result.get(size - 1), currentAppendGeneration)) {
+                // 已满的页不受排在其后的追加影响，以不含appendGeneration的键保存
+                cache.put(fullPageKey, promise);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            // 失败的future会被Caffeine自动移除，等待者收到同一异常
+            promise.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 只读取当前代已缓存（或正在加载）的页，未命中时不加载也不占位，供结果不能写入缓存的读取使用
+     */
+    public Optional<List<TransactionDTO>> getIfPresent(int page, int size) {
+        long currentGeneration = generation.get();
+        CompletableFuture<List<TransactionDTO>> cached =
+                cache.getIfPresent(currentGeneration + ":page:" + page + ":size:" + size);
+        if (cached == null) {
+            cached = cache.getIfPresent(
+                    currentGeneration + ":" + appendGeneration.get() + ":page:" + page + ":size:" + size);
+        }
+        return cached == null ? Optional.empty() : Optional.of(join(cached));
+    }
+
+    /**
+     * 新增交易后调用，传入新增行的排序键；通常只使末尾未满的页失效，新增行排在已缓存满页之内时使所有页失效
+     */
+    public void onAppend(Collection<TransactionCursor> appended) {
+        afterCommit(() -> {
+            // 先递增appendGeneration再读取高水位，与 raiseHighWater 的先写后读配对：
+            // 并发加载满页的读者要么看到追加而不缓存，要么其高水位在这里可见
+            appendGeneration.incrementAndGet();
+            TransactionCursor highWater = fullPageHighWater.get();
+            if (highWater != null && appended.stream()
+                    .anyMatch(key -> key.createdAt() == null || key.compareTo(highWater) < 0)) {
+                generation.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * 更新或删除交易后调用，使所有页失效
+     */
+    public void invalidateAll() {
+        afterCommit(generation::incrementAndGet);
+    }
+
+    public AsyncCache<String, List<TransactionDTO>> getCache() {
+        return cache;
+    }
+
+    /**
+     * 记录满页末行的排序键；加载期间发生过追加时返回false，该页可能缺少排在其中的新行，不以满页键保存
+     */
+    private boolean raiseHighWater(TransactionDTO last, long loadedAppendGeneration) {
+        if (last.getCreatedAt() == null || last.getId() == null) {
+            return false;
+        }
+        TransactionCursor key = new TransactionCursor(last.getCreatedAt(), last.getId());
+        fullPageHighWater.accumulateAndGet(key, (a, b) -> a == null || a.compareTo(b) < 0 ? b : a);
+        return appendGeneration.get() == loadedAppendGeneration;
+    }
+
+    private void afterCommit(Runnable action) {
+        // 在事务内写入时必须等提交后再失效，否则并发读者可能把未提交前的旧数据缓存到新代中
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static List<TransactionDTO> join(CompletableFuture<List<TransactionDTO>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
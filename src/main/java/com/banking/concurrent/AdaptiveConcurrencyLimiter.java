@@ -0,0 +1,113 @@
+package com.banking.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按延迟自适应的并发上限（梯度算法，参照 Netflix concurrency-limits 的 Gradient2）
+ * <p>
+ * 每个时间窗口结束时比较窗口内的平均耗时（短期）与长期平均耗时：短期耗时超过长期的 {@code tolerance} 倍说明请求开始排队，
+ * 按比例收缩上限；否则上限加上 sqrt(上限) 的排队余量缓慢增长。只有窗口内并发曾达到上限一半时才增长，
+ * 避免负载很低时上限无限膨胀。长期耗时以慢速指数平均跟随短期耗时，持续过载时不会一直下调。
+ * <p>
+ * 获取与释放只有原子计数操作；上限的重新计算由跨过窗口边界的那次释放通过CAS独占执行，不阻塞其他请求。
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_RTT_WEIGHT = 0.05;
+    private static final int MIN_SAMPLES = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rttSum = new LongAdder();
+    private final LongAdder samples = new LongAdder();
+    private final AtomicLong windowStart;
+    private volatile int limit;
+    private volatile boolean saturated;
+    // 只在 updateLimit 中读写，窗口CAS保证同一时刻只有一个线程执行
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, long windowNanos) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("并发上限需满足 1 <= min <= initial <= max");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = windowNanos;
+        this.windowStart = new AtomicLong(System.nanoTime());
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            int currentLimit = limit;
+            if (current >= currentLimit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                if (!saturated && (current + 1) * 2 >= currentLimit) {
+                    saturated = true;
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 请求结束时调用，rttNanos 为从取得许可到结束的耗时
+     */
+    public void release(long nowNanos, long rttNanos) {
+        inFlight.decrementAndGet();
+        rttSum.add(rttNanos);
+        samples.increment();
+        long start = windowStart.get();
+        if (nowNanos - start >= windowNanos && windowStart.compareAndSet(start, nowNanos)) {
+            updateLimit();
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void updateLimit() {
+        long count = samples.sum();
+        if (count < MIN_SAMPLES) {
+            // 样本太少时累积到下一个窗口
+            return;
+        }
+        long sum = rttSum.sumThenReset();
+        samples.add(-count);
+        double shortRtt = (double) sum / count;
+        longRtt = longRtt == 0 ? shortRtt : longRtt * (1 - LONG_RTT_WEIGHT) + shortRtt * LONG_RTT_WEIGHT;
+        if (longRtt > shortRtt * 2) {
+            // 负载下降后长期耗时向下追赶得更快
+            longRtt *= 0.95;
+        }
+
+        int current = limit;
+        boolean queueing = shortRtt > longRtt * TOLERANCE;
+        if (!saturated && !queueing) {
+            return;
+        }
+        saturated = false;
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        double smoothed = current * (1 - SMOOTHING) + target * SMOOTHING;
+        long next = Math.round(smoothed);
+        if (!queueing) {
+            // 上限较小时平滑后的增量不足1，取整会停在原值
+            next = Math.max(next, current + 1);
+        }
+        limit = (int) Math.max(minLimit, Math.min(maxLimit, next));
+    }
+}
@@ -0,0 +1,84 @@
+package com.banking.concurrent;
+
+import com.banking.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 有界执行器：固定数量的工作线程加有界队列，过载时拒绝新任务而不是无限排队
+ * <p>
+ * 两种情况下卸载负载，返回的 future 以 {@link ServiceOverloadedException} 失败：
+ * <ul>
+ *     <li>队列已满：提交时立即拒绝，不占用任何线程</li>
+ *     <li>排队超过 {@code maxQueueTime}：开始执行前放弃，客户端多半已超时，执行了也是浪费数据库连接</li>
+ * </ul>
+ * 调用方据此返回503与 Retry-After，而不是让请求堆积到所有线程与连接都被占满。
+ */
+public class LoadSheddingExecutor implements AutoCloseable {
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueNanos;
+    private final Duration retryAfter;
+    private final Counter queueFull;
+    private final Counter queueTimeout;
+    private final Timer queueWait;
+
+    public LoadSheddingExecutor(String name, int threads, int queueCapacity, Duration maxQueueTime,
+                                Duration retryAfter, ThreadFactory threadFactory, MeterRegistry meterRegistry) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.maxQueueNanos = maxQueueTime.toNanos();
+        this.retryAfter = retryAfter;
+
+        this.queueFull = Counter.builder("banking.executor.shed").tag("executor", name).tag("reason", "queue_full")
+                .description("因过载被拒绝的任务数").register(meterRegistry);
+        this.queueTimeout = Counter.builder("banking.executor.shed").tag("executor", name).tag("reason", "queue_timeout")
+                .description("因过载被拒绝的任务数").register(meterRegistry);
+        this.queueWait = Timer.builder("banking.executor.queue.wait").tag("executor", name)
+                .description("任务在队列中的等待时间").publishPercentileHistogram().register(meterRegistry);
+        Gauge.builder("banking.executor.queue.size", executor, e -> e.getQueue().size()).tag("executor", name)
+                .description("排队中的任务数").register(meterRegistry);
+        Gauge.builder("banking.executor.active", executor, ThreadPoolExecutor::getActiveCount).tag("executor", name)
+                .description("执行中的任务数").register(meterRegistry);
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long waited = System.nanoTime() - enqueuedAt;
+                queueWait.record(waited, TimeUnit.NANOSECONDS);
+                if (waited > maxQueueNanos) {
+                    queueTimeout.increment();
+                    future.completeExceptionally(new ServiceOverloadedException(retryAfter));
+                    return;
+                }
+                try {
+                    future.complete(task.get());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queueFull.increment();
+            future.completeExceptionally(new ServiceOverloadedException(retryAfter));
+        }
+        return future;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,64 @@
+package com.banking.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongFunction;
+
+/**
+ * 无锁环形缓冲区：写入方以一次 getAndIncrement 领取全局递增的序号，再写入 序号 &amp; mask 的槽位；
+ * 任意多个读取方各自持有游标按序号读取，互不影响，也不会阻塞写入方。
+ * <p>
+ * 槽位同时保存序号，读取时据此区分三种情况：序号相符即为所需元素；槽位中仍是更早的序号说明已领取序号的写入方还没写完；
+ * 槽位中是更新的序号说明读取方落后超过一圈，元素已被覆盖。
+ */
+public final class SequencedRingBuffer<T> {
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+
+    public SequencedRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("环形缓冲区容量必须是2的幂: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * 写入一个元素，factory 以领取到的序号构造元素，返回该序号
+     */
+    public long publish(LongFunction<T> factory) {
+        long sequence = nextSequence.getAndIncrement();
+        slots.set((int) (sequence & mask), new Slot<>(sequence, factory.apply(sequence)));
+        return sequence;
+    }
+
+    /**
+     * 返回序号对应的元素；尚未写完或已被覆盖时返回 null，两者可由 {@link #oldestSequence()} 区分
+     */
+    public T get(long sequence) {
+        Slot<T> slot = slots.get((int) (sequence & mask));
+        return slot != null && slot.sequence() == sequence ? slot.value() : null;
+    }
+
+    /**
+     * 下一个将被领取的序号，即已领取序号的上界（不含）
+     */
+    public long nextSequence() {
+        return nextSequence.get();
+    }
+
+    /**
+     * 仍保留在缓冲区中的最小序号，更早的元素已被覆盖
+     */
+    public long oldestSequence() {
+        return Math.max(0, nextSequence.get() - slots.length());
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    private record Slot<T>(long sequence, T value) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.banking.concurrent;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶，按GCRA（通用信元速率算法）实现：只保存一个"理论到达时间"，而不是令牌数与上次补充时间两个字段，
+ * 一次CAS即可完成判断与扣减。速率与突发容量由调用方传入，同一限流器的所有桶共享，每个桶只占一个 long。
+ */
+public final class TokenBucket {
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(long nowNanos) {
+        // 新桶的突发容量是满的
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * 尝试取一个令牌
+     *
+     * @param intervalNanos  生成一个令牌的间隔，即 1/速率
+     * @param toleranceNanos 允许透支的时长，即 突发容量 × intervalNanos
+     * @return 0 表示已取得；否则为至少还需等待的纳秒数
+     */
+    public long tryAcquire(long nowNanos, long intervalNanos, long toleranceNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            // nanoTime 可能为负且会回绕，只比较差值
+            long next = (arrival - nowNanos > 0 ? arrival : nowNanos) + intervalNanos;
+            long wait = next - nowNanos - toleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 归还一个已取得的令牌，用于取得令牌后请求仍被拒绝的情况
+     */
+    public void refund(long intervalNanos) {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+}
@@ -0,0 +1,90 @@
+package com.banking.concurrent;
+
+import com.google.common.util.concurrent.Striped;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+/**
+ * 按交易ID与按账户ID的本地条带锁
+ * <p>
+ * 本地条带锁只是单实例内的快速路径，用于减少同一JVM内的数据库冲突；
+ * 多实例间的正确性由主键约束、乐观锁版本号和条件更新保证，关闭后行为依然正确。
+ * 同时需要两类锁时先取账户锁再取交易ID锁，只取交易ID锁的路径不会与之成环
+ */
+@Component
+public class TransactionLocks {
+    private final Striped<Lock> transactionStripes = Striped.lock(2048);
+    private final Striped<Lock> accountStripes = Striped.lock(2048);
+    private final boolean enabled;
+    private final LockMetrics transactionMetrics;
+    private final LockMetrics accountMetrics;
+
+    public TransactionLocks(@Value("${banking.locking.local-stripes:true}") boolean enabled,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.transactionMetrics = LockMetrics.register(meterRegistry, "transaction");
+        this.accountMetrics = LockMetrics.register(meterRegistry, "account");
+    }
+
+    /**
+     * 持有这些交易ID的条带锁执行 action
+     */
+    public <T> T withTransactions(Iterable<UUID> transactionIds, Supplier<T> action) {
+        return withLocks(transactionStripes, transactionMetrics, transactionIds, action);
+    }
+
+    public void withTransactions(Iterable<UUID> transactionIds, Runnable action) {
+        withTransactions(transactionIds, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 持有这些账户的条带锁执行 action
+     */
+    public <T> T withAccounts(Iterable<UUID> accountIds, Supplier<T> action) {
+        return withLocks(accountStripes, accountMetrics, accountIds, action);
+    }
+
+    private <T> T withLocks(Striped<Lock> stripes, LockMetrics metrics, Iterable<UUID> keys, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        // bulkGet按条带顺序返回锁，所有调用按同一顺序加锁，并发的多键加锁之间不会死锁
+        List<Lock> locks = new ArrayList<>();
+        stripes.bulkGet(keys).forEach(locks::add);
+        long start = System.nanoTime();
+        locks.forEach(Lock::lock);
+        long acquiredAt = System.nanoTime();
+        metrics.waitTime().record(acquiredAt - start, TimeUnit.NANOSECONDS);
+        try {
+            return action.get();
+        } finally {
+            locks.forEach(Lock::unlock);
+            metrics.holdTime().record(System.nanoTime() - acquiredAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 条带锁的等待时间与持有时间，按锁类型打标签
+     */
+    private record LockMetrics(Timer waitTime, Timer holdTime) {
+        static LockMetrics register(MeterRegistry registry, String lock) {
+            return new LockMetrics(
+                    Timer.builder("banking.lock.wait").tag("lock", lock)
+                            .description("获取条带锁的等待时间").publishPercentileHistogram().register(registry),
+                    Timer.builder("banking.lock.hold").tag("lock", lock)
+                            .description("持有条带锁的时间").publishPercentileHistogram().register(registry));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.banking.concurrent;
+
+import com.banking.exception.RateLimitExceededException;
+import com.banking.exception.ServiceOverloadedException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 写接口的准入控制，在调用服务之前执行：
+ * <ol>
+ *     <li>按账户限流：每个账户一个 {@link TokenBucket}，每个请求对涉及的每个账户各取一个令牌，超出返回429；
+ *     令牌桶存放在按容量淘汰、空闲过期的Caffeine缓存中，账户再多内存也有上限</li>
+ *     <li>全局并发上限：{@link AdaptiveConcurrencyLimiter} 按写入耗时自适应调整，超出返回503</li>
+ * </ol>
+ * 先按账户限流，刷写的客户端在占用并发名额之前就被拒绝；请求最终被拒绝时归还已取得的令牌，
+ * 被拒绝的批量请求不会消耗其中其他账户的配额。取得的 {@link Permit} 必须在请求结束时关闭。
+ */
+@Component
+public class WriteRateLimiter {
+    private static final Permit UNLIMITED = new Permit(null, 0);
+
+    private final boolean enabled;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final Duration overloadRetryAfter;
+    private final Cache<UUID, TokenBucket> buckets;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final Counter accountRejections;
+    private final Counter concurrencyRejections;
+
+    public WriteRateLimiter(@Value("${banking.ratelimit.enabled:true}") boolean enabled,
+                            @Value("${banking.ratelimit.account.rate:50}") double ratePerSecond,
+                            @Value("${banking.ratelimit.account.burst:100}") int burst,
+                            @Value("${banking.ratelimit.account.max-accounts:100000}") long maxAccounts,
+                            @Value("${banking.ratelimit.account.idle-timeout:10m}") Duration idleTimeout,
+                            @Value("${banking.ratelimit.concurrency.initial-limit:32}") int initialLimit,
+                            @Value("${banking.ratelimit.concurrency.min-limit:4}") int minLimit,
+                            @Value("${banking.ratelimit.concurrency.max-limit:256}") int maxLimit,
+                            @Value("${banking.ratelimit.concurrency.window:PT0.5S}") Duration window,
+                            @Value("${banking.ratelimit.concurrency.retry-after:PT1S}") Duration overloadRetryAfter,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        this.toleranceNanos = intervalNanos * burst;
+        this.overloadRetryAfter = overloadRetryAfter;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxAccounts)
+                .expireAfterAccess(idleTimeout)
+                // 维护工作（重排访问顺序、过期清理）在调用线程上顺带完成，不切换到公共线程池
+                .executor(Runnable::run)
+                .build();
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, window.toNanos());
+
+        this.accountRejections = Counter.builder("banking.ratelimit.rejected").tag("limiter", "account")
+                .description("被准入控制拒绝的写请求数").register(meterRegistry);
+        this.concurrencyRejections = Counter.builder("banking.ratelimit.rejected").tag("limiter", "concurrency")
+                .description("被准入控制拒绝的写请求数").register(meterRegistry);
+        Gauge.builder("banking.ratelimit.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("当前自适应并发上限").register(meterRegistry);
+        Gauge.builder("banking.ratelimit.concurrency.inflight", concurrencyLimiter,
+                        AdaptiveConcurrencyLimiter::getInFlight)
+                .description("执行中的写请求数").register(meterRegistry);
+        Gauge.builder("banking.ratelimit.accounts", buckets, Cache::estimatedSize)
+                .description("保存令牌桶的账户数").register(meterRegistry);
+    }
+
+    public Permit acquire(UUID accountId) {
+        return acquire(accountId == null ? List.<UUID>of() : List.of(accountId));
+    }
+
+    /**
+     * 批量写入对涉及的每个不同账户各取一个令牌；任一账户超限或并发名额不足时归还已取得的令牌
+     */
+    public Permit acquire(Collection<UUID> accountIds) {
+        if (!enabled) {
+            return UNLIMITED;
+        }
+        long now = System.nanoTime();
+        List<TokenBucket> taken = new ArrayList<>(accountIds.size());
+        try {
+            for (UUID accountId : new LinkedHashSet<>(accountIds)) {
+                taken.add(takeToken(accountId, now));
+            }
+            return admit(now);
+        } catch (RuntimeException e) {
+            taken.forEach(bucket -> bucket.refund(intervalNanos));
+            throw e;
+        }
+    }
+
+    private TokenBucket takeToken(UUID accountId, long now) {
+        TokenBucket bucket = buckets.getIfPresent(accountId);
+        if (bucket == null) {
+            bucket = buckets.get(accountId, id -> new TokenBucket(now));
+        }
+        long wait = bucket.tryAcquire(now, intervalNanos, toleranceNanos);
+        if (wait > 0) {
+            accountRejections.increment();
+            throw new RateLimitExceededException(accountId, Duration.ofNanos(wait));
+        }
+        return bucket;
+    }
+
+    private Permit admit(long now) {
+        if (!concurrencyLimiter.tryAcquire()) {
+            concurrencyRejections.increment();
+            throw new ServiceOverloadedException(overloadRetryAfter);
+        }
+        return new Permit(concurrencyLimiter, now);
+    }
+
+    /**
+     * 并发名额，关闭时归还并以持有时长作为一次延迟样本
+     */
+    public static final class Permit implements AutoCloseable {
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final long acquiredAt;
+
+        private Permit(AdaptiveConcurrencyLimiter limiter, long acquiredAt) {
+            this.limiter = limiter;
+            this.acquiredAt = acquiredAt;
+        }
+
+        @Override
+        public void close() {
+            if (limiter != null) {
+                long now = System.nanoTime();
+                limiter.release(now, now - acquiredAt);
+            }
+        }
+    }
+}
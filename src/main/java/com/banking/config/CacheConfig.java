@@ -1,27 +1,64 @@
 package com.banking.config;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
+import com.banking.cache.CompactTransactionCache;
+import com.banking.cache.MissingTransactionCache;
+import com.banking.cache.TransactionListCache;
+import com.banking.mapper.TransactionMapper;
+import com.banking.replica.ReadConsistency;
+import com.banking.repository.TransactionRepository;
+import com.banking.shard.ShardRouter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Arrays;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
+/**
+ * 各缓存按 banking.cache.specs.&lt;缓存名&gt; 的策略创建，见 {@link CacheProperties}
+ */
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
 
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(10, TimeUnit.MINUTES)
-                .maximumSize(1000)
-                .recordStats());
-        cacheManager.setCacheNames(Arrays.asList("transactions", "transactionList"));
+    public CacheManager cacheManager(CacheProperties properties, TransactionRepository transactionRepository,
+                                     TransactionMapper transactionMapper, ShardRouter shardRouter) {
+        if (!properties.isEnabled()) {
+            // 关闭缓存时 @Cacheable/@CacheEvict 直接穿透，便于基准测试对比缓存收益
+            return new NoOpCacheManager();
+        }
+        // 单笔交易缓存存放紧凑编码的 byte[]，支持按估算字节数限制容量；配置刷新时热点交易在后台重新读取
+        CacheProperties.Spec transactionsSpec = properties.spec("transactions");
+        CompactTransactionCache transactions = CompactTransactionCache.refreshing("transactions",
+                transactionsSpec.toBuilder("transactions", CompactTransactionCache.WEIGHER, true),
+                // 后台刷新不经过分片目录，分片存储下并行查询所有分片；刷新结果写回缓存，必须读主库
+                key -> ReadConsistency.onPrimary(() -> shardRouter.scatter(
+                                shard -> transactionRepository.findById(UUID.fromString(key))).stream()
+                        .flatMap(Optional::stream)
+                        .findFirst()
+                        .map(transactionMapper::toDTO)
+                        .orElse(null)));
+        CaffeineCache accountTransactions = new CaffeineCache("accountTransactions",
+                properties.spec("accountTransactions").toBuilder("accountTransactions", null, false).build());
+        CaffeineCache missingTransactions = new CaffeineCache(MissingTransactionCache.NAME,
+                properties.spec(MissingTransactionCache.NAME).toBuilder(MissingTransactionCache.NAME, null, false)
+                        .build());
+
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(transactions, accountTransactions, missingTransactions));
         return cacheManager;
     }
-} 
\ No newline at end of file
+
+    @Bean
+    public TransactionListCache transactionListCache(CacheProperties properties) {
+        return new TransactionListCache(properties.spec("transactionList").toBuilder("transactionList", null, false));
+    }
+}
@@ -0,0 +1,145 @@
+package com.banking.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 各缓存的容量与过期策略，配置前缀 banking.cache.specs.&lt;缓存名&gt;
+ * <p>
+ * 未配置的字段沿用 {@link #DEFAULTS} 中该缓存的默认值；时长配置为0表示关闭该项。
+ * 容量上限按 maximum-size 或 maximum-weight 二选一整体覆盖默认值。
+ */
+@Data
+@ConfigurationProperties(prefix = "banking.cache")
+public class CacheProperties {
+    /**
+     * 内置缓存的默认策略
+     */
+    static final Map<String, Spec> DEFAULTS = Map.of(
+            "transactions", Spec.of(null, DataSize.ofMegabytes(16), Duration.ofMinutes(10), null,
+                    Duration.ofMinutes(1)),
+            "accountTransactions", Spec.of(1000L, null, Duration.ofMinutes(10), null, null),
+            "transactionList", Spec.of(1000L, null, Duration.ofMinutes(10), null, null),
+            "missingTransactions", Spec.of(10_000L, null, Duration.ofSeconds(5), null, null));
+
+    /**
+     * 关闭时 @Cacheable/@CacheEvict 直接穿透，便于基准测试对比缓存收益
+     */
+    private boolean enabled = true;
+
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    /**
+     * 合并配置与默认值后的策略
+     */
+    public Spec spec(String name) {
+        Spec defaults = DEFAULTS.getOrDefault(name, new Spec());
+        Spec configured = specs.get(name);
+        if (configured == null) {
+            return defaults;
+        }
+        // 容量上限整体替换：配置了 maximum-size 或 maximum-weight 之一时不再沿用默认的另一项
+        boolean boundConfigured = configured.maximumSize != null || configured.maximumWeight != null;
+        return Spec.of(
+                boundConfigured ? configured.maximumSize : defaults.maximumSize,
+                boundConfigured ? configured.maximumWeight : defaults.maximumWeight,
+                configured.expireAfterWrite != null ? configured.expireAfterWrite : defaults.expireAfterWrite,
+                configured.expireAfterAccess != null ? configured.expireAfterAccess : defaults.expireAfterAccess,
+                configured.refreshAfterWrite != null ? configured.refreshAfterWrite : defaults.refreshAfterWrite);
+    }
+
+    @Data
+    public static class Spec {
+        private Long maximumSize;
+        /**
+         * 按估算字节数限制容量，只有提供了权重计算的缓存支持，与 maximumSize 二选一
+         */
+        private DataSize maximumWeight;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+        /**
+         * 写入超过该时长后的下一次访问先返回旧值，同时异步重新加载；只有提供了加载函数的缓存支持
+         */
+        private Duration refreshAfterWrite;
+
+        static Spec of(Long maximumSize, DataSize maximumWeight, Duration expireAfterWrite,
+                       Duration expireAfterAccess, Duration refreshAfterWrite) {
+            Spec spec = new Spec();
+            spec.maximumSize = maximumSize;
+            spec.maximumWeight = maximumWeight;
+            spec.expireAfterWrite = expireAfterWrite;
+            spec.expireAfterAccess = expireAfterAccess;
+            spec.refreshAfterWrite = refreshAfterWrite;
+            return spec;
+        }
+
+        /**
+         * 按策略创建 Caffeine 构建器；weigher 为 null 的缓存不支持按权重限制，supportsRefresh 为 false 的缓存不支持刷新
+         */
+        public Caffeine<Object, Object> toBuilder(String name, Weigher<Object, Object> weigher, boolean supportsRefresh) {
+            if (maximumSize != null && maximumWeight != null) {
+                throw new IllegalStateException("缓存 " + name + " 不能同时配置 maximum-size 与 maximum-weight");
+            }
+            if (maximumWeight != null && weigher == null) {
+                throw new IllegalStateException("缓存 " + name + " 不支持 maximum-weight");
+            }
+            if (isSet(refreshAfterWrite) && !supportsRefresh) {
+                throw new IllegalStateException("缓存 " + name + " 不支持 refresh-after-write");
+            }
+
+            Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+            if (maximumSize != null) {
+                builder.maximumSize(maximumSize);
+            }
+            if (maximumWeight != null) {
+                builder.maximumWeight(maximumWeight.toBytes()).weigher(weigher);
+            }
+            if (isSet(expireAfterWrite)) {
+                builder.expireAfterWrite(expireAfterWrite);
+            }
+            if (isSet(expireAfterAccess)) {
+                builder.expireAfterAccess(expireAfterAccess);
+            }
+            if (isSet(refreshAfterWrite)) {
+                builder.refreshAfterWrite(refreshAfterWrite);
+            }
+            return builder;
+        }
+
+        /**
+         * 管理接口展示的策略描述
+         */
+        public String describe() {
+            List<String> parts = new ArrayList<>();
+            if (maximumSize != null) {
+                parts.add("maximumSize=" + maximumSize);
+            }
+            if (maximumWeight != null) {
+                parts.add("maximumWeight=" + maximumWeight);
+            }
+            if (isSet(expireAfterWrite)) {
+                parts.add("expireAfterWrite=" + expireAfterWrite);
+            }
+            if (isSet(expireAfterAccess)) {
+                parts.add("expireAfterAccess=" + expireAfterAccess);
+            }
+            if (isSet(refreshAfterWrite)) {
+                parts.add("refreshAfterWrite=" + refreshAfterWrite);
+            }
+            return String.join(",", parts);
+        }
+
+        private static boolean isSet(Duration duration) {
+            return duration != null && !duration.isZero();
+        }
+    }
+}
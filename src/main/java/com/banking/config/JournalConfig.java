@@ -0,0 +1,58 @@
+package com.banking.config;
+
+import com.banking.cache.MissingTransactionCache;
+import com.banking.cache.TransactionListCache;
+import com.banking.event.TransactionEventBus;
+import com.banking.journal.TransactionJournal;
+import com.banking.mapper.TransactionMapper;
+import com.banking.repository.TransactionRepository;
+import com.banking.service.AccountBalanceService;
+import com.banking.service.OutboxService;
+import com.banking.service.TransactionRollupService;
+import com.banking.service.impl.JournaledTransactionWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 交易预写日志配置，banking.journal.enabled=true 时创建交易走日志快速路径，由后台线程批量写入数据库
+ */
+@Configuration
+@ConditionalOnProperty(name = "banking.journal.enabled", havingValue = "true")
+public class JournalConfig {
+
+    @Bean
+    public TransactionJournal transactionJournal(
+            @Value("${banking.journal.directory:${java.io.tmpdir}/banking-journal}") Path directory,
+            @Value("${banking.journal.segment-size:64MB}") DataSize segmentSize,
+            @Value("${banking.journal.sync-interval:PT0.005S}") Duration syncInterval,
+            @Value("${banking.journal.sync-batch:256}") int syncBatch,
+            @Value("${banking.journal.flush-interval:PT0.02S}") Duration flushInterval,
+            @Value("${banking.journal.flush-batch:500}") int flushBatch,
+            MeterRegistry meterRegistry) {
+        return new TransactionJournal(directory, Math.toIntExact(segmentSize.toBytes()), syncInterval, syncBatch,
+                flushInterval, flushBatch, meterRegistry);
+    }
+
+    @Bean
+    public JournaledTransactionWriter journaledTransactionWriter(
+            TransactionJournal transactionJournal, TransactionRepository transactionRepository,
+            TransactionMapper transactionMapper, AccountBalanceService accountBalanceService,
+            TransactionRollupService rollupService, OutboxService outboxService, TransactionEventBus eventBus,
+            TransactionListCache transactionListCache, MissingTransactionCache missingTransactions,
+            CacheManager cacheManager, TransactionTemplate transactionTemplate,
+            @Value("${banking.locking.optimistic-retries:3}") int optimisticRetries,
+            @Value("${banking.journal.flush-wait:PT5S}") Duration flushWait) {
+        return new JournaledTransactionWriter(transactionJournal, transactionRepository, transactionMapper,
+                accountBalanceService, rollupService, outboxService, eventBus, transactionListCache,
+                missingTransactions, cacheManager, transactionTemplate, optimisticRetries, flushWait);
+    }
+}
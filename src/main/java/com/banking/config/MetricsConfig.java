@@ -0,0 +1,29 @@
+package com.banking.config;
+
+import com.banking.cache.TransactionListCache;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 指标配置：启用 @Timed 注解，并导出交易列表缓存的命中/未命中/淘汰统计。
+ * CacheManager 管理的缓存(transactions、accountTransactions、missingTransactions)以及Hikari连接池由Actuator自动绑定。
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder transactionListCacheMetrics(TransactionListCache transactionListCache) {
+        // 标签集合与Actuator为CacheManager缓存生成的一致，Prometheus要求同名指标的标签键相同
+        return registry -> CaffeineCacheMetrics.monitor(registry, transactionListCache.getCache(), "transactionList",
+                "cache.manager", "transactionListCache", "name", "transactionList");
+    }
+}
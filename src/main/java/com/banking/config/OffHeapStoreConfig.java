@@ -0,0 +1,31 @@
+package com.banking.config;
+
+import com.banking.cache.OffHeapTransactionStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 堆外热点交易存储配置，banking.offheap.enabled=true 时按交易ID查询先查堆外存储再查数据库。
+ * 占用直接内存，JVM需以 -XX:MaxDirectMemorySize 预留不小于 max-memory 的空间。
+ * 只有本实例的写入会同步更新存储，多实例部署时其他实例的更新、删除最多在 max-age 内不可见
+ */
+@Configuration
+@ConditionalOnProperty(name = "banking.offheap.enabled", havingValue = "true")
+public class OffHeapStoreConfig {
+
+    @Bean
+    public OffHeapTransactionStore offHeapTransactionStore(
+            @Value("${banking.offheap.max-memory:256MB}") DataSize maxMemory,
+            @Value("${banking.offheap.record-size:128B}") DataSize recordSize,
+            @Value("${banking.offheap.max-age:PT10M}") Duration maxAge,
+            MeterRegistry meterRegistry) {
+        return new OffHeapTransactionStore(maxMemory.toBytes(), Math.toIntExact(recordSize.toBytes()), maxAge,
+                meterRegistry);
+    }
+}
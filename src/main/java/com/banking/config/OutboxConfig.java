@@ -0,0 +1,53 @@
+package com.banking.config;
+
+import com.banking.outbox.FileOutboxDestination;
+import com.banking.outbox.OutboxDestination;
+import com.banking.outbox.OutboxDispatcher;
+import com.banking.repository.OutboxEntryRepository;
+import com.banking.repository.OutboxPartitionRepository;
+import com.banking.shard.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 交易发件箱投递配置，banking.outbox.enabled=true 时交易写入同时记录发件箱，并启动投递线程。
+ * banking.outbox.destination=file（默认）投递到本地JSON行文件；接入其他下游时设为其他值并提供 {@link OutboxDestination} Bean
+ */
+@Configuration
+@ConditionalOnProperty(name = "banking.outbox.enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "banking.outbox.destination", havingValue = "file", matchIfMissing = true)
+    public FileOutboxDestination fileOutboxDestination(
+            @Value("${banking.outbox.file:${java.io.tmpdir}/banking-outbox/ledger.jsonl}") Path file,
+            ObjectMapper objectMapper) throws IOException {
+        return new FileOutboxDestination(file, objectMapper);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public OutboxDispatcher outboxDispatcher(OutboxEntryRepository outboxEntryRepository,
+                                             OutboxPartitionRepository outboxPartitionRepository,
+                                             TransactionTemplate transactionTemplate,
+                                             ShardRouter shardRouter,
+                                             OutboxDestination destination,
+                                             @Value("${banking.outbox.batch-size:500}") int batchSize,
+                                             @Value("${banking.outbox.parallelism:8}") int parallelism,
+                                             @Value("${banking.outbox.poll-interval:PT0.1S}") Duration pollInterval,
+                                             @Value("${banking.outbox.lease:PT30S}") Duration lease,
+                                             @Value("${banking.outbox.initial-backoff:PT1S}") Duration initialBackoff,
+                                             @Value("${banking.outbox.max-backoff:PT5M}") Duration maxBackoff,
+                                             MeterRegistry meterRegistry) {
+        return new OutboxDispatcher(outboxEntryRepository, outboxPartitionRepository, transactionTemplate,
+                shardRouter, destination, batchSize, parallelism, pollInterval, lease, initialBackoff, maxBackoff, meterRegistry);
+    }
+}
@@ -0,0 +1,34 @@
+package com.banking.config;
+
+import com.banking.concurrent.LoadSheddingExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 异步查询接口的有界执行器。查询在该执行器上等待数据库，Tomcat请求线程在提交后即释放；
+ * 线程数应小于连接池大小，为写入留出连接。banking.async.read.enabled=false 时查询在请求线程内同步执行
+ */
+@Configuration
+@ConditionalOnProperty(name = "banking.async.read.enabled", havingValue = "true", matchIfMissing = true)
+public class ReadExecutorConfig {
+
+    @Bean(destroyMethod = "close")
+    public LoadSheddingExecutor readExecutor(
+            @Value("${banking.async.read.threads:16}") int threads,
+            @Value("${banking.async.read.queue-capacity:64}") int queueCapacity,
+            @Value("${banking.async.read.max-queue-time:PT0.5S}") Duration maxQueueTime,
+            @Value("${banking.async.read.retry-after:PT1S}") Duration retryAfter,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            MeterRegistry meterRegistry) {
+        return new LoadSheddingExecutor("read", threads, queueCapacity, maxQueueTime, retryAfter,
+                virtualThreads
+                        ? Thread.ofVirtual().name("read-", 0).factory()
+                        : Thread.ofPlatform().name("read-", 0).daemon().factory(),
+                meterRegistry);
+    }
+}
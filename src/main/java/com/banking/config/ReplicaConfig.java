@@ -0,0 +1,72 @@
+package com.banking.config;
+
+import com.banking.replica.ConsistencyTokenInterceptor;
+import com.banking.replica.ReadConsistency;
+import com.banking.replica.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读副本配置，banking.replica.enabled=true 时生效：主库沿用 spring.datasource 配置，
+ * 每个副本按 banking.replica.urls 中的地址各建一个连接池，账号密码与 spring.datasource.hikari.* 连接池参数与主库相同。
+ * 副本的表结构与数据由数据库复制维护，Flyway 只迁移主库。路由与一致性规则见 {@link ReplicaRoutingDataSource} 与 {@link ReadConsistency}
+ */
+@Configuration
+@ConditionalOnProperty(name = "banking.replica.enabled", havingValue = "true")
+public class ReplicaConfig implements WebMvcConfigurer {
+    private final ReadConsistency readConsistency;
+
+    public ReplicaConfig(ReadConsistency readConsistency) {
+        this.readConsistency = readConsistency;
+    }
+
+    @Bean
+    @Primary
+    public ReplicaRoutingDataSource dataSource(
+            DataSourceProperties properties, Environment environment,
+            @Value("${banking.replica.urls}") List<String> urls,
+            @Value("${banking.sharding.shards:1}") int shards) {
+        if (shards > 1) {
+            // 副本路由与分片路由都在获取连接时决定目标库，两者的组合（每个分片各自的副本）尚未实现
+            throw new IllegalStateException("读副本暂不支持与分片存储（banking.sharding.shards > 1）同时开启");
+        }
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("banking.replica.urls 至少需要一个副本地址");
+        }
+        HikariDataSource primary = pool(properties, environment, properties.determineUrl(), "primary");
+        List<HikariDataSource> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            replicas.add(pool(properties, environment, urls.get(i), "replica-" + i));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConsistencyTokenInterceptor(readConsistency)).addPathPatterns("/api/**");
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String url,
+                                         String name) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,57 @@
+package com.banking.config;
+
+import com.banking.shard.ShardRouter;
+import com.banking.shard.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 分片存储配置，banking.sharding.shards 大于1时生效：每个分片一个连接池，连接地址由 url-pattern 按分片序号生成，
+ * 账号密码与 spring.datasource.hikari.* 连接池参数沿用 spring.datasource 配置；Flyway 依次迁移每个分片，
+ * 各分片表结构相同。路由规则见 {@link ShardRouter}
+ */
+@Configuration
+@ConditionalOnExpression("${banking.sharding.shards:1} > 1")
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(
+            DataSourceProperties properties, Environment environment, ShardRouter shardRouter,
+            @Value("${banking.sharding.url-pattern:jdbc:h2:mem:bankingdb-shard-%d}") String urlPattern,
+            @Value("${banking.journal.enabled:false}") boolean journalEnabled) {
+        if (journalEnabled) {
+            // 预写日志的刷写线程跨账户批量写库，无法按分片拆分事务
+            throw new IllegalStateException("分片存储不支持 banking.journal.enabled=true");
+        }
+        List<HikariDataSource> shards = new ArrayList<>(shardRouter.shards());
+        for (int shard = 0; shard < shardRouter.shards(); shard++) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(String.format(urlPattern, shard))
+                    .build();
+            Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+            dataSource.setPoolName("shard-" + shard);
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    public FlywayMigrationStrategy shardedMigration(ShardRouter shardRouter) {
+        // Flyway 使用路由数据源，在每个分片上下文中执行一次迁移即迁移该分片
+        return flyway -> shardRouter.forEachShard(shard -> flyway.migrate());
+    }
+}
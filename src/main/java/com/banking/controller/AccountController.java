@@ -0,0 +1,76 @@
+package com.banking.controller;
+
+import com.banking.dto.AccountBalanceDTO;
+import com.banking.dto.CursorPageDTO;
+import com.banking.dto.RollupBucketDTO;
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.RollupGranularity;
+import com.banking.enums.TransactionType;
+import com.banking.service.AccountBalanceService;
+import com.banking.service.TransactionRollupService;
+import com.banking.service.TransactionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/accounts")
+@Tag(name = "账户管理", description = "账户维度查询相关接口")
+public class AccountController {
+    private final TransactionService transactionService;
+    private final AccountBalanceService accountBalanceService;
+    private final TransactionRollupService rollupService;
+
+    public AccountController(TransactionService transactionService, AccountBalanceService accountBalanceService,
+                             TransactionRollupService rollupService) {
+        this.transactionService = transactionService;
+        this.accountBalanceService = accountBalanceService;
+        this.rollupService = rollupService;
+    }
+
+    @GetMapping("/{accountId}/transactions")
+    @Operation(summary = "获取账户最近交易")
+    public ResponseEntity<CursorPageDTO<TransactionDTO>> accountTransactions(
+            @PathVariable UUID accountId,
+            @RequestParam(required = false) TransactionType type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(transactionService.accountTransactions(accountId, type, from, to, after, limit));
+    }
+
+    @GetMapping("/{accountId}/balance")
+    @Operation(summary = "获取账户余额")
+    public ResponseEntity<AccountBalanceDTO> getBalance(@PathVariable UUID accountId) {
+        return ResponseEntity.ok(accountBalanceService.getBalance(accountId));
+    }
+
+    @GetMapping("/{accountId}/summary")
+    @Operation(summary = "按小时/天/月汇总账户各类交易的金额与笔数")
+    public ResponseEntity<List<RollupBucketDTO>> summary(
+            @PathVariable UUID accountId,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(rollupService.summary(accountId, RollupGranularity.fromParam(granularity), from, to));
+    }
+
+    @PostMapping("/rollups/backfill")
+    @Operation(summary = "从交易账本重算所有账户的交易汇总")
+    public ResponseEntity<Integer> backfillRollups() {
+        return ResponseEntity.ok(rollupService.backfill());
+    }
+
+    @PostMapping("/balances/rebuild")
+    @Operation(summary = "从交易账本重建所有账户余额")
+    public ResponseEntity<Integer> rebuildBalances() {
+        return ResponseEntity.ok(accountBalanceService.rebuild());
+    }
+}
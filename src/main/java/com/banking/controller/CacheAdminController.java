@@ -0,0 +1,47 @@
+package com.banking.controller;
+
+import com.banking.dto.CacheStatsDTO;
+import com.banking.service.CacheAdminService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/caches")
+@Tag(name = "缓存管理", description = "本实例缓存统计与失效相关接口")
+public class CacheAdminController {
+    private final CacheAdminService cacheAdminService;
+
+    public CacheAdminController(CacheAdminService cacheAdminService) {
+        this.cacheAdminService = cacheAdminService;
+    }
+
+    @GetMapping
+    @Operation(summary = "查询所有缓存的命中率、条目数与生效策略")
+    public ResponseEntity<List<CacheStatsDTO>> getStats() {
+        return ResponseEntity.ok(cacheAdminService.getStats());
+    }
+
+    @GetMapping("/{name}")
+    @Operation(summary = "查询单个缓存的统计")
+    public ResponseEntity<CacheStatsDTO> getStats(@PathVariable String name) {
+        return ResponseEntity.ok(cacheAdminService.getStats(name));
+    }
+
+    @DeleteMapping("/{name}")
+    @Operation(summary = "清空缓存")
+    public ResponseEntity<Void> invalidate(@PathVariable String name) {
+        cacheAdminService.invalidate(name);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{name}/keys/{key}")
+    @Operation(summary = "移除缓存中的单个键")
+    public ResponseEntity<Void> invalidateKey(@PathVariable String name, @PathVariable String key) {
+        cacheAdminService.invalidate(name, key);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,58 @@
+package com.banking.controller;
+
+import com.banking.dto.ImportJobDTO;
+import com.banking.dto.ImportRejectionDTO;
+import com.banking.enums.LedgerFormat;
+import com.banking.service.ImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/imports")
+@Tag(name = "批量导入", description = "历史交易文件导入相关接口")
+public class ImportController {
+    private final ImportService importService;
+
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping
+    @Operation(summary = "上传交易文件（ndjson或csv）并在后台导入")
+    public ResponseEntity<ImportJobDTO> startImport(@RequestParam(defaultValue = "ndjson") String format,
+                                                    HttpServletRequest request) throws IOException {
+        // 请求体直接以流的形式落盘，不经过消息转换器读入内存
+        LedgerFormat ledgerFormat = LedgerFormat.fromParam(format);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(importService.startImport(ledgerFormat, request.getInputStream()));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "查询导入进度")
+    public ResponseEntity<ImportJobDTO> getJob(@PathVariable UUID id) {
+        return ResponseEntity.ok(importService.getJob(id));
+    }
+
+    @GetMapping("/{id}/rejections")
+    @Operation(summary = "按行号分页查询被拒绝的记录")
+    public ResponseEntity<List<ImportRejectionDTO>> getRejections(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(importService.getRejections(id, after, limit));
+    }
+
+    @PostMapping("/{id}/resume")
+    @Operation(summary = "从检查点恢复中断的导入")
+    public ResponseEntity<ImportJobDTO> resume(@PathVariable UUID id) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(importService.resume(id));
+    }
+}
@@ -1,45 +1,168 @@
 package com.banking.controller;
 
+import com.banking.concurrent.WriteRateLimiter;
+import com.banking.dto.BatchTransactionRequest;
+import com.banking.dto.BatchTransactionResultDTO;
+import com.banking.dto.CursorPageDTO;
+import com.banking.dto.IdempotentResponse;
 import com.banking.dto.TransactionDTO;
+import com.banking.enums.LedgerFormat;
+import com.banking.event.SseEventSink;
+import com.banking.event.TransactionEventBus;
+import com.banking.exception.InvalidTransactionException;
+import com.banking.replica.ReadConsistency;
+import com.banking.service.IdempotencyService;
+import com.banking.service.TransactionExportService;
 import com.banking.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/transactions")
 @Tag(name = "交易管理", description = "交易管理相关接口")
 public class TransactionController {
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
     private final TransactionService transactionService;
+    private final TransactionExportService transactionExportService;
+    private final IdempotencyService idempotencyService;
+    private final WriteRateLimiter writeRateLimiter;
+    private final TransactionEventBus eventBus;
+    private final ObjectMapper objectMapper;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService,
+                                 TransactionExportService transactionExportService,
+                                 IdempotencyService idempotencyService,
+                                 WriteRateLimiter writeRateLimiter,
+                                 TransactionEventBus eventBus,
+                                 ObjectMapper objectMapper) {
         this.transactionService = transactionService;
+        this.transactionExportService = transactionExportService;
+        this.idempotencyService = idempotencyService;
+        this.writeRateLimiter = writeRateLimiter;
+        this.eventBus = eventBus;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
-    @Operation(summary = "创建新交易")
-    public ResponseEntity<TransactionDTO> createTransaction(@Valid @RequestBody TransactionDTO transactionDTO) {
-        return ResponseEntity.ok(transactionService.createTransaction(transactionDTO));
+    @Operation(summary = "创建新交易（可通过 Idempotency-Key 请求头安全重试）")
+    public ResponseEntity<TransactionDTO> createTransaction(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody TransactionDTO transactionDTO) {
+        if (idempotencyKey == null) {
+            return written(admitCreate(transactionDTO));
+        }
+        // 先按幂等键回放或等待正在执行的同键请求，只有真正执行创建时才经过准入控制：
+        // 重放不消耗账户令牌，等待者不占用并发名额，也不向自适应并发上限提供失真的耗时样本
+        IdempotentResponse<TransactionDTO> response = idempotencyService.execute("createTransaction",
+                idempotencyKey, transactionDTO, TransactionDTO.class, () -> admitCreate(transactionDTO));
+        return ResponseEntity.ok()
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(response.replayed()))
+                .header(ReadConsistency.TOKEN_HEADER, ReadConsistency.issueToken())
+                .body(response.body());
+    }
+
+    private TransactionDTO admitCreate(TransactionDTO transactionDTO) {
+        try (WriteRateLimiter.Permit permit = writeRateLimiter.acquire(transactionDTO.getAccountId())) {
+            return transactionService.createTransaction(transactionDTO);
+        }
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "批量创建交易")
+    public ResponseEntity<List<BatchTransactionResultDTO>> createTransactions(
+            @Valid @RequestBody BatchTransactionRequest request) {
+        Set<UUID> accountIds = request.getTransactions().stream()
+                .map(TransactionDTO::getAccountId)
+                .collect(Collectors.toSet());
+        try (WriteRateLimiter.Permit permit = writeRateLimiter.acquire(accountIds)) {
+            return written(transactionService.createTransactions(request.getTransactions()));
+        }
+    }
+
+    /**
+     * 查询在有界执行器上等待数据库，请求线程提交后即释放；执行器饱和时返回503与 Retry-After
+     */
     @GetMapping("/{id}")
     @Operation(summary = "获取指定交易")
-    public ResponseEntity<TransactionDTO> getTransaction(@PathVariable UUID id) {
-        TransactionDTO transaction = transactionService.getTransaction(id);
-        return transaction != null ? ResponseEntity.ok(transaction) : ResponseEntity.notFound().build();
+    public CompletableFuture<ResponseEntity<TransactionDTO>> getTransaction(@PathVariable UUID id) {
+        return transactionService.getTransactionAsync(id).thenApply(transaction ->
+                transaction != null ? ResponseEntity.ok(transaction) : ResponseEntity.notFound().build());
     }
 
     @GetMapping
     @Operation(summary = "获取所有交易")
-    public ResponseEntity<List<TransactionDTO>> transactionList(
+    public CompletableFuture<ResponseEntity<List<TransactionDTO>>> transactionList(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size) {
-        return ResponseEntity.ok(transactionService.transactionList(page, size));
+        return transactionService.transactionListAsync(page, size).thenApply(ResponseEntity::ok);
+    }
+
+    @GetMapping(params = "limit")
+    @Operation(summary = "按游标分页获取交易")
+    public ResponseEntity<CursorPageDTO<TransactionDTO>> transactionListAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam int limit) {
+        return ResponseEntity.ok(transactionService.transactionListAfter(after, limit));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "流式导出交易（ndjson或csv）")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) UUID accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        // 在开始写响应之前校验参数，非法参数仍能返回400错误体
+        LedgerFormat exportFormat = LedgerFormat.fromParam(format);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidTransactionException("起始时间必须早于结束时间");
+        }
+        StreamingResponseBody body = out -> transactionExportService.export(exportFormat, accountId, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * 超时沿用 spring.mvc.async.request-timeout，超时或断开后客户端以最后收到的序号重新订阅
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "订阅交易变更事件（server-sent events，可通过 fromSeq 或 Last-Event-ID 续传）")
+    public SseEmitter streamTransactions(
+            @RequestParam(required = false) Long fromSeq,
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId) {
+        Long start = fromSeq != null ? fromSeq : lastEventId != null ? lastEventId + 1 : null;
+        if (start != null && start < 0) {
+            throw new InvalidTransactionException("事件序号不能为负数");
+        }
+        SseEmitter emitter = new SseEmitter();
+        TransactionEventBus.Subscription subscription =
+                eventBus.subscribe(start, new SseEventSink(emitter, objectMapper));
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+        return emitter;
     }
 
     @PutMapping("/{id}")
@@ -47,13 +170,27 @@ public class TransactionController {
     public ResponseEntity<TransactionDTO> updateTransaction(
             @PathVariable UUID id,
             @Valid @RequestBody TransactionDTO transactionDTO) {
-        return ResponseEntity.ok(transactionService.updateTransaction(id, transactionDTO));
+        try (WriteRateLimiter.Permit permit = writeRateLimiter.acquire(transactionDTO.getAccountId())) {
+            return written(transactionService.updateTransaction(id, transactionDTO));
+        }
     }
 
     @DeleteMapping("/{id}")
     @Operation(summary = "删除交易")
     public ResponseEntity<Void> deleteTransaction(@PathVariable UUID id) {
-        transactionService.deleteTransaction(id);
-        return ResponseEntity.ok().build();
+        // 请求中没有账户，只受全局并发上限约束
+        try (WriteRateLimiter.Permit permit = writeRateLimiter.acquire((UUID) null)) {
+            transactionService.deleteTransaction(id);
+        }
+        return written(null);
+    }
+
+    /**
+     * 写入已提交的响应，附带一致性令牌；客户端在后续读请求中带回该令牌即可读到本次写入
+     */
+    private static <T> ResponseEntity<T> written(T body) {
+        return ResponseEntity.ok()
+                .header(ReadConsistency.TOKEN_HEADER, ReadConsistency.issueToken())
+                .body(body);
     }
 } 
\ No newline at end of file
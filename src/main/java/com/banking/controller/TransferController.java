@@ -0,0 +1,37 @@
+package com.banking.controller;
+
+import com.banking.concurrent.WriteRateLimiter;
+import com.banking.dto.TransferRequest;
+import com.banking.dto.TransferResultDTO;
+import com.banking.replica.ReadConsistency;
+import com.banking.service.TransactionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/transfers")
+@Tag(name = "转账管理", description = "转账相关接口")
+public class TransferController {
+    private final TransactionService transactionService;
+    private final WriteRateLimiter writeRateLimiter;
+
+    public TransferController(TransactionService transactionService, WriteRateLimiter writeRateLimiter) {
+        this.transactionService = transactionService;
+        this.writeRateLimiter = writeRateLimiter;
+    }
+
+    @PostMapping
+    @Operation(summary = "账户间转账")
+    public ResponseEntity<TransferResultDTO> transfer(@Valid @RequestBody TransferRequest request) {
+        // 按转出账户限流，转入方不应因为别人向其转账而被限流
+        try (WriteRateLimiter.Permit permit = writeRateLimiter.acquire(request.getFromAccountId())) {
+            TransferResultDTO result = transactionService.transfer(request);
+            return ResponseEntity.ok()
+                    .header(ReadConsistency.TOKEN_HEADER, ReadConsistency.issueToken())
+                    .body(result);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.banking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceDTO {
+    private UUID accountId;
+
+    private BigDecimal balance;
+
+    private long revision;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,15 @@
+package com.banking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchTransactionRequest {
+    @NotEmpty(message = "交易列表不能为空")
+    @Size(max = 1000, message = "单批次交易数量不能超过1000条")
+    private List<@Valid TransactionDTO> transactions;
+}
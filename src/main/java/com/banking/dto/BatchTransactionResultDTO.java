@@ -0,0 +1,19 @@
+package com.banking.dto;
+
+import com.banking.enums.BatchItemStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTransactionResultDTO {
+    private UUID id;
+
+    private BatchItemStatus status;
+
+    private TransactionDTO transaction;
+}
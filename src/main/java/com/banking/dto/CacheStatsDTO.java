@@ -0,0 +1,38 @@
+package com.banking.dto;
+
+import lombok.Data;
+
+@Data
+public class CacheStatsDTO {
+    private String name;
+
+    /**
+     * 生效的容量与过期策略
+     */
+    private String spec;
+
+    /**
+     * 近似条目数，已过期但尚未清理的条目也会计入
+     */
+    private long estimatedSize;
+
+    private long hits;
+
+    private long misses;
+
+    private double hitRate;
+
+    private long evictions;
+
+    /**
+     * 成功的加载次数，包括刷新
+     */
+    private long loads;
+
+    private long loadFailures;
+
+    /**
+     * 平均加载耗时（毫秒）
+     */
+    private double averageLoadMillis;
+}
@@ -0,0 +1,19 @@
+package com.banking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> items;
+
+    /**
+     * 下一页游标，为null表示已无更多数据
+     */
+    private String nextCursor;
+}
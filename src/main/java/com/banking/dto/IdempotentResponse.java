@@ -0,0 +1,7 @@
+package com.banking.dto;
+
+/**
+ * 幂等执行结果，replayed 为 true 表示响应来自此前相同幂等键的请求
+ */
+public record IdempotentResponse<T>(T body, boolean replayed) {
+}
@@ -0,0 +1,45 @@
+package com.banking.dto;
+
+import com.banking.enums.ImportStatus;
+import com.banking.enums.LedgerFormat;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+public class ImportJobDTO {
+    private UUID id;
+
+    private LedgerFormat format;
+
+    private ImportStatus status;
+
+    private long totalBytes;
+
+    /**
+     * 已确认提交的字节数（检查点）
+     */
+    private long processedBytes;
+
+    private double progressPercent;
+
+    private long importedRows;
+
+    private long duplicateRows;
+
+    private long rejectedRows;
+
+    /**
+     * 本次运行的平均吞吐量（行/秒）
+     */
+    private double rowsPerSecond;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private String errorMessage;
+}
@@ -0,0 +1,16 @@
+package com.banking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRejectionDTO {
+    private long lineNumber;
+
+    private String reason;
+
+    private String content;
+}
@@ -0,0 +1,11 @@
+package com.banking.dto;
+
+/**
+ * 导入任务已提交分块的行数汇总
+ */
+public record ImportRowCounts(long imported, long duplicates, long rejected) {
+
+    public long total() {
+        return imported + duplicates + rejected;
+    }
+}
@@ -0,0 +1,25 @@
+package com.banking.dto;
+
+import com.banking.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 汇总报表的一行：时间桶内某一交易类型的金额合计与笔数
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupBucketDTO {
+    private LocalDateTime bucketStart;
+
+    private TransactionType type;
+
+    private BigDecimal totalAmount;
+
+    private long count;
+}
@@ -0,0 +1,48 @@
+package com.banking.dto;
+
+import com.banking.entity.Transaction;
+import com.banking.exception.InvalidTransactionException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * 键集分页游标，记录上一页最后一条交易的 (createdAt, id)；比较顺序与数据库中 (created_at, id) 的排序一致
+ */
+public record TransactionCursor(LocalDateTime createdAt, UUID id) implements Comparable<TransactionCursor> {
+
+    private static final char SEPARATOR = '|';
+
+    public static TransactionCursor of(Transaction transaction) {
+        return new TransactionCursor(transaction.getCreatedAt(), transaction.getId());
+    }
+
+    @Override
+    public int compareTo(TransactionCursor other) {
+        int byTime = createdAt.compareTo(other.createdAt);
+        if (byTime != 0) {
+            return byTime;
+        }
+        // 数据库按无符号字节比较UUID
+        int high = Long.compareUnsigned(id.getMostSignificantBits(), other.id.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(id.getLeastSignificantBits(), other.id.getLeastSignificantBits());
+    }
+
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.indexOf(SEPARATOR);
+            return new TransactionCursor(LocalDateTime.parse(raw.substring(0, index)), UUID.fromString(raw.substring(index + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidTransactionException("无效的分页游标: " + cursor);
+        }
+    }
+}
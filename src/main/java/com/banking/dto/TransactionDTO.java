@@ -33,4 +33,6 @@ public class TransactionDTO {
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
+
+    private Long version;
 } 
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.banking.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+@Data
+public class TransferRequest {
+    /**
+     * 转账ID，同时作为转出交易的ID；转入交易ID由其确定性派生，重试时可被识别为重复
+     */
+    @NotNull(message = "转账ID不能为空")
+    private UUID id;
+
+    @NotNull(message = "转出账户ID不能为空")
+    private UUID fromAccountId;
+
+    @NotNull(message = "转入账户ID不能为空")
+    private UUID toAccountId;
+
+    @NotNull(message = "金额不能为空")
+    @Positive(message = "金额必须大于0")
+    private BigDecimal amount;
+
+    @Size(max = 255, message = "描述长度不能超过255个字符")
+    private String description;
+}
@@ -0,0 +1,14 @@
+package com.banking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferResultDTO {
+    private TransactionDTO outgoing;
+
+    private TransactionDTO incoming;
+}
@@ -0,0 +1,29 @@
+package com.banking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "account_balances")
+@Data
+public class AccountBalance {
+    @Id
+    @Column(name = "account_id")
+    private UUID accountId;
+
+    @Column(nullable = false, precision = 19, scale = 4)
+    private BigDecimal balance;
+
+    /**
+     * 每次余额变更递增，用于判断内存投影是否落后于数据库
+     */
+    @Column(nullable = false)
+    private long revision;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,42 @@
+package com.banking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 幂等键记录：请求开始执行时插入占位行，完成后写入响应；响应为空表示请求仍在执行
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+@Data
+public class IdempotencyRecord {
+    /**
+     * 操作名与客户端幂等键拼接而成，不同接口使用相同的键互不影响
+     */
+    @Id
+    @Column(name = "idempotency_key", length = 300)
+    private String key;
+
+    /**
+     * 请求体的SHA-256摘要，同一个键携带不同请求体时拒绝
+     */
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    @Column(name = "response_body", length = 8000)
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    /**
+     * 新记录版本号为空时 save 走 persist，并发插入同一个键由主键约束拒绝而不是互相覆盖
+     */
+    @Version
+    private Long version;
+}
@@ -0,0 +1,37 @@
+package com.banking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.UUID;
+
+/**
+ * 已提交的导入分块，与分块内的交易在同一事务中写入；恢复时据此跳过已提交的分块，保证每行只导入一次
+ */
+@Entity
+@Table(name = "import_chunks", uniqueConstraints =
+        @UniqueConstraint(name = "uk_import_chunks_job_start", columnNames = {"job_id", "start_offset"}))
+@Data
+public class ImportChunk {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(name = "start_offset", nullable = false)
+    private long startOffset;
+
+    @Column(name = "end_offset", nullable = false)
+    private long endOffset;
+
+    @Column(name = "imported_rows", nullable = false)
+    private int importedRows;
+
+    @Column(name = "duplicate_rows", nullable = false)
+    private int duplicateRows;
+
+    @Column(name = "rejected_rows", nullable = false)
+    private int rejectedRows;
+}
@@ -0,0 +1,61 @@
+package com.banking.entity;
+
+import com.banking.enums.ImportStatus;
+import com.banking.enums.LedgerFormat;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "import_jobs", indexes = @Index(name = "idx_import_jobs_status", columnList = "status"))
+@Data
+public class ImportJob {
+    @Id
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private LedgerFormat format;
+
+    @Column(name = "file_path", nullable = false, length = 1024)
+    private String filePath;
+
+    @Column(name = "total_bytes", nullable = false)
+    private long totalBytes;
+
+    /**
+     * 检查点：该字节偏移之前的所有分块均已提交，恢复时从这里继续读取
+     */
+    @Column(name = "checkpoint_offset", nullable = false)
+    private long checkpointOffset;
+
+    /**
+     * 检查点对应的行号，用于恢复后继续为拒绝记录标注行号
+     */
+    @Column(name = "checkpoint_line", nullable = false)
+    private long checkpointLine;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportStatus status;
+
+    /**
+     * 本次运行开始时已处理的行数，用于计算本次运行的吞吐量
+     */
+    @Column(name = "run_start_rows", nullable = false)
+    private long runStartRows;
+
+    @Column(name = "error_message", length = 1000)
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
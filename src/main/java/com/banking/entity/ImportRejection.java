@@ -0,0 +1,31 @@
+package com.banking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "import_rejections", indexes =
+        @Index(name = "idx_import_rejections_job_line", columnList = "job_id, line_number"))
+@Data
+public class ImportRejection {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_id", nullable = false)
+    private UUID jobId;
+
+    @Column(name = "line_number", nullable = false)
+    private long lineNumber;
+
+    @Column(nullable = false, length = 500)
+    private String reason;
+
+    /**
+     * 原始记录内容，过长时截断
+     */
+    @Column(length = 1000)
+    private String content;
+}
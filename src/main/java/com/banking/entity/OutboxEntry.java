@@ -0,0 +1,55 @@
+package com.banking.entity;
+
+import com.banking.enums.TransactionEventType;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 待投递到下游账本的交易变更，与交易在同一事务内写入；主键由数据库在插入时分配，
+ * 插入时已持有账户余额行锁，同一账户的事件按主键顺序即提交顺序
+ */
+@Entity
+@Table(name = "transaction_outbox", indexes = {
+        @Index(name = "idx_transaction_outbox_partition_id", columnList = "partition_id, id"),
+        @Index(name = "idx_transaction_outbox_account_id", columnList = "account_id, id")
+})
+@Data
+public class OutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "partition_id", nullable = false)
+    private int partitionId;
+
+    @Column(name = "account_id", nullable = false)
+    private UUID accountId;
+
+    @Column(name = "transaction_id", nullable = false)
+    private UUID transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 16)
+    private TransactionEventType eventType;
+
+    /**
+     * 交易的JSON表示；删除事件为删除前的状态
+     */
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
@@ -0,0 +1,34 @@
+package com.banking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 发件箱分区租约，租约有效期内只有持有者投递该分区的事件
+ */
+@Entity
+@Table(name = "transaction_outbox_partitions")
+@Data
+public class OutboxPartition {
+    /**
+     * 分区数，与迁移脚本中预置的分区行数一致；修改会改变账户到分区的映射
+     */
+    public static final int COUNT = 64;
+
+    @Id
+    @Column(name = "partition_id")
+    private Integer partitionId;
+
+    @Column(name = "lease_owner", length = 64)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    public static int of(UUID accountId) {
+        return Math.floorMod(accountId.hashCode(), COUNT);
+    }
+}
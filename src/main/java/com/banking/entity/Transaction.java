@@ -9,10 +9,14 @@ import lombok.Data;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        @Index(name = "idx_transactions_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_transactions_account_created_at_id", columnList = "account_id, created_at, id")
+})
 @Data
 public class Transaction {
     @Id
@@ -45,14 +49,26 @@ public class Transaction {
     @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 
+    /**
+     * 乐观锁版本号，多实例并发更新时由数据库保证不会丢失更新
+     */
+    @Version
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
-        createdAt = LocalDateTime.now();
-        updatedAt = LocalDateTime.now();
+        // 导入的历史交易保留原始时间，其余情况由此处填充；截断到微秒与 timestamp(6) 列一致，返回值与再次读取的值相同
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        if (createdAt == null) {
+            createdAt = now;
+        }
+        if (updatedAt == null) {
+            updatedAt = createdAt;
+        }
     }
 
     @PreUpdate
     protected void onUpdate() {
-        updatedAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.banking.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.springframework.data.domain.Persistable;
+
+import java.math.BigDecimal;
+
+/**
+ * 一个账户在一个时间桶内某一交易类型的金额合计与笔数
+ */
+@Entity
+@Table(name = "transaction_rollups")
+@Data
+public class TransactionRollup implements Persistable<TransactionRollupId> {
+    @EmbeddedId
+    private TransactionRollupId id;
+
+    @Column(name = "total_amount", nullable = false, precision = 19, scale = 4)
+    private BigDecimal totalAmount;
+
+    @Column(name = "tx_count", nullable = false)
+    private long count;
+
+    /**
+     * 新建的汇总行直接INSERT，不必像 merge 那样先按主键查询一次
+     */
+    @Transient
+    private boolean fresh = true;
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        fresh = false;
+    }
+}
@@ -0,0 +1,53 @@
+package com.banking.entity;
+
+import com.banking.enums.RollupGranularity;
+import com.banking.enums.TransactionType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionRollupId implements Serializable, Comparable<TransactionRollupId> {
+    @Column(name = "account_id")
+    private UUID accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private RollupGranularity granularity;
+
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private TransactionType type;
+
+    /**
+     * 与主键列顺序一致，按此顺序更新汇总行时多个事务的行锁获取顺序相同
+     */
+    @Override
+    public int compareTo(TransactionRollupId other) {
+        int result = accountId.compareTo(other.accountId);
+        if (result == 0) {
+            result = granularity.compareTo(other.granularity);
+        }
+        if (result == 0) {
+            result = bucketStart.compareTo(other.bucketStart);
+        }
+        if (result == 0) {
+            result = type.compareTo(other.type);
+        }
+        return result;
+    }
+}
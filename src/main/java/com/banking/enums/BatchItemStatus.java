@@ -0,0 +1,16 @@
+package com.banking.enums;
+
+/**
+ * 批量创建中单条交易的处理结果
+ */
+public enum BatchItemStatus {
+    /**
+     * 创建成功
+     */
+    CREATED,
+
+    /**
+     * 交易ID已存在（库中已有或同批次内重复）
+     */
+    DUPLICATE
+}
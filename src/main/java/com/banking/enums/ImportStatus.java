@@ -0,0 +1,26 @@
+package com.banking.enums;
+
+/**
+ * 批量导入任务状态
+ */
+public enum ImportStatus {
+    /**
+     * 正在导入
+     */
+    RUNNING,
+
+    /**
+     * 全部记录已处理
+     */
+    COMPLETED,
+
+    /**
+     * 因读取文件或数据库错误而终止，可从检查点恢复
+     */
+    FAILED,
+
+    /**
+     * 应用停止时仍在运行，可从检查点恢复
+     */
+    INTERRUPTED
+}
@@ -0,0 +1,43 @@
+package com.banking.enums;
+
+import com.banking.exception.InvalidTransactionException;
+
+/**
+ * 交易账本文件格式，导出与导入共用
+ */
+public enum LedgerFormat {
+    /**
+     * 每行一个JSON对象
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * 带表头的CSV
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    LedgerFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public static LedgerFormat fromParam(String value) {
+        for (LedgerFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new InvalidTransactionException("不支持的文件格式: " + value);
+    }
+}
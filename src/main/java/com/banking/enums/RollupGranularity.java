@@ -0,0 +1,46 @@
+package com.banking.enums;
+
+import com.banking.exception.InvalidTransactionException;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 交易汇总的时间粒度
+ */
+public enum RollupGranularity {
+    /**
+     * 按小时
+     */
+    HOUR,
+
+    /**
+     * 按天
+     */
+    DAY,
+
+    /**
+     * 按月
+     */
+    MONTH;
+
+    /**
+     * 返回时间所在汇总桶的起始时间
+     */
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        return switch (this) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case MONTH -> time.truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+        };
+    }
+
+    public static RollupGranularity fromParam(String value) {
+        for (RollupGranularity granularity : values()) {
+            if (granularity.name().equalsIgnoreCase(value)) {
+                return granularity;
+            }
+        }
+        throw new InvalidTransactionException("不支持的汇总粒度: " + value);
+    }
+}
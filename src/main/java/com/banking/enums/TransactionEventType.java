@@ -0,0 +1,21 @@
+package com.banking.enums;
+
+/**
+ * 交易变更事件类型
+ */
+public enum TransactionEventType {
+    /**
+     * 交易已创建
+     */
+    CREATED,
+
+    /**
+     * 交易已更新
+     */
+    UPDATED,
+
+    /**
+     * 交易已删除
+     */
+    DELETED
+}
@@ -1,5 +1,7 @@
 package com.banking.enums;
 
+import java.math.BigDecimal;
+
 /**
  * 交易类型枚举
  */
@@ -22,5 +24,19 @@ public enum TransactionType {
     /**
      * 转账-转入
      */
-    TRANSFER_IN
-} 
\ No newline at end of file
+    TRANSFER_IN;
+
+    /**
+     * 是否为入账类型（存款、转入）
+     */
+    public boolean isCredit() {
+        return this == DEPOSIT || this == TRANSFER_IN;
+    }
+
+    /**
+     * 返回该类型交易对账户余额的影响：入账为正，出账为负
+     */
+    public BigDecimal signedAmount(BigDecimal amount) {
+        return isCredit() ? amount : amount.negate();
+    }
+}
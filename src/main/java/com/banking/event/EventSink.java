@@ -0,0 +1,24 @@
+package com.banking.event;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 订阅者的输出端，由订阅者线程顺序调用，发送失败抛出 IOException 表示连接已断开
+ */
+public interface EventSink {
+    /**
+     * 按序号顺序发送一批事件
+     */
+    void send(List<TransactionEvent> events) throws IOException;
+
+    /**
+     * 空闲时发送心跳，及时发现已断开的连接
+     */
+    void heartbeat() throws IOException;
+
+    /**
+     * 服务端主动断开：订阅者落后太多时调用，nextSeq 为客户端重新订阅时应使用的起始序号
+     */
+    void disconnect(String reason, long nextSeq);
+}
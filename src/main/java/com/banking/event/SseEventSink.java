@@ -0,0 +1,53 @@
+package com.banking.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 以 server-sent events 推送事件：事件名为事件类型，id 为序号，浏览器断线重连时通过 Last-Event-ID 续传。
+ * 一批事件拼成一次写出、一次 flush
+ */
+public class SseEventSink implements EventSink {
+    private final SseEmitter emitter;
+    private final ObjectMapper objectMapper;
+
+    public SseEventSink(SseEmitter emitter, ObjectMapper objectMapper) {
+        this.emitter = emitter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void send(List<TransactionEvent> events) throws IOException {
+        Set<ResponseBodyEmitter.DataWithMediaType> data = new LinkedHashSet<>();
+        for (TransactionEvent event : events) {
+            data.addAll(SseEmitter.event()
+                    .id(Long.toString(event.getSeq()))
+                    .name(event.getType().name())
+                    .data(event.toJson(objectMapper), MediaType.APPLICATION_JSON)
+                    .build());
+        }
+        emitter.send(data);
+    }
+
+    @Override
+    public void heartbeat() throws IOException {
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+    }
+
+    @Override
+    public void disconnect(String reason, long nextSeq) {
+        try {
+            emitter.send(SseEmitter.event().name("disconnect").data(reason + ":" + nextSeq));
+        } catch (IOException | RuntimeException e) {
+            // 连接可能已不可写，直接关闭
+        }
+        emitter.complete();
+    }
+}
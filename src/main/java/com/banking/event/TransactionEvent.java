@@ -0,0 +1,51 @@
+package com.banking.event;
+
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionEventType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 交易变更事件，删除事件不带交易内容
+ * <p>
+ * 同一事件推送给所有订阅者，JSON 只在第一次推送时序列化一次并缓存；并发首次推送时可能重复序列化，结果相同，无需加锁。
+ */
+@Getter
+public final class TransactionEvent {
+    private final long seq;
+    private final TransactionEventType type;
+    private final UUID transactionId;
+    private final TransactionDTO transaction;
+    private final LocalDateTime occurredAt;
+
+    @JsonIgnore
+    private volatile String json;
+
+    public TransactionEvent(long seq, TransactionEventType type, UUID transactionId, TransactionDTO transaction,
+                            LocalDateTime occurredAt) {
+        this.seq = seq;
+        this.type = type;
+        this.transactionId = transactionId;
+        this.transaction = transaction;
+        this.occurredAt = occurredAt;
+    }
+
+    public String toJson(ObjectMapper objectMapper) {
+        String cached = json;
+        if (cached == null) {
+            try {
+                cached = objectMapper.writeValueAsString(this);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+            json = cached;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,210 @@
+package com.banking.event;
+
+import com.banking.concurrent.SequencedRingBuffer;
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionEventType;
+import com.banking.exception.EventSequenceExpiredException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 进程内交易变更事件总线
+ * <p>
+ * 所有事件写入一个 {@link SequencedRingBuffer}，由它分配全局递增的序号；缓冲区为所有订阅者共享，
+ * 发布一次只有一次分配与一次槽位写入，再唤醒正在等待的订阅者，不为每个订阅者复制事件，也不查询数据库。
+ * <p>
+ * 每个订阅者一个线程，从自己的游标顺序读取缓冲区并批量推送。订阅者的缓冲上限即允许落后的事件数
+ * {@code max-lag}：落后超过该值（或已被覆盖）时服务端发送断开通知并关闭连接，客户端以通知中的序号重新订阅，
+ * 不会拖慢写入方或其他订阅者。
+ * <p>
+ * 序号只在本进程内有效，重启后从0开始；其他实例的写入不会出现在本实例的事件流中。
+ */
+@Component
+public class TransactionEventBus {
+    private static final int MAX_BATCH = 256;
+    private static final long RETRY_NANOS = 50_000;
+
+    private final SequencedRingBuffer<TransactionEvent> ring;
+    private final long maxLag;
+    private final long heartbeatNanos;
+    private final ThreadFactory threadFactory;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter published;
+    private final Counter slowDisconnects;
+    private final Counter clientDisconnects;
+
+    public TransactionEventBus(@Value("${banking.events.ring-capacity:16384}") int ringCapacity,
+                               @Value("${banking.events.max-lag:4096}") int maxLag,
+                               @Value("${banking.events.heartbeat:PT15S}") Duration heartbeat,
+                               MeterRegistry meterRegistry) {
+        this.ring = new SequencedRingBuffer<>(ringCapacity);
+        if (maxLag < 1 || maxLag > ringCapacity) {
+            throw new IllegalArgumentException("max-lag 需在1到环形缓冲区容量之间: " + maxLag);
+        }
+        this.maxLag = maxLag;
+        this.heartbeatNanos = heartbeat.toNanos();
+        // SseEmitter.send 是 synchronized 方法，在其中阻塞写套接字会钉住虚拟线程的载体线程，订阅者固定使用平台线程
+        this.threadFactory = Thread.ofPlatform().daemon().name("event-subscriber-", 0).factory();
+
+        this.published = Counter.builder("banking.events.published")
+                .description("发布的交易事件数").register(meterRegistry);
+        this.slowDisconnects = Counter.builder("banking.events.disconnected").tag("reason", "slow")
+                .description("断开的订阅数").register(meterRegistry);
+        this.clientDisconnects = Counter.builder("banking.events.disconnected").tag("reason", "client")
+                .description("断开的订阅数").register(meterRegistry);
+        Gauge.builder("banking.events.subscribers", subscribers, Set::size)
+                .description("当前订阅数").register(meterRegistry);
+    }
+
+    /**
+     * 发布一个事件，应在数据库事务提交之后调用；同一交易的事件需在该交易的锁内发布，以保证顺序
+     */
+    public long publish(TransactionEventType type, UUID transactionId, TransactionDTO transaction) {
+        LocalDateTime now = LocalDateTime.now();
+        long seq = ring.publish(s -> new TransactionEvent(s, type, transactionId, transaction, now));
+        published.increment();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.waiting) {
+                LockSupport.unpark(subscriber.thread);
+            }
+        }
+        return seq;
+    }
+
+    /**
+     * 从 fromSeq 开始订阅，为空时只接收之后发布的事件；fromSeq 已被覆盖时抛出 {@link EventSequenceExpiredException}
+     */
+    public Subscription subscribe(Long fromSeq, EventSink sink) {
+        long next = ring.nextSequence();
+        long start = fromSeq == null ? next : Math.min(fromSeq, next);
+        long oldest = ring.oldestSequence();
+        if (start < oldest) {
+            throw new EventSequenceExpiredException(start, oldest);
+        }
+        Subscriber subscriber = new Subscriber(start, sink);
+        subscribers.add(subscriber);
+        subscriber.thread = threadFactory.newThread(subscriber::run);
+        subscriber.thread.start();
+        return subscriber;
+    }
+
+    public long nextSequence() {
+        return ring.nextSequence();
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(Subscriber::cancel);
+    }
+
+    /**
+     * 订阅句柄，连接关闭时调用 {@link #cancel()} 结束订阅者线程
+     */
+    public interface Subscription {
+        void cancel();
+    }
+
+    private final class Subscriber implements Subscription {
+        private final EventSink sink;
+        private long next;
+        private volatile Thread thread;
+        private volatile boolean waiting;
+        private volatile boolean cancelled;
+
+        Subscriber(long start, EventSink sink) {
+            this.next = start;
+            this.sink = sink;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Thread current = thread;
+            if (current != null) {
+                LockSupport.unpark(current);
+            }
+        }
+
+        void run() {
+            List<TransactionEvent> batch = new ArrayList<>(MAX_BATCH);
+            long lastSentAt = System.nanoTime();
+            try {
+                while (!cancelled) {
+                    long end = ring.nextSequence();
+                    if (next >= end) {
+                        if (System.nanoTime() - lastSentAt >= heartbeatNanos) {
+                            sink.heartbeat();
+                            lastSentAt = System.nanoTime();
+                        }
+                        awaitPublish(end, heartbeatNanos);
+                        continue;
+                    }
+                    if (end - next > maxLag) {
+                        disconnectSlow();
+                        return;
+                    }
+                    batch.clear();
+                    while (next < end && batch.size() < MAX_BATCH) {
+                        TransactionEvent event = ring.get(next);
+                        if (event == null) {
+                            break;
+                        }
+                        batch.add(event);
+                        next++;
+                    }
+                    if (batch.isEmpty()) {
+                        if (next < ring.oldestSequence()) {
+                            disconnectSlow();
+                            return;
+                        }
+                        // 序号已被领取但写入方还没写完槽位，稍后重试
+                        LockSupport.parkNanos(RETRY_NANOS);
+                        continue;
+                    }
+                    sink.send(batch);
+                    lastSentAt = System.nanoTime();
+                }
+            } catch (IOException | RuntimeException e) {
+                if (!cancelled) {
+                    clientDisconnects.increment();
+                }
+            } finally {
+                subscribers.remove(this);
+            }
+        }
+
+        /**
+         * 先声明等待再检查一次序号：发布方先推进序号再读取 waiting，两者都是 volatile，不会错过唤醒
+         */
+        private void awaitPublish(long end, long timeoutNanos) {
+            waiting = true;
+            try {
+                if (ring.nextSequence() == end && !cancelled) {
+                    LockSupport.parkNanos(timeoutNanos);
+                }
+            } finally {
+                waiting = false;
+            }
+        }
+
+        private void disconnectSlow() {
+            slowDisconnects.increment();
+            sink.disconnect("slow-consumer", next);
+        }
+    }
+}
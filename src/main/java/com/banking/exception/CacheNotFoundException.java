@@ -0,0 +1,7 @@
+package com.banking.exception;
+
+public class CacheNotFoundException extends RuntimeException {
+    public CacheNotFoundException(String name) {
+        super("未找到名为 " + name + " 的缓存");
+    }
+}
@@ -0,0 +1,7 @@
+package com.banking.exception;
+
+public class EventSequenceExpiredException extends RuntimeException {
+    public EventSequenceExpiredException(long requested, long oldest) {
+        super("事件序号 " + requested + " 已不在缓冲区中（最早可用 " + oldest + "），请重新查询后从最新位置订阅");
+    }
+}
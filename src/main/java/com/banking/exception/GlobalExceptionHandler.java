@@ -1,5 +1,7 @@
 package com.banking.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -7,6 +9,8 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import java.time.Duration;
+
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -15,16 +19,61 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(ImportJobNotFoundException.class)
+    public ResponseEntity<String> handleImportJobNotFoundException(ImportJobNotFoundException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(CacheNotFoundException.class)
+    public ResponseEntity<String> handleCacheNotFoundException(CacheNotFoundException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(EventSequenceExpiredException.class)
+    public ResponseEntity<String> handleEventSequenceExpiredException(EventSequenceExpiredException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.GONE);
+    }
+
     @ExceptionHandler(DuplicateTransactionException.class)
     public ResponseEntity<String> handleDuplicateTransactionException(DuplicateTransactionException ex) {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<String> handleIdempotencyKeyInProgressException(IdempotencyKeyInProgressException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<String> handleIdempotencyKeyMismatchException(IdempotencyKeyMismatchException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<String> handleServiceOverloadedException(ServiceOverloadedException ex) {
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, ex.getRetryAfter(), ex.getMessage());
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<String> handleRateLimitExceededException(RateLimitExceededException ex) {
+        return retryLater(HttpStatus.TOO_MANY_REQUESTS, ex.getRetryAfter(), ex.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return new ResponseEntity<>("交易已被并发修改，请重试", HttpStatus.CONFLICT);
+    }
+
     @ExceptionHandler(InvalidTransactionException.class)
     public ResponseEntity<String> handleInvalidTransactionException(InvalidTransactionException ex) {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InsufficientFundsException.class)
+    public ResponseEntity<String> handleInsufficientFundsException(InsufficientFundsException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<String> handleValidationExceptions(MethodArgumentNotValidException ex) {
         StringBuilder errorMessage = new StringBuilder("输入数据验证失败: ");
@@ -42,4 +91,12 @@ public class GlobalExceptionHandler {
     public ResponseEntity<String> handleGlobalException(Exception ex) {
         return new ResponseEntity<>("服务器错误: " + ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     }
-} 
\ No newline at end of file
+
+    private static ResponseEntity<String> retryLater(HttpStatus status, Duration retryAfter, String message) {
+        // Retry-After 只支持整秒，不足1秒按1秒
+        long seconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.banking.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+    public IdempotencyKeyInProgressException(String key) {
+        super("幂等键 " + key + " 对应的请求仍在处理中，请稍后重试");
+    }
+}
@@ -0,0 +1,7 @@
+package com.banking.exception;
+
+public class IdempotencyKeyMismatchException extends RuntimeException {
+    public IdempotencyKeyMismatchException(String key) {
+        super("幂等键 " + key + " 已用于不同的请求内容");
+    }
+}
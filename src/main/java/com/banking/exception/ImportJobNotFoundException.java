@@ -0,0 +1,9 @@
+package com.banking.exception;
+
+import java.util.UUID;
+
+public class ImportJobNotFoundException extends RuntimeException {
+    public ImportJobNotFoundException(UUID id) {
+        super("未找到ID为 " + id + " 的导入任务");
+    }
+}
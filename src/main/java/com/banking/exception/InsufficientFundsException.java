@@ -0,0 +1,9 @@
+package com.banking.exception;
+
+import java.util.UUID;
+
+public class InsufficientFundsException extends RuntimeException {
+    public InsufficientFundsException(UUID accountId) {
+        super("账户 " + accountId + " 余额不足");
+    }
+}
@@ -0,0 +1,17 @@
+package com.banking.exception;
+
+import java.time.Duration;
+import java.util.UUID;
+
+public class RateLimitExceededException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(UUID accountId, Duration retryAfter) {
+        super("账户 " + accountId + " 的写入请求过于频繁，请稍后重试");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,20 @@
+package com.banking.exception;
+
+import java.time.Duration;
+
+public class ServiceOverloadedException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(Duration retryAfter) {
+        this("服务繁忙，请稍后重试", retryAfter);
+    }
+
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
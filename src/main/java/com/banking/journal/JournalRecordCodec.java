@@ -0,0 +1,103 @@
+package com.banking.journal;
+
+import com.banking.entity.Transaction;
+import com.banking.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * 日志记录载荷的二进制编码：UUID按两个long存储，金额按标度与非标度值存储，时间按UTC秒与纳秒存储。
+ * 首字节为格式版本，交易类型按枚举序号存储，新增类型只能追加在枚举末尾
+ */
+final class JournalRecordCodec {
+    private static final byte FORMAT_VERSION = 1;
+
+    private JournalRecordCodec() {
+    }
+
+    static byte[] encode(Transaction transaction) {
+        byte[] unscaled = transaction.getAmount().unscaledValue().toByteArray();
+        byte[] description = transaction.getDescription() == null
+                ? null : transaction.getDescription().getBytes(StandardCharsets.UTF_8);
+        int size = 1 + 16 + 1 + 4 + 1 + unscaled.length + 16 + 1
+                + (transaction.getRelatedAccountId() != null ? 16 : 0)
+                + 4 + (description != null ? description.length : 0)
+                + 12 + 12;
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(FORMAT_VERSION);
+        putUuid(buffer, transaction.getId());
+        buffer.put((byte) transaction.getType().ordinal());
+        buffer.putInt(transaction.getAmount().scale());
+        buffer.put((byte) unscaled.length);
+        buffer.put(unscaled);
+        putUuid(buffer, transaction.getAccountId());
+        if (transaction.getRelatedAccountId() != null) {
+            buffer.put((byte) 1);
+            putUuid(buffer, transaction.getRelatedAccountId());
+        } else {
+            buffer.put((byte) 0);
+        }
+        if (description != null) {
+            buffer.putInt(description.length);
+            buffer.put(description);
+        } else {
+            buffer.putInt(-1);
+        }
+        putTime(buffer, transaction.getCreatedAt());
+        putTime(buffer, transaction.getUpdatedAt());
+        return buffer.array();
+    }
+
+    static Transaction decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalStateException("不支持的交易日志格式版本: " + version);
+        }
+        Transaction transaction = new Transaction();
+        transaction.setId(getUuid(buffer));
+        transaction.setType(TransactionType.values()[buffer.get()]);
+        int scale = buffer.getInt();
+        byte[] unscaled = new byte[buffer.get()];
+        buffer.get(unscaled);
+        transaction.setAmount(new BigDecimal(new BigInteger(unscaled), scale));
+        transaction.setAccountId(getUuid(buffer));
+        if (buffer.get() == 1) {
+            transaction.setRelatedAccountId(getUuid(buffer));
+        }
+        int descriptionLength = buffer.getInt();
+        if (descriptionLength >= 0) {
+            byte[] description = new byte[descriptionLength];
+            buffer.get(description);
+            transaction.setDescription(new String(description, StandardCharsets.UTF_8));
+        }
+        transaction.setCreatedAt(getTime(buffer));
+        transaction.setUpdatedAt(getTime(buffer));
+        return transaction;
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static void putTime(ByteBuffer buffer, LocalDateTime time) {
+        buffer.putLong(time.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(time.getNano());
+    }
+
+    private static LocalDateTime getTime(ByteBuffer buffer) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+    }
+}
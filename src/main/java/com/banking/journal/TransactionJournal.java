@@ -0,0 +1,543 @@
+package com.banking.journal;
+
+import com.banking.entity.Transaction;
+import com.banking.exception.DuplicateTransactionException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 交易预写日志（write-behind）
+ * <p>
+ * 创建交易时先把记录追加到内存映射的本地日志段文件，组提交线程每隔 sync-interval 或每累积 sync-batch 条记录
+ * 执行一次 force 落盘，落盘后才向调用方返回；刷写线程每隔 flush-interval 把已落盘的记录批量写入数据库并推进检查点。
+ * 进程崩溃后，启动时从检查点开始重放日志，写库时按交易ID去重，检查点之后已写入数据库的记录不会重复入账。
+ * 修改、删除等需要读到已写库交易的操作可用 {@link #awaitFlushed} 让刷写线程立即刷写并等待该交易写库。
+ * <p>
+ * 记录格式为 [int 载荷长度][int CRC32C][载荷]，长度最后写入，长度为0表示段内数据结束；
+ * 崩溃时留下的不完整记录由校验和识别，重放到此为止。
+ */
+public class TransactionJournal implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(TransactionJournal.class);
+    private static final int RECORD_HEADER = 8;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT = "journal.checkpoint";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long syncIntervalNanos;
+    private final int syncBatch;
+    private final Duration flushInterval;
+    private final int flushBatch;
+    private final Timer syncTimer;
+    private final DistributionSummary syncBatchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition syncRequested = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+    private final Condition rolled = lock.newCondition();
+
+    // 以下字段由 lock 保护
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long segmentId;
+    private int syncedPosition;
+    private long appendedCount;
+    private long syncedCount;
+    private List<Entry> unsynced = new ArrayList<>();
+    private long firstUnsyncedAt;
+    private boolean rollRequested;
+    private boolean running;
+    private RuntimeException failure;
+
+    /**
+     * 已落盘、等待写入数据库的记录，按追加顺序排列
+     */
+    private final BlockingQueue<Entry> durable = new LinkedBlockingQueue<>();
+    /**
+     * 已追加但尚未写入数据库的交易，用于拒绝重复ID以及在写库前按ID读取
+     */
+    private final Map<UUID, Transaction> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushRequested = flushLock.newCondition();
+    private final Condition flushed = flushLock.newCondition();
+    // 以下两个字段由 flushLock 保护
+    private boolean flushNow;
+    private boolean stopFlushing;
+    private final List<Entry> unflushed = new ArrayList<>();
+    private Consumer<List<Transaction>> sink;
+    private Thread syncThread;
+    private Thread flushThread;
+
+    private record Entry(Transaction transaction, long segmentId, int endPosition) {
+    }
+
+    public TransactionJournal(Path directory, int segmentSize, Duration syncInterval, int syncBatch,
+                              Duration flushInterval, int flushBatch, MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.syncIntervalNanos = syncInterval.toNanos();
+        this.syncBatch = syncBatch;
+        this.flushInterval = flushInterval;
+        this.flushBatch = flushBatch;
+        this.syncTimer = Timer.builder("banking.journal.sync")
+                .description("交易日志一次组提交落盘的耗时").publishPercentileHistogram().register(meterRegistry);
+        this.syncBatchSize = DistributionSummary.builder("banking.journal.sync.batch")
+                .description("一次组提交落盘的记录数").register(meterRegistry);
+        Gauge.builder("banking.journal.pending", pending, Map::size)
+                .description("已确认但尚未写入数据库的交易数").register(meterRegistry);
+    }
+
+    /**
+     * 重放上次未写入数据库的记录，然后开始接受追加；sink 负责把一批交易按ID去重写入数据库
+     */
+    public void start(Consumer<List<Transaction>> sink) {
+        this.sink = sink;
+        try {
+            Files.createDirectories(directory);
+            long nextSegment = replay();
+            lock.lock();
+            try {
+                openSegment(nextSegment);
+                running = true;
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法打开交易日志目录 " + directory, e);
+        }
+        syncThread = Thread.ofPlatform().name("journal-sync").daemon().start(this::syncLoop);
+        flushThread = Thread.ofPlatform().name("journal-flush").daemon().start(this::flushLoop);
+    }
+
+    /**
+     * 追加一条交易并等待其所在的组提交落盘，返回后即使进程崩溃该交易也会在重启时写入数据库
+     * <p>
+     * 先在 pending 中占住该ID，再由 {@code stored} 检查数据库：刷写线程在提交之后才移出 pending，
+     * 因此同一ID要么仍在 pending 中，要么已能在数据库中查到，不会两边都漏掉
+     */
+    public void append(Transaction transaction, Predicate<UUID> stored) {
+        UUID id = transaction.getId();
+        if (pending.putIfAbsent(id, transaction) != null) {
+            throw new DuplicateTransactionException("交易ID " + id + " 已存在");
+        }
+        try {
+            if (stored.test(id)) {
+                throw new DuplicateTransactionException("交易ID " + id + " 已存在");
+            }
+            byte[] payload = JournalRecordCodec.encode(transaction);
+            if (RECORD_HEADER + payload.length > segmentSize) {
+                throw new IllegalArgumentException("交易记录超过日志段大小");
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+
+            lock.lock();
+            try {
+                checkRunning();
+                while (buffer.remaining() < RECORD_HEADER + payload.length) {
+                    // 当前段剩余空间不足，由组提交线程在已追加记录落盘后切换到新段
+                    rollRequested = true;
+                    syncRequested.signal();
+                    rolled.awaitUninterruptibly();
+                    checkRunning();
+                }
+                int start = buffer.position();
+                buffer.putInt(start + 4, (int) crc.getValue());
+                buffer.put(start + RECORD_HEADER, payload);
+                buffer.putInt(start, payload.length);
+                buffer.position(start + RECORD_HEADER + payload.length);
+
+                long sequence = ++appendedCount;
+                if (unsynced.isEmpty()) {
+                    firstUnsyncedAt = System.nanoTime();
+                    syncRequested.signal();
+                }
+                unsynced.add(new Entry(transaction, segmentId, buffer.position()));
+                if (unsynced.size() >= syncBatch) {
+                    syncRequested.signal();
+                }
+                while (syncedCount < sequence) {
+                    if (failure != null) {
+                        throw new IllegalStateException("交易日志落盘失败", failure);
+                    }
+                    synced.awaitUninterruptibly();
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (RuntimeException e) {
+            pending.remove(id);
+            throw e;
+        }
+    }
+
+    /**
+     * 已确认但尚未写入数据库的交易
+     */
+    public Optional<Transaction> findPending(UUID id) {
+        return Optional.ofNullable(pending.get(id));
+    }
+
+    /**
+     * 让刷写线程立即开始下一轮刷写，并等待该交易写入数据库（或本就不在日志中）；超时或日志已关闭时返回 false
+     */
+    public boolean awaitFlushed(UUID id, Duration timeout) {
+        if (!pending.containsKey(id)) {
+            return true;
+        }
+        long remaining = timeout.toNanos();
+        flushLock.lock();
+        try {
+            flushNow = true;
+            flushRequested.signal();
+            // 刷写线程先移出 pending 再在 flushLock 下通知，在锁内检查不会错过通知
+            while (pending.containsKey(id)) {
+                if (remaining <= 0 || stopFlushing) {
+                    return false;
+                }
+                remaining = flushed.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 停止接受追加，等待已追加的记录落盘并尽量写入数据库；写库失败的记录留在日志中，下次启动时重放
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (!running) {
+                return;
+            }
+            running = false;
+            syncRequested.signalAll();
+            rolled.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        joinQuietly(syncThread);
+        flushLock.lock();
+        try {
+            stopFlushing = true;
+            flushRequested.signal();
+        } finally {
+            flushLock.unlock();
+        }
+        joinQuietly(flushThread);
+        lock.lock();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("关闭交易日志段失败", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkRunning() {
+        if (failure != null) {
+            throw new IllegalStateException("交易日志不可用", failure);
+        }
+        if (!running) {
+            throw new IllegalStateException("交易日志已关闭");
+        }
+    }
+
+    private void syncLoop() {
+        while (true) {
+            List<Entry> batch;
+            MappedByteBuffer target;
+            int from;
+            int to;
+            long count;
+            lock.lock();
+            try {
+                while (running && unsynced.isEmpty() && !rollRequested) {
+                    syncRequested.awaitUninterruptibly();
+                }
+                if (!running && unsynced.isEmpty()) {
+                    return;
+                }
+                // 组提交：攒够 syncBatch 条或最早一条已等待 syncInterval 时落盘，期间追加线程继续写入映射区
+                while (running && !rollRequested && unsynced.size() < syncBatch) {
+                    long remaining = firstUnsyncedAt + syncIntervalNanos - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    try {
+                        syncRequested.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                batch = unsynced;
+                unsynced = new ArrayList<>();
+                target = buffer;
+                from = syncedPosition;
+                to = buffer.position();
+                count = appendedCount;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                if (to > from) {
+                    long start = System.nanoTime();
+                    target.force(from, to - from);
+                    syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    syncBatchSize.record(batch.size());
+                }
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+
+            lock.lock();
+            try {
+                syncedPosition = to;
+                syncedCount = count;
+                durable.addAll(batch);
+                synced.signalAll();
+                if (rollRequested && unsynced.isEmpty()) {
+                    channel.close();
+                    openSegment(segmentId + 1);
+                    rollRequested = false;
+                    rolled.signalAll();
+                }
+            } catch (IOException | RuntimeException e) {
+                fail(e instanceof IOException io ? new UncheckedIOException(io) : (RuntimeException) e);
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void fail(RuntimeException e) {
+        log.error("交易日志落盘失败，停止接受新的交易", e);
+        lock.lock();
+        try {
+            failure = e;
+            running = false;
+            synced.signalAll();
+            rolled.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        boolean stopping = false;
+        while (!stopping) {
+            flushLock.lock();
+            try {
+                long remaining = flushInterval.toNanos();
+                while (!flushNow && !stopFlushing && remaining > 0) {
+                    remaining = flushRequested.awaitNanos(remaining);
+                }
+                flushNow = false;
+                stopping = stopFlushing;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopping = true;
+            } finally {
+                flushLock.unlock();
+            }
+            flushDurable();
+            flushLock.lock();
+            try {
+                flushed.signalAll();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 把已落盘的记录分批写入数据库；写入失败时保留该批，下一轮重试
+     */
+    private void flushDurable() {
+        while (true) {
+            if (unflushed.isEmpty()) {
+                durable.drainTo(unflushed, flushBatch);
+            }
+            if (unflushed.isEmpty()) {
+                return;
+            }
+            try {
+                sink.accept(unflushed.stream().map(Entry::transaction).toList());
+            } catch (RuntimeException e) {
+                log.warn("交易日志写入数据库失败，{} 条记录将在下一轮重试", unflushed.size(), e);
+                return;
+            }
+            Entry last = unflushed.get(unflushed.size() - 1);
+            unflushed.forEach(entry -> pending.remove(entry.transaction().getId()));
+            unflushed.clear();
+            checkpoint(last.segmentId(), last.endPosition());
+        }
+    }
+
+    /**
+     * 从检查点重放日志中尚未写入数据库的记录，返回新日志段的编号
+     */
+    private long replay() throws IOException {
+        long[] checkpoint = readCheckpoint();
+        List<Long> segments = listSegments();
+        long lastSegment = checkpoint[0];
+        List<Transaction> batch = new ArrayList<>(flushBatch);
+        int replayed = 0;
+        for (long id : segments) {
+            if (id < checkpoint[0]) {
+                continue;
+            }
+            lastSegment = id;
+            int position = id == checkpoint[0] ? (int) checkpoint[1] : 0;
+            try (FileChannel segment = FileChannel.open(segmentPath(id), StandardOpenOption.READ)) {
+                ByteBuffer data = segment.map(FileChannel.MapMode.READ_ONLY, 0, segment.size());
+                while (position + RECORD_HEADER <= data.limit()) {
+                    int length = data.getInt(position);
+                    if (length <= 0 || position + RECORD_HEADER + length > data.limit()) {
+                        break;
+                    }
+                    byte[] payload = new byte[length];
+                    data.get(position + RECORD_HEADER, payload);
+                    CRC32C crc = new CRC32C();
+                    crc.update(payload);
+                    if ((int) crc.getValue() != data.getInt(position + 4)) {
+                        log.warn("交易日志 {} 偏移 {} 处的记录不完整，忽略该段其后的内容", segmentPath(id), position);
+                        break;
+                    }
+                    batch.add(JournalRecordCodec.decode(payload));
+                    position += RECORD_HEADER + length;
+                    if (batch.size() >= flushBatch) {
+                        replayed += replayBatch(batch);
+                    }
+                }
+            }
+        }
+        replayed += replayBatch(batch);
+        if (replayed > 0) {
+            log.info("已从交易日志重放 {} 条交易", replayed);
+        }
+
+        long nextSegment = segments.isEmpty() ? 0 : lastSegment + 1;
+        checkpoint(nextSegment, 0);
+        return nextSegment;
+    }
+
+    private int replayBatch(List<Transaction> batch) {
+        int size = batch.size();
+        if (size > 0) {
+            sink.accept(List.copyOf(batch));
+            batch.clear();
+        }
+        return size;
+    }
+
+    private void openSegment(long id) throws IOException {
+        channel = FileChannel.open(segmentPath(id), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // 映射时文件扩展到段大小并以0填充，未写入的位置读到长度0即为段内数据结束
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segmentId = id;
+        syncedPosition = 0;
+    }
+
+    /**
+     * 检查点之前的记录均已写入数据库；先写临时文件再原子替换，并删除检查点之前的日志段
+     */
+    private void checkpoint(long segment, int position) {
+        try {
+            Path temp = directory.resolve(CHECKPOINT + ".tmp");
+            try (FileChannel file = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                file.write(ByteBuffer.allocate(12).putLong(segment).putInt(position).flip());
+                file.force(true);
+            }
+            Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            for (long id : listSegments()) {
+                if (id < segment) {
+                    Files.deleteIfExists(segmentPath(id));
+                }
+            }
+        } catch (IOException e) {
+            // 检查点落后只会让重放多读一些已写入的记录，按ID去重后不影响结果
+            log.warn("写入交易日志检查点失败", e);
+        }
+    }
+
+    private long[] readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT);
+        if (!Files.exists(file)) {
+            return new long[]{0, 0};
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        return new long[]{data.getLong(), data.getInt()};
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                            name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%016d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static void joinQuietly(Thread thread) {
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
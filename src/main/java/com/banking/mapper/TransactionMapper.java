@@ -21,6 +21,7 @@ public class TransactionMapper {
         dto.setDescription(entity.getDescription());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setUpdatedAt(entity.getUpdatedAt());
+        dto.setVersion(entity.getVersion());
         return dto;
     }
 
@@ -39,4 +40,15 @@ public class TransactionMapper {
         // 不设置时间字段，让@PrePersist和@PreUpdate处理
         return entity;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 把DTO中可修改的字段合并到受管实体上，ID、时间与版本号保持由持久层管理
+     */
+    public void updateEntity(TransactionDTO dto, Transaction entity) {
+        entity.setType(dto.getType());
+        entity.setAmount(dto.getAmount());
+        entity.setAccountId(dto.getAccountId());
+        entity.setRelatedAccountId(dto.getRelatedAccountId());
+        entity.setDescription(dto.getDescription());
+    }
+}
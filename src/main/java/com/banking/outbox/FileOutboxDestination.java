@@ -0,0 +1,51 @@
+package com.banking.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 把事件以JSON行追加到本地文件，每批落盘一次；用于本地运行或作为下游接入前的替身
+ */
+public class FileOutboxDestination implements OutboxDestination, AutoCloseable {
+    private final ObjectMapper objectMapper;
+    private final FileChannel channel;
+
+    public FileOutboxDestination(Path file, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> messages) throws IOException {
+        StringBuilder lines = new StringBuilder(messages.size() * 256);
+        for (OutboxMessage message : messages) {
+            lines.append(objectMapper.writeValueAsString(message)).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        // 不同账户的批次并发调用，整批在锁内写入，行之间不会交错
+        synchronized (channel) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
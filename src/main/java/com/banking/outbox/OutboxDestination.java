@@ -0,0 +1,14 @@
+package com.banking.outbox;
+
+import java.util.List;
+
+/**
+ * 发件箱的投递目标
+ */
+public interface OutboxDestination {
+    /**
+     * 按顺序投递同一账户的一批事件，不同账户的批次会被并发调用。正常返回即视为整批投递成功；
+     * 抛出异常时整批稍后重试，实现需容忍部分已投递的消息被再次投递
+     */
+    void deliver(List<OutboxMessage> messages) throws Exception;
+}
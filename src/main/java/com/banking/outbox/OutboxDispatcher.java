@@ -0,0 +1,262 @@
+package com.banking.outbox;
+
+import com.banking.entity.OutboxEntry;
+import com.banking.replica.ReadConsistency;
+import com.banking.repository.OutboxEntryRepository;
+import com.banking.repository.OutboxPartitionRepository;
+import com.banking.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 发件箱投递线程
+ * <p>
+ * 账户按哈希固定落在 {@link com.banking.entity.OutboxPartition#COUNT} 个分区之一，每轮先以条件更新续期并领取租约
+ * 已过期的分区：其他实例持有的分区直接跳过，不等待其行锁；实例退出或宕机后，租约到期即由其他实例接管。
+ * <p>
+ * 每轮按主键顺序读取所持分区中至多 batch-size 条可投递事件，按账户分组：同一账户的事件按顺序整批投递，
+ * 不同账户在 parallelism 个工作线程上并发投递。投递失败的账户按指数退避重试，退避期间该账户之后的事件都不会被读取，
+ * 保证账户内顺序；其他账户不受影响。投递成功的事件在一个事务中删除。
+ * <p>
+ * 启用分片存储时各分片有各自的发件箱表与分区租约，每轮依次处理各分片，同一账户的事件只会出现在一个分片中。
+ * <p>
+ * 投递至少一次，下游以消息ID去重。一批投递耗时超过租约时长时，分区可能被其他实例接管而重复投递，租约应远大于投递超时。
+ */
+public class OutboxDispatcher implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final OutboxEntryRepository outboxEntryRepository;
+    private final OutboxPartitionRepository outboxPartitionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final OutboxDestination destination;
+    private final String owner = UUID.randomUUID().toString();
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration lease;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final ExecutorService workers;
+
+    private final Counter dispatched;
+    private final Counter failures;
+    private final Timer lag;
+    private final DistributionSummary batch;
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+    private final AtomicInteger ownedPartitions = new AtomicInteger();
+
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private Thread thread;
+
+    public OutboxDispatcher(OutboxEntryRepository outboxEntryRepository,
+                            OutboxPartitionRepository outboxPartitionRepository,
+                            TransactionTemplate transactionTemplate, ShardRouter shardRouter,
+                            OutboxDestination destination,
+                            int batchSize, int parallelism, Duration pollInterval, Duration lease,
+                            Duration initialBackoff, Duration maxBackoff, MeterRegistry meterRegistry) {
+        this.outboxEntryRepository = outboxEntryRepository;
+        this.outboxPartitionRepository = outboxPartitionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.destination = destination;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.workers = Executors.newFixedThreadPool(parallelism,
+                Thread.ofPlatform().name("outbox-worker-", 0).daemon().factory());
+
+        this.dispatched = Counter.builder("banking.outbox.dispatched")
+                .description("投递成功的发件箱事件数").register(meterRegistry);
+        this.failures = Counter.builder("banking.outbox.failures")
+                .description("投递失败的账户批次数").register(meterRegistry);
+        this.lag = Timer.builder("banking.outbox.lag")
+                .description("事件从提交到投递成功的延迟").publishPercentileHistogram().register(meterRegistry);
+        this.batch = DistributionSummary.builder("banking.outbox.batch")
+                .description("每轮读取的事件数").register(meterRegistry);
+        Gauge.builder("banking.outbox.oldest.age", oldestAgeMillis, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .description("本实例所持分区中最早一条未投递事件的等待时间").register(meterRegistry);
+        Gauge.builder("banking.outbox.partitions.owned", ownedPartitions, AtomicInteger::get)
+                .description("本实例持有的发件箱分区数").register(meterRegistry);
+    }
+
+    public void start() {
+        thread = Thread.ofPlatform().name("outbox-dispatcher").daemon().start(this::run);
+    }
+
+    private void run() {
+        while (stopped.getCount() > 0) {
+            int polled = 0;
+            try {
+                polled = pollOnce();
+            } catch (RuntimeException e) {
+                log.warn("发件箱投递轮次失败", e);
+            }
+            // 读满一批说明还有积压，立即进行下一轮
+            if (polled < batchSize) {
+                try {
+                    stopped.await(pollInterval.toNanos(), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 在每个分片上执行一轮领取、读取与投递，返回读取的事件数
+     */
+    int pollOnce() {
+        int polled = 0;
+        int owned = 0;
+        long oldestAge = 0;
+        for (int shard = 0; shard < shardRouter.shards(); shard++) {
+            // 读取的事件随后被投递并删除，不能读副本上的旧数据
+            ShardPoll poll = shardRouter.on(shard, () -> ReadConsistency.onPrimary(this::pollShard));
+            polled += poll.polled();
+            owned += poll.owned();
+            oldestAge = Math.max(oldestAge, poll.oldestAgeMillis());
+        }
+        ownedPartitions.set(owned);
+        oldestAgeMillis.set(oldestAge);
+        return polled;
+    }
+
+    private ShardPoll pollShard() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> partitions = transactionTemplate.execute(status -> {
+            outboxPartitionRepository.claim(owner, now, now.plus(lease));
+            return outboxPartitionRepository.findOwned(owner, now);
+        });
+        if (partitions.isEmpty()) {
+            return new ShardPoll(0, 0, 0);
+        }
+        Optional<OutboxEntry> oldest = outboxEntryRepository.findFirstByPartitionIdInOrderByIdAsc(partitions);
+        long oldestAge = oldest.map(e -> Duration.between(e.getCreatedAt(), now).toMillis()).orElse(0L);
+
+        List<OutboxEntry> entries = outboxEntryRepository.findDispatchable(partitions, now, Limit.of(batchSize));
+        if (entries.isEmpty()) {
+            return new ShardPoll(0, partitions.size(), oldestAge);
+        }
+        batch.record(entries.size());
+
+        Map<UUID, List<OutboxEntry>> byAccount = new LinkedHashMap<>();
+        entries.forEach(e -> byAccount.computeIfAbsent(e.getAccountId(), id -> new ArrayList<>()).add(e));
+        List<Callable<Throwable>> tasks = new ArrayList<>(byAccount.size());
+        byAccount.values().forEach(accountEntries -> tasks.add(() -> deliver(accountEntries)));
+
+        List<OutboxEntry> delivered = new ArrayList<>(entries.size());
+        List<OutboxEntry> failed = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        try {
+            List<Future<Throwable>> results = workers.invokeAll(tasks);
+            int index = 0;
+            for (List<OutboxEntry> accountEntries : byAccount.values()) {
+                Throwable error = results.get(index++).get();
+                if (error == null) {
+                    delivered.addAll(accountEntries);
+                } else {
+                    failed.add(accountEntries.get(0));
+                    errors.add(error);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ShardPoll(0, partitions.size(), oldestAge);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("发件箱投递任务异常", e.getCause());
+        }
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                outboxEntryRepository.deleteAllByIdInBatch(delivered.stream().map(OutboxEntry::getId).toList());
+            }
+            // 只推迟账户的第一条事件，之后的事件由查询条件挡住，恢复后按原顺序投递
+            for (int i = 0; i < failed.size(); i++) {
+                OutboxEntry head = failed.get(i);
+                int attempts = head.getAttempts() + 1;
+                outboxEntryRepository.markFailed(head.getId(), attempts, finishedAt.plus(backoff(attempts)),
+                        truncate(String.valueOf(errors.get(i))));
+            }
+        });
+
+        dispatched.increment(delivered.size());
+        failures.increment(failed.size());
+        delivered.forEach(e -> lag.record(Duration.between(e.getCreatedAt(), finishedAt)));
+        return new ShardPoll(entries.size(), partitions.size(), oldestAge);
+    }
+
+    private Throwable deliver(List<OutboxEntry> entries) {
+        List<OutboxMessage> messages = new ArrayList<>(entries.size());
+        entries.forEach(e -> messages.add(new OutboxMessage(e.getId(), e.getAccountId(), e.getTransactionId(),
+                e.getEventType(), e.getCreatedAt(), e.getPayload())));
+        try {
+            destination.deliver(messages);
+            return null;
+        } catch (Exception e) {
+            log.debug("账户 {} 的 {} 条事件投递失败", entries.get(0).getAccountId(), entries.size(), e);
+            return e;
+        }
+    }
+
+    Duration backoff(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private record ShardPoll(int polled, int owned, long oldestAgeMillis) {
+    }
+
+    private static String truncate(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    @Override
+    public void close() {
+        stopped.countDown();
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.shutdownNow();
+        // 主动释放租约，其他实例不必等到租约过期即可接管
+        try {
+            shardRouter.forEachShard(shard ->
+                    transactionTemplate.executeWithoutResult(status -> outboxPartitionRepository.release(owner)));
+        } catch (RuntimeException e) {
+            log.warn("释放发件箱分区租约失败", e);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.banking.outbox;
+
+import com.banking.enums.TransactionEventType;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * 投递给下游账本的一条交易变更。投递至少一次：实例在投递成功后、删除发件箱记录前崩溃时会重复投递，
+ * 下游以 id 去重；同一账户的 id 随提交顺序递增
+ */
+public record OutboxMessage(long id, UUID accountId, UUID transactionId, TransactionEventType type,
+                            LocalDateTime createdAt, @JsonRawValue String transaction) {
+}
@@ -0,0 +1,38 @@
+package com.banking.replica;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * 请求带有未过期的一致性令牌时，把处理该请求的线程固定到主库；请求结束或转入异步处理时清除标记，
+ * 异步读取由服务层通过 {@link ReadConsistency#propagate} 带上标记
+ */
+public class ConsistencyTokenInterceptor implements AsyncHandlerInterceptor {
+    private final ReadConsistency readConsistency;
+
+    public ConsistencyTokenInterceptor(ReadConsistency readConsistency) {
+        this.readConsistency = readConsistency;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String token = request.getHeader(ReadConsistency.TOKEN_HEADER);
+        if (token != null && readConsistency.requiresPrimary(token)) {
+            ReadConsistency.pinToPrimary();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        ReadConsistency.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ReadConsistency.clear();
+    }
+}
@@ -0,0 +1,108 @@
+package com.banking.replica;
+
+import com.banking.exception.InvalidTransactionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * 读副本的一致性策略
+ * <p>
+ * 开启读副本（banking.replica.enabled）后，只读事务默认读副本，副本可能落后主库至多 banking.replica.max-staleness。
+ * 写接口在响应头 {@value #TOKEN_HEADER} 中返回写入完成的时间，客户端在之后的读请求中带回该令牌，
+ * 令牌签发未超过 max-staleness 时本次请求的读取固定走主库，保证读到自己的写入；超过后副本已追上，恢复读副本。
+ * <p>
+ * 固定走主库的标记保存在线程上下文中，由 {@link ReplicaRoutingDataSource} 在获取只读连接时读取；
+ * 转交其他线程执行的读取用 {@link #propagate} 带上标记。读副本得到的结果可能是旧值，不写入本地缓存，
+ * 缓存只由主库读取填充，因此缓存命中与走主库的读取一样新。
+ */
+@Component
+public class ReadConsistency {
+    public static final String TOKEN_HEADER = "Consistency-Token";
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private final boolean replicasEnabled;
+    private final long maxStalenessMillis;
+
+    public ReadConsistency(@Value("${banking.replica.enabled:false}") boolean replicasEnabled,
+                           @Value("${banking.replica.max-staleness:PT5S}") Duration maxStaleness) {
+        this.replicasEnabled = replicasEnabled;
+        this.maxStalenessMillis = maxStaleness.toMillis();
+    }
+
+    /**
+     * 写入提交后签发的一致性令牌，即当前时间的毫秒数
+     */
+    public static String issueToken() {
+        return Long.toString(System.currentTimeMillis());
+    }
+
+    /**
+     * 当前线程的读取是否必须走主库
+     */
+    public static boolean primaryRequired() {
+        return PRIMARY.get() != null;
+    }
+
+    /**
+     * 在主库上执行 action，用于读后写、投递与恢复等不能容忍副本延迟的内部读取
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (primaryRequired()) {
+            return action.get();
+        }
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+
+    public static void onPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static void pinToPrimary() {
+        PRIMARY.set(Boolean.TRUE);
+    }
+
+    static void clear() {
+        PRIMARY.remove();
+    }
+
+    /**
+     * 当前线程的只读查询是否可能由副本返回；为true时查询结果不应写入缓存
+     */
+    public boolean replicaRead() {
+        return replicasEnabled && !primaryRequired();
+    }
+
+    /**
+     * 令牌签发未超过 max-staleness 时返回true；格式错误时抛出 {@link InvalidTransactionException}
+     */
+    public boolean requiresPrimary(String token) {
+        long issuedAt;
+        try {
+            issuedAt = Long.parseLong(token.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidTransactionException("无效的一致性令牌: " + token);
+        }
+        // 其他实例签发的令牌可能因时钟偏差略晚于本机时间，同样视为未过期
+        long age = System.currentTimeMillis() - issuedAt;
+        return age < maxStalenessMillis && age > -maxStalenessMillis;
+    }
+
+    /**
+     * 把当前线程的主库标记带到执行 action 的线程上
+     */
+    public <T> Supplier<T> propagate(Supplier<T> action) {
+        return primaryRequired() ? () -> onPrimary(action) : action;
+    }
+}
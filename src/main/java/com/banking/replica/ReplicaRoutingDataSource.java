@@ -0,0 +1,69 @@
+package com.banking.replica;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 主库与读副本之间的路由
+ * <p>
+ * 连接延迟到第一条语句执行时才真正获取，此时事务管理器已把连接设为只读：读写事务使用主库，
+ * 只读事务（包括 Spring Data 仓库方法默认的只读事务）轮询使用各副本，当前线程被 {@link ReadConsistency} 固定到主库时仍用主库。
+ * 关闭时关闭主库与各副本的连接池
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+    private static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final List<? extends DataSource> replicas;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas) {
+        super(primary);
+        this.primary = primary;
+        this.replicas = replicas;
+        setReadOnlyDataSource(new ReadOnlyRouting(primary, replicas));
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static final class ReadOnlyRouting extends AbstractRoutingDataSource {
+        private final int replicaCount;
+        private final AtomicInteger next = new AtomicInteger();
+
+        ReadOnlyRouting(DataSource primary, List<? extends DataSource> replicas) {
+            this.replicaCount = replicas.size();
+            Map<Object, Object> targets = new HashMap<>();
+            targets.put(PRIMARY, primary);
+            for (int i = 0; i < replicas.size(); i++) {
+                targets.put(i, replicas.get(i));
+            }
+            setTargetDataSources(targets);
+            setDefaultTargetDataSource(primary);
+            setLenientFallback(false);
+            afterPropertiesSet();
+        }
+
+        @Override
+        protected Object determineCurrentLookupKey() {
+            if (ReadConsistency.primaryRequired()) {
+                return PRIMARY;
+            }
+            return Math.floorMod(next.getAndIncrement(), replicaCount);
+        }
+    }
+}
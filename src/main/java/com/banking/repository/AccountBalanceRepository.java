@@ -0,0 +1,57 @@
+package com.banking.repository;
+
+import com.banking.dto.AccountBalanceDTO;
+import com.banking.entity.AccountBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AccountBalanceRepository extends JpaRepository<AccountBalance, UUID> {
+
+    @Modifying
+    @Query("update AccountBalance b set b.balance = b.balance + :delta, b.revision = b.revision + 1, " +
+            "b.updatedAt = :updatedAt where b.accountId = :accountId")
+    int addDelta(@Param("accountId") UUID accountId, @Param("delta") BigDecimal delta,
+                 @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * 仅当变更后余额不为负时才更新，由数据库保证透支检查与扣减的原子性
+     */
+    @Modifying
+    @Query("update AccountBalance b set b.balance = b.balance + :delta, b.revision = b.revision + 1, " +
+            "b.updatedAt = :updatedAt where b.accountId = :accountId and b.balance + :delta >= 0")
+    int addDeltaIfSufficient(@Param("accountId") UUID accountId, @Param("delta") BigDecimal delta,
+                             @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * 构造器表达式查询总是读取数据库当前值，不受持久化上下文中旧实体影响
+     */
+    @Query("select new com.banking.dto.AccountBalanceDTO(b.accountId, b.balance, b.revision, b.updatedAt) " +
+            "from AccountBalance b where b.accountId = :accountId")
+    Optional<AccountBalanceDTO> findSnapshot(@Param("accountId") UUID accountId);
+
+    @Query("select b.accountId from AccountBalance b")
+    List<UUID> findAllAccountIds();
+
+    @Query("select b.accountId from AccountBalance b where b.accountId in :accountIds")
+    List<UUID> findExistingAccountIds(@Param("accountIds") Collection<UUID> accountIds);
+
+    /**
+     * 按账户ID顺序对余额行加写锁；所有写入路径都先更新余额行，持有该锁即与这些账户的并发写入互斥
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b.accountId from AccountBalance b where b.accountId in :accountIds order by b.accountId")
+    List<UUID> lockAccounts(@Param("accountIds") Collection<UUID> accountIds);
+}
@@ -0,0 +1,30 @@
+package com.banking.repository;
+
+import com.banking.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Modifying
+    @Query("update IdempotencyRecord r set r.responseBody = :responseBody, r.version = r.version + 1 " +
+            "where r.key = :key")
+    int complete(@Param("key") String key, @Param("responseBody") String responseBody);
+
+    /**
+     * 仅当记录未被其他请求重新占用时删除，用于清理过期或执行超时的占位行
+     */
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.key = :key and r.version = :version")
+    int deleteIfUnchanged(@Param("key") String key, @Param("version") Long version);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,23 @@
+package com.banking.repository;
+
+import com.banking.dto.ImportRowCounts;
+import com.banking.entity.ImportChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ImportChunkRepository extends JpaRepository<ImportChunk, Long> {
+
+    @Query("select c.startOffset from ImportChunk c where c.jobId = :jobId and c.startOffset >= :from")
+    List<Long> findCommittedStartOffsets(@Param("jobId") UUID jobId, @Param("from") long from);
+
+    @Query("select new com.banking.dto.ImportRowCounts(coalesce(sum(c.importedRows), 0), " +
+            "coalesce(sum(c.duplicateRows), 0), coalesce(sum(c.rejectedRows), 0)) " +
+            "from ImportChunk c where c.jobId = :jobId")
+    ImportRowCounts countRows(@Param("jobId") UUID jobId);
+}
@@ -0,0 +1,26 @@
+package com.banking.repository;
+
+import com.banking.entity.ImportJob;
+import com.banking.enums.ImportStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, UUID> {
+
+    List<ImportJob> findByStatus(ImportStatus status);
+
+    /**
+     * 检查点只前进不后退，分块乱序完成时旧的推进请求不会覆盖新值
+     */
+    @Modifying
+    @Query("update ImportJob j set j.checkpointOffset = :offset, j.checkpointLine = :line " +
+            "where j.id = :id and j.checkpointOffset < :offset")
+    int advanceCheckpoint(@Param("id") UUID id, @Param("offset") long offset, @Param("line") long line);
+}
@@ -0,0 +1,16 @@
+package com.banking.repository;
+
+import com.banking.entity.ImportRejection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ImportRejectionRepository extends JpaRepository<ImportRejection, Long> {
+
+    List<ImportRejection> findByJobIdAndLineNumberGreaterThanOrderByLineNumber(UUID jobId, long lineNumber,
+                                                                                 Limit limit);
+}
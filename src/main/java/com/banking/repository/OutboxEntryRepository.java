@@ -0,0 +1,35 @@
+package com.banking.repository;
+
+import com.banking.entity.OutboxEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEntryRepository extends JpaRepository<OutboxEntry, Long> {
+
+    /**
+     * 按主键顺序读取可投递的事件；同一账户存在更早的、仍在退避等待的事件时，该账户之后的事件都不返回，保证账户内顺序
+     */
+    @Query("select o from OutboxEntry o where o.partitionId in :partitions and o.nextAttemptAt <= :now " +
+            "and not exists (select 1 from OutboxEntry b where b.accountId = o.accountId and b.id < o.id " +
+            "and b.nextAttemptAt > :now) order by o.id")
+    List<OutboxEntry> findDispatchable(@Param("partitions") Collection<Integer> partitions,
+                                       @Param("now") LocalDateTime now, Limit limit);
+
+    Optional<OutboxEntry> findFirstByPartitionIdInOrderByIdAsc(Collection<Integer> partitions);
+
+    @Modifying
+    @Query("update OutboxEntry o set o.attempts = :attempts, o.nextAttemptAt = :nextAttemptAt, " +
+            "o.lastError = :error where o.id = :id")
+    int markFailed(@Param("id") Long id, @Param("attempts") int attempts,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+}
@@ -0,0 +1,32 @@
+package com.banking.repository;
+
+import com.banking.entity.OutboxPartition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxPartitionRepository extends JpaRepository<OutboxPartition, Integer> {
+
+    /**
+     * 续期本实例持有的租约并领取无人持有或已过期的分区；条件更新由数据库行锁串行化，
+     * 多个实例同时领取时每个分区只有一个实例更新成功，其余实例跳过而不是等待
+     */
+    @Modifying
+    @Query("update OutboxPartition p set p.leaseOwner = :owner, p.leaseUntil = :until " +
+            "where p.leaseOwner = :owner or p.leaseUntil is null or p.leaseUntil < :now")
+    int claim(@Param("owner") String owner, @Param("now") LocalDateTime now, @Param("until") LocalDateTime until);
+
+    @Query("select p.partitionId from OutboxPartition p where p.leaseOwner = :owner and p.leaseUntil >= :now " +
+            "order by p.partitionId")
+    List<Integer> findOwned(@Param("owner") String owner, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update OutboxPartition p set p.leaseOwner = null, p.leaseUntil = null where p.leaseOwner = :owner")
+    int release(@Param("owner") String owner);
+}
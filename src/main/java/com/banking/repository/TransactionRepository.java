@@ -1,11 +1,45 @@
 package com.banking.repository;
 
 import com.banking.entity.Transaction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
-public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
-} 
\ No newline at end of file
+public interface TransactionRepository extends JpaRepository<Transaction, UUID>, TransactionRepositoryCustom {
+
+    @Query("select t.id from Transaction t where t.id in :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+    List<Transaction> findAllByOrderByCreatedAtAscIdAsc(Limit limit);
+
+    @Query("select distinct t.accountId from Transaction t")
+    List<UUID> findDistinctAccountIds();
+
+    /**
+     * 按账户汇总账本净额：入账(存款、转入)为正，出账为负
+     */
+    @Query("select t.accountId, sum(case when t.type in (com.banking.enums.TransactionType.DEPOSIT, " +
+            "com.banking.enums.TransactionType.TRANSFER_IN) then t.amount else -t.amount end) " +
+            "from Transaction t where t.accountId in :accountIds group by t.accountId")
+    List<Object[]> sumSignedAmountByAccount(@Param("accountIds") Collection<UUID> accountIds);
+
+    /**
+     * 按账户、类型与小时汇总账本：返回 accountId, type, 年, 月, 日, 时, 金额合计, 笔数
+     */
+    @Query("select t.accountId, t.type, year(t.createdAt), month(t.createdAt), day(t.createdAt), hour(t.createdAt), " +
+            "sum(t.amount), count(t) from Transaction t where t.accountId in :accountIds " +
+            "group by t.accountId, t.type, year(t.createdAt), month(t.createdAt), day(t.createdAt), hour(t.createdAt)")
+    List<Object[]> sumHourlyByAccount(@Param("accountIds") Collection<UUID> accountIds);
+
+    @Query("select t from Transaction t where t.createdAt > :createdAt " +
+            "or (t.createdAt = :createdAt and t.id > :id) order by t.createdAt, t.id")
+    List<Transaction> findAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") UUID id, Limit limit);
+}
@@ -0,0 +1,35 @@
+package com.banking.repository;
+
+import com.banking.dto.TransactionCursor;
+import com.banking.entity.Transaction;
+import com.banking.enums.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface TransactionRepositoryCustom {
+
+    /**
+     * 以JDBC批量方式插入新交易（直接persist，跳过merge前的SELECT）
+     */
+    void persistAll(List<Transaction> transactions);
+
+    /**
+     * 直接INSERT新交易并立即刷新，主键冲突以 DataIntegrityViolationException 抛出
+     */
+    void insert(Transaction transaction);
+
+    /**
+     * 按 (created_at, id) 倒序查询账户交易历史，仅拼接非空过滤条件以便命中 (account_id, created_at, id) 索引
+     */
+    List<Transaction> findAccountHistory(UUID accountId, TransactionType type, LocalDateTime from,
+                                         LocalDateTime to, TransactionCursor after, int limit);
+
+    /**
+     * 按 (created_at, id) 顺序流式读取交易，供导出使用；必须在只读事务内消费并关闭。
+     * 每行读出后即从持久化上下文分离，一级缓存不会随导出行数增长
+     */
+    Stream<Transaction> streamForExport(UUID accountId, LocalDateTime from, LocalDateTime to, int fetchSize);
+}
@@ -0,0 +1,113 @@
+package com.banking.repository;
+
+import com.banking.dto.TransactionCursor;
+import com.banking.entity.Transaction;
+import com.banking.enums.TransactionType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Override
+    @Transactional
+    public void persistAll(List<Transaction> transactions) {
+        for (int i = 0; i < transactions.size(); i++) {
+            entityManager.persist(transactions.get(i));
+            // 每满一批刷新并清空一级缓存，避免持久化上下文无限增长
+            if ((i + 1) % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    @Transactional
+    public void insert(Transaction transaction) {
+        entityManager.persist(transaction);
+        entityManager.flush();
+    }
+
+    @Override
+    public List<Transaction> findAccountHistory(UUID accountId, TransactionType type, LocalDateTime from,
+                                                LocalDateTime to, TransactionCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transaction> query = cb.createQuery(Transaction.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        Path<LocalDateTime> createdAt = root.get("createdAt");
+        Path<UUID> id = root.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(root.get("accountId"), accountId));
+        if (type != null) {
+            predicates.add(cb.equal(root.get("type"), type));
+        }
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(createdAt, from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThan(createdAt, to));
+        }
+        if (after != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(createdAt, after.createdAt()),
+                    cb.and(cb.equal(createdAt, after.createdAt()), cb.lessThan(id, after.id()))));
+        }
+
+        query.where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(createdAt), cb.desc(id));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<Transaction> streamForExport(UUID accountId, LocalDateTime from, LocalDateTime to, int fetchSize) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Transaction> query = cb.createQuery(Transaction.class);
+        Root<Transaction> root = query.from(Transaction.class);
+        Path<LocalDateTime> createdAt = root.get("createdAt");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (accountId != null) {
+            predicates.add(cb.equal(root.get("accountId"), accountId));
+        }
+        if (from != null) {
+            predicates.add(cb.greaterThanOrEqualTo(createdAt, from));
+        }
+        if (to != null) {
+            predicates.add(cb.lessThan(createdAt, to));
+        }
+
+        query.where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(createdAt), cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true)
+                .setHint(AvailableHints.HINT_CACHEABLE, false)
+                .getResultStream()
+                .peek(entityManager::detach);
+    }
+}
@@ -0,0 +1,41 @@
+package com.banking.repository;
+
+import com.banking.entity.TransactionRollup;
+import com.banking.entity.TransactionRollupId;
+import com.banking.enums.RollupGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface TransactionRollupRepository extends JpaRepository<TransactionRollup, TransactionRollupId> {
+
+    @Modifying
+    @Query("update TransactionRollup r set r.totalAmount = r.totalAmount + :amount, r.count = r.count + :count " +
+            "where r.id = :id")
+    int addDelta(@Param("id") TransactionRollupId id, @Param("amount") BigDecimal amount,
+                 @Param("count") long count);
+
+    @Query("select r from TransactionRollup r where r.id.accountId = :accountId and r.id.granularity = :granularity " +
+            "and r.id.bucketStart >= :from and r.id.bucketStart < :to and r.count > 0 " +
+            "order by r.id.bucketStart, r.id.type")
+    List<TransactionRollup> findRange(@Param("accountId") UUID accountId,
+                                      @Param("granularity") RollupGranularity granularity,
+                                      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    Optional<TransactionRollup> findFirstBy();
+
+    @Modifying
+    @Query("delete from TransactionRollup r where r.id.accountId in :accountIds")
+    int deleteByAccountIds(@Param("accountIds") Collection<UUID> accountIds);
+
+}
@@ -0,0 +1,36 @@
+package com.banking.service;
+
+import com.banking.dto.AccountBalanceDTO;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.UUID;
+
+public interface AccountBalanceService {
+    AccountBalanceDTO getBalance(UUID accountId);
+
+    /**
+     * 确保账户余额行存在，需在写事务之外调用，避免并发首次入账时主键冲突导致整个写事务回滚
+     */
+    void ensureAccounts(Collection<UUID> accountIds);
+
+    /**
+     * 在调用方事务内累加余额增量，事务提交后同步内存投影
+     */
+    void applyDelta(UUID accountId, BigDecimal delta);
+
+    /**
+     * 在调用方事务内对这些账户的余额行加写锁，与这些账户的其他写入串行；用于余额增量为0、不会更新余额行的写入
+     */
+    void lockAccounts(Collection<UUID> accountIds);
+
+    /**
+     * 在调用方事务内扣减余额，扣减后余额为负时抛出 InsufficientFundsException
+     */
+    void applyDebit(UUID accountId, BigDecimal amount);
+
+    /**
+     * 从交易账本并行重建所有账户余额，返回重建的账户数；每个分块在锁住余额行后重算，可与写入并发执行
+     */
+    int rebuild();
+}
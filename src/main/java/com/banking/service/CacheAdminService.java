@@ -0,0 +1,25 @@
+package com.banking.service;
+
+import com.banking.dto.CacheStatsDTO;
+
+import java.util.List;
+
+public interface CacheAdminService {
+
+    /**
+     * 本实例所有缓存的实时统计
+     */
+    List<CacheStatsDTO> getStats();
+
+    CacheStatsDTO getStats(String name);
+
+    /**
+     * 清空整个缓存，只作用于本实例
+     */
+    void invalidate(String name);
+
+    /**
+     * 移除单个键，只作用于本实例
+     */
+    void invalidate(String name, String key);
+}
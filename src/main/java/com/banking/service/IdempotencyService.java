@@ -0,0 +1,15 @@
+package com.banking.service;
+
+import com.banking.dto.IdempotentResponse;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    /**
+     * 按幂等键执行操作：首次请求执行 action 并保存响应，相同键的重复请求直接返回保存的响应；
+     * 并发的重复请求等待正在执行的请求完成，键相同但请求内容不同时拒绝
+     */
+    <T> IdempotentResponse<T> execute(String operation, String key, Object request, Class<T> responseType,
+                                      Supplier<T> action);
+}
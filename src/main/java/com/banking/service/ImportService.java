@@ -0,0 +1,33 @@
+package com.banking.service;
+
+import com.banking.dto.ImportJobDTO;
+import com.banking.dto.ImportRejectionDTO;
+import com.banking.enums.LedgerFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+public interface ImportService {
+
+    /**
+     * 把上传内容落盘后在后台按分块并行导入，立即返回任务信息
+     */
+    ImportJobDTO startImport(LedgerFormat format, InputStream content) throws IOException;
+
+    /**
+     * 查询进度：已提交字节数、各类行数与本次运行的吞吐量
+     */
+    ImportJobDTO getJob(UUID id);
+
+    /**
+     * 按行号分页查询被拒绝的记录及原因
+     */
+    List<ImportRejectionDTO> getRejections(UUID id, long afterLine, int limit);
+
+    /**
+     * 从检查点恢复中断或失败的导入，已提交的分块不会重复导入
+     */
+    ImportJobDTO resume(UUID id);
+}
@@ -0,0 +1,14 @@
+package com.banking.service;
+
+import com.banking.entity.Transaction;
+import com.banking.enums.TransactionEventType;
+
+import java.util.Collection;
+
+public interface OutboxService {
+    /**
+     * 在调用方事务内为每笔交易写入一条待投递事件，随交易一起提交或回滚；交易需已持久化。
+     * 应在更新余额之后调用，此时已持有账户余额行锁，同一账户的事件按提交顺序编号
+     */
+    void record(TransactionEventType type, Collection<Transaction> transactions);
+}
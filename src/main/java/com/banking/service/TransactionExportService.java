@@ -0,0 +1,19 @@
+package com.banking.service;
+
+import com.banking.enums.LedgerFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public interface TransactionExportService {
+
+    /**
+     * 按 (created_at, id) 顺序把符合条件的交易逐行写入输出流，返回写出的行数；
+     * 数据不经过缓存，也不整体加载到内存，输出流写满时阻塞即形成背压。
+     * 启用分片存储且未指定账户时依次导出各分片，顺序只在分片内成立
+     */
+    long export(LedgerFormat format, UUID accountId, LocalDateTime from, LocalDateTime to,
+                OutputStream out) throws IOException;
+}
@@ -0,0 +1,29 @@
+package com.banking.service;
+
+import com.banking.dto.RollupBucketDTO;
+import com.banking.entity.Transaction;
+import com.banking.enums.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface TransactionRollupService {
+    /**
+     * 查询账户在 [from, to) 内按粒度汇总的金额与笔数，from 向下对齐到桶起始；没有交易的桶不返回
+     */
+    List<RollupBucketDTO> summary(UUID accountId, RollupGranularity granularity, LocalDateTime from,
+                                  LocalDateTime to);
+
+    /**
+     * 在调用方事务内把 added 计入、把 removed 移出各粒度的汇总；交易需已持久化（createdAt 已填充）。
+     * 应在更新余额之后调用
+     */
+    void apply(Collection<Transaction> added, Collection<Transaction> removed);
+
+    /**
+     * 从交易账本并行重算所有账户的汇总，返回处理的账户数
+     */
+    int backfill();
+}
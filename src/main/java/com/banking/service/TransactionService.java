@@ -1,17 +1,56 @@
 package com.banking.service;
 
+import com.banking.dto.BatchTransactionResultDTO;
+import com.banking.dto.CursorPageDTO;
 import com.banking.dto.TransactionDTO;
+import com.banking.dto.TransferRequest;
+import com.banking.dto.TransferResultDTO;
+import com.banking.enums.TransactionType;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface TransactionService {
+    /**
+     * 账户交易历史默认页大小，仅该页大小的无过滤首页会被缓存
+     */
+    int ACCOUNT_HISTORY_PAGE_SIZE = 20;
+    /**
+     * 游标分页单页最大条数，超过时拒绝请求，避免单次请求读出整张表
+     */
+    int MAX_PAGE_SIZE = 1000;
+
     TransactionDTO createTransaction(TransactionDTO transactionDTO);
 
+    List<BatchTransactionResultDTO> createTransactions(List<TransactionDTO> transactionDTOs);
+
+    /**
+     * 在同一事务内写入转出、转入两条交易，转出账户余额不足时整体回滚
+     */
+    TransferResultDTO transfer(TransferRequest request);
+
     TransactionDTO getTransaction(UUID id);
 
     List<TransactionDTO> transactionList(int page, int size);
 
+    /**
+     * 在有界查询执行器上执行 {@link #getTransaction}；执行器过载时返回的 future 以
+     * {@link com.banking.exception.ServiceOverloadedException} 失败
+     */
+    CompletableFuture<TransactionDTO> getTransactionAsync(UUID id);
+
+    /**
+     * 在有界查询执行器上执行 {@link #transactionList}，过载行为同 {@link #getTransactionAsync}
+     */
+    CompletableFuture<List<TransactionDTO>> transactionListAsync(int page, int size);
+
+    CursorPageDTO<TransactionDTO> transactionListAfter(String cursor, int limit);
+
+    CursorPageDTO<TransactionDTO> accountTransactions(UUID accountId, TransactionType type, LocalDateTime from,
+                                                      LocalDateTime to, String cursor, int limit);
+
     TransactionDTO updateTransaction(UUID id, TransactionDTO transactionDTO);
 
     void deleteTransaction(UUID id);
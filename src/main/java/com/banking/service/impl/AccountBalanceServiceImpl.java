@@ -0,0 +1,257 @@
+package com.banking.service.impl;
+
+import com.banking.dto.AccountBalanceDTO;
+import com.banking.entity.AccountBalance;
+import com.banking.exception.InsufficientFundsException;
+import com.banking.replica.ReadConsistency;
+import com.banking.repository.AccountBalanceRepository;
+import com.banking.repository.TransactionRepository;
+import com.banking.service.AccountBalanceService;
+import com.banking.shard.ShardRouter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.Lists;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 账户余额投影
+ * <p>
+ * 余额以增量方式持久化在 account_balances 表中，内存中以按容量淘汰的Caffeine缓存保存最新快照。
+ * 每次变更递增 revision，内存只接受更高 revision 的快照，因此提交回调与并发加载的先后顺序不影响正确性。
+ * 本实例的提交立即刷新快照；其他实例的提交不会通知本实例，快照写入 expire-after-write 后过期重新读库，
+ * 多实例部署时其他实例的写入最多在该时长内不可见
+ */
+@Service
+public class AccountBalanceServiceImpl implements AccountBalanceService {
+    private static final int REBUILD_CHUNK_SIZE = 500;
+
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final ReadConsistency readConsistency;
+    private final int rebuildParallelism;
+    private final ThreadFactory rebuildThreadFactory;
+
+    private final Cache<UUID, AccountBalanceDTO> balances;
+
+    public AccountBalanceServiceImpl(AccountBalanceRepository accountBalanceRepository,
+                                     TransactionRepository transactionRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     ShardRouter shardRouter,
+                                     ReadConsistency readConsistency,
+                                     @Value("${banking.balance.rebuild-parallelism:4}") int rebuildParallelism,
+                                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                     @Value("${banking.balance.cache.maximum-size:100000}") long maximumSize,
+                                     @Value("${banking.balance.cache.expire-after-write:PT2S}")
+                                     Duration expireAfterWrite) {
+        this.accountBalanceRepository = accountBalanceRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.readConsistency = readConsistency;
+        this.rebuildParallelism = rebuildParallelism;
+        // 并行度仍由固定大小的池限制，避免重建时占满连接池
+        this.rebuildThreadFactory = virtualThreads
+                ? Thread.ofVirtual().name("balance-rebuild-", 0).factory()
+                : Thread.ofPlatform().name("balance-rebuild-", 0).factory();
+        this.balances = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                // 维护工作（淘汰、过期清理）在调用线程上顺带完成，不切换到公共线程池
+                .executor(Runnable::run)
+                .build();
+    }
+
+    @Override
+    public AccountBalanceDTO getBalance(UUID accountId) {
+        AccountBalanceDTO cached = balances.getIfPresent(accountId);
+        if (cached != null) {
+            return cached;
+        }
+        // 没有任何交易的账户余额为0，不放入内存，避免任意ID查询撑大投影；读副本得到的快照可能落后，同样不放入
+        boolean replicaRead = readConsistency.replicaRead();
+        return shardRouter.onAccount(accountId, () -> accountBalanceRepository.findSnapshot(accountId))
+                .map(snapshot -> replicaRead
+                        ? snapshot
+                        : balances.asMap().merge(accountId, snapshot, AccountBalanceServiceImpl::newer))
+                .orElseGet(() -> new AccountBalanceDTO(accountId, BigDecimal.ZERO, 0, null));
+    }
+
+    @Override
+    public void ensureAccounts(Collection<UUID> accountIds) {
+        for (UUID accountId : accountIds) {
+            if (balances.getIfPresent(accountId) != null) {
+                continue;
+            }
+            try {
+                shardRouter.onAccount(accountId, () -> transactionTemplate.executeWithoutResult(status -> {
+                    if (!accountBalanceRepository.existsById(accountId)) {
+                        accountBalanceRepository.save(newAccount(accountId));
+                    }
+                }));
+            } catch (DataIntegrityViolationException e) {
+                // 其他线程已并发创建该账户，忽略即可
+            }
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDelta(UUID accountId, BigDecimal delta) {
+        if (delta.signum() == 0) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (accountBalanceRepository.addDelta(accountId, delta, now) == 0) {
+            // 未经ensureAccounts的账户（如历史数据）在当前事务内补建
+            AccountBalance balance = newAccount(accountId);
+            balance.setBalance(delta);
+            balance.setRevision(1);
+            accountBalanceRepository.save(balance);
+        }
+        publishAfterCommit(accountId);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lockAccounts(Collection<UUID> accountIds) {
+        accountBalanceRepository.lockAccounts(accountIds);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyDebit(UUID accountId, BigDecimal amount) {
+        if (accountBalanceRepository.addDeltaIfSufficient(accountId, amount.negate(), LocalDateTime.now()) == 0) {
+            throw new InsufficientFundsException(accountId);
+        }
+        publishAfterCommit(accountId);
+    }
+
+    @Override
+    public int rebuild() {
+        int[] rebuilt = new int[1];
+        ExecutorService executor = Executors.newFixedThreadPool(rebuildParallelism, rebuildThreadFactory);
+        try {
+            // 账户只存在于所属分片，逐个分片重建；工作线程不继承分片上下文，需在任务内重新进入
+            shardRouter.forEachShard(shard -> rebuilt[0] += rebuildShard(shard, executor));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        balances.invalidateAll();
+        return rebuilt[0];
+    }
+
+    private int rebuildShard(int shard, ExecutorService executor) {
+        // 重建以主库为准，副本上可能缺少最近出现的账户
+        Set<UUID> accountIds = ReadConsistency.onPrimary(() -> {
+            Set<UUID> ids = new LinkedHashSet<>(transactionRepository.findDistinctAccountIds());
+            ids.addAll(accountBalanceRepository.findAllAccountIds());
+            return ids;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (List<UUID> chunk : Lists.partition(new ArrayList<>(accountIds), REBUILD_CHUNK_SIZE)) {
+                futures.add(executor.submit(() -> shardRouter.on(shard, () -> {
+                    rebuildChunk(chunk);
+                    return null;
+                })));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("余额重建被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("余额重建失败", e.getCause());
+        }
+        return accountIds.size();
+    }
+
+    private void rebuildChunk(List<UUID> accountIds) {
+        // 先补建缺少的余额行，重算事务内的行锁才能覆盖整个分块；余额行只增不删
+        Set<UUID> missing = new LinkedHashSet<>(accountIds);
+        accountBalanceRepository.findExistingAccountIds(accountIds).forEach(missing::remove);
+        ensureAccounts(missing);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // 先锁余额行再求和：并发写入在锁上等待，提交后在重算结果上累加，不会被覆盖
+            accountBalanceRepository.lockAccounts(accountIds);
+            Map<UUID, BigDecimal> sums = new HashMap<>();
+            for (Object[] row : transactionRepository.sumSignedAmountByAccount(accountIds)) {
+                sums.put((UUID) row[0], (BigDecimal) row[1]);
+            }
+            Map<UUID, AccountBalance> existing = new HashMap<>();
+            accountBalanceRepository.findAllById(accountIds).forEach(b -> existing.put(b.getAccountId(), b));
+
+            LocalDateTime now = LocalDateTime.now();
+            List<AccountBalance> rebuilt = new ArrayList<>(accountIds.size());
+            for (UUID accountId : accountIds) {
+                AccountBalance balance = existing.computeIfAbsent(accountId, this::newAccount);
+                balance.setBalance(sums.getOrDefault(accountId, BigDecimal.ZERO));
+                balance.setRevision(balance.getRevision() + 1);
+                balance.setUpdatedAt(now);
+                rebuilt.add(balance);
+            }
+            accountBalanceRepository.saveAll(rebuilt);
+        });
+    }
+
+    private void publishAfterCommit(UUID accountId) {
+        AccountBalanceDTO snapshot = accountBalanceRepository.findSnapshot(accountId)
+                .orElseThrow(() -> new IllegalStateException("账户余额行不存在: " + accountId));
+        afterCommit(() -> balances.asMap().merge(accountId, snapshot, AccountBalanceServiceImpl::newer));
+    }
+
+    private AccountBalance newAccount(UUID accountId) {
+        AccountBalance balance = new AccountBalance();
+        balance.setAccountId(accountId);
+        balance.setBalance(BigDecimal.ZERO);
+        balance.setRevision(0);
+        balance.setUpdatedAt(LocalDateTime.now());
+        return balance;
+    }
+
+    private static AccountBalanceDTO newer(AccountBalanceDTO current, AccountBalanceDTO candidate) {
+        return candidate.getRevision() > current.getRevision() ? candidate : current;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
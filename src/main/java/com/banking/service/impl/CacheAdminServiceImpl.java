@@ -0,0 +1,112 @@
+package com.banking.service.impl;
+
+import com.banking.cache.OffHeapTransactionStore;
+import com.banking.cache.TransactionListCache;
+import com.banking.config.CacheProperties;
+import com.banking.dto.CacheStatsDTO;
+import com.banking.exception.CacheNotFoundException;
+import com.banking.exception.InvalidTransactionException;
+import com.banking.service.CacheAdminService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class CacheAdminServiceImpl implements CacheAdminService {
+    private static final String TRANSACTION_LIST = "transactionList";
+
+    private final CacheManager cacheManager;
+    private final TransactionListCache transactionListCache;
+    private final CacheProperties cacheProperties;
+    /**
+     * 按键移除单笔交易缓存时一并移除堆外存储中的条目，否则下一次查询仍会从堆外存储读到旧值
+     */
+    private final Optional<OffHeapTransactionStore> hotStore;
+
+    public CacheAdminServiceImpl(CacheManager cacheManager, TransactionListCache transactionListCache,
+                                 CacheProperties cacheProperties, Optional<OffHeapTransactionStore> hotStore) {
+        this.cacheManager = cacheManager;
+        this.transactionListCache = transactionListCache;
+        this.cacheProperties = cacheProperties;
+        this.hotStore = hotStore;
+    }
+
+    @Override
+    public List<CacheStatsDTO> getStats() {
+        List<CacheStatsDTO> stats = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                stats.add(toStats(name, cache.getNativeCache()));
+            }
+        }
+        stats.add(toStats(TRANSACTION_LIST, transactionListCache.getCache().synchronous()));
+        return stats;
+    }
+
+    @Override
+    public CacheStatsDTO getStats(String name) {
+        return toStats(name, nativeCache(name));
+    }
+
+    @Override
+    public void invalidate(String name) {
+        Cache<?, ?> cache = nativeCache(name);
+        if (TRANSACTION_LIST.equals(name)) {
+            // 先换代，保证正在加载的旧代结果不会再被读到
+            transactionListCache.invalidateAll();
+        }
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void invalidate(String name, String key) {
+        Cache<?, ?> cache = nativeCache(name);
+        if ("transactions".equals(name) && hotStore.isPresent()) {
+            hotStore.get().remove(parseId(key));
+        }
+        cache.asMap().remove(key);
+    }
+
+    private Cache<?, ?> nativeCache(String name) {
+        if (TRANSACTION_LIST.equals(name)) {
+            return transactionListCache.getCache().synchronous();
+        }
+        // 关闭缓存时 NoOpCacheManager 对任意名称返回空实现，同样按不存在处理
+        if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+            return cache.getNativeCache();
+        }
+        throw new CacheNotFoundException(name);
+    }
+
+    private CacheStatsDTO toStats(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        CacheStatsDTO dto = new CacheStatsDTO();
+        dto.setName(name);
+        dto.setSpec(cacheProperties.spec(name).describe());
+        dto.setEstimatedSize(cache.estimatedSize());
+        dto.setHits(stats.hitCount());
+        dto.setMisses(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setEvictions(stats.evictionCount());
+        dto.setLoads(stats.loadSuccessCount());
+        dto.setLoadFailures(stats.loadFailureCount());
+        dto.setAverageLoadMillis(stats.averageLoadPenalty() / TimeUnit.MILLISECONDS.toNanos(1));
+        return dto;
+    }
+
+    private static UUID parseId(String key) {
+        try {
+            return UUID.fromString(key);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTransactionException("交易ID格式不正确: " + key);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.banking.service.impl;
+
+import com.banking.dto.IdempotentResponse;
+import com.banking.entity.IdempotencyRecord;
+import com.banking.exception.IdempotencyKeyInProgressException;
+import com.banking.exception.IdempotencyKeyMismatchException;
+import com.banking.exception.InvalidTransactionException;
+import com.banking.replica.ReadConsistency;
+import com.banking.repository.IdempotencyRecordRepository;
+import com.banking.service.IdempotencyService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 幂等键处理
+ * <p>
+ * 本地 Caffeine 缓存保存正在执行或已完成的请求，同一实例内的重复请求直接等待同一个 Future，
+ * 不会进入交易服务争抢条带锁。数据库表是缓存的后备：缓存淘汰、进程重启或其他实例收到重复请求时，
+ * 通过主键约束占用幂等键，并从表中读取已保存的响应。
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+    private static final int MAX_KEY_LENGTH = 200;
+    private static final long POLL_INTERVAL_MILLIS = 50;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration pendingTimeout;
+    private final Cache<String, InFlight> inFlight;
+
+    private record InFlight(String fingerprint, CompletableFuture<String> response) {
+    }
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                                  @Value("${banking.idempotency.ttl:PT24H}") Duration ttl,
+                                  @Value("${banking.idempotency.pending-timeout:PT30S}") Duration pendingTimeout,
+                                  @Value("${banking.idempotency.max-entries:100000}") long maxEntries) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.pendingTimeout = pendingTimeout;
+        this.inFlight = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public <T> IdempotentResponse<T> execute(String operation, String key, Object request, Class<T> responseType,
+                                             Supplier<T> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidTransactionException("Idempotency-Key 长度必须在1到" + MAX_KEY_LENGTH + "个字符之间");
+        }
+        String recordKey = operation + ":" + key;
+        String fingerprint = fingerprint(operation, request);
+
+        InFlight mine = new InFlight(fingerprint, new CompletableFuture<>());
+        InFlight existing = inFlight.asMap().putIfAbsent(recordKey, mine);
+        if (existing != null) {
+            if (!existing.fingerprint().equals(fingerprint)) {
+                throw new IdempotencyKeyMismatchException(key);
+            }
+            return new IdempotentResponse<>(read(await(existing.response(), key), responseType), true);
+        }
+
+        try {
+            Optional<String> stored = claim(recordKey, fingerprint, key);
+            if (stored.isPresent()) {
+                mine.response().complete(stored.get());
+                return new IdempotentResponse<>(read(stored.get(), responseType), true);
+            }
+
+            T result;
+            try {
+                result = action.get();
+            } catch (RuntimeException e) {
+                // 执行失败不保存响应，释放占位让客户端可以用同一个键重试
+                transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.deleteById(recordKey));
+                throw e;
+            }
+            String body = write(result);
+            transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.complete(recordKey, body));
+            mine.response().complete(body);
+            return new IdempotentResponse<>(result, false);
+        } catch (RuntimeException e) {
+            inFlight.asMap().remove(recordKey, mine);
+            mine.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 在数据库中占用幂等键；键已被占用且已有响应时返回该响应，仍在执行时轮询等待
+     */
+    private Optional<String> claim(String recordKey, String fingerprint, String key) {
+        while (true) {
+            // 占用判断依赖最新的记录，副本上的旧数据会让重复请求重新执行
+            Optional<IdempotencyRecord> stored = ReadConsistency.onPrimary(
+                    () -> idempotencyRecordRepository.findById(recordKey));
+            if (stored.isPresent()) {
+                IdempotencyRecord record = stored.get();
+                LocalDateTime now = LocalDateTime.now();
+                if (record.getExpiresAt().isBefore(now)) {
+                    deleteIfUnchanged(record);
+                    continue;
+                }
+                if (!record.getFingerprint().equals(fingerprint)) {
+                    throw new IdempotencyKeyMismatchException(key);
+                }
+                if (record.getResponseBody() != null) {
+                    return Optional.of(record.getResponseBody());
+                }
+                if (record.getCreatedAt().plus(pendingTimeout).isBefore(now)) {
+                    // 占用者在完成前退出，超时后由当前请求接管
+                    deleteIfUnchanged(record);
+                    continue;
+                }
+                sleep(key);
+                continue;
+            }
+
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setKey(recordKey);
+            record.setFingerprint(fingerprint);
+            record.setCreatedAt(LocalDateTime.now());
+            record.setExpiresAt(record.getCreatedAt().plus(ttl));
+            try {
+                transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.saveAndFlush(record));
+                return Optional.empty();
+            } catch (DataIntegrityViolationException e) {
+                // 其他实例同时占用了该键，重新读取
+            }
+        }
+    }
+
+    private void deleteIfUnchanged(IdempotencyRecord record) {
+        transactionTemplate.executeWithoutResult(status ->
+                idempotencyRecordRepository.deleteIfUnchanged(record.getKey(), record.getVersion()));
+    }
+
+    private String await(CompletableFuture<String> response, String key) {
+        try {
+            return response.get(pendingTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // 正在执行的请求失败时，重复请求得到同样的错误
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        }
+    }
+
+    private static void sleep(String key) {
+        try {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${banking.idempotency.cleanup-interval:PT10M}")
+    public void deleteExpiredRecords() {
+        transactionTemplate.executeWithoutResult(status ->
+                idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+    }
+
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("无法计算请求摘要", e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("无法序列化响应", e);
+        }
+    }
+
+    private <T> T read(String body, Class<T> responseType) {
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("无法反序列化已保存的响应", e);
+        }
+    }
+}
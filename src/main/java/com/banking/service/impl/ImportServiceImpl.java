@@ -0,0 +1,537 @@
+package com.banking.service.impl;
+
+import com.banking.cache.MissingTransactionCache;
+import com.banking.cache.TransactionListCache;
+import com.banking.dto.ImportJobDTO;
+import com.banking.dto.ImportRejectionDTO;
+import com.banking.dto.ImportRowCounts;
+import com.banking.entity.ImportChunk;
+import com.banking.entity.ImportJob;
+import com.banking.entity.ImportRejection;
+import com.banking.entity.Transaction;
+import com.banking.enums.ImportStatus;
+import com.banking.enums.LedgerFormat;
+import com.banking.enums.TransactionEventType;
+import com.banking.exception.ImportJobNotFoundException;
+import com.banking.exception.InvalidTransactionException;
+import com.banking.replica.ReadConsistency;
+import com.banking.repository.ImportChunkRepository;
+import com.banking.repository.ImportJobRepository;
+import com.banking.repository.ImportRejectionRepository;
+import com.banking.repository.TransactionRepository;
+import com.banking.service.AccountBalanceService;
+import com.banking.service.ImportService;
+import com.banking.service.OutboxService;
+import com.banking.service.TransactionRollupService;
+import com.banking.shard.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 历史交易批量导入
+ * <p>
+ * 协调线程顺序读取文件并按固定行数切分为分块，工作线程并行解析、校验并在各自事务内批量写入。
+ * 每个分块与其导入记录({@link ImportChunk})、拒绝记录在同一事务提交，检查点取连续已提交分块的末尾偏移；
+ * 恢复时从检查点继续读取，分块边界与上次一致，已提交的分块直接跳过，每行只会导入一次。
+ */
+@Service
+public class ImportServiceImpl implements ImportService {
+    private static final Logger log = LoggerFactory.getLogger(ImportServiceImpl.class);
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+    private static final int MAX_CONTENT_LENGTH = 1000;
+
+    private final ImportJobRepository importJobRepository;
+    private final ImportChunkRepository importChunkRepository;
+    private final ImportRejectionRepository importRejectionRepository;
+    private final TransactionRepository transactionRepository;
+    private final AccountBalanceService accountBalanceService;
+    private final TransactionRollupService rollupService;
+    private final OutboxService outboxService;
+    private final TransactionListCache transactionListCache;
+    private final MissingTransactionCache missingTransactions;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int chunkSize;
+    private final int parallelism;
+    private final boolean recoverOnStartup;
+
+    private final ExecutorService coordinators;
+    private final ExecutorService workers;
+    private final Set<UUID> activeJobs = ConcurrentHashMap.newKeySet();
+
+    public ImportServiceImpl(ImportJobRepository importJobRepository, ImportChunkRepository importChunkRepository,
+                             ImportRejectionRepository importRejectionRepository,
+                             TransactionRepository transactionRepository, AccountBalanceService accountBalanceService,
+                             TransactionRollupService rollupService, OutboxService outboxService,
+                             TransactionListCache transactionListCache, MissingTransactionCache missingTransactions,
+                             CacheManager cacheManager,
+                             TransactionTemplate transactionTemplate, ShardRouter shardRouter,
+                             Validator validator, ObjectMapper objectMapper,
+                             @Value("${banking.import.directory:${java.io.tmpdir}/banking-imports}") String directory,
+                             @Value("${banking.import.chunk-size:1000}") int chunkSize,
+                             @Value("${banking.import.parallelism:4}") int parallelism,
+                             @Value("${banking.import.recover-on-startup:true}") boolean recoverOnStartup,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.importJobRepository = importJobRepository;
+        this.importChunkRepository = importChunkRepository;
+        this.importRejectionRepository = importRejectionRepository;
+        this.transactionRepository = transactionRepository;
+        this.accountBalanceService = accountBalanceService;
+        this.rollupService = rollupService;
+        this.outboxService = outboxService;
+        this.transactionListCache = transactionListCache;
+        this.missingTransactions = missingTransactions;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.recoverOnStartup = recoverOnStartup;
+        this.coordinators = Executors.newCachedThreadPool(threadFactory(virtualThreads, "import-coordinator-"));
+        // 写入并行度由固定大小的池限制，避免导入占满连接池
+        this.workers = Executors.newFixedThreadPool(parallelism, threadFactory(virtualThreads, "import-worker-"));
+    }
+
+    private static ThreadFactory threadFactory(boolean virtualThreads, String prefix) {
+        return virtualThreads
+                ? Thread.ofVirtual().name(prefix, 0).factory()
+                : Thread.ofPlatform().name(prefix, 0).daemon().factory();
+    }
+
+    @Override
+    public ImportJobDTO startImport(LedgerFormat format, InputStream content) throws IOException {
+        if (shardRouter.isSharded()) {
+            // 分块与导入记录、检查点在同一事务内提交，跨分片的分块无法保证每行只导入一次
+            throw new InvalidTransactionException("分片存储下暂不支持批量导入");
+        }
+        UUID id = UUID.randomUUID();
+        Files.createDirectories(directory);
+        Path file = directory.resolve(id + "." + format.getExtension());
+        long size = Files.copy(content, file);
+
+        ImportJob job = new ImportJob();
+        job.setId(id);
+        job.setFormat(format);
+        job.setFilePath(file.toAbsolutePath().toString());
+        job.setTotalBytes(size);
+        job.setStatus(ImportStatus.RUNNING);
+        job.setCreatedAt(LocalDateTime.now());
+        job.setStartedAt(job.getCreatedAt());
+        importJobRepository.save(job);
+
+        launch(id);
+        return toDTO(job, new ImportRowCounts(0, 0, 0));
+    }
+
+    @Override
+    public ImportJobDTO getJob(UUID id) {
+        ImportJob job = importJobRepository.findById(id).orElseThrow(() -> new ImportJobNotFoundException(id));
+        return toDTO(job, importChunkRepository.countRows(id));
+    }
+
+    @Override
+    public List<ImportRejectionDTO> getRejections(UUID id, long afterLine, int limit) {
+        if (limit <= 0) {
+            throw new InvalidTransactionException("每页大小必须大于0");
+        }
+        if (!importJobRepository.existsById(id)) {
+            throw new ImportJobNotFoundException(id);
+        }
+        return importRejectionRepository
+                .findByJobIdAndLineNumberGreaterThanOrderByLineNumber(id, afterLine, Limit.of(limit))
+                .stream()
+                .map(r -> new ImportRejectionDTO(r.getLineNumber(), r.getReason(), r.getContent()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public ImportJobDTO resume(UUID id) {
+        if (activeJobs.contains(id)) {
+            throw new InvalidTransactionException("导入任务 " + id + " 正在运行");
+        }
+        ImportJob job = transactionTemplate.execute(status -> {
+            ImportJob existing = importJobRepository.findById(id).orElseThrow(() -> new ImportJobNotFoundException(id));
+            if (existing.getStatus() == ImportStatus.COMPLETED) {
+                throw new InvalidTransactionException("导入任务 " + id + " 已完成，无需恢复");
+            }
+            if (!Files.exists(Paths.get(existing.getFilePath()))) {
+                throw new InvalidTransactionException("导入文件已不存在: " + existing.getFilePath());
+            }
+            existing.setStatus(ImportStatus.RUNNING);
+            existing.setRunStartRows(importChunkRepository.countRows(id).total());
+            existing.setStartedAt(LocalDateTime.now());
+            existing.setFinishedAt(null);
+            existing.setErrorMessage(null);
+            return importJobRepository.save(existing);
+        });
+        launch(id);
+        return toDTO(job, ReadConsistency.onPrimary(() -> importChunkRepository.countRows(id)));
+    }
+
+    /**
+     * 启动时仍为RUNNING的任务说明上次进程在导入中途退出，标记为中断并按配置从检查点恢复
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInterruptedJobs() {
+        ReadConsistency.onPrimary(this::recoverRunningJobs);
+    }
+
+    private void recoverRunningJobs() {
+        for (ImportJob job : importJobRepository.findByStatus(ImportStatus.RUNNING)) {
+            if (activeJobs.contains(job.getId())) {
+                continue;
+            }
+            finish(job.getId(), ImportStatus.INTERRUPTED, null);
+            if (recoverOnStartup) {
+                log.info("从检查点 {} 恢复导入任务 {}", job.getCheckpointOffset(), job.getId());
+                resume(job.getId());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        coordinators.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void launch(UUID id) {
+        if (!activeJobs.add(id)) {
+            throw new InvalidTransactionException("导入任务 " + id + " 正在运行");
+        }
+        coordinators.execute(() -> {
+            try {
+                // 任务与已提交分块的读取决定从哪里继续，必须读主库
+                ReadConsistency.onPrimary(() -> run(id));
+            } finally {
+                activeJobs.remove(id);
+            }
+        });
+    }
+
+    private void run(UUID id) {
+        ImportJob job = importJobRepository.findById(id).orElseThrow(() -> new ImportJobNotFoundException(id));
+        LedgerRecordParser parser = new LedgerRecordParser(job.getFormat(), objectMapper);
+        CheckpointTracker checkpoint = new CheckpointTracker(id, job.getCheckpointOffset(), job.getCheckpointLine());
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        List<Future<?>> chunks = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(job.getFilePath()), StandardOpenOption.READ)) {
+            long startOffset = job.getCheckpointOffset();
+            long startLine = job.getCheckpointLine();
+            if (job.getFormat() == LedgerFormat.CSV) {
+                LedgerRecordReader headerReader = new LedgerRecordReader(Channels.newInputStream(channel), 0, 0, true);
+                LedgerRecordReader.Record header = headerReader.next();
+                if (header == null) {
+                    finish(id, ImportStatus.COMPLETED, null);
+                    return;
+                }
+                parser.readHeader(header.text());
+                if (startOffset < header.endOffset()) {
+                    startOffset = header.endOffset();
+                    startLine = headerReader.line();
+                    checkpoint.advanceTo(startOffset, startLine);
+                }
+            }
+
+            channel.position(startOffset);
+            LedgerRecordReader reader = new LedgerRecordReader(Channels.newInputStream(channel), startOffset, startLine,
+                    job.getFormat() == LedgerFormat.CSV);
+            Set<Long> committed = new HashSet<>(importChunkRepository.findCommittedStartOffsets(id, startOffset));
+
+            while (true) {
+                long chunkStart = reader.offset();
+                List<LedgerRecordReader.Record> records = new ArrayList<>(chunkSize);
+                LedgerRecordReader.Record record;
+                while (records.size() < chunkSize && (record = reader.next()) != null) {
+                    records.add(record);
+                }
+                if (records.isEmpty()) {
+                    break;
+                }
+                long chunkEnd = reader.offset();
+                long chunkEndLine = reader.line();
+                if (committed.contains(chunkStart)) {
+                    checkpoint.complete(chunkStart, chunkEnd, chunkEndLine);
+                    continue;
+                }
+
+                // 已提交但未完成的分块数有上限，工作线程跟不上时协调线程阻塞，读取的数据不会在内存中堆积
+                inFlight.acquire();
+                chunks.add(workers.submit(() -> {
+                    try {
+                        importChunk(id, parser, chunkStart, chunkEnd, records);
+                        checkpoint.complete(chunkStart, chunkEnd, chunkEndLine);
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                }));
+            }
+
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+            finish(id, ImportStatus.COMPLETED, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            chunks.forEach(chunk -> chunk.cancel(true));
+            finish(id, ImportStatus.INTERRUPTED, null);
+        } catch (ExecutionException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            log.error("导入任务 {} 失败", id, e.getCause());
+            finish(id, ImportStatus.FAILED, e.getCause().getMessage());
+        } catch (IOException | RuntimeException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            log.error("导入任务 {} 失败", id, e);
+            finish(id, ImportStatus.FAILED, e.getMessage());
+        }
+    }
+
+    private void importChunk(UUID jobId, LedgerRecordParser parser, long startOffset, long endOffset,
+                             List<LedgerRecordReader.Record> records) {
+        List<Transaction> parsed = new ArrayList<>(records.size());
+        List<ImportRejection> rejections = new ArrayList<>();
+        Set<UUID> ids = new LinkedHashSet<>();
+        int duplicatesInChunk = 0;
+        for (LedgerRecordReader.Record record : records) {
+            Transaction transaction;
+            try {
+                transaction = parser.parse(record.text());
+            } catch (IllegalArgumentException e) {
+                rejections.add(rejection(jobId, record, e.getMessage()));
+                continue;
+            }
+            // 与实体上的校验注解保持同一套规则
+            Set<ConstraintViolation<Transaction>> violations = validator.validate(transaction);
+            if (!violations.isEmpty()) {
+                rejections.add(rejection(jobId, record, violations.stream()
+                        .map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "))));
+            } else if (!ids.add(transaction.getId())) {
+                duplicatesInChunk++;
+            } else {
+                parsed.add(transaction);
+            }
+        }
+        accountBalanceService.ensureAccounts(parsed.stream().map(Transaction::getAccountId)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+
+        int fileDuplicates = duplicatesInChunk;
+        Set<UUID> affectedAccounts = new HashSet<>();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    affectedAccounts.clear();
+                    // 其他实例或重试前已提交了该分块
+                    if (!importChunkRepository.findCommittedStartOffsets(jobId, startOffset).contains(startOffset)) {
+                        insertChunk(jobId, startOffset, endOffset, parsed, ids, rejections, fileDuplicates,
+                                affectedAccounts);
+                    }
+                });
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // 并行分块中出现相同交易ID时整块回滚重试，重试时已提交的ID计为重复
+                if (attempt >= MAX_CHUNK_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+
+        // 历史交易可能插入到列表任意位置，所有列表页整体失效
+        transactionListCache.invalidateAll();
+        Cache accountTransactions = cacheManager.getCache("accountTransactions");
+        if (accountTransactions != null) {
+            affectedAccounts.forEach(accountId -> accountTransactions.evict(accountId.toString()));
+        }
+    }
+
+    private void insertChunk(UUID jobId, long startOffset, long endOffset, List<Transaction> parsed, Set<UUID> ids,
+                             List<ImportRejection> rejections, int fileDuplicates, Set<UUID> affectedAccounts) {
+        Set<UUID> existing = new HashSet<>(transactionRepository.findExistingIds(ids));
+        List<Transaction> toInsert = new ArrayList<>(parsed.size());
+        for (Transaction transaction : parsed) {
+            if (!existing.contains(transaction.getId())) {
+                // 上次尝试回滚后实体上可能残留版本号，重置后才能再次persist
+                transaction.setVersion(null);
+                toInsert.add(transaction);
+            }
+        }
+        transactionRepository.persistAll(toInsert);
+        missingTransactions.onCreated(toInsert.stream().map(Transaction::getId).toList());
+
+        // 按账户ID顺序更新余额行，并行分块之间行锁获取顺序一致
+        Map<UUID, BigDecimal> deltas = new TreeMap<>();
+        toInsert.forEach(t -> deltas.merge(t.getAccountId(), t.getType().signedAmount(t.getAmount()), BigDecimal::add));
+        deltas.forEach(accountBalanceService::applyDelta);
+        rollupService.apply(toInsert, List.of());
+        outboxService.record(TransactionEventType.CREATED, toInsert);
+        affectedAccounts.addAll(deltas.keySet());
+
+        List<ImportRejection> newRejections = rejections.stream().map(ImportServiceImpl::copy).toList();
+        importRejectionRepository.saveAll(newRejections);
+
+        ImportChunk chunk = new ImportChunk();
+        chunk.setJobId(jobId);
+        chunk.setStartOffset(startOffset);
+        chunk.setEndOffset(endOffset);
+        chunk.setImportedRows(toInsert.size());
+        chunk.setDuplicateRows(fileDuplicates + existing.size());
+        chunk.setRejectedRows(rejections.size());
+        importChunkRepository.save(chunk);
+    }
+
+    private static ImportRejection rejection(UUID jobId, LedgerRecordReader.Record record, String reason) {
+        ImportRejection rejection = new ImportRejection();
+        rejection.setJobId(jobId);
+        rejection.setLineNumber(record.lineNumber());
+        rejection.setReason(reason.length() > 500 ? reason.substring(0, 500) : reason);
+        String text = record.text();
+        rejection.setContent(text.length() > MAX_CONTENT_LENGTH ? text.substring(0, MAX_CONTENT_LENGTH) : text);
+        return rejection;
+    }
+
+    private static ImportRejection copy(ImportRejection source) {
+        ImportRejection rejection = new ImportRejection();
+        rejection.setJobId(source.getJobId());
+        rejection.setLineNumber(source.getLineNumber());
+        rejection.setReason(source.getReason());
+        rejection.setContent(source.getContent());
+        return rejection;
+    }
+
+    private void finish(UUID id, ImportStatus status, String errorMessage) {
+        transactionTemplate.executeWithoutResult(tx -> importJobRepository.findById(id).ifPresent(job -> {
+            job.setStatus(status);
+            job.setErrorMessage(errorMessage == null || errorMessage.length() <= 1000
+                    ? errorMessage : errorMessage.substring(0, 1000));
+            if (status == ImportStatus.COMPLETED) {
+                job.setCheckpointOffset(job.getTotalBytes());
+            }
+            job.setFinishedAt(LocalDateTime.now());
+        }));
+    }
+
+    private ImportJobDTO toDTO(ImportJob job, ImportRowCounts counts) {
+        ImportJobDTO dto = new ImportJobDTO();
+        dto.setId(job.getId());
+        dto.setFormat(job.getFormat());
+        dto.setStatus(job.getStatus());
+        dto.setTotalBytes(job.getTotalBytes());
+        dto.setProcessedBytes(job.getCheckpointOffset());
+        dto.setProgressPercent(job.getTotalBytes() == 0 ? 100.0 : job.getCheckpointOffset() * 100.0 / job.getTotalBytes());
+        dto.setImportedRows(counts.imported());
+        dto.setDuplicateRows(counts.duplicates());
+        dto.setRejectedRows(counts.rejected());
+        if (job.getStartedAt() != null) {
+            LocalDateTime end = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+            long millis = Math.max(1, Duration.between(job.getStartedAt(), end).toMillis());
+            dto.setRowsPerSecond((counts.total() - job.getRunStartRows()) * 1000.0 / millis);
+        }
+        dto.setCreatedAt(job.getCreatedAt());
+        dto.setStartedAt(job.getStartedAt());
+        dto.setFinishedAt(job.getFinishedAt());
+        dto.setErrorMessage(job.getErrorMessage());
+        return dto;
+    }
+
+    /**
+     * 分块可能乱序完成，检查点只推进到连续已提交分块的末尾
+     */
+    private final class CheckpointTracker {
+        private final UUID jobId;
+        private final Lock lock = new ReentrantLock();
+        private final TreeMap<Long, long[]> completed = new TreeMap<>();
+        private long offset;
+        private long line;
+
+        CheckpointTracker(UUID jobId, long offset, long line) {
+            this.jobId = jobId;
+            this.offset = offset;
+            this.line = line;
+        }
+
+        void advanceTo(long newOffset, long newLine) {
+            lock.lock();
+            try {
+                offset = newOffset;
+                line = newLine;
+                persist();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void complete(long start, long end, long endLine) {
+            lock.lock();
+            try {
+                completed.put(start, new long[]{end, endLine});
+                long before = offset;
+                long[] next;
+                while ((next = completed.remove(offset)) != null) {
+                    offset = next[0];
+                    line = next[1];
+                }
+                if (offset != before) {
+                    persist();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void persist() {
+            transactionTemplate.executeWithoutResult(status ->
+                    importJobRepository.advanceCheckpoint(jobId, offset, line));
+        }
+    }
+}
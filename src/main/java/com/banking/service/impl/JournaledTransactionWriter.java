@@ -0,0 +1,165 @@
+package com.banking.service.impl;
+
+import com.banking.cache.MissingTransactionCache;
+import com.banking.cache.TransactionListCache;
+import com.banking.dto.TransactionCursor;
+import com.banking.dto.TransactionDTO;
+import com.banking.entity.Transaction;
+import com.banking.enums.TransactionEventType;
+import com.banking.event.TransactionEventBus;
+import com.banking.exception.ServiceOverloadedException;
+import com.banking.journal.TransactionJournal;
+import com.banking.mapper.TransactionMapper;
+import com.banking.replica.ReadConsistency;
+import com.banking.repository.TransactionRepository;
+import com.banking.service.AccountBalanceService;
+import com.banking.service.OutboxService;
+import com.banking.service.TransactionRollupService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * 预写日志下的单笔创建：追加日志并落盘即返回，交易与余额由日志刷写线程批量写入数据库
+ * <p>
+ * 交易写入数据库之前，余额、列表页与账户历史还看不到它，按ID查询由 {@link #findPending} 从日志中读取；
+ * 修改与删除先由 {@link #awaitFlushed} 让该交易立即写库，创建后马上修改或删除不会得到404。
+ * 刷写线程不回填堆外存储：它不持有交易的条带锁，提交后回填可能与之后的删除、更新交错，把旧值写回去；
+ * 写库后的第一次按ID查询在条带锁内回填
+ */
+public class JournaledTransactionWriter {
+    private final TransactionJournal journal;
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+    private final AccountBalanceService accountBalanceService;
+    private final TransactionRollupService rollupService;
+    private final OutboxService outboxService;
+    private final TransactionEventBus eventBus;
+    private final TransactionListCache transactionListCache;
+    private final MissingTransactionCache missingTransactions;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int optimisticRetries;
+    private final Duration flushWait;
+
+    public JournaledTransactionWriter(TransactionJournal journal, TransactionRepository transactionRepository,
+                                      TransactionMapper transactionMapper,
+                                      AccountBalanceService accountBalanceService,
+                                      TransactionRollupService rollupService, OutboxService outboxService,
+                                      TransactionEventBus eventBus, TransactionListCache transactionListCache,
+                                      MissingTransactionCache missingTransactions, CacheManager cacheManager,
+                                      TransactionTemplate transactionTemplate, int optimisticRetries,
+                                      Duration flushWait) {
+        this.journal = journal;
+        this.transactionRepository = transactionRepository;
+        this.transactionMapper = transactionMapper;
+        this.accountBalanceService = accountBalanceService;
+        this.rollupService = rollupService;
+        this.outboxService = outboxService;
+        this.eventBus = eventBus;
+        this.transactionListCache = transactionListCache;
+        this.missingTransactions = missingTransactions;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = transactionTemplate;
+        this.optimisticRetries = optimisticRetries;
+        this.flushWait = flushWait;
+    }
+
+    @PostConstruct
+    public void start() {
+        // 启动时先重放上次未写入数据库的日志记录，再接受新的交易
+        journal.start(this::insertJournaled);
+    }
+
+    @PreDestroy
+    public void close() {
+        // 在数据源关闭前停止日志并把已落盘的记录写入数据库
+        journal.close();
+    }
+
+    public TransactionDTO create(TransactionDTO transactionDTO) {
+        Transaction entity = transactionMapper.toEntity(transactionDTO);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        entity.setCreatedAt(now);
+        entity.setUpdatedAt(now);
+        // 日志先占住ID再查库：尚未写入数据库的ID由日志拒绝，已写入的由主库查询拒绝；刷写时仍按ID去重兜底
+        journal.append(entity, id -> ReadConsistency.onPrimary(() -> transactionRepository.existsById(id)));
+        missingTransactions.onCreated(List.of(entity.getId()));
+        // 已落盘即视为创建成功，事件在此发布；刷写与重放写库时不再重复发布
+        TransactionDTO created = transactionMapper.toDTO(entity);
+        eventBus.publish(TransactionEventType.CREATED, created.getId(), created);
+        return created;
+    }
+
+    /**
+     * 已确认但尚未写入数据库的交易
+     */
+    public Optional<Transaction> findPending(UUID id) {
+        return journal.findPending(id);
+    }
+
+    /**
+     * 等待仍只在日志中的交易写入数据库，最多等待 flush-wait；数据库暂时不可写导致超时时返回503，客户端可稍后重试
+     */
+    public void awaitFlushed(UUID id) {
+        if (!journal.awaitFlushed(id, flushWait)) {
+            throw new ServiceOverloadedException("交易 " + id + " 尚未写入数据库，请稍后重试", flushWait);
+        }
+    }
+
+    /**
+     * 日志刷写与启动重放的写库入口：按ID去重后批量插入并合并余额增量，重复调用同一批记录不会重复入账
+     */
+    private void insertJournaled(List<Transaction> batch) {
+        Set<UUID> ids = new LinkedHashSet<>();
+        Set<UUID> accountIds = new LinkedHashSet<>();
+        batch.forEach(t -> {
+            ids.add(t.getId());
+            accountIds.add(t.getAccountId());
+        });
+        accountBalanceService.ensureAccounts(accountIds);
+
+        List<Transaction> toInsert = new ArrayList<>(batch.size());
+        TransactionWrites.retryOnConflict(DataIntegrityViolationException.class, optimisticRetries,
+                () -> transactionTemplate.execute(status -> {
+                    toInsert.clear();
+                    Set<UUID> seen = new HashSet<>(transactionRepository.findExistingIds(ids));
+                    for (Transaction transaction : batch) {
+                        if (seen.add(transaction.getId())) {
+                            toInsert.add(transaction);
+                        }
+                    }
+                    // 重试时实体可能已带有上一次回滚事务分配的版本号，插入前复位
+                    toInsert.forEach(t -> t.setVersion(null));
+                    transactionRepository.persistAll(toInsert);
+                    Map<UUID, BigDecimal> deltas = new TreeMap<>();
+                    toInsert.forEach(t -> deltas.merge(t.getAccountId(), t.getType().signedAmount(t.getAmount()),
+                            BigDecimal::add));
+                    TransactionWrites.applyDeltas(accountBalanceService, deltas);
+                    rollupService.apply(toInsert, List.of());
+                    outboxService.record(TransactionEventType.CREATED, toInsert);
+                    // 日志记录的createdAt在追加时生成，写库晚于之后创建的交易时可能落入已缓存的满页
+                    transactionListCache.onAppend(toInsert.stream().map(TransactionCursor::of).toList());
+                    missingTransactions.onCreated(ids);
+                    return null;
+                }));
+        TransactionWrites.evictAccountHistory(cacheManager,
+                toInsert.stream().map(Transaction::getAccountId).distinct().toArray(UUID[]::new));
+    }
+}
@@ -0,0 +1,141 @@
+package com.banking.service.impl;
+
+import com.banking.entity.Transaction;
+import com.banking.enums.LedgerFormat;
+import com.banking.enums.TransactionType;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * 把账本文件中的一条记录直接解析为 Transaction 实体，字段与导出格式一致；
+ * 格式错误以 IllegalArgumentException 抛出，消息即拒绝原因
+ */
+final class LedgerRecordParser {
+    static final List<String> COLUMNS = List.of(
+            "id", "type", "amount", "accountId", "relatedAccountId", "description", "createdAt", "updatedAt");
+
+    private final LedgerFormat format;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Integer> csvColumns = new HashMap<>();
+
+    LedgerRecordParser(LedgerFormat format, ObjectMapper objectMapper) {
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 读取CSV表头，按列名定位字段，列顺序可以与导出不同
+     */
+    void readHeader(String header) {
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            csvColumns.put(names.get(i).trim(), i);
+        }
+        for (String required : List.of("id", "type", "amount", "accountId")) {
+            if (!csvColumns.containsKey(required)) {
+                throw new IllegalArgumentException("CSV表头缺少列 " + required + "，应为 " + String.join(",", COLUMNS));
+            }
+        }
+    }
+
+    Transaction parse(String text) {
+        Function<String, String> field = format == LedgerFormat.CSV ? csvFields(text) : jsonFields(text);
+
+        Transaction transaction = new Transaction();
+        transaction.setId(parse(field, "id", UUID::fromString));
+        if (transaction.getId() == null) {
+            throw new IllegalArgumentException("交易ID不能为空");
+        }
+        transaction.setType(parse(field, "type", TransactionType::valueOf));
+        transaction.setAmount(parse(field, "amount", BigDecimal::new));
+        transaction.setAccountId(parse(field, "accountId", UUID::fromString));
+        transaction.setRelatedAccountId(parse(field, "relatedAccountId", UUID::fromString));
+        transaction.setDescription(field.apply("description"));
+        transaction.setCreatedAt(parse(field, "createdAt", LocalDateTime::parse));
+        transaction.setUpdatedAt(parse(field, "updatedAt", LocalDateTime::parse));
+        return transaction;
+    }
+
+    private static <T> T parse(Function<String, String> field, String name, Function<String, T> parser) {
+        String value = field.apply(name);
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (IllegalArgumentException | DateTimeParseException | ArithmeticException e) {
+            throw new IllegalArgumentException("字段 " + name + " 格式错误: " + value);
+        }
+    }
+
+    private Function<String, String> csvFields(String text) {
+        List<String> values = splitCsv(text);
+        return name -> {
+            Integer index = csvColumns.get(name);
+            return index == null || index >= values.size() ? null : values.get(index);
+        };
+    }
+
+    private Function<String, String> jsonFields(String text) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON格式错误: " + e.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("每行必须是一个JSON对象");
+        }
+        return name -> {
+            JsonNode value = node.get(name);
+            return value == null || value.isNull() ? null : value.asText();
+        };
+    }
+
+    /**
+     * 按RFC 4180拆分一行CSV：引号包裹的字段可包含逗号、换行，双引号以两个双引号转义
+     */
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inQuotes = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (inQuotes) {
+            throw new IllegalArgumentException("CSV引号未闭合");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
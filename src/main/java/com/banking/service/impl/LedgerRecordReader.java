@@ -0,0 +1,100 @@
+package com.banking.service.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 按记录流式读取账本文件并跟踪字节偏移，偏移用作导入检查点。
+ * CSV模式下引号内的换行属于同一条记录；空行跳过但计入偏移和行号。
+ */
+final class LedgerRecordReader implements Closeable {
+
+    record Record(long lineNumber, long startOffset, long endOffset, String text) {
+    }
+
+    private final InputStream in;
+    private final boolean quoteAware;
+    private final byte[] buffer = new byte[64 * 1024];
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(256);
+    private int position;
+    private int limit;
+    private long offset;
+    private long line;
+
+    LedgerRecordReader(InputStream in, long startOffset, long startLine, boolean quoteAware) {
+        this.in = in;
+        this.offset = startOffset;
+        this.line = startLine;
+        this.quoteAware = quoteAware;
+    }
+
+    long offset() {
+        return offset;
+    }
+
+    long line() {
+        return line;
+    }
+
+    /**
+     * 读取下一条非空记录，文件结束时返回null
+     */
+    Record next() throws IOException {
+        while (true) {
+            long start = offset;
+            long firstLine = line + 1;
+            recordBytes.reset();
+            boolean inQuotes = false;
+            boolean terminated = false;
+            int b;
+            while ((b = read()) != -1) {
+                if (b == '\n') {
+                    line++;
+                    if (!inQuotes) {
+                        terminated = true;
+                        break;
+                    }
+                } else if (quoteAware && b == '"') {
+                    inQuotes = !inQuotes;
+                }
+                recordBytes.write(b);
+            }
+            if (!terminated) {
+                if (recordBytes.size() == 0) {
+                    return null;
+                }
+                // 最后一行没有换行符
+                line++;
+            }
+
+            String text = recordBytes.toString(StandardCharsets.UTF_8);
+            if (text.endsWith("\r")) {
+                text = text.substring(0, text.length() - 1);
+            }
+            if (!text.isBlank()) {
+                return new Record(firstLine, start, offset, text);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        offset++;
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,71 @@
+package com.banking.service.impl;
+
+import com.banking.entity.OutboxEntry;
+import com.banking.entity.OutboxPartition;
+import com.banking.entity.Transaction;
+import com.banking.enums.TransactionEventType;
+import com.banking.mapper.TransactionMapper;
+import com.banking.repository.OutboxEntryRepository;
+import com.banking.service.OutboxService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 交易发件箱的写入端。banking.outbox.enabled=false（默认）时不写入，也不启动投递线程
+ */
+@Service
+public class OutboxServiceImpl implements OutboxService {
+    private final OutboxEntryRepository outboxEntryRepository;
+    private final TransactionMapper transactionMapper;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+
+    public OutboxServiceImpl(OutboxEntryRepository outboxEntryRepository, TransactionMapper transactionMapper,
+                             ObjectMapper objectMapper,
+                             @Value("${banking.outbox.enabled:false}") boolean enabled) {
+        this.outboxEntryRepository = outboxEntryRepository;
+        this.transactionMapper = transactionMapper;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(TransactionEventType type, Collection<Transaction> transactions) {
+        if (!enabled || transactions.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<OutboxEntry> entries = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            OutboxEntry entry = new OutboxEntry();
+            entry.setPartitionId(OutboxPartition.of(transaction.getAccountId()));
+            entry.setAccountId(transaction.getAccountId());
+            entry.setTransactionId(transaction.getId());
+            entry.setEventType(type);
+            entry.setPayload(write(transaction));
+            entry.setCreatedAt(now);
+            entry.setNextAttemptAt(now);
+            entries.add(entry);
+        }
+        outboxEntryRepository.saveAll(entries);
+    }
+
+    private String write(Transaction transaction) {
+        try {
+            return objectMapper.writeValueAsString(transactionMapper.toDTO(transaction));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("无法序列化交易", e);
+        }
+    }
+}
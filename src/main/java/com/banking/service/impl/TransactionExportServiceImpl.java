@@ -0,0 +1,166 @@
+package com.banking.service.impl;
+
+import com.banking.dto.TransactionDTO;
+import com.banking.entity.Transaction;
+import com.banking.enums.LedgerFormat;
+import com.banking.exception.InvalidTransactionException;
+import com.banking.mapper.TransactionMapper;
+import com.banking.repository.TransactionRepository;
+import com.banking.service.TransactionExportService;
+import com.banking.shard.ShardRouter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@Service
+public class TransactionExportServiceImpl implements TransactionExportService {
+    private static final String CSV_HEADER = "id,type,amount,accountId,relatedAccountId,description,createdAt,updatedAt";
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+    private final ObjectMapper objectMapper;
+    /**
+     * 逐行写出时不在每个值之后刷出，刷出节奏只由 {@link #flushPeriodically} 控制
+     */
+    private final ObjectWriter rowWriter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ShardRouter shardRouter;
+    private final int fetchSize;
+
+    public TransactionExportServiceImpl(TransactionRepository transactionRepository, TransactionMapper transactionMapper,
+                                        ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+                                        ShardRouter shardRouter,
+                                        @Value("${banking.export.fetch-size:500}") int fetchSize) {
+        this.transactionRepository = transactionRepository;
+        this.transactionMapper = transactionMapper;
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writerFor(TransactionDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager(),
+                transactionTemplate);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.shardRouter = shardRouter;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public long export(LedgerFormat format, UUID accountId, LocalDateTime from, LocalDateTime to,
+                       OutputStream out) throws IOException {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidTransactionException("起始时间必须早于结束时间");
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonGenerator generator = null;
+        if (format == LedgerFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        } else {
+            generator = objectMapper.getFactory().createGenerator(writer);
+            // 生成器不关闭底层输出流，由Servlet容器负责
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        }
+
+        // 分片存储下指定账户只读所属分片，否则依次导出各分片，每个分片在各自的只读事务内流式读取
+        List<Integer> shards = accountId != null
+                ? List.of(shardRouter.shardOf(accountId))
+                : IntStream.range(0, shardRouter.shards()).boxed().toList();
+        long rows = 0;
+        for (int shard : shards) {
+            long written = rows;
+            JsonGenerator target = generator;
+            try {
+                rows = shardRouter.on(shard, () -> readOnlyTransaction.execute(status ->
+                        exportShard(writer, target, accountId, from, to, written)));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        }
+        if (generator != null) {
+            generator.flush();
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private long exportShard(Writer writer, JsonGenerator generator, UUID accountId, LocalDateTime from,
+                             LocalDateTime to, long rows) {
+        try (Stream<Transaction> stream = transactionRepository.streamForExport(accountId, from, to, fetchSize)) {
+            Iterator<Transaction> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                if (generator == null) {
+                    writeCsv(writer, iterator.next());
+                    rows = flushPeriodically(writer, rows);
+                } else {
+                    rowWriter.writeValue(generator, transactionMapper.toDTO(iterator.next()));
+                    generator.writeRaw('\n');
+                    rows = flushPeriodically(generator, rows);
+                }
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 每 fetchSize 行刷出一次，客户端可以边下载边处理，服务端缓冲区也保持固定大小
+     */
+    private long flushPeriodically(Flushable target, long rows) throws IOException {
+        long written = rows + 1;
+        if (written % fetchSize == 0) {
+            target.flush();
+        }
+        return written;
+    }
+
+    private void writeCsv(Writer writer, Transaction transaction) throws IOException {
+        writer.write(transaction.getId().toString());
+        writer.write(',');
+        writer.write(transaction.getType().name());
+        writer.write(',');
+        writer.write(transaction.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(transaction.getAccountId().toString());
+        writer.write(',');
+        if (transaction.getRelatedAccountId() != null) {
+            writer.write(transaction.getRelatedAccountId().toString());
+        }
+        writer.write(',');
+        writer.write(escapeCsv(transaction.getDescription()));
+        writer.write(',');
+        writer.write(String.valueOf(transaction.getCreatedAt()));
+        writer.write(',');
+        writer.write(String.valueOf(transaction.getUpdatedAt()));
+        writer.write('\n');
+    }
+
+    private static String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,252 @@
+package com.banking.service.impl;
+
+import com.banking.dto.RollupBucketDTO;
+import com.banking.entity.Transaction;
+import com.banking.entity.TransactionRollup;
+import com.banking.entity.TransactionRollupId;
+import com.banking.enums.RollupGranularity;
+import com.banking.enums.TransactionType;
+import com.banking.exception.InvalidTransactionException;
+import com.banking.replica.ReadConsistency;
+import com.banking.repository.AccountBalanceRepository;
+import com.banking.repository.TransactionRepository;
+import com.banking.repository.TransactionRollupRepository;
+import com.banking.service.TransactionRollupService;
+import com.banking.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 交易汇总
+ * <p>
+ * 每笔交易计入 (账户, 粒度, 时间桶, 类型) 三行汇总（小时、天、月各一行），与交易和余额在同一事务内提交。
+ * 写入路径总是先更新账户余额行，同一账户的汇总行更新因此由余额行锁串行化；新桶的插入也在余额行锁下进行，
+ * 不会出现两个事务同时插入同一汇总行。
+ * <p>
+ * 回填先锁住一批账户的余额行，再删除并按账本重算这些账户的汇总，可以在线执行；各批之间用 fork-join 并行。
+ */
+@Service
+public class TransactionRollupServiceImpl implements TransactionRollupService {
+    private static final Logger log = LoggerFactory.getLogger(TransactionRollupServiceImpl.class);
+    private static final int BACKFILL_CHUNK_SIZE = 200;
+
+    private final TransactionRollupRepository rollupRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    private final int backfillParallelism;
+    private final boolean backfillOnStartup;
+
+    public TransactionRollupServiceImpl(TransactionRollupRepository rollupRepository,
+                                        AccountBalanceRepository accountBalanceRepository,
+                                        TransactionRepository transactionRepository,
+                                        TransactionTemplate transactionTemplate,
+                                        ShardRouter shardRouter,
+                                        @Value("${banking.rollup.backfill-parallelism:4}") int backfillParallelism,
+                                        @Value("${banking.rollup.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.rollupRepository = rollupRepository;
+        this.accountBalanceRepository = accountBalanceRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.backfillParallelism = backfillParallelism;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+
+    @Override
+    public List<RollupBucketDTO> summary(UUID accountId, RollupGranularity granularity, LocalDateTime from,
+                                         LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = granularity.bucketStart(from != null ? from : defaultFrom(granularity, end));
+        if (!start.isBefore(end)) {
+            throw new InvalidTransactionException("开始时间必须早于结束时间");
+        }
+        return shardRouter.onAccount(accountId, () -> rollupRepository.findRange(accountId, granularity, start, end))
+                .stream()
+                .map(r -> new RollupBucketDTO(r.getId().getBucketStart(), r.getId().getType(),
+                        r.getTotalAmount(), r.getCount()))
+                .toList();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Collection<Transaction> added, Collection<Transaction> removed) {
+        // 按主键顺序更新，多个事务的行锁获取顺序一致
+        Map<TransactionRollupId, Delta> deltas = new TreeMap<>();
+        added.forEach(t -> accumulate(deltas, t, 1));
+        removed.forEach(t -> accumulate(deltas, t, -1));
+        deltas.forEach((id, delta) -> {
+            if (delta.count() != 0 || delta.amount().signum() != 0) {
+                addDelta(id, delta);
+            }
+        });
+    }
+
+    @Override
+    public int backfill() {
+        int[] accounts = new int[1];
+        ForkJoinPool pool = new ForkJoinPool(backfillParallelism, TransactionRollupServiceImpl::backfillThread,
+                null, false);
+        try {
+            // 逐个分片回填，批次任务在工作线程上重新进入所属分片；回填以主库为准
+            shardRouter.forEachShard(shard -> {
+                List<UUID> accountIds = ReadConsistency.onPrimary(transactionRepository::findDistinctAccountIds);
+                pool.invoke(new BackfillTask(shard, accountIds));
+                accounts[0] += accountIds.size();
+            });
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("汇总回填失败", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        return accounts[0];
+    }
+
+    /**
+     * 已有交易但汇总表为空时（如升级后首次启动）在后台回填，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup
+                || !shardRouter.scatter(shard -> ReadConsistency.onPrimary(this::needsBackfill)).contains(true)) {
+            return;
+        }
+        Thread.ofPlatform().daemon().name("rollup-backfill").start(() -> {
+            long start = System.nanoTime();
+            int accounts = backfill();
+            log.info("交易汇总回填完成，{} 个账户，耗时 {} 毫秒", accounts, (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+
+    private boolean needsBackfill() {
+        return rollupRepository.findFirstBy().isEmpty()
+                && !transactionRepository.findAllByOrderByCreatedAtAscIdAsc(Limit.of(1)).isEmpty();
+    }
+
+    private void addDelta(TransactionRollupId id, Delta delta) {
+        if (rollupRepository.addDelta(id, delta.amount(), delta.count()) > 0) {
+            return;
+        }
+        // 新桶：持有余额行锁后再更新一次，其他事务可能在等锁期间已插入并提交
+        accountBalanceRepository.lockAccounts(List.of(id.getAccountId()));
+        if (rollupRepository.addDelta(id, delta.amount(), delta.count()) == 0) {
+            rollupRepository.save(newRollup(id, delta.amount(), delta.count()));
+        }
+    }
+
+    private void backfillChunk(List<UUID> accountIds) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // 重算期间这些账户的写入在余额行锁上等待，不会漏计或重复计入
+            accountBalanceRepository.lockAccounts(accountIds);
+            rollupRepository.deleteByAccountIds(accountIds);
+
+            Map<TransactionRollupId, TransactionRollup> rollups = new HashMap<>();
+            // 数据库按小时聚合，日与月的汇总由小时结果在内存中合并
+            for (Object[] row : transactionRepository.sumHourlyByAccount(accountIds)) {
+                UUID accountId = (UUID) row[0];
+                TransactionType type = (TransactionType) row[1];
+                LocalDateTime hour = LocalDateTime.of(((Number) row[2]).intValue(), ((Number) row[3]).intValue(),
+                        ((Number) row[4]).intValue(), ((Number) row[5]).intValue(), 0);
+                BigDecimal amount = (BigDecimal) row[6];
+                long count = ((Number) row[7]).longValue();
+                for (RollupGranularity granularity : RollupGranularity.values()) {
+                    TransactionRollupId id = new TransactionRollupId(accountId, granularity,
+                            granularity.bucketStart(hour), type);
+                    TransactionRollup rollup = rollups.computeIfAbsent(id,
+                            key -> newRollup(key, BigDecimal.ZERO, 0));
+                    rollup.setTotalAmount(rollup.getTotalAmount().add(amount));
+                    rollup.setCount(rollup.getCount() + count);
+                }
+            }
+            rollupRepository.saveAll(rollups.values());
+        });
+    }
+
+    private static void accumulate(Map<TransactionRollupId, Delta> deltas, Transaction transaction, int sign) {
+        BigDecimal amount = sign > 0 ? transaction.getAmount() : transaction.getAmount().negate();
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            TransactionRollupId id = new TransactionRollupId(transaction.getAccountId(), granularity,
+                    granularity.bucketStart(transaction.getCreatedAt()), transaction.getType());
+            deltas.merge(id, new Delta(amount, sign), Delta::plus);
+        }
+    }
+
+    private static TransactionRollup newRollup(TransactionRollupId id, BigDecimal amount, long count) {
+        TransactionRollup rollup = new TransactionRollup();
+        rollup.setId(id);
+        rollup.setTotalAmount(amount);
+        rollup.setCount(count);
+        return rollup;
+    }
+
+    private static LocalDateTime defaultFrom(RollupGranularity granularity, LocalDateTime to) {
+        return switch (granularity) {
+            case HOUR -> to.minusDays(1);
+            case DAY -> to.minusDays(30);
+            case MONTH -> to.minusMonths(12);
+        };
+    }
+
+    private static ForkJoinWorkerThread backfillThread(ForkJoinPool pool) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setName("rollup-backfill-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    private record Delta(BigDecimal amount, long count) {
+        Delta plus(Delta other) {
+            return new Delta(amount.add(other.amount), count + other.count);
+        }
+    }
+
+    /**
+     * 账户列表对半拆分直到不超过一批，每批在独立事务中重算；并行度即同时占用的数据库连接数
+     */
+    private final class BackfillTask extends RecursiveAction {
+        private final int shard;
+        private final List<UUID> accountIds;
+
+        BackfillTask(int shard, List<UUID> accountIds) {
+            this.shard = shard;
+            this.accountIds = accountIds;
+        }
+
+        @Override
+        protected void compute() {
+            if (accountIds.size() <= BACKFILL_CHUNK_SIZE) {
+                if (!accountIds.isEmpty()) {
+                    shardRouter.on(shard, () -> {
+                        backfillChunk(new ArrayList<>(accountIds));
+                        return null;
+                    });
+                }
+                return;
+            }
+            int middle = accountIds.size() / 2;
+            invokeAll(new BackfillTask(shard, accountIds.subList(0, middle)),
+                    new BackfillTask(shard, accountIds.subList(middle, accountIds.size())));
+        }
+    }
+}
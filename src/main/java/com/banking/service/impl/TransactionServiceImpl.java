@@ -1,115 +1,579 @@
 package com.banking.service.impl;
 
+import com.banking.cache.MissingTransactionCache;
+import com.banking.cache.OffHeapTransactionStore;
+import com.banking.cache.TransactionListCache;
+import com.banking.concurrent.LoadSheddingExecutor;
+import com.banking.concurrent.TransactionLocks;
+import com.banking.dto.BatchTransactionResultDTO;
+import com.banking.dto.CursorPageDTO;
+import com.banking.dto.TransactionCursor;
 import com.banking.dto.TransactionDTO;
+import com.banking.dto.TransferRequest;
+import com.banking.dto.TransferResultDTO;
 import com.banking.entity.Transaction;
+import com.banking.enums.BatchItemStatus;
+import com.banking.enums.TransactionEventType;
+import com.banking.enums.TransactionType;
+import com.banking.event.TransactionEventBus;
 import com.banking.exception.DuplicateTransactionException;
 import com.banking.exception.InvalidTransactionException;
 import com.banking.exception.TransactionNotFoundException;
 import com.banking.mapper.TransactionMapper;
+import com.banking.replica.ReadConsistency;
 import com.banking.repository.TransactionRepository;
+import com.banking.service.AccountBalanceService;
+import com.banking.service.OutboxService;
+import com.banking.service.TransactionRollupService;
 import com.banking.service.TransactionService;
-import com.google.common.util.concurrent.Striped;
+import com.banking.shard.ShardRouter;
+import com.banking.shard.ShardedTransactionReader;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
-import java.util.concurrent.locks.Lock;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class TransactionServiceImpl implements TransactionService {
+    private static final String OPERATION_TIMER = "banking.transaction.operation";
+
     private final TransactionRepository transactionRepository;
     private final TransactionMapper transactionMapper;
+    private final CacheManager cacheManager;
+    private final TransactionListCache transactionListCache;
+    private final MissingTransactionCache missingTransactions;
+    private final AccountBalanceService accountBalanceService;
+    private final TransactionRollupService rollupService;
+    private final OutboxService outboxService;
+    private final TransactionEventBus eventBus;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+    /**
+     * 查询、按ID定位分片与跨分片归并；查询结果是否可以写入缓存由 {@link ReadConsistency} 判断
+     */
+    private final ShardedTransactionReader transactionReader;
+    private final TransactionLocks locks;
+    private final ReadConsistency readConsistency;
+    private final int optimisticRetries;
+    /**
+     * 开启预写日志时，单笔创建只追加日志并落盘即返回，交易与余额由日志刷写线程批量写入数据库
+     */
+    private final Optional<JournaledTransactionWriter> journaledWriter;
+    /**
+     * 开启堆外存储时，按ID查询先查堆外存储；本实例的同步写入在条带锁内、提交后更新，未命中时在条带锁内回填，
+     * 预写日志的刷写不写入堆外存储
+     */
+    private final Optional<OffHeapTransactionStore> hotStore;
+    /**
+     * 异步查询的有界执行器；未配置时异步查询在调用线程内同步执行
+     */
+    private final Optional<LoadSheddingExecutor> readExecutor;
+    /**
+     * 经过代理的自身引用，异步查询通过它调用，缓存与计时注解才会生效
+     */
+    private final ObjectProvider<TransactionService> self;
 
-    private final Striped<Lock> stripedLocks = Striped.lock(2048);
-
-    public TransactionServiceImpl(TransactionRepository transactionRepository, TransactionMapper transactionMapper) {
+    public TransactionServiceImpl(TransactionRepository transactionRepository, TransactionMapper transactionMapper,
+                                  CacheManager cacheManager, TransactionListCache transactionListCache,
+                                  MissingTransactionCache missingTransactions,
+                                  AccountBalanceService accountBalanceService, TransactionRollupService rollupService,
+                                  OutboxService outboxService, TransactionEventBus eventBus,
+                                  TransactionTemplate transactionTemplate, ShardRouter shardRouter,
+                                  ShardedTransactionReader transactionReader, TransactionLocks locks,
+                                  ReadConsistency readConsistency,
+                                  @Value("${banking.locking.optimistic-retries:3}") int optimisticRetries,
+                                  Optional<JournaledTransactionWriter> journaledWriter,
+                                  Optional<OffHeapTransactionStore> hotStore,
+                                  Optional<LoadSheddingExecutor> readExecutor,
+                                  ObjectProvider<TransactionService> self) {
         this.transactionRepository = transactionRepository;
         this.transactionMapper = transactionMapper;
+        this.cacheManager = cacheManager;
+        this.transactionListCache = transactionListCache;
+        this.missingTransactions = missingTransactions;
+        this.accountBalanceService = accountBalanceService;
+        this.rollupService = rollupService;
+        this.outboxService = outboxService;
+        this.eventBus = eventBus;
+        this.transactionTemplate = transactionTemplate;
+        this.shardRouter = shardRouter;
+        this.transactionReader = transactionReader;
+        this.locks = locks;
+        this.readConsistency = readConsistency;
+        this.optimisticRetries = optimisticRetries;
+        this.journaledWriter = journaledWriter;
+        this.hotStore = hotStore;
+        this.readExecutor = readExecutor;
+        this.self = self;
     }
 
     @Override
-    @CacheEvict(value = "transactionList", allEntries = true)
+    @CacheEvict(value = "accountTransactions", key = "#transactionDTO.accountId.toString()")
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "create"}, histogram = true)
     public TransactionDTO createTransaction(TransactionDTO transactionDTO) {
-        Lock lock = stripedLocks.get(transactionDTO.getId());
-        lock.lock();
-        try {
-            // 检查是否存在重复交易
-            if (transactionRepository.existsById(transactionDTO.getId())) {
+        if (journaledWriter.isPresent()) {
+            return journaledWriter.get().create(transactionDTO);
+        }
+        TransactionDTO created = shardRouter.onAccount(transactionDTO.getAccountId(), () -> insert(transactionDTO));
+        transactionReader.recordShard(created.getId(), created.getAccountId());
+        return created;
+    }
+
+    private TransactionDTO insert(TransactionDTO transactionDTO) {
+        accountBalanceService.ensureAccounts(List.of(transactionDTO.getAccountId()));
+        return locks.withTransactions(List.of(transactionDTO.getId()), () -> {
+            if (!transactionReader.existingOnOtherShards(List.of(transactionDTO.getId())).isEmpty()) {
                 throw new DuplicateTransactionException("交易ID " + transactionDTO.getId() + " 已存在");
             }
+            // 交易写入与余额增量在同一事务内提交，且在锁内完成提交
+            TransactionDTO created = transactionTemplate.execute(status -> {
+                // 客户端重试的重复ID先按主键查到并拒绝，不让Hibernate为每次预期内的冲突记录SQL错误日志；
+                // 多实例并发创建同一ID时仍由INSERT的主键约束兜底
+                if (transactionRepository.existsById(transactionDTO.getId())) {
+                    throw new DuplicateTransactionException("交易ID " + transactionDTO.getId() + " 已存在");
+                }
+                Transaction entity = transactionMapper.toEntity(transactionDTO);
+                try {
+                    transactionRepository.insert(entity);
+                } catch (DataIntegrityViolationException e) {
+                    throw new DuplicateTransactionException("交易ID " + transactionDTO.getId() + " 已存在");
+                }
+                accountBalanceService.applyDelta(entity.getAccountId(),
+                        entity.getType().signedAmount(entity.getAmount()));
+                rollupService.apply(List.of(entity), List.of());
+                outboxService.record(TransactionEventType.CREATED, List.of(entity));
+                transactionListCache.onAppend(List.of(TransactionCursor.of(entity)));
+                missingTransactions.onCreated(List.of(transactionDTO.getId()));
+                return transactionMapper.toDTO(entity);
+            });
+            hotStore.ifPresent(store -> store.put(created));
+            eventBus.publish(TransactionEventType.CREATED, created.getId(), created);
+            return created;
+        });
+    }
 
-            Transaction entity = transactionMapper.toEntity(transactionDTO);
-            Transaction savedEntity = transactionRepository.save(entity);
-            return transactionMapper.toDTO(savedEntity);
-        } finally {
-            lock.unlock();
+    @Override
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "createBatch"}, histogram = true)
+    public List<BatchTransactionResultDTO> createTransactions(List<TransactionDTO> transactionDTOs) {
+        if (!shardRouter.isSharded()) {
+            return insertBatch(transactionDTOs);
+        }
+        // 按分片拆成子批次，每个子批次在所在分片的一个事务内提交；各分片之间不是原子的
+        Map<Integer, List<Integer>> positionsByShard = new TreeMap<>();
+        for (int i = 0; i < transactionDTOs.size(); i++) {
+            positionsByShard.computeIfAbsent(shardRouter.shardOf(transactionDTOs.get(i).getAccountId()),
+                    shard -> new ArrayList<>()).add(i);
         }
+        BatchTransactionResultDTO[] results = new BatchTransactionResultDTO[transactionDTOs.size()];
+        positionsByShard.forEach((shard, positions) -> {
+            List<TransactionDTO> subBatch = positions.stream().map(transactionDTOs::get).toList();
+            List<BatchTransactionResultDTO> subResults = shardRouter.on(shard, () -> insertBatch(subBatch));
+            for (int i = 0; i < positions.size(); i++) {
+                results[positions.get(i)] = subResults.get(i);
+                if (subResults.get(i).getStatus() == BatchItemStatus.CREATED) {
+                    transactionReader.recordShard(subResults.get(i).getId(), subBatch.get(i).getAccountId());
+                }
+            }
+        });
+        return List.of(results);
+    }
+
+    private List<BatchTransactionResultDTO> insertBatch(List<TransactionDTO> transactionDTOs) {
+        Set<UUID> ids = new LinkedHashSet<>();
+        Set<UUID> accountIds = new LinkedHashSet<>();
+        transactionDTOs.forEach(dto -> {
+            ids.add(dto.getId());
+            accountIds.add(dto.getAccountId());
+        });
+        accountBalanceService.ensureAccounts(accountIds);
+
+        List<BatchTransactionResultDTO> results = new ArrayList<>(transactionDTOs.size());
+        List<Transaction> toInsert = new ArrayList<>(transactionDTOs.size());
+        locks.withTransactions(ids, () -> {
+            Set<UUID> elsewhere = transactionReader.existingOnOtherShards(ids);
+            // 其他实例并发插入了同批ID时整批回滚并重试，重试时这些ID会在集合查重中被标记为DUPLICATE
+            TransactionWrites.retryOnConflict(DataIntegrityViolationException.class, optimisticRetries,
+                    () -> transactionTemplate.execute(status -> {
+                        results.clear();
+                        toInsert.clear();
+                        // 一次集合查询完成重复检查，替代逐条existsById
+                        Set<UUID> seen = new HashSet<>(transactionRepository.findExistingIds(ids));
+                        seen.addAll(elsewhere);
+
+                        for (TransactionDTO dto : transactionDTOs) {
+                            if (!seen.add(dto.getId())) {
+                                results.add(new BatchTransactionResultDTO(dto.getId(), BatchItemStatus.DUPLICATE,
+                                        null));
+                                continue;
+                            }
+                            toInsert.add(transactionMapper.toEntity(dto));
+                            results.add(new BatchTransactionResultDTO(dto.getId(), BatchItemStatus.CREATED, null));
+                        }
+
+                        transactionRepository.persistAll(toInsert);
+                        // 同一账户的增量先合并，每个账户只更新一次余额行
+                        Map<UUID, BigDecimal> deltas = new TreeMap<>();
+                        toInsert.forEach(t -> deltas.merge(t.getAccountId(),
+                                t.getType().signedAmount(t.getAmount()), BigDecimal::add));
+                        TransactionWrites.applyDeltas(accountBalanceService, deltas);
+                        rollupService.apply(toInsert, List.of());
+                        outboxService.record(TransactionEventType.CREATED, toInsert);
+                        transactionListCache.onAppend(toInsert.stream().map(TransactionCursor::of).toList());
+                        missingTransactions.onCreated(ids);
+                        return null;
+                    }));
+            TransactionWrites.evictAccountHistory(cacheManager,
+                    toInsert.stream().map(Transaction::getAccountId).distinct().toArray(UUID[]::new));
+
+            int index = 0;
+            for (BatchTransactionResultDTO result : results) {
+                if (result.getStatus() == BatchItemStatus.CREATED) {
+                    result.setTransaction(transactionMapper.toDTO(toInsert.get(index++)));
+                    hotStore.ifPresent(store -> store.put(result.getTransaction()));
+                    eventBus.publish(TransactionEventType.CREATED, result.getId(), result.getTransaction());
+                }
+            }
+        });
+        return results;
     }
 
     @Override
-    @Cacheable(value = "transactions", key = "#id.toString()")
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "transfer"}, histogram = true)
+    public TransferResultDTO transfer(TransferRequest request) {
+        UUID fromAccountId = request.getFromAccountId();
+        UUID toAccountId = request.getToAccountId();
+        if (fromAccountId.equals(toAccountId)) {
+            throw new InvalidTransactionException("转出账户与转入账户不能相同");
+        }
+        int shard = shardRouter.shardOf(fromAccountId);
+        if (shard != shardRouter.shardOf(toAccountId)) {
+            // 两条腿需在同一个数据库事务内提交，跨分片转账需要分布式事务或补偿流程，当前不支持
+            throw new InvalidTransactionException("分片存储下不支持跨分片转账");
+        }
+        TransferResultDTO result = shardRouter.on(shard, () -> transferOnShard(request));
+        transactionReader.recordShard(result.getOutgoing().getId(), fromAccountId);
+        transactionReader.recordShard(result.getIncoming().getId(), toAccountId);
+        return result;
+    }
+
+    private TransferResultDTO transferOnShard(TransferRequest request) {
+        UUID fromAccountId = request.getFromAccountId();
+        UUID toAccountId = request.getToAccountId();
+        UUID outgoingId = request.getId();
+        UUID incomingId = UUID.nameUUIDFromBytes(("transfer-in:" + outgoingId).getBytes(StandardCharsets.UTF_8));
+        accountBalanceService.ensureAccounts(List.of(fromAccountId, toAccountId));
+
+        // 所有转账按条带顺序加两个账户的锁，A->B 与 B->A 并发时不会死锁；之后再取两条腿ID的锁
+        return locks.withAccounts(List.of(fromAccountId, toAccountId),
+                () -> locks.withTransactions(List.of(outgoingId, incomingId), () -> {
+                    if (!transactionReader.existingOnOtherShards(List.of(outgoingId, incomingId)).isEmpty()) {
+                        throw new DuplicateTransactionException("转账ID " + outgoingId + " 已存在");
+                    }
+                    TransferResultDTO transferred = transactionTemplate.execute(
+                            status -> insertTransfer(request, outgoingId, incomingId));
+                    TransactionWrites.evictAccountHistory(cacheManager, fromAccountId, toAccountId);
+                    hotStore.ifPresent(store -> {
+                        store.put(transferred.getOutgoing());
+                        store.put(transferred.getIncoming());
+                    });
+                    eventBus.publish(TransactionEventType.CREATED, outgoingId, transferred.getOutgoing());
+                    eventBus.publish(TransactionEventType.CREATED, incomingId, transferred.getIncoming());
+                    return transferred;
+                }));
+    }
+
+    private TransferResultDTO insertTransfer(TransferRequest request, UUID outgoingId, UUID incomingId) {
+        UUID fromAccountId = request.getFromAccountId();
+        UUID toAccountId = request.getToAccountId();
+        if (!transactionRepository.findExistingIds(List.of(outgoingId, incomingId)).isEmpty()) {
+            throw new DuplicateTransactionException("转账ID " + outgoingId + " 已存在");
+        }
+
+        Transaction outgoing = transferLeg(outgoingId, TransactionType.TRANSFER_OUT, request,
+                fromAccountId, toAccountId);
+        Transaction incoming = transferLeg(incomingId, TransactionType.TRANSFER_IN, request,
+                toAccountId, fromAccountId);
+        try {
+            transactionRepository.persistAll(List.of(outgoing, incoming));
+        } catch (DataIntegrityViolationException e) {
+            throw new DuplicateTransactionException("转账ID " + outgoingId + " 已存在");
+        }
+
+        // 余额行按账户ID顺序更新，跨实例时数据库行锁的获取顺序同样确定
+        if (fromAccountId.compareTo(toAccountId) < 0) {
+            accountBalanceService.applyDebit(fromAccountId, request.getAmount());
+            accountBalanceService.applyDelta(toAccountId, request.getAmount());
+        } else {
+            accountBalanceService.applyDelta(toAccountId, request.getAmount());
+            accountBalanceService.applyDebit(fromAccountId, request.getAmount());
+        }
+        rollupService.apply(List.of(outgoing, incoming), List.of());
+        outboxService.record(TransactionEventType.CREATED, List.of(outgoing, incoming));
+        transactionListCache.onAppend(List.of(TransactionCursor.of(outgoing), TransactionCursor.of(incoming)));
+        missingTransactions.onCreated(List.of(outgoingId, incomingId));
+        return new TransferResultDTO(transactionMapper.toDTO(outgoing), transactionMapper.toDTO(incoming));
+    }
+
+    private Transaction transferLeg(UUID id, TransactionType type, TransferRequest request,
+                                    UUID accountId, UUID relatedAccountId) {
+        Transaction leg = new Transaction();
+        leg.setId(id);
+        leg.setType(type);
+        leg.setAmount(request.getAmount());
+        leg.setAccountId(accountId);
+        leg.setRelatedAccountId(relatedAccountId);
+        leg.setDescription(request.getDescription());
+        return leg;
+    }
+
+    @Override
+    @Cacheable(value = "transactions", key = "#id.toString()", unless = "@readConsistency.replicaRead()")
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "get"}, histogram = true)
     public TransactionDTO getTransaction(UUID id) {
-        return transactionRepository.findById(id)
+        if (missingTransactions.isMissing(id)) {
+            throw new TransactionNotFoundException(id);
+        }
+        // 副本可能还没有刚写入的交易或修改，读副本的结果不写入缓存、堆外存储与负缓存
+        boolean replicaRead = readConsistency.replicaRead();
+        long missingEpoch = missingTransactions.epoch();
+        try {
+            if (hotStore.isPresent()) {
+                Optional<TransactionDTO> hot = hotStore.get().get(id);
+                if (hot.isPresent()) {
+                    return hot.get();
+                }
+                return replicaRead ? loadTransaction(id) : loadIntoHotStore(id, hotStore.get());
+            }
+            return loadTransaction(id);
+        } catch (TransactionNotFoundException e) {
+            if (!replicaRead) {
+                missingTransactions.markMissing(id, missingEpoch);
+            }
+            throw e;
+        }
+    }
+
+    private TransactionDTO loadTransaction(UUID id) {
+        return transactionReader.findById(id)
+                .map(transactionMapper::toDTO)
+                .orElseGet(() -> findPending(id));
+    }
+
+    private TransactionDTO findPending(UUID id) {
+        return journaledWriter.flatMap(writer -> writer.findPending(id))
                 .map(transactionMapper::toDTO)
                 .orElseThrow(() -> new TransactionNotFoundException(id));
     }
 
+    /**
+     * 在该交易的条带锁内读库并回填，与更新、删除提交后的写入串行，避免把删除前读到的旧值回填到堆外存储
+     */
+    private TransactionDTO loadIntoHotStore(UUID id, OffHeapTransactionStore store) {
+        return locks.withTransactions(List.of(id), () -> {
+            Optional<Transaction> stored = transactionReader.findById(id);
+            if (stored.isEmpty()) {
+                // 尚未写入数据库的日志记录不回填，写库后的第一次查询再回填
+                return findPending(id);
+            }
+            TransactionDTO dto = transactionMapper.toDTO(stored.get());
+            store.putIfAbsent(dto);
+            return dto;
+        });
+    }
+
+    @Override
+    public CompletableFuture<TransactionDTO> getTransactionAsync(UUID id) {
+        return supplyRead(() -> self.getObject().getTransaction(id));
+    }
+
     @Override
-    @Cacheable(value = "transactionList", key = "'page:' + #page + ':size:' + #size")
+    public CompletableFuture<List<TransactionDTO>> transactionListAsync(int page, int size) {
+        return supplyRead(() -> self.getObject().transactionList(page, size));
+    }
+
+    private <T> CompletableFuture<T> supplyRead(Supplier<T> read) {
+        if (readExecutor.isPresent()) {
+            return readExecutor.get().supply(readConsistency.propagate(read));
+        }
+        try {
+            return CompletableFuture.completedFuture(read.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "list"}, histogram = true)
     public List<TransactionDTO> transactionList(int page, int size) {
         if (page < 0 || size <= 0) {
             throw new InvalidTransactionException("页码必须大于等于0，每页大小必须大于0");
         }
 
-        return transactionRepository.findAll(PageRequest.of(page, size))
-                .getContent()
+        Supplier<List<TransactionDTO>> loader = () -> transactionReader.findPage(page, size)
                 .stream()
                 .map(transactionMapper::toDTO)
                 .collect(Collectors.toList());
+        if (readConsistency.replicaRead()) {
+            // 读副本的结果可能是旧值：命中缓存直接返回，未命中读副本但不写入缓存
+            return transactionListCache.getIfPresent(page, size).orElseGet(loader);
+        }
+        // 按 (created_at, id) 排序，新增通常只影响末页，配合 TransactionListCache 的追加失效
+        return transactionListCache.get(page, size, loader);
+    }
+
+    @Override
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "listAfter"}, histogram = true)
+    public CursorPageDTO<TransactionDTO> transactionListAfter(String cursor, int limit) {
+        checkPageLimit(limit);
+
+        // 多取一条用于判断是否还有下一页，避免COUNT查询
+        TransactionCursor after = cursor == null || cursor.isEmpty() ? null : TransactionCursor.decode(cursor);
+        List<Transaction> rows = transactionReader.findAfter(after, limit + 1);
+
+        boolean hasMore = rows.size() > limit;
+        List<Transaction> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? TransactionCursor.of(page.get(page.size() - 1)).encode() : null;
+        return new CursorPageDTO<>(
+                page.stream().map(transactionMapper::toDTO).collect(Collectors.toList()),
+                nextCursor);
+    }
+
+    @Override
+    @Cacheable(value = "accountTransactions", key = "#accountId.toString()",
+            condition = "#type == null && #from == null && #to == null && #cursor == null " +
+                    "&& #limit == T(com.banking.service.TransactionService).ACCOUNT_HISTORY_PAGE_SIZE",
+            unless = "@readConsistency.replicaRead()")
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "accountHistory"}, histogram = true)
+    public CursorPageDTO<TransactionDTO> accountTransactions(UUID accountId, TransactionType type, LocalDateTime from,
+                                                             LocalDateTime to, String cursor, int limit) {
+        checkPageLimit(limit);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidTransactionException("起始时间必须早于结束时间");
+        }
+
+        TransactionCursor after = cursor == null || cursor.isEmpty() ? null : TransactionCursor.decode(cursor);
+        List<Transaction> rows = transactionReader.findAccountHistory(accountId, type, from, to, after, limit + 1);
+
+        boolean hasMore = rows.size() > limit;
+        List<Transaction> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? TransactionCursor.of(page.get(page.size() - 1)).encode() : null;
+        return new CursorPageDTO<>(
+                page.stream().map(transactionMapper::toDTO).collect(Collectors.toList()),
+                nextCursor);
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "transactions", key = "#id.toString()"),
-            @CacheEvict(value = "transactionList", allEntries = true)
-    })
+    @CacheEvict(value = "transactions", key = "#id.toString()")
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "update"}, histogram = true)
     public TransactionDTO updateTransaction(UUID id, TransactionDTO transactionDTO) {
-        Lock lock = stripedLocks.get(id);
-        lock.lock();
-        try {
-            // 检查交易是否存在
-            if (!transactionRepository.existsById(id)) {
-                throw new TransactionNotFoundException(id);
+        journaledWriter.ifPresent(writer -> writer.awaitFlushed(id));
+        return locks.withTransactions(List.of(id), () -> {
+            int shard = transactionReader.shardOfTransaction(id);
+            if (shard != shardRouter.shardOf(transactionDTO.getAccountId())) {
+                throw new InvalidTransactionException("分片存储下不支持把交易改到其他分片的账户");
             }
+            UUID[] affectedAccounts = new UUID[2];
+            TransactionDTO updated = shardRouter.on(shard, () -> updateOnShard(id, transactionDTO, affectedAccounts));
+            TransactionWrites.evictAccountHistory(cacheManager, affectedAccounts);
+            hotStore.ifPresent(store -> store.put(updated));
+            eventBus.publish(TransactionEventType.UPDATED, id, updated);
+            return updated;
+        });
+    }
 
-            Transaction entity = transactionMapper.toEntity(transactionDTO);
-            Transaction updatedEntity = transactionRepository.save(entity);
-            return transactionMapper.toDTO(updatedEntity);
-        } finally {
-            lock.unlock();
-        }
+    private TransactionDTO updateOnShard(UUID id, TransactionDTO transactionDTO, UUID[] affectedAccounts) {
+        accountBalanceService.ensureAccounts(List.of(transactionDTO.getAccountId()));
+        // 其他实例并发修改同一交易时版本号校验失败，重新读取最新状态后重放本次更新
+        return TransactionWrites.retryOnConflict(OptimisticLockingFailureException.class, optimisticRetries,
+                () -> transactionTemplate.execute(status -> {
+                    // 检查交易是否存在；合并前先记下原账户、类型和金额用于计算余额增量
+                    Transaction existing = transactionRepository.findById(id)
+                            .orElseThrow(() -> new TransactionNotFoundException(id));
+                    UUID oldAccountId = existing.getAccountId();
+                    BigDecimal oldSignedAmount = existing.getType().signedAmount(existing.getAmount());
+                    Transaction before = rollupSnapshot(existing);
+
+                    transactionMapper.updateEntity(transactionDTO, existing);
+                    Transaction updatedEntity = transactionRepository.saveAndFlush(existing);
+                    Map<UUID, BigDecimal> deltas = new TreeMap<>();
+                    deltas.merge(oldAccountId, oldSignedAmount.negate(), BigDecimal::add);
+                    deltas.merge(updatedEntity.getAccountId(),
+                            updatedEntity.getType().signedAmount(updatedEntity.getAmount()), BigDecimal::add);
+                    TransactionWrites.applyDeltas(accountBalanceService, deltas);
+                    rollupService.apply(List.of(updatedEntity), List.of(before));
+                    outboxService.record(TransactionEventType.UPDATED, List.of(updatedEntity));
+                    transactionListCache.invalidateAll();
+                    affectedAccounts[0] = oldAccountId;
+                    affectedAccounts[1] = updatedEntity.getAccountId();
+                    return transactionMapper.toDTO(updatedEntity);
+                }));
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "transactions", key = "#id.toString()"),
-            @CacheEvict(value = "transactionList", allEntries = true)
-    })
+    @CacheEvict(value = "transactions", key = "#id.toString()")
+    @Timed(value = OPERATION_TIMER, extraTags = {"operation", "delete"}, histogram = true)
     public void deleteTransaction(UUID id) {
-        Lock lock = stripedLocks.get(id);
-        lock.lock();
-        try {
-            if (!transactionRepository.existsById(id)) {
-                throw new TransactionNotFoundException(id);
-            }
-            transactionRepository.deleteById(id);
-        } finally {
-            lock.unlock();
+        journaledWriter.ifPresent(writer -> writer.awaitFlushed(id));
+        locks.withTransactions(List.of(id), () -> {
+            // 按版本号删除，其他实例已修改或删除时重试，避免余额被重复冲回
+            UUID accountId = shardRouter.on(transactionReader.shardOfTransaction(id),
+                    () -> TransactionWrites.retryOnConflict(OptimisticLockingFailureException.class,
+                            optimisticRetries, () -> transactionTemplate.execute(status -> {
+                                Transaction existing = transactionRepository.findById(id)
+                                        .orElseThrow(() -> new TransactionNotFoundException(id));
+                                transactionRepository.delete(existing);
+                                transactionRepository.flush();
+                                accountBalanceService.applyDelta(existing.getAccountId(),
+                                        existing.getType().signedAmount(existing.getAmount()).negate());
+                                rollupService.apply(List.of(), List.of(existing));
+                                outboxService.record(TransactionEventType.DELETED, List.of(existing));
+                                transactionListCache.invalidateAll();
+                                return existing.getAccountId();
+                            })));
+            transactionReader.forget(id);
+            TransactionWrites.evictAccountHistory(cacheManager, accountId);
+            hotStore.ifPresent(store -> store.remove(id));
+            eventBus.publish(TransactionEventType.DELETED, id, null);
+        });
+    }
+
+    private static void checkPageLimit(int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidTransactionException("每页大小必须在1到" + MAX_PAGE_SIZE + "之间");
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * 更新前记下汇总所需的字段，合并请求会原地修改实体
+     */
+    private static Transaction rollupSnapshot(Transaction transaction) {
+        Transaction snapshot = new Transaction();
+        snapshot.setAccountId(transaction.getAccountId());
+        snapshot.setType(transaction.getType());
+        snapshot.setAmount(transaction.getAmount());
+        snapshot.setCreatedAt(transaction.getCreatedAt());
+        return snapshot;
+    }
+}
@@ -0,0 +1,63 @@
+package com.banking.service.impl;
+
+import com.banking.service.AccountBalanceService;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * 同步写入与日志刷写两条写库路径共用的步骤
+ */
+final class TransactionWrites {
+
+    private TransactionWrites() {
+    }
+
+    /**
+     * 按账户ID顺序更新余额行，多实例并发写入时数据库行锁的获取顺序一致，避免死锁
+     * <p>
+     * 发件箱按账户保序依赖"写入发件箱时持有该账户的余额行锁"；增量为0的账户（只改描述、同号改类型、
+     * 批内存取相抵）不会更新余额行，因此先在一条语句内锁住全部账户
+     */
+    static void applyDeltas(AccountBalanceService accountBalanceService, Map<UUID, BigDecimal> deltas) {
+        if (deltas.values().stream().anyMatch(delta -> delta.signum() == 0)) {
+            accountBalanceService.lockAccounts(deltas.keySet());
+        }
+        deltas.forEach((accountId, delta) -> {
+            if (delta.signum() != 0) {
+                accountBalanceService.applyDelta(accountId, delta);
+            }
+        });
+    }
+
+    /**
+     * 遇到 conflictType 类型的冲突时重新执行 action，最多执行 attempts 次
+     */
+    static <T> T retryOnConflict(Class<? extends RuntimeException> conflictType, int attempts, Supplier<T> action) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (RuntimeException e) {
+                if (!conflictType.isInstance(e) || attempt >= attempts) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    static void evictAccountHistory(CacheManager cacheManager, UUID... accountIds) {
+        Cache cache = cacheManager.getCache("accountTransactions");
+        if (cache == null) {
+            return;
+        }
+        for (UUID accountId : accountIds) {
+            if (accountId != null) {
+                cache.evict(accountId.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.banking.shard;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * 按账户ID分片的路由
+ * <p>
+ * 账户按ID哈希固定落在 banking.sharding.shards 个分片之一；交易、余额、汇总与发件箱都按账户存放，
+ * 单账户的写入只涉及一个分片，仍在一个数据库事务内完成。幂等键、导入任务等全局数据存放在0号分片。
+ * <p>
+ * 当前分片保存在线程上下文中，由 {@link ShardRoutingDataSource} 在获取连接时读取，
+ * 因此必须在事务开始之前进入分片，事务内不能切换到其他分片。未分片（分片数为1）时不设置上下文，没有额外开销。
+ */
+@Component
+public class ShardRouter {
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private final int shards;
+    private final ExecutorService scatterExecutor;
+
+    public ShardRouter(@Value("${banking.sharding.shards:1}") int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("分片数必须大于0: " + shards);
+        }
+        this.shards = shards;
+        // 每个分片的查询各占一个线程，跨分片查询的延迟取决于最慢的分片而不是所有分片之和
+        this.scatterExecutor = shards > 1
+                ? Executors.newFixedThreadPool(shards * 4, Thread.ofPlatform().name("shard-scatter-", 0).daemon().factory())
+                : null;
+    }
+
+    public int shards() {
+        return shards;
+    }
+
+    public boolean isSharded() {
+        return shards > 1;
+    }
+
+    public int shardOf(UUID accountId) {
+        if (shards == 1) {
+            return 0;
+        }
+        // 与发件箱分区（hashCode 取模）使用不同的哈希，避免分片内只出现部分分区
+        long bits = accountId.getMostSignificantBits() ^ accountId.getLeastSignificantBits();
+        return Math.floorMod(Long.hashCode(bits * 0x9E3779B97F4A7C15L), shards);
+    }
+
+    /**
+     * 当前线程所在的分片，未进入任何分片时为0号分片
+     */
+    public static int currentShard() {
+        Integer shard = CURRENT.get();
+        return shard == null ? 0 : shard;
+    }
+
+    public <T> T onAccount(UUID accountId, Supplier<T> action) {
+        return on(shardOf(accountId), action);
+    }
+
+    public void onAccount(UUID accountId, Runnable action) {
+        on(shardOf(accountId), () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T on(int shard, Supplier<T> action) {
+        if (shards == 1) {
+            return action.get();
+        }
+        Integer previous = CURRENT.get();
+        if (previous != null && previous == shard) {
+            return action.get();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("事务内不能切换到分片 " + shard + "，当前分片 " + currentShard());
+        }
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 在每个分片上并行执行 query，按分片顺序返回结果；任一分片失败时抛出该分片的异常
+     */
+    public <T> List<T> scatter(IntFunction<T> query) {
+        if (shards == 1) {
+            return List.of(query.apply(0));
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            int target = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> on(target, () -> query.apply(target)), scatterExecutor));
+        }
+        List<T> results = new ArrayList<>(shards);
+        try {
+            futures.forEach(f -> results.add(f.join()));
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    /**
+     * 依次在每个分片上执行 action，用于回填、重建等不需要并行的后台任务
+     */
+    public void forEachShard(IntConsumer action) {
+        for (int shard = 0; shard < shards; shard++) {
+            int target = shard;
+            on(target, () -> {
+                action.accept(target);
+                return null;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+}
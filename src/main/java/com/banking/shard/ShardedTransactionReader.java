@@ -0,0 +1,187 @@
+package com.banking.shard;
+
+import com.banking.dto.TransactionCursor;
+import com.banking.entity.Transaction;
+import com.banking.enums.TransactionType;
+import com.banking.exception.TransactionNotFoundException;
+import com.banking.replica.ReadConsistency;
+import com.banking.repository.TransactionRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * 交易的分片读取：按ID定位所在分片、跨分片查询并按 (createdAt, id) 归并
+ * <p>
+ * 查询在只读事务内执行，开启读副本时只读事务读副本；未分片时直接查询唯一的数据库，没有额外开销
+ */
+@Component
+public class ShardedTransactionReader {
+    private static final Sort LIST_ORDER = Sort.by("createdAt", "id");
+    /**
+     * 与数据库中 (created_at, id) 的排序一致，用于合并各分片的结果；数据库按无符号字节比较UUID
+     */
+    private static final Comparator<Transaction> LIST_COMPARATOR = Comparator
+            .comparing(Transaction::getCreatedAt)
+            .thenComparing(Transaction::getId, ShardedTransactionReader::compareUnsigned);
+
+    private final TransactionRepository transactionRepository;
+    private final ShardRouter shardRouter;
+    /**
+     * 分片存储下按交易ID查询先查目录确定分片，未命中再查询所有分片
+     */
+    private final TransactionDirectory transactionDirectory;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ShardedTransactionReader(TransactionRepository transactionRepository, ShardRouter shardRouter,
+                                    TransactionDirectory transactionDirectory,
+                                    TransactionTemplate transactionTemplate) {
+        this.transactionRepository = transactionRepository;
+        this.shardRouter = shardRouter;
+        this.transactionDirectory = transactionDirectory;
+        this.readOnlyTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager(),
+                transactionTemplate);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * 在只读事务内执行查询；分片存储下须在进入分片之后调用
+     */
+    public <T> T readOnly(Supplier<T> query) {
+        return readOnlyTransaction.execute(status -> query.get());
+    }
+
+    public Optional<Transaction> findById(UUID id) {
+        if (!shardRouter.isSharded()) {
+            return readOnly(() -> transactionRepository.findById(id));
+        }
+        Integer known = transactionDirectory.shardOf(id);
+        if (known != null) {
+            Optional<Transaction> found = shardRouter.on(known,
+                    () -> readOnly(() -> transactionRepository.findById(id)));
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        List<Optional<Transaction>> results = shardRouter.scatter(
+                shard -> readOnly(() -> transactionRepository.findById(id)));
+        for (int shard = 0; shard < results.size(); shard++) {
+            if (results.get(shard).isPresent()) {
+                transactionDirectory.record(id, shard);
+                return results.get(shard);
+            }
+        }
+        transactionDirectory.remove(id);
+        return Optional.empty();
+    }
+
+    /**
+     * 交易所在的分片；交易不存在时抛出 {@link TransactionNotFoundException}
+     */
+    public int shardOfTransaction(UUID id) {
+        if (!shardRouter.isSharded()) {
+            return 0;
+        }
+        return findById(id)
+                .map(transaction -> shardRouter.shardOf(transaction.getAccountId()))
+                .orElseThrow(() -> new TransactionNotFoundException(id));
+    }
+
+    /**
+     * 按 (createdAt, id) 排序的第 page 页
+     */
+    public List<Transaction> findPage(int page, int size) {
+        if (!shardRouter.isSharded()) {
+            return readOnly(() -> transactionRepository.findAll(PageRequest.of(page, size, LIST_ORDER))).getContent();
+        }
+        // 每个分片取前 (page + 1) * size 条合并后跳过前 page 页；深分页代价随页码增长，应改用游标分页
+        int fetch = Math.multiplyExact(page + 1, size);
+        List<Transaction> merged = merge(shardRouter.scatter(shard ->
+                readOnly(() -> transactionRepository.findAllByOrderByCreatedAtAscIdAsc(Limit.of(fetch)))), fetch);
+        return merged.subList(Math.min(page * size, merged.size()), merged.size());
+    }
+
+    /**
+     * 游标之后按 (createdAt, id) 排序的前 limit 条，游标为空时从头开始
+     */
+    public List<Transaction> findAfter(TransactionCursor after, int limit) {
+        if (!shardRouter.isSharded()) {
+            return findAfterOnShard(after, Limit.of(limit));
+        }
+        // 游标是全局排序键，各分片从同一位置各取 limit 条，归并后的前 limit 条即全局结果
+        return merge(shardRouter.scatter(shard -> findAfterOnShard(after, Limit.of(limit))), limit);
+    }
+
+    public List<Transaction> findAccountHistory(UUID accountId, TransactionType type, LocalDateTime from,
+                                                LocalDateTime to, TransactionCursor after, int limit) {
+        return shardRouter.onAccount(accountId, () -> readOnly(
+                () -> transactionRepository.findAccountHistory(accountId, type, from, to, after, limit)));
+    }
+
+    /**
+     * 已存在于其他分片的交易ID
+     * <p>
+     * 主键约束只在单个分片内生效，同一ID换一个账户就会落到另一分片。须在持有这些ID的条带锁、
+     * 进入当前分片事务之前调用：本实例内同一ID的并发创建由条带锁串行化；多实例（或关闭本地条带锁）时
+     * 两个实例同时在不同分片写入同一ID仍可能都成功，这一窗口需要全局ID登记表才能消除
+     */
+    public Set<UUID> existingOnOtherShards(Collection<UUID> ids) {
+        if (!shardRouter.isSharded() || ids.isEmpty()) {
+            return Set.of();
+        }
+        int current = ShardRouter.currentShard();
+        Set<UUID> existing = new HashSet<>();
+        shardRouter.scatter(shard -> shard == current
+                ? List.<UUID>of()
+                : ReadConsistency.onPrimary(() -> transactionRepository.findExistingIds(ids)))
+                .forEach(existing::addAll);
+        return existing;
+    }
+
+    /**
+     * 记下本实例写入的交易所在的分片，之后按ID查询不必查询所有分片
+     */
+    public void recordShard(UUID transactionId, UUID accountId) {
+        if (shardRouter.isSharded()) {
+            transactionDirectory.record(transactionId, shardRouter.shardOf(accountId));
+        }
+    }
+
+    public void forget(UUID transactionId) {
+        transactionDirectory.remove(transactionId);
+    }
+
+    private List<Transaction> findAfterOnShard(TransactionCursor after, Limit limit) {
+        return readOnly(() -> after == null
+                ? transactionRepository.findAllByOrderByCreatedAtAscIdAsc(limit)
+                : transactionRepository.findAfter(after.createdAt(), after.id(), limit));
+    }
+
+    /**
+     * 归并各分片按 (createdAt, id) 排好序的结果，返回全局前 limit 条
+     */
+    private static List<Transaction> merge(List<List<Transaction>> perShard, int limit) {
+        List<Transaction> merged = new ArrayList<>();
+        perShard.forEach(merged::addAll);
+        merged.sort(LIST_COMPARATOR);
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    private static int compareUnsigned(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
@@ -0,0 +1,40 @@
+package com.banking.shard;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * 交易ID到分片的目录
+ * <p>
+ * 交易ID由客户端生成，无法从ID推出所在分片。本实例写入或查到的交易记入有界的内存目录，按ID查询时先查目录，
+ * 未命中（或目录过时，如交易已被其他实例删除）再并行查询所有分片。目录不持久化，写入路径不为它多访问一次数据库，
+ * 写入吞吐仍随分片数扩展
+ */
+@Component
+public class TransactionDirectory {
+    private final Cache<UUID, Integer> shards;
+
+    public TransactionDirectory(@Value("${banking.sharding.directory.maximum-size:1000000}") long maximumSize) {
+        this.shards = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                // 维护工作在调用线程上顺带完成，不切换到公共线程池
+                .executor(Runnable::run)
+                .build();
+    }
+
+    public Integer shardOf(UUID transactionId) {
+        return shards.getIfPresent(transactionId);
+    }
+
+    public void record(UUID transactionId, int shard) {
+        shards.put(transactionId, shard);
+    }
+
+    public void remove(UUID transactionId) {
+        shards.invalidate(transactionId);
+    }
+}
@@ -0,0 +1,81 @@
+-- 基线表结构，与实体映射一致；只使用H2与PostgreSQL共同支持的类型
+
+create table transactions (
+    id                 uuid           not null,
+    type               varchar(32)    not null check (type in ('DEPOSIT', 'WITHDRAWAL', 'TRANSFER_OUT', 'TRANSFER_IN')),
+    amount             numeric(19, 4) not null,
+    account_id         uuid           not null,
+    related_account_id uuid,
+    description        varchar(255),
+    created_at         timestamp(6)   not null,
+    updated_at         timestamp(6)   not null,
+    version            bigint,
+    primary key (id)
+);
+
+-- 全局游标分页与列表查询按 (created_at, id) 排序
+create index idx_transactions_created_at_id on transactions (created_at, id);
+-- 账户交易历史、导出与余额重建按账户过滤后再按时间排序
+create index idx_transactions_account_created_at_id on transactions (account_id, created_at, id);
+
+create table account_balances (
+    account_id uuid           not null,
+    balance    numeric(19, 4) not null,
+    revision   bigint         not null,
+    updated_at timestamp(6)   not null,
+    primary key (account_id)
+);
+
+create table import_jobs (
+    id                uuid          not null,
+    format            varchar(16)   not null check (format in ('NDJSON', 'CSV')),
+    file_path         varchar(1024) not null,
+    total_bytes       bigint        not null,
+    checkpoint_offset bigint        not null,
+    checkpoint_line   bigint        not null,
+    status            varchar(16)   not null check (status in ('RUNNING', 'COMPLETED', 'FAILED', 'INTERRUPTED')),
+    run_start_rows    bigint        not null,
+    error_message     varchar(1000),
+    created_at        timestamp(6)  not null,
+    started_at        timestamp(6),
+    finished_at       timestamp(6),
+    primary key (id)
+);
+
+-- 启动时按状态查找需要恢复的任务
+create index idx_import_jobs_status on import_jobs (status);
+
+create table import_chunks (
+    id             bigint generated by default as identity,
+    job_id         uuid    not null,
+    start_offset   bigint  not null,
+    end_offset     bigint  not null,
+    imported_rows  integer not null,
+    duplicate_rows integer not null,
+    rejected_rows  integer not null,
+    primary key (id),
+    constraint uk_import_chunks_job_start unique (job_id, start_offset)
+);
+
+create table import_rejections (
+    id          bigint generated by default as identity,
+    job_id      uuid         not null,
+    line_number bigint       not null,
+    reason      varchar(500) not null,
+    content     varchar(1000),
+    primary key (id)
+);
+
+create index idx_import_rejections_job_line on import_rejections (job_id, line_number);
+
+create table idempotency_keys (
+    idempotency_key varchar(300) not null,
+    fingerprint     varchar(64)  not null,
+    response_body   varchar(8000),
+    created_at      timestamp(6) not null,
+    expires_at      timestamp(6) not null,
+    version         bigint,
+    primary key (idempotency_key)
+);
+
+create index idx_idempotency_keys_expires_at on idempotency_keys (expires_at);
@@ -0,0 +1,11 @@
+-- 按账户、交易类型与时间桶预先汇总的金额与笔数，随交易写入增量维护，供汇总报表查询
+
+create table transaction_rollups (
+    account_id   uuid           not null,
+    granularity  varchar(8)     not null check (granularity in ('HOUR', 'DAY', 'MONTH')),
+    bucket_start timestamp(6)   not null,
+    type         varchar(32)    not null check (type in ('DEPOSIT', 'WITHDRAWAL', 'TRANSFER_OUT', 'TRANSFER_IN')),
+    total_amount numeric(19, 4) not null,
+    tx_count     bigint         not null,
+    primary key (account_id, granularity, bucket_start, type)
+);
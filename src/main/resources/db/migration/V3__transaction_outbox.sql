@@ -0,0 +1,95 @@
+-- 交易发件箱：交易写入时在同一事务内记录待投递的变更，由后台投递线程批量推送到下游账本，投递成功后删除
+
+create table transaction_outbox (
+    id              bigint generated by default as identity,
+    partition_id    integer       not null,
+    account_id      uuid          not null,
+    transaction_id  uuid          not null,
+    event_type      varchar(16)   not null check (event_type in ('CREATED', 'UPDATED', 'DELETED')),
+    payload         varchar(4000) not null,
+    created_at      timestamp(6)  not null,
+    attempts        integer       not null,
+    next_attempt_at timestamp(6)  not null,
+    last_error      varchar(500),
+    primary key (id)
+);
+
+-- 投递线程按所持分区顺序读取
+create index idx_transaction_outbox_partition_id on transaction_outbox (partition_id, id);
+
+-- 检查同一账户是否有更早的事件仍在退避等待
+create index idx_transaction_outbox_account_id on transaction_outbox (account_id, id);
+
+-- 发件箱分区租约：每个分区同一时刻只由一个实例投递，账户按哈希固定落在一个分区
+create table transaction_outbox_partitions (
+    partition_id integer      not null,
+    lease_owner  varchar(64),
+    lease_until  timestamp(6),
+    primary key (partition_id)
+);
+
+insert into transaction_outbox_partitions (partition_id) values
+    (0),
+    (1),
+    (2),
+    (3),
+    (4),
+    (5),
+    (6),
+    (7),
+    (8),
+    (9),
+    (10),
+    (11),
+    (12),
+    (13),
+    (14),
+    (15),
+    (16),
+    (17),
+    (18),
+    (19),
+    (20),
+    (21),
+    (22),
+    (23),
+    (24),
+    (25),
+    (26),
+    (27),
+    (28),
+    (29),
+    (30),
+    (31),
+    (32),
+    (33),
+    (34),
+    (35),
+    (36),
+    (37),
+    (38),
+    (39),
+    (40),
+    (41),
+    (42),
+    (43),
+    (44),
+    (45),
+    (46),
+    (47),
+    (48),
+    (49),
+    (50),
+    (51),
+    (52),
+    (53),
+    (54),
+    (55),
+    (56),
+    (57),
+    (58),
+    (59),
+    (60),
+    (61),
+    (62),
+    (63);
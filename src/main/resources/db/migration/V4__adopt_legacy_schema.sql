@@ -0,0 +1,79 @@
+-- 接管由 ddl-auto 创建的旧库：这类库只有 transactions 表，由 baseline-on-migrate 标记为版本1后跳过了V1，
+-- 在此补齐V1的列、索引与表。新库已由V1建好全部结构，本脚本的各语句均不生效
+
+alter table transactions add column if not exists version bigint;
+update transactions set version = 0 where version is null;
+
+create index if not exists idx_transactions_created_at_id on transactions (created_at, id);
+create index if not exists idx_transactions_account_created_at_id on transactions (account_id, created_at, id);
+
+create table if not exists account_balances (
+    account_id uuid           not null,
+    balance    numeric(19, 4) not null,
+    revision   bigint         not null,
+    updated_at timestamp(6)   not null,
+    primary key (account_id)
+);
+
+-- 旧库的交易从未维护过余额投影，按交易汇总补建；新库每个有交易的账户都已有余额行，不会重复插入
+insert into account_balances (account_id, balance, revision, updated_at)
+select t.account_id,
+       sum(case when t.type in ('DEPOSIT', 'TRANSFER_IN') then t.amount else -t.amount end),
+       0,
+       localtimestamp
+from transactions t
+where not exists (select 1 from account_balances b where b.account_id = t.account_id)
+group by t.account_id;
+
+create table if not exists import_jobs (
+    id                uuid          not null,
+    format            varchar(16)   not null check (format in ('NDJSON', 'CSV')),
+    file_path         varchar(1024) not null,
+    total_bytes       bigint        not null,
+    checkpoint_offset bigint        not null,
+    checkpoint_line   bigint        not null,
+    status            varchar(16)   not null check (status in ('RUNNING', 'COMPLETED', 'FAILED', 'INTERRUPTED')),
+    run_start_rows    bigint        not null,
+    error_message     varchar(1000),
+    created_at        timestamp(6)  not null,
+    started_at        timestamp(6),
+    finished_at       timestamp(6),
+    primary key (id)
+);
+
+create index if not exists idx_import_jobs_status on import_jobs (status);
+
+create table if not exists import_chunks (
+    id             bigint generated by default as identity,
+    job_id         uuid    not null,
+    start_offset   bigint  not null,
+    end_offset     bigint  not null,
+    imported_rows  integer not null,
+    duplicate_rows integer not null,
+    rejected_rows  integer not null,
+    primary key (id),
+    constraint uk_import_chunks_job_start unique (job_id, start_offset)
+);
+
+create table if not exists import_rejections (
+    id          bigint generated by default as identity,
+    job_id      uuid         not null,
+    line_number bigint       not null,
+    reason      varchar(500) not null,
+    content     varchar(1000),
+    primary key (id)
+);
+
+create index if not exists idx_import_rejections_job_line on import_rejections (job_id, line_number);
+
+create table if not exists idempotency_keys (
+    idempotency_key varchar(300) not null,
+    fingerprint     varchar(64)  not null,
+    response_body   varchar(8000),
+    created_at      timestamp(6) not null,
+    expires_at      timestamp(6) not null,
+    version         bigint,
+    primary key (idempotency_key)
+);
+
+create index if not exists idx_idempotency_keys_expires_at on idempotency_keys (expires_at);
@@ -0,0 +1,145 @@
+package com.banking.cache;
+
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionType;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CompactTransactionCacheTest {
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache;
+    private CompactTransactionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        nativeCache = Caffeine.newBuilder()
+                .maximumWeight(1024 * 1024)
+                .weigher(CompactTransactionCache.WEIGHER)
+                .build();
+        cache = new CompactTransactionCache("transactions", nativeCache);
+    }
+
+    private TransactionDTO storedTransaction() {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(TransactionType.TRANSFER_OUT);
+        dto.setAmount(new BigDecimal("-1234567.8900").abs());
+        dto.setAccountId(UUID.randomUUID());
+        dto.setRelatedAccountId(UUID.randomUUID());
+        dto.setDescription("房租 – 三月");
+        dto.setCreatedAt(LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_000));
+        dto.setUpdatedAt(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000));
+        dto.setVersion(7L);
+        return dto;
+    }
+
+    @Test
+    void put_ShouldStoreEncodedBytes_AndReturnEqualCopy() {
+        TransactionDTO dto = storedTransaction();
+
+        cache.put(dto.getId().toString(), dto);
+
+        assertInstanceOf(byte[].class, nativeCache.getIfPresent(dto.getId().toString()));
+        TransactionDTO cached = cache.get(dto.getId().toString(), TransactionDTO.class);
+        assertEquals(dto, cached);
+        assertNotSame(cached, cache.get(dto.getId().toString(), TransactionDTO.class));
+    }
+
+    @Test
+    void put_ShouldRoundTripOptionalFieldsAbsent() {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(TransactionType.DEPOSIT);
+        dto.setAmount(new BigDecimal("10.0000"));
+        dto.setAccountId(UUID.randomUUID());
+
+        cache.put(dto.getId().toString(), dto);
+
+        TransactionDTO cached = cache.get(dto.getId().toString(), TransactionDTO.class);
+        assertEquals(dto, cached);
+        assertNull(cached.getDescription());
+        assertNull(cached.getCreatedAt());
+    }
+
+    @Test
+    void put_ShouldNormalizeAmountScaleToColumnScale() {
+        TransactionDTO dto = storedTransaction();
+        dto.setAmount(new BigDecimal("42.5"));
+
+        cache.put(dto.getId().toString(), dto);
+
+        assertEquals(new BigDecimal("42.5000"), cache.get(dto.getId().toString(), TransactionDTO.class).getAmount());
+    }
+
+    @Test
+    void put_ShouldKeepObject_WhenValueCannotBeEncodedLosslessly() {
+        TransactionDTO nanos = storedTransaction();
+        nanos.setCreatedAt(LocalDateTime.of(2024, 3, 1, 9, 30, 15, 123_456_789));
+        TransactionDTO fractional = storedTransaction();
+        fractional.setAmount(new BigDecimal("0.00001"));
+        TransactionDTO huge = storedTransaction();
+        huge.setAmount(new BigDecimal("1000000000000000"));
+
+        for (TransactionDTO dto : new TransactionDTO[]{nanos, fractional, huge}) {
+            cache.put(dto.getId().toString(), dto);
+            assertSame(dto, cache.get(dto.getId().toString(), TransactionDTO.class));
+        }
+    }
+
+    @Test
+    void weigher_ShouldChargeEncodedSize() {
+        TransactionDTO dto = storedTransaction();
+        byte[] encoded = CompactTransactionCodec.encode(dto);
+
+        assertEquals(CompactTransactionCache.ENTRY_OVERHEAD + encoded.length,
+                CompactTransactionCache.WEIGHER.weigh(dto.getId().toString(), encoded));
+        assertEquals(CompactTransactionCache.ENTRY_OVERHEAD + CompactTransactionCache.OBJECT_VALUE_SIZE,
+                CompactTransactionCache.WEIGHER.weigh(dto.getId().toString(), dto));
+    }
+
+    @Test
+    void refreshing_ShouldReloadStaleEntry_AndDropDeletedOne() {
+        AtomicLong nanos = new AtomicLong();
+        Ticker ticker = nanos::get;
+        Map<String, TransactionDTO> database = new ConcurrentHashMap<>();
+        CompactTransactionCache refreshing = CompactTransactionCache.refreshing("transactions",
+                Caffeine.newBuilder().refreshAfterWrite(1, TimeUnit.MINUTES).ticker(ticker).executor(Runnable::run),
+                database::get);
+        TransactionDTO original = storedTransaction();
+        String key = original.getId().toString();
+        refreshing.put(key, original);
+
+        // 未命中不调用加载函数
+        assertNull(refreshing.get(UUID.randomUUID().toString()));
+
+        TransactionDTO updated = storedTransaction();
+        updated.setId(original.getId());
+        updated.setDescription("已更新");
+        database.put(key, updated);
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        // 到期后的读取触发重新加载（测试中加载在调用线程同步执行）
+        refreshing.get(key);
+        assertEquals(updated, refreshing.get(key, TransactionDTO.class));
+        assertInstanceOf(byte[].class, refreshing.getNativeCache().getIfPresent(key));
+
+        database.remove(key);
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+        refreshing.get(key);
+        assertNull(refreshing.get(key));
+    }
+}
@@ -0,0 +1,154 @@
+package com.banking.cache;
+
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffHeapTransactionStoreTest {
+    private static final int RECORD_SIZE = 128;
+
+    private static final Duration MAX_AGE = Duration.ofMinutes(10);
+
+    private SimpleMeterRegistry meterRegistry;
+    private OffHeapTransactionStore store;
+    private AtomicLong clock;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 64段 × 每段16槽，每段最多装12条
+        clock = new AtomicLong();
+        store = new OffHeapTransactionStore(64L * 16 * RECORD_SIZE, RECORD_SIZE, MAX_AGE, meterRegistry, clock::get);
+    }
+
+    private TransactionDTO transaction(String description) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(TransactionType.DEPOSIT);
+        dto.setAmount(new BigDecimal("12.3400"));
+        dto.setAccountId(UUID.randomUUID());
+        dto.setDescription(description);
+        dto.setCreatedAt(LocalDateTime.of(2024, 5, 1, 8, 0, 0, 1000));
+        dto.setUpdatedAt(dto.getCreatedAt());
+        dto.setVersion(0L);
+        return dto;
+    }
+
+    @Test
+    void get_ShouldReturnStoredTransaction() {
+        TransactionDTO dto = transaction("工资");
+
+        store.put(dto);
+
+        assertEquals(Optional.of(dto), store.get(dto.getId()));
+        assertFalse(store.get(UUID.randomUUID()).isPresent());
+        assertEquals(1.0, meterRegistry.get("banking.offheap.requests").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void put_ShouldOverwrite_AndPutIfAbsentShouldNot() {
+        TransactionDTO dto = transaction("原始");
+        store.put(dto);
+
+        TransactionDTO updated = transaction("更新");
+        updated.setId(dto.getId());
+        store.put(updated);
+        TransactionDTO stale = transaction("过期");
+        stale.setId(dto.getId());
+        store.putIfAbsent(stale);
+
+        assertEquals("更新", store.get(dto.getId()).orElseThrow().getDescription());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void get_ShouldMiss_WhenEntryOlderThanMaxAge() {
+        // 其他实例的更新不会写入本存储，超过有效期后必须回到数据库读取
+        TransactionDTO dto = transaction("原始");
+        store.put(dto);
+        clock.addAndGet(MAX_AGE.toNanos());
+        assertTrue(store.get(dto.getId()).isPresent());
+
+        clock.incrementAndGet();
+        assertFalse(store.get(dto.getId()).isPresent());
+
+        // 回填覆盖过期条目并重新计时
+        TransactionDTO reloaded = transaction("其他实例更新");
+        reloaded.setId(dto.getId());
+        store.putIfAbsent(reloaded);
+        assertEquals("其他实例更新", store.get(dto.getId()).orElseThrow().getDescription());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void put_ShouldRemoveOldValue_WhenRecordDoesNotFitSlot() {
+        TransactionDTO dto = transaction("短描述");
+        store.put(dto);
+
+        TransactionDTO oversized = transaction("长".repeat(100));
+        oversized.setId(dto.getId());
+        store.put(oversized);
+
+        assertFalse(store.get(dto.getId()).isPresent());
+        assertEquals(1.0, meterRegistry.get("banking.offheap.rejected").counter().count());
+    }
+
+    @Test
+    void put_ShouldEvictUnreferencedEntries_WhenSegmentFull() {
+        List<TransactionDTO> inserted = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            TransactionDTO dto = transaction("交易" + i);
+            store.put(dto);
+            inserted.add(dto);
+            // 反复访问第一条，CLOCK淘汰时总是给它第二次机会
+            assertTrue(store.get(inserted.get(0).getId()).isPresent());
+        }
+
+        assertTrue(store.size() <= 64 * 12);
+        assertTrue(meterRegistry.get("banking.offheap.evictions").counter().count() >= 5000 - 64 * 12);
+        assertTrue(store.get(inserted.get(inserted.size() - 1).getId()).isPresent());
+    }
+
+    @Test
+    void operations_ShouldMatchMapModel_UnderRandomPutsAndRemoves() {
+        // 容量足够，不触发淘汰；反向移位删除后所有剩余条目仍可查到
+        OffHeapTransactionStore large = new OffHeapTransactionStore(64L * 256 * RECORD_SIZE, RECORD_SIZE,
+                MAX_AGE, new SimpleMeterRegistry());
+        Map<UUID, TransactionDTO> model = new HashMap<>();
+        List<UUID> ids = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            if (ids.isEmpty() || random.nextInt(3) > 0 && model.size() < 8000) {
+                TransactionDTO dto = transaction("随机" + i);
+                large.put(dto);
+                model.put(dto.getId(), dto);
+                ids.add(dto.getId());
+            } else {
+                UUID id = ids.remove(random.nextInt(ids.size()));
+                large.remove(id);
+                model.remove(id);
+            }
+        }
+
+        assertEquals(model.size(), large.size());
+        model.forEach((id, dto) -> assertEquals(Optional.of(dto), large.get(id)));
+    }
+}
@@ -0,0 +1,157 @@
+package com.banking.cache;
+
+import com.banking.dto.TransactionCursor;
+import com.banking.dto.TransactionDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionListCacheTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private TransactionListCache transactionListCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        transactionListCache = new TransactionListCache();
+        loads = new AtomicInteger();
+    }
+
+    private List<TransactionDTO> page(int count) {
+        return page(0, count);
+    }
+
+    /**
+     * 第 first 到 first + count - 1 秒创建的交易，对应按 (createdAt, id) 排序的一页
+     */
+    private List<TransactionDTO> page(int first, int count) {
+        loads.incrementAndGet();
+        List<TransactionDTO> result = new ArrayList<>();
+        for (int i = first; i < first + count; i++) {
+            TransactionDTO dto = new TransactionDTO();
+            dto.setId(UUID.randomUUID());
+            dto.setCreatedAt(START.plusSeconds(i));
+            result.add(dto);
+        }
+        return result;
+    }
+
+    private static TransactionCursor appendedAt(int second) {
+        return new TransactionCursor(START.plusSeconds(second), UUID.randomUUID());
+    }
+
+    @Test
+    void get_ShouldKeepFullPage_WhenTransactionAppended() {
+        transactionListCache.get(0, 10, () -> page(10));
+        transactionListCache.onAppend(List.of(appendedAt(10)));
+        transactionListCache.get(0, 10, () -> page(10));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ShouldReloadFullPage_WhenEarlierRowCommitsLate() {
+        // 第5秒创建的交易晚于第0至9秒这一页被缓存后才提交，插入该页并使其后各页错位
+        transactionListCache.get(0, 10, () -> page(10));
+        transactionListCache.get(1, 10, () -> page(10, 10));
+        transactionListCache.onAppend(List.of(appendedAt(5)));
+
+        List<TransactionDTO> reloaded = transactionListCache.get(1, 10, () -> page(9, 10));
+
+        assertEquals(START.plusSeconds(9), reloaded.get(0).getCreatedAt());
+        transactionListCache.get(0, 10, () -> page(10));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void get_ShouldReloadTailPage_WhenTransactionAppended() {
+        transactionListCache.get(1, 10, () -> page(3));
+        transactionListCache.get(1, 10, () -> page(3));
+        transactionListCache.onAppend(List.of(appendedAt(13)));
+        transactionListCache.get(1, 10, () -> page(4));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_ShouldReloadAllPages_WhenInvalidated() {
+        transactionListCache.get(0, 10, () -> page(10));
+        transactionListCache.invalidateAll();
+        transactionListCache.get(0, 10, () -> page(10));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getIfPresent_ShouldOnlyReturnCurrentPages() {
+        assertTrue(transactionListCache.getIfPresent(1, 10).isEmpty());
+        transactionListCache.get(1, 10, () -> page(3));
+        assertEquals(3, transactionListCache.getIfPresent(1, 10).orElseThrow().size());
+
+        transactionListCache.onAppend(List.of(appendedAt(13)));
+
+        assertTrue(transactionListCache.getIfPresent(1, 10).isEmpty());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_ShouldCoalesceConcurrentMisses() throws Exception {
+        int threads = 16;
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<TransactionDTO>>> results = new ArrayList<>();
+            results.add(executor.submit(() -> transactionListCache.get(0, 10, () -> {
+                loading.countDown();
+                await(release);
+                return page(10);
+            })));
+            loading.await(5, TimeUnit.SECONDS);
+            for (int i = 1; i < threads; i++) {
+                results.add(executor.submit(() -> transactionListCache.get(0, 10, () -> page(10))));
+            }
+            release.countDown();
+
+            for (Future<List<TransactionDTO>> result : results) {
+                assertEquals(10, result.get(5, TimeUnit.SECONDS).size());
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_ShouldNotCacheFailures() {
+        assertThrows(IllegalStateException.class, () -> transactionListCache.get(0, 10, () -> {
+            throw new IllegalStateException("db down");
+        }));
+        transactionListCache.get(0, 10, () -> page(10));
+
+        assertEquals(1, loads.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.banking.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+    private static final long WINDOW = 1_000_000;
+
+    /**
+     * 以满并发跑 windows 个窗口，每个请求耗时 rttNanos，返回下一个窗口的起始时间
+     */
+    private static long runWindows(AdaptiveConcurrencyLimiter limiter, long start, int windows, long rttNanos) {
+        long now = start;
+        for (int w = 0; w < windows; w++) {
+            int permits = 0;
+            while (limiter.tryAcquire()) {
+                permits++;
+            }
+            // 至少凑够最小样本数
+            int releases = Math.max(permits, 10);
+            for (int i = 0; i < releases; i++) {
+                if (i >= permits) {
+                    assertTrue(limiter.tryAcquire());
+                }
+                now += WINDOW / releases;
+                limiter.release(now, rttNanos);
+            }
+            now = Math.max(now, start + (long) (w + 1) * WINDOW) + 1;
+        }
+        return now;
+    }
+
+    @Test
+    void tryAcquire_ShouldRejectBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 4, WINDOW);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        limiter.release(System.nanoTime(), 1);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void limit_ShouldGrow_WhenSaturatedWithStableLatency() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 2, 64, WINDOW);
+
+        runWindows(limiter, System.nanoTime(), 20, 1_000);
+
+        assertTrue(limiter.getLimit() > 8, "上限应增长，实际 " + limiter.getLimit());
+        assertTrue(limiter.getLimit() <= 64);
+    }
+
+    @Test
+    void limit_ShouldShrink_WhenLatencyRises() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(32, 2, 64, WINDOW);
+        long now = runWindows(limiter, System.nanoTime(), 3, 1_000);
+        int before = limiter.getLimit();
+
+        runWindows(limiter, now, 5, 10_000);
+
+        assertTrue(limiter.getLimit() < before, "上限应收缩，之前 " + before + "，实际 " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 2);
+    }
+
+    @Test
+    void constructor_ShouldRejectInconsistentBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveConcurrencyLimiter(8, 16, 32, WINDOW));
+    }
+}
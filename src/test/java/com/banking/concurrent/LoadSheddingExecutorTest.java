@@ -0,0 +1,88 @@
+package com.banking.concurrent;
+
+import com.banking.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadSheddingExecutorTest {
+    private SimpleMeterRegistry meterRegistry;
+    private LoadSheddingExecutor executor;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 1个工作线程、队列容量2、排队超过100毫秒即放弃
+        executor = new LoadSheddingExecutor("test", 1, 2, Duration.ofMillis(100), Duration.ofSeconds(1),
+                Thread.ofPlatform().daemon().factory(), meterRegistry);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.close();
+    }
+
+    private CompletableFuture<String> blockWorker() {
+        return executor.supply(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "blocked";
+        });
+    }
+
+    @Test
+    void supply_ShouldRejectImmediately_WhenQueueFull() throws Exception {
+        blockWorker();
+        executor.supply(() -> "queued-1");
+        executor.supply(() -> "queued-2");
+
+        CompletableFuture<String> rejected = executor.supply(() -> "rejected");
+
+        assertTrue(rejected.isCompletedExceptionally());
+        ExecutionException thrown = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(ServiceOverloadedException.class, thrown.getCause());
+        assertEquals(1.0, meterRegistry.get("banking.executor.shed").tag("reason", "queue_full").counter().count());
+    }
+
+    @Test
+    void supply_ShouldShedTask_WhenQueuedLongerThanLimit() throws Exception {
+        CompletableFuture<String> blocked = blockWorker();
+        CompletableFuture<String> queued = executor.supply(() -> "queued");
+
+        Thread.sleep(200);
+        release.countDown();
+
+        assertEquals("blocked", blocked.get(5, TimeUnit.SECONDS));
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceOverloadedException.class, thrown.getCause());
+        assertEquals(1.0, meterRegistry.get("banking.executor.shed").tag("reason", "queue_timeout").counter().count());
+    }
+
+    @Test
+    void supply_ShouldPropagateTaskFailure() {
+        CompletableFuture<String> failed = executor.supply(() -> {
+            throw new IllegalStateException("失败");
+        });
+
+        ExecutionException thrown = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, thrown.getCause());
+    }
+}
@@ -0,0 +1,75 @@
+package com.banking.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SequencedRingBufferTest {
+
+    @Test
+    void constructor_ShouldRejectNonPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new SequencedRingBuffer<String>(12));
+        assertThrows(IllegalArgumentException.class, () -> new SequencedRingBuffer<String>(1));
+    }
+
+    @Test
+    void get_ShouldReturnPublishedValues_UntilOverwritten() {
+        SequencedRingBuffer<String> ring = new SequencedRingBuffer<>(4);
+
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i, ring.publish(seq -> "v" + seq));
+        }
+
+        assertEquals(6, ring.nextSequence());
+        assertEquals(2, ring.oldestSequence());
+        assertNull(ring.get(0));
+        assertNull(ring.get(1));
+        assertEquals("v2", ring.get(2));
+        assertEquals("v5", ring.get(5));
+        // 尚未发布的序号
+        assertNull(ring.get(6));
+    }
+
+    @Test
+    void publish_ShouldAssignUniqueSequences_WhenConcurrent() throws InterruptedException {
+        SequencedRingBuffer<Long> ring = new SequencedRingBuffer<>(1 << 14);
+        int threads = 4;
+        int perThread = 2_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            writers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    ring.publish(seq -> seq);
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertEquals(threads * perThread, ring.nextSequence());
+        Set<Long> seen = new HashSet<>();
+        for (long seq = 0; seq < ring.nextSequence(); seq++) {
+            Long value = ring.get(seq);
+            assertEquals(seq, value);
+            assertTrue(seen.add(value));
+        }
+    }
+}
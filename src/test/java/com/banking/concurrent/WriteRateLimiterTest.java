@@ -0,0 +1,146 @@
+package com.banking.concurrent;
+
+import com.banking.exception.RateLimitExceededException;
+import com.banking.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteRateLimiterTest {
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private WriteRateLimiter limiter(boolean enabled, int concurrencyLimit) {
+        // 每秒补充1个令牌、突发3个，测试期间基本不会补充
+        return new WriteRateLimiter(enabled, 1, 3, 1000, Duration.ofMinutes(10),
+                concurrencyLimit, 1, concurrencyLimit, Duration.ofMillis(500), Duration.ofSeconds(1), meterRegistry);
+    }
+
+    @Test
+    void acquire_ShouldRejectAccount_WhenBurstExhausted() {
+        WriteRateLimiter limiter = limiter(true, 16);
+        UUID accountId = UUID.randomUUID();
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(accountId).close();
+        }
+        RateLimitExceededException thrown = assertThrows(RateLimitExceededException.class,
+                () -> limiter.acquire(accountId));
+
+        assertTrue(thrown.getRetryAfter().compareTo(Duration.ZERO) > 0);
+        assertTrue(thrown.getRetryAfter().compareTo(Duration.ofSeconds(1)) <= 0);
+        assertEquals(1.0, meterRegistry.get("banking.ratelimit.rejected").tag("limiter", "account")
+                .counter().count());
+    }
+
+    @Test
+    void acquire_ShouldLimitAccountsIndependently() {
+        WriteRateLimiter limiter = limiter(true, 16);
+        UUID busy = UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(busy).close();
+        }
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(busy));
+        assertDoesNotThrow(() -> limiter.acquire(UUID.randomUUID()).close());
+    }
+
+    @Test
+    void acquire_ShouldTakeTokenFromEveryAccount_WhenBatch() {
+        WriteRateLimiter limiter = limiter(true, 16);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(List.of(first, second)).close();
+        }
+
+        assertThrows(RateLimitExceededException.class, () -> limiter.acquire(second));
+    }
+
+    @Test
+    void acquire_ShouldReturnTokens_WhenBatchRejectedByLaterAccount() {
+        WriteRateLimiter limiter = limiter(true, 16);
+        UUID bystander = UUID.randomUUID();
+        UUID busy = UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire(busy).close();
+        }
+
+        // 被拒绝的批量请求不消耗其中其他账户的配额
+        for (int i = 0; i < 5; i++) {
+            assertThrows(RateLimitExceededException.class, () -> limiter.acquire(List.of(bystander, busy)));
+        }
+        for (int i = 0; i < 3; i++) {
+            assertDoesNotThrow(() -> limiter.acquire(bystander).close());
+        }
+    }
+
+    @Test
+    void acquire_ShouldReturnTokens_WhenRejectedByConcurrencyLimit() {
+        WriteRateLimiter limiter = limiter(true, 1);
+        UUID accountId = UUID.randomUUID();
+        WriteRateLimiter.Permit held = limiter.acquire((UUID) null);
+        for (int i = 0; i < 5; i++) {
+            assertThrows(ServiceOverloadedException.class, () -> limiter.acquire(accountId));
+        }
+        held.close();
+
+        for (int i = 0; i < 3; i++) {
+            assertDoesNotThrow(() -> limiter.acquire(accountId).close());
+        }
+    }
+
+    @Test
+    void acquire_ShouldRejectWithOverload_WhenConcurrencyLimitReached() {
+        WriteRateLimiter limiter = limiter(true, 2);
+        WriteRateLimiter.Permit first = limiter.acquire((UUID) null);
+        WriteRateLimiter.Permit second = limiter.acquire((UUID) null);
+
+        assertThrows(ServiceOverloadedException.class, () -> limiter.acquire((UUID) null));
+        assertEquals(1.0, meterRegistry.get("banking.ratelimit.rejected").tag("limiter", "concurrency")
+                .counter().count());
+        assertEquals(2.0, meterRegistry.get("banking.ratelimit.concurrency.inflight").gauge().value());
+
+        // 归还名额后可以再次进入
+        first.close();
+        second.close();
+        assertDoesNotThrow(() -> limiter.acquire((UUID) null).close());
+    }
+
+    @Test
+    void acquire_ShouldAdmitEverything_WhenDisabled() {
+        WriteRateLimiter limiter = limiter(false, 1);
+        UUID accountId = UUID.randomUUID();
+
+        for (int i = 0; i < 10; i++) {
+            assertDoesNotThrow(() -> limiter.acquire(accountId));
+        }
+    }
+
+    @Test
+    void tokenBucket_ShouldRefillAtConfiguredRate() {
+        long interval = 1_000;
+        TokenBucket bucket = new TokenBucket(0);
+
+        assertEquals(0, bucket.tryAcquire(0, interval, 2 * interval));
+        assertEquals(0, bucket.tryAcquire(0, interval, 2 * interval));
+        assertEquals(interval, bucket.tryAcquire(0, interval, 2 * interval));
+        // 过了一个间隔恰好补充一个令牌
+        assertEquals(0, bucket.tryAcquire(interval, interval, 2 * interval));
+        assertEquals(interval, bucket.tryAcquire(interval, interval, 2 * interval));
+    }
+}
@@ -0,0 +1,58 @@
+package com.banking.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachePropertiesTest {
+
+    @Test
+    void spec_ShouldMergeConfiguredFieldsOverDefaults() {
+        CacheProperties properties = new CacheProperties();
+        CacheProperties.Spec configured = new CacheProperties.Spec();
+        configured.setExpireAfterAccess(Duration.ofMinutes(2));
+        configured.setRefreshAfterWrite(Duration.ZERO);
+        properties.getSpecs().put("transactions", configured);
+
+        CacheProperties.Spec spec = properties.spec("transactions");
+
+        assertEquals(DataSize.ofMegabytes(16), spec.getMaximumWeight());
+        assertEquals(Duration.ofMinutes(10), spec.getExpireAfterWrite());
+        // 0表示关闭默认开启的刷新
+        assertEquals("maximumWeight=16777216B,expireAfterWrite=PT10M,expireAfterAccess=PT2M", spec.describe());
+    }
+
+    @Test
+    void spec_ShouldReplaceDefaultBound_WhenOtherBoundConfigured() {
+        CacheProperties properties = new CacheProperties();
+        CacheProperties.Spec configured = new CacheProperties.Spec();
+        configured.setMaximumSize(50_000L);
+        properties.getSpecs().put("transactions", configured);
+
+        assertEquals("maximumSize=50000,expireAfterWrite=PT10M,refreshAfterWrite=PT1M",
+                properties.spec("transactions").describe());
+    }
+
+    @Test
+    void toBuilder_ShouldRejectUnsupportedOptions() {
+        CacheProperties properties = new CacheProperties();
+        CacheProperties.Spec configured = new CacheProperties.Spec();
+        configured.setMaximumWeight(DataSize.ofMegabytes(1));
+        configured.setRefreshAfterWrite(Duration.ofMinutes(1));
+        properties.getSpecs().put("accountTransactions", configured);
+        CacheProperties.Spec spec = properties.spec("accountTransactions");
+
+        // 列表缓存没有权重计算与加载函数
+        assertThrows(IllegalStateException.class, () -> spec.toBuilder("accountTransactions", null, true));
+        assertThrows(IllegalStateException.class, () -> spec.toBuilder("accountTransactions", (k, v) -> 1, false));
+
+        CacheProperties.Spec both = new CacheProperties.Spec();
+        both.setMaximumSize(10L);
+        both.setMaximumWeight(DataSize.ofKilobytes(1));
+        assertThrows(IllegalStateException.class, () -> both.toBuilder("transactions", (k, v) -> 1, true));
+    }
+}
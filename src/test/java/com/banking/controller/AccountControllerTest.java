@@ -0,0 +1,153 @@
+package com.banking.controller;
+
+import com.banking.dto.AccountBalanceDTO;
+import com.banking.dto.CursorPageDTO;
+import com.banking.dto.RollupBucketDTO;
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.RollupGranularity;
+import com.banking.enums.TransactionType;
+import com.banking.exception.InvalidTransactionException;
+import com.banking.service.AccountBalanceService;
+import com.banking.service.TransactionRollupService;
+import com.banking.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AccountController.class)
+class AccountControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TransactionService transactionService;
+
+    @MockBean
+    private AccountBalanceService accountBalanceService;
+
+    @MockBean
+    private TransactionRollupService rollupService;
+
+    private UUID accountId;
+    private TransactionDTO transactionDTO;
+
+    @BeforeEach
+    void setUp() {
+        accountId = UUID.randomUUID();
+        transactionDTO = new TransactionDTO();
+        transactionDTO.setId(UUID.randomUUID());
+        transactionDTO.setType(TransactionType.DEPOSIT);
+        transactionDTO.setAmount(new BigDecimal("100.0"));
+        transactionDTO.setAccountId(accountId);
+    }
+
+    @Test
+    void accountTransactions_ShouldUseDefaultPageSize() throws Exception {
+        when(transactionService.accountTransactions(accountId, null, null, null, null,
+                TransactionService.ACCOUNT_HISTORY_PAGE_SIZE))
+                .thenReturn(new CursorPageDTO<>(List.of(transactionDTO), null));
+
+        mockMvc.perform(get("/api/accounts/{accountId}/transactions", accountId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].accountId").value(accountId.toString()))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(transactionService).accountTransactions(accountId, null, null, null, null,
+                TransactionService.ACCOUNT_HISTORY_PAGE_SIZE);
+    }
+
+    @Test
+    void accountTransactions_ShouldPassFilters() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        when(transactionService.accountTransactions(accountId, TransactionType.WITHDRAWAL, from, to, null, 50))
+                .thenReturn(new CursorPageDTO<>(List.of(transactionDTO), "next"));
+
+        mockMvc.perform(get("/api/accounts/{accountId}/transactions", accountId)
+                        .param("type", "WITHDRAWAL")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00")
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(transactionService).accountTransactions(accountId, TransactionType.WITHDRAWAL, from, to, null, 50);
+    }
+
+    @Test
+    void accountTransactions_ShouldReturnBadRequest_WhenRangeInvalid() throws Exception {
+        when(transactionService.accountTransactions(eq(accountId), isNull(), any(), any(), isNull(), anyInt()))
+                .thenThrow(new InvalidTransactionException("起始时间必须早于结束时间"));
+
+        mockMvc.perform(get("/api/accounts/{accountId}/transactions", accountId)
+                        .param("from", "2024-02-01T00:00:00")
+                        .param("to", "2024-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBalance_ShouldReturnProjectedBalance() throws Exception {
+        when(accountBalanceService.getBalance(accountId))
+                .thenReturn(new AccountBalanceDTO(accountId, new BigDecimal("250.5"), 3, LocalDateTime.now()));
+
+        mockMvc.perform(get("/api/accounts/{accountId}/balance", accountId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value(accountId.toString()))
+                .andExpect(jsonPath("$.balance").value("250.5"))
+                .andExpect(jsonPath("$.revision").value(3));
+
+        verify(accountBalanceService).getBalance(accountId);
+    }
+
+    @Test
+    void summary_ShouldReturnBucketsForRequestedGranularity() throws Exception {
+        LocalDateTime day = LocalDateTime.of(2024, 3, 1, 0, 0);
+        when(rollupService.summary(accountId, RollupGranularity.DAY, day, day.plusDays(7)))
+                .thenReturn(List.of(new RollupBucketDTO(day, TransactionType.DEPOSIT, new BigDecimal("150.00"), 2)));
+
+        mockMvc.perform(get("/api/accounts/{accountId}/summary", accountId)
+                        .param("granularity", "day")
+                        .param("from", "2024-03-01T00:00:00")
+                        .param("to", "2024-03-08T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("DEPOSIT"))
+                .andExpect(jsonPath("$[0].totalAmount").value(150.00))
+                .andExpect(jsonPath("$[0].count").value(2));
+    }
+
+    @Test
+    void summary_ShouldReturnBadRequest_WhenGranularityUnsupported() throws Exception {
+        mockMvc.perform(get("/api/accounts/{accountId}/summary", accountId).param("granularity", "week"))
+                .andExpect(status().isBadRequest());
+
+        verify(rollupService, never()).summary(any(), any(), any(), any());
+    }
+
+    @Test
+    void rebuildBalances_ShouldReturnRebuiltAccountCount() throws Exception {
+        when(accountBalanceService.rebuild()).thenReturn(42);
+
+        mockMvc.perform(post("/api/accounts/balances/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("42"));
+
+        verify(accountBalanceService).rebuild();
+    }
+}
@@ -0,0 +1,68 @@
+package com.banking.controller;
+
+import com.banking.dto.CacheStatsDTO;
+import com.banking.exception.CacheNotFoundException;
+import com.banking.service.CacheAdminService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CacheAdminController.class)
+class CacheAdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CacheAdminService cacheAdminService;
+
+    @Test
+    void getStats_ShouldListAllCaches() throws Exception {
+        CacheStatsDTO stats = new CacheStatsDTO();
+        stats.setName("transactions");
+        stats.setSpec("maximumWeight=16777216B,expireAfterWrite=PT10M,refreshAfterWrite=PT1M");
+        stats.setHits(3);
+        stats.setMisses(1);
+        stats.setHitRate(0.75);
+        when(cacheAdminService.getStats()).thenReturn(List.of(stats));
+
+        mockMvc.perform(get("/api/admin/caches"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("transactions"))
+                .andExpect(jsonPath("$[0].hitRate").value(0.75))
+                .andExpect(jsonPath("$[0].spec").value(stats.getSpec()));
+    }
+
+    @Test
+    void getStats_ShouldReturnNotFound_WhenCacheUnknown() throws Exception {
+        when(cacheAdminService.getStats("unknown")).thenThrow(new CacheNotFoundException("unknown"));
+
+        mockMvc.perform(get("/api/admin/caches/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void invalidate_ShouldClearCache() throws Exception {
+        mockMvc.perform(delete("/api/admin/caches/transactionList"))
+                .andExpect(status().isNoContent());
+
+        verify(cacheAdminService).invalidate("transactionList");
+    }
+
+    @Test
+    void invalidateKey_ShouldEvictSingleKey() throws Exception {
+        mockMvc.perform(delete("/api/admin/caches/transactions/keys/{key}", "7f1c2a9e-0000-4000-8000-000000000001"))
+                .andExpect(status().isNoContent());
+
+        verify(cacheAdminService).invalidate("transactions", "7f1c2a9e-0000-4000-8000-000000000001");
+    }
+}
@@ -0,0 +1,114 @@
+package com.banking.controller;
+
+import com.banking.dto.ImportJobDTO;
+import com.banking.dto.ImportRejectionDTO;
+import com.banking.enums.ImportStatus;
+import com.banking.enums.LedgerFormat;
+import com.banking.exception.ImportJobNotFoundException;
+import com.banking.exception.InvalidTransactionException;
+import com.banking.service.ImportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ImportController.class)
+class ImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ImportService importService;
+
+    private ImportJobDTO job;
+
+    @BeforeEach
+    void setUp() {
+        job = new ImportJobDTO();
+        job.setId(UUID.randomUUID());
+        job.setFormat(LedgerFormat.CSV);
+        job.setStatus(ImportStatus.RUNNING);
+        job.setTotalBytes(128);
+    }
+
+    @Test
+    void startImport_ShouldReturnAccepted() throws Exception {
+        when(importService.startImport(eq(LedgerFormat.CSV), any(InputStream.class))).thenReturn(job);
+
+        mockMvc.perform(post("/api/imports")
+                        .param("format", "csv")
+                        .contentType("text/csv")
+                        .content("id,type,amount,accountId\n"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(job.getId().toString()))
+                .andExpect(jsonPath("$.status").value(ImportStatus.RUNNING.name()));
+
+        verify(importService).startImport(eq(LedgerFormat.CSV), any(InputStream.class));
+    }
+
+    @Test
+    void startImport_ShouldReturnBadRequest_WhenUnsupportedFormat() throws Exception {
+        mockMvc.perform(post("/api/imports")
+                        .param("format", "xml")
+                        .content("<ledger/>"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(importService);
+    }
+
+    @Test
+    void getJob_ShouldReturnProgress() throws Exception {
+        job.setProcessedBytes(64);
+        job.setProgressPercent(50.0);
+        job.setImportedRows(10);
+        when(importService.getJob(job.getId())).thenReturn(job);
+
+        mockMvc.perform(get("/api/imports/{id}", job.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.progressPercent").value(50.0))
+                .andExpect(jsonPath("$.importedRows").value(10));
+    }
+
+    @Test
+    void getJob_ShouldReturnNotFound_WhenJobDoesNotExist() throws Exception {
+        when(importService.getJob(job.getId())).thenThrow(new ImportJobNotFoundException(job.getId()));
+
+        mockMvc.perform(get("/api/imports/{id}", job.getId()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getRejections_ShouldPassPagingParameters() throws Exception {
+        when(importService.getRejections(job.getId(), 5, 2))
+                .thenReturn(List.of(new ImportRejectionDTO(7, "金额必须大于0", "x")));
+
+        mockMvc.perform(get("/api/imports/{id}/rejections", job.getId())
+                        .param("after", "5")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lineNumber").value(7))
+                .andExpect(jsonPath("$[0].reason").value("金额必须大于0"));
+    }
+
+    @Test
+    void resume_ShouldReturnBadRequest_WhenJobCompleted() throws Exception {
+        when(importService.resume(job.getId())).thenThrow(new InvalidTransactionException("已完成"));
+
+        mockMvc.perform(post("/api/imports/{id}/resume", job.getId()))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,66 @@
+package com.banking.controller;
+
+import com.banking.dto.TransactionDTO;
+import com.banking.dto.TransferRequest;
+import com.banking.enums.TransactionType;
+import com.banking.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Test
+    void prometheus_ShouldExposeOperationLockCacheAndPoolMetrics() throws Exception {
+        // 准备测试数据
+        UUID fromAccountId = UUID.randomUUID();
+        TransactionDTO deposit = new TransactionDTO();
+        deposit.setId(UUID.randomUUID());
+        deposit.setType(TransactionType.DEPOSIT);
+        deposit.setAmount(new BigDecimal("100.00"));
+        deposit.setAccountId(fromAccountId);
+        TransferRequest transfer = new TransferRequest();
+        transfer.setId(UUID.randomUUID());
+        transfer.setFromAccountId(fromAccountId);
+        transfer.setToAccountId(UUID.randomUUID());
+        transfer.setAmount(BigDecimal.TEN);
+
+        // 执行测试
+        transactionService.createTransaction(deposit);
+        transactionService.transfer(transfer);
+        transactionService.getTransaction(deposit.getId());
+        transactionService.transactionList(0, 10);
+
+        // 验证结果
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "banking_transaction_operation_seconds_bucket{application=\"banking-system\"")))
+                .andExpect(content().string(containsString("operation=\"create\"")))
+                .andExpect(content().string(containsString("banking_lock_wait_seconds_count{application=\"banking-system\",lock=\"account\"")))
+                .andExpect(content().string(containsString("banking_lock_hold_seconds_count{application=\"banking-system\",lock=\"transaction\"")))
+                .andExpect(content().string(containsString("cache=\"transactionList\"")))
+                .andExpect(content().string(containsString("cache=\"transactions\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_pending")));
+    }
+}
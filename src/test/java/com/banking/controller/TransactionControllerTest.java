@@ -1,26 +1,50 @@
 package com.banking.controller;
 
+import com.banking.concurrent.WriteRateLimiter;
+import com.banking.dto.BatchTransactionRequest;
+import com.banking.dto.BatchTransactionResultDTO;
+import com.banking.dto.CursorPageDTO;
+import com.banking.dto.IdempotentResponse;
 import com.banking.dto.TransactionDTO;
+import com.banking.enums.BatchItemStatus;
+import com.banking.enums.LedgerFormat;
 import com.banking.enums.TransactionType;
+import com.banking.event.EventSink;
+import com.banking.event.TransactionEventBus;
+import com.banking.exception.EventSequenceExpiredException;
+import com.banking.exception.IdempotencyKeyMismatchException;
+import com.banking.exception.RateLimitExceededException;
+import com.banking.exception.ServiceOverloadedException;
 import com.banking.exception.TransactionNotFoundException;
+import com.banking.service.IdempotencyService;
+import com.banking.service.TransactionExportService;
 import com.banking.service.TransactionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,6 +58,18 @@ class TransactionControllerTest {
     @MockBean
     private TransactionService transactionService;
 
+    @MockBean
+    private TransactionExportService transactionExportService;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
+    @MockBean
+    private WriteRateLimiter writeRateLimiter;
+
+    @MockBean
+    private TransactionEventBus eventBus;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -83,46 +119,224 @@ class TransactionControllerTest {
         verify(transactionService, never()).createTransaction(any(TransactionDTO.class));
     }
 
+    @Test
+    void createTransaction_ShouldReturnTooManyRequests_WhenAccountRateLimited() throws Exception {
+        when(writeRateLimiter.acquire(validTransactionDTO.getAccountId()))
+                .thenThrow(new RateLimitExceededException(validTransactionDTO.getAccountId(), Duration.ofMillis(20)));
+
+        mockMvc.perform(post("/api/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validTransactionDTO)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verify(transactionService, never()).createTransaction(any(TransactionDTO.class));
+    }
+
+    @Test
+    void createTransaction_ShouldReturnServiceUnavailable_WhenConcurrencyLimitReached() throws Exception {
+        when(writeRateLimiter.acquire(validTransactionDTO.getAccountId()))
+                .thenThrow(new ServiceOverloadedException(Duration.ofSeconds(1)));
+
+        mockMvc.perform(post("/api/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validTransactionDTO)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+
+        verify(transactionService, never()).createTransaction(any(TransactionDTO.class));
+    }
+
+    @Test
+    void streamTransactions_ShouldResumeAfterLastEventId() throws Exception {
+        when(eventBus.subscribe(eq(43L), any(EventSink.class))).thenReturn(() -> { });
+
+        mockMvc.perform(get("/api/transactions/stream").header("Last-Event-ID", "42"))
+                .andExpect(request().asyncStarted());
+
+        verify(eventBus).subscribe(eq(43L), any(EventSink.class));
+    }
+
+    @Test
+    void streamTransactions_ShouldReturnGone_WhenSequenceExpired() throws Exception {
+        when(eventBus.subscribe(eq(5L), any(EventSink.class))).thenThrow(new EventSequenceExpiredException(5, 100));
+
+        mockMvc.perform(get("/api/transactions/stream").param("fromSeq", "5"))
+                .andExpect(status().isGone());
+    }
+
+    @Test
+    void createTransaction_ShouldReplayStoredResponse_WhenIdempotencyKeyRepeated() throws Exception {
+        when(idempotencyService.execute(eq("createTransaction"), eq("retry-1"), any(TransactionDTO.class),
+                eq(TransactionDTO.class), any()))
+                .thenReturn(new IdempotentResponse<>(validTransactionDTO, true));
+
+        mockMvc.perform(post("/api/transactions")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validTransactionDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(jsonPath("$.id").value(transactionId.toString()));
+
+        verify(transactionService, never()).createTransaction(any(TransactionDTO.class));
+        // 重放不经过准入控制，不消耗令牌也不占用并发名额
+        verify(writeRateLimiter, never()).acquire(any(UUID.class));
+    }
+
+    @Test
+    void createTransaction_ShouldAcquirePermitInsideIdempotentExecution() throws Exception {
+        WriteRateLimiter.Permit permit = mock(WriteRateLimiter.Permit.class);
+        when(writeRateLimiter.acquire(validTransactionDTO.getAccountId())).thenReturn(permit);
+        when(transactionService.createTransaction(any(TransactionDTO.class))).thenReturn(validTransactionDTO);
+        when(idempotencyService.execute(eq("createTransaction"), eq("retry-1"), any(TransactionDTO.class),
+                eq(TransactionDTO.class), any()))
+                .thenAnswer(invocation -> {
+                    // 幂等键解析完成之前不应申请准入
+                    verify(writeRateLimiter, never()).acquire(any(UUID.class));
+                    Supplier<TransactionDTO> action = invocation.getArgument(4);
+                    return new IdempotentResponse<>(action.get(), false);
+                });
+
+        mockMvc.perform(post("/api/transactions")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validTransactionDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "false"));
+
+        InOrder inOrder = inOrder(writeRateLimiter, transactionService, permit);
+        inOrder.verify(writeRateLimiter).acquire(validTransactionDTO.getAccountId());
+        inOrder.verify(transactionService).createTransaction(any(TransactionDTO.class));
+        inOrder.verify(permit).close();
+    }
+
+    @Test
+    void createTransaction_ShouldReturnUnprocessable_WhenIdempotencyKeyReusedWithDifferentBody() throws Exception {
+        when(idempotencyService.execute(eq("createTransaction"), eq("retry-1"), any(TransactionDTO.class),
+                eq(TransactionDTO.class), any()))
+                .thenThrow(new IdempotencyKeyMismatchException("retry-1"));
+
+        mockMvc.perform(post("/api/transactions")
+                        .header("Idempotency-Key", "retry-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(validTransactionDTO)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void createTransactions_ShouldReturnPerItemResults() throws Exception {
+        BatchTransactionRequest request = new BatchTransactionRequest();
+        request.setTransactions(List.of(validTransactionDTO));
+        when(transactionService.createTransactions(anyList()))
+                .thenReturn(List.of(new BatchTransactionResultDTO(transactionId, BatchItemStatus.CREATED, validTransactionDTO)));
+
+        mockMvc.perform(post("/api/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(transactionId.toString()))
+                .andExpect(jsonPath("$[0].status").value(BatchItemStatus.CREATED.name()))
+                .andExpect(jsonPath("$[0].transaction.amount").value("100.0"));
+
+        verify(transactionService).createTransactions(anyList());
+    }
+
+    @Test
+    void createTransactions_ShouldReturnBadRequest_WhenItemInvalid() throws Exception {
+        BatchTransactionRequest request = new BatchTransactionRequest();
+        request.setTransactions(List.of(validTransactionDTO, new TransactionDTO()));
+
+        mockMvc.perform(post("/api/transactions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(transactionService, never()).createTransactions(anyList());
+    }
+
     @Test
     void getTransaction_ShouldReturnTransaction_WhenExists() throws Exception {
-        when(transactionService.getTransaction(transactionId))
-                .thenReturn(validTransactionDTO);
+        when(transactionService.getTransactionAsync(transactionId))
+                .thenReturn(CompletableFuture.completedFuture(validTransactionDTO));
+
+        MvcResult result = mockMvc.perform(get("/api/transactions/{id}", transactionId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        mockMvc.perform(get("/api/transactions/{id}", transactionId))
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(transactionId.toString()))
                 .andExpect(jsonPath("$.type").value(TransactionType.DEPOSIT.name()))
                 .andExpect(jsonPath("$.amount").value("100.0"));
 
-        verify(transactionService).getTransaction(transactionId);
+        verify(transactionService).getTransactionAsync(transactionId);
     }
 
     @Test
     void getTransaction_ShouldReturnNotFound_WhenNotExists() throws Exception {
-        when(transactionService.getTransaction(transactionId))
-                .thenThrow(new TransactionNotFoundException(transactionId));
+        when(transactionService.getTransactionAsync(transactionId))
+                .thenReturn(CompletableFuture.failedFuture(new TransactionNotFoundException(transactionId)));
+
+        MvcResult result = mockMvc.perform(get("/api/transactions/{id}", transactionId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        mockMvc.perform(get("/api/transactions/{id}", transactionId))
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isNotFound());
 
-        verify(transactionService).getTransaction(transactionId);
+        verify(transactionService).getTransactionAsync(transactionId);
+    }
+
+    @Test
+    void getTransaction_ShouldReturnServiceUnavailable_WhenOverloaded() throws Exception {
+        when(transactionService.getTransactionAsync(transactionId))
+                .thenReturn(CompletableFuture.failedFuture(new ServiceOverloadedException(Duration.ofMillis(1500))));
+
+        MvcResult result = mockMvc.perform(get("/api/transactions/{id}", transactionId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
     }
 
     @Test
     void transactionList_ShouldReturnPaginatedResults() throws Exception {
         List<TransactionDTO> transactions = Arrays.asList(validTransactionDTO);
-        when(transactionService.transactionList(eq(0), eq(10)))
-                .thenReturn(transactions);
+        when(transactionService.transactionListAsync(eq(0), eq(10)))
+                .thenReturn(CompletableFuture.completedFuture(transactions));
 
-        mockMvc.perform(get("/api/transactions")
+        MvcResult result = mockMvc.perform(get("/api/transactions")
                         .param("page", "0")
                         .param("size", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(transactionId.toString()))
                 .andExpect(jsonPath("$[0].type").value(TransactionType.DEPOSIT.name()))
                 .andExpect(jsonPath("$[0].amount").value("100.0"));
 
-        verify(transactionService).transactionList(0, 10);
+        verify(transactionService).transactionListAsync(0, 10);
+    }
+
+    @Test
+    void transactionListAfter_ShouldReturnCursorPage() throws Exception {
+        when(transactionService.transactionListAfter(eq("abc"), eq(20)))
+                .thenReturn(new CursorPageDTO<>(List.of(validTransactionDTO), "next"));
+
+        mockMvc.perform(get("/api/transactions")
+                        .param("after", "abc")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(transactionId.toString()))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(transactionService).transactionListAfter("abc", 20);
+        verify(transactionService, never()).transactionListAsync(anyInt(), anyInt());
     }
 
     @Test
@@ -174,4 +388,44 @@ class TransactionControllerTest {
 
         verify(transactionService).deleteTransaction(transactionId);
     }
-} 
\ No newline at end of file
+
+    @Test
+    void exportTransactions_ShouldStreamCsvWithAttachmentHeaders() throws Exception {
+        UUID accountId = UUID.randomUUID();
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(4);
+            out.write("id,type\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(transactionExportService).export(eq(LedgerFormat.CSV), eq(accountId), isNull(), isNull(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/transactions/export")
+                        .param("format", "csv")
+                        .param("accountId", accountId.toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"transactions.csv\""))
+                .andExpect(content().string("id,type\n"));
+    }
+
+    @Test
+    void exportTransactions_ShouldReturnBadRequest_WhenFormatUnsupported() throws Exception {
+        mockMvc.perform(get("/api/transactions/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(transactionExportService);
+    }
+
+    @Test
+    void exportTransactions_ShouldReturnBadRequest_WhenRangeInvalid() throws Exception {
+        mockMvc.perform(get("/api/transactions/export")
+                        .param("from", "2024-02-01T00:00:00")
+                        .param("to", "2024-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(transactionExportService);
+    }
+}
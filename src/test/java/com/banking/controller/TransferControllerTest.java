@@ -0,0 +1,97 @@
+package com.banking.controller;
+
+import com.banking.concurrent.WriteRateLimiter;
+import com.banking.dto.TransactionDTO;
+import com.banking.dto.TransferRequest;
+import com.banking.dto.TransferResultDTO;
+import com.banking.enums.TransactionType;
+import com.banking.exception.InsufficientFundsException;
+import com.banking.service.TransactionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(TransferController.class)
+class TransferControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TransactionService transactionService;
+
+    @MockBean
+    private WriteRateLimiter writeRateLimiter;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private TransferRequest request;
+
+    @BeforeEach
+    void setUp() {
+        request = new TransferRequest();
+        request.setId(UUID.randomUUID());
+        request.setFromAccountId(UUID.randomUUID());
+        request.setToAccountId(UUID.randomUUID());
+        request.setAmount(new BigDecimal("100.0"));
+        request.setDescription("测试转账");
+    }
+
+    @Test
+    void transfer_ShouldReturnBothLegs() throws Exception {
+        TransactionDTO outgoing = new TransactionDTO();
+        outgoing.setId(request.getId());
+        outgoing.setType(TransactionType.TRANSFER_OUT);
+        TransactionDTO incoming = new TransactionDTO();
+        incoming.setType(TransactionType.TRANSFER_IN);
+        when(transactionService.transfer(any(TransferRequest.class)))
+                .thenReturn(new TransferResultDTO(outgoing, incoming));
+
+        mockMvc.perform(post("/api/transfers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.outgoing.id").value(request.getId().toString()))
+                .andExpect(jsonPath("$.outgoing.type").value(TransactionType.TRANSFER_OUT.name()))
+                .andExpect(jsonPath("$.incoming.type").value(TransactionType.TRANSFER_IN.name()));
+
+        verify(transactionService).transfer(any(TransferRequest.class));
+    }
+
+    @Test
+    void transfer_ShouldReturnBadRequest_WhenInvalidData() throws Exception {
+        request.setAmount(new BigDecimal("-1"));
+
+        mockMvc.perform(post("/api/transfers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(transactionService, never()).transfer(any(TransferRequest.class));
+    }
+
+    @Test
+    void transfer_ShouldReturnUnprocessable_WhenInsufficientFunds() throws Exception {
+        when(transactionService.transfer(any(TransferRequest.class)))
+                .thenThrow(new InsufficientFundsException(request.getFromAccountId()));
+
+        mockMvc.perform(post("/api/transfers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity());
+    }
+}
@@ -0,0 +1,188 @@
+package com.banking.event;
+
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionEventType;
+import com.banking.exception.EventSequenceExpiredException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionEventBusTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TransactionEventBus bus;
+
+    @AfterEach
+    void tearDown() {
+        if (bus != null) {
+            bus.close();
+        }
+    }
+
+    /**
+     * 记录收到的事件序号；收到 expected 个事件或被断开时完成
+     */
+    private static class RecordingSink implements EventSink {
+        final List<Long> sequences = new CopyOnWriteArrayList<>();
+        final CompletableFuture<String> done = new CompletableFuture<>();
+        final int expected;
+        volatile long resumeFrom = -1;
+
+        RecordingSink(int expected) {
+            this.expected = expected;
+        }
+
+        @Override
+        public void send(List<TransactionEvent> events) throws IOException {
+            for (TransactionEvent event : events) {
+                sequences.add(event.getSeq());
+            }
+            if (sequences.size() >= expected) {
+                done.complete("complete");
+            }
+        }
+
+        @Override
+        public void heartbeat() {
+        }
+
+        @Override
+        public void disconnect(String reason, long nextSeq) {
+            resumeFrom = nextSeq;
+            done.complete(reason);
+        }
+    }
+
+    private long publish() {
+        UUID id = UUID.randomUUID();
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(id);
+        return bus.publish(TransactionEventType.CREATED, id, dto);
+    }
+
+    @Test
+    void publish_ShouldFanOutToAllSubscribersInOrder() throws Exception {
+        bus = new TransactionEventBus(1024, 512, Duration.ofSeconds(15), meterRegistry);
+        int subscriberCount = 200;
+        int events = 50;
+        List<RecordingSink> sinks = new ArrayList<>();
+        for (int i = 0; i < subscriberCount; i++) {
+            RecordingSink sink = new RecordingSink(events);
+            sinks.add(sink);
+            bus.subscribe(null, sink);
+        }
+
+        for (int i = 0; i < events; i++) {
+            publish();
+        }
+
+        for (RecordingSink sink : sinks) {
+            assertEquals("complete", sink.done.get(10, TimeUnit.SECONDS));
+            for (int i = 0; i < events; i++) {
+                assertEquals(i, sink.sequences.get(i));
+            }
+        }
+        assertEquals(events, meterRegistry.counter("banking.events.published").count());
+    }
+
+    @Test
+    void subscribe_ShouldReplayFromSequence() throws Exception {
+        bus = new TransactionEventBus(1024, 512, Duration.ofSeconds(15), meterRegistry);
+        for (int i = 0; i < 10; i++) {
+            publish();
+        }
+        RecordingSink sink = new RecordingSink(7);
+
+        bus.subscribe(3L, sink);
+
+        assertEquals("complete", sink.done.get(10, TimeUnit.SECONDS));
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L, 8L, 9L), sink.sequences);
+    }
+
+    @Test
+    void subscribe_ShouldThrow_WhenSequenceOverwritten() {
+        bus = new TransactionEventBus(16, 8, Duration.ofSeconds(15), meterRegistry);
+        for (int i = 0; i < 40; i++) {
+            publish();
+        }
+
+        EventSequenceExpiredException e = assertThrows(EventSequenceExpiredException.class,
+                () -> bus.subscribe(0L, new RecordingSink(1)));
+        assertTrue(e.getMessage().contains("24"), e.getMessage());
+    }
+
+    @Test
+    void subscriber_ShouldBeDisconnected_WhenLaggingBeyondLimit() throws Exception {
+        bus = new TransactionEventBus(64, 8, Duration.ofSeconds(15), meterRegistry);
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingSink slow = new RecordingSink(Integer.MAX_VALUE) {
+            @Override
+            public void send(List<TransactionEvent> events) throws IOException {
+                super.send(events);
+                blocked.countDown();
+                try {
+                    // 模拟客户端不读取、写套接字阻塞
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        RecordingSink fast = new RecordingSink(20);
+        bus.subscribe(null, slow);
+        bus.subscribe(null, fast);
+
+        publish();
+        assertTrue(blocked.await(10, TimeUnit.SECONDS));
+        // 快订阅者每次都跟上，慢订阅者落后越来越多；慢订阅者不影响其他订阅者
+        for (int i = 1; i < 20; i++) {
+            publish();
+            awaitReceived(fast, i + 1);
+        }
+        assertEquals("complete", fast.done.get(10, TimeUnit.SECONDS));
+        release.countDown();
+
+        assertEquals("slow-consumer", slow.done.get(10, TimeUnit.SECONDS));
+        assertEquals(1, slow.resumeFrom);
+        assertEquals(1, meterRegistry.counter("banking.events.disconnected", "reason", "slow").count());
+    }
+
+    private static void awaitReceived(RecordingSink sink, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (sink.sequences.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    void cancel_ShouldStopSubscriber() throws Exception {
+        bus = new TransactionEventBus(64, 8, Duration.ofSeconds(15), meterRegistry);
+        RecordingSink sink = new RecordingSink(1);
+        TransactionEventBus.Subscription subscription = bus.subscribe(null, sink);
+        assertEquals(1.0, meterRegistry.get("banking.events.subscribers").gauge().value());
+
+        subscription.cancel();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get("banking.events.subscribers").gauge().value() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0.0, meterRegistry.get("banking.events.subscribers").gauge().value());
+        publish();
+        assertTrue(sink.sequences.isEmpty());
+    }
+}
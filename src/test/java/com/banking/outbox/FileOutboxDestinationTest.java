@@ -0,0 +1,47 @@
+package com.banking.outbox;
+
+import com.banking.enums.TransactionEventType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FileOutboxDestinationTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void deliver_ShouldAppendOneJsonLinePerMessage() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        Path file = directory.resolve("ledger/out.jsonl");
+        UUID accountId = UUID.randomUUID();
+        UUID transactionId = UUID.randomUUID();
+
+        try (FileOutboxDestination destination = new FileOutboxDestination(file, objectMapper)) {
+            destination.deliver(List.of(new OutboxMessage(1, accountId, transactionId, TransactionEventType.CREATED,
+                    LocalDateTime.of(2024, 1, 1, 0, 0), "{\"amount\":10.00}")));
+            destination.deliver(List.of(new OutboxMessage(2, accountId, transactionId, TransactionEventType.DELETED,
+                    LocalDateTime.of(2024, 1, 1, 0, 1), "{\"amount\":10.00}")));
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals(1, first.get("id").asLong());
+        assertEquals("CREATED", first.get("type").asText());
+        assertEquals(accountId.toString(), first.get("accountId").asText());
+        // 交易内容原样嵌入，而不是转义后的字符串
+        assertEquals(10.0, first.get("transaction").get("amount").asDouble());
+        assertEquals("DELETED", objectMapper.readTree(lines.get(1)).get("type").asText());
+    }
+}
@@ -0,0 +1,34 @@
+package com.banking.outbox;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用的投递目标：记录收到的消息，可让指定账户的前若干次投递失败
+ */
+public class InMemoryOutboxDestination implements OutboxDestination {
+    private final List<OutboxMessage> received = new CopyOnWriteArrayList<>();
+    private final Map<UUID, AtomicInteger> failuresRemaining = new ConcurrentHashMap<>();
+
+    @Override
+    public void deliver(List<OutboxMessage> messages) throws IOException {
+        AtomicInteger failures = failuresRemaining.get(messages.get(0).accountId());
+        if (failures != null && failures.getAndDecrement() > 0) {
+            throw new IOException("下游不可用");
+        }
+        received.addAll(messages);
+    }
+
+    public void failNext(UUID accountId, int times) {
+        failuresRemaining.put(accountId, new AtomicInteger(times));
+    }
+
+    public List<OutboxMessage> receivedFor(UUID accountId) {
+        return received.stream().filter(m -> m.accountId().equals(accountId)).toList();
+    }
+}
@@ -0,0 +1,165 @@
+package com.banking.outbox;
+
+import com.banking.dto.TransactionDTO;
+import com.banking.dto.TransferRequest;
+import com.banking.enums.TransactionEventType;
+import com.banking.enums.TransactionType;
+import com.banking.repository.OutboxEntryRepository;
+import com.banking.repository.OutboxPartitionRepository;
+import com.banking.service.TransactionService;
+import com.banking.shard.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 发件箱集成测试：交易变更随交易提交写入发件箱，投递线程按账户顺序投递并在失败时退避重试
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:outbox-test",
+        "banking.outbox.enabled=true",
+        "banking.outbox.destination=memory",
+        "banking.outbox.poll-interval=PT0.02S",
+        "banking.outbox.initial-backoff=PT0.05S",
+        "banking.outbox.max-backoff=PT0.2S"
+})
+class TransactionOutboxTest {
+
+    @TestConfiguration
+    static class DestinationConfig {
+        @Bean
+        InMemoryOutboxDestination inMemoryOutboxDestination() {
+            return new InMemoryOutboxDestination();
+        }
+    }
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private InMemoryOutboxDestination destination;
+
+    @Autowired
+    private OutboxEntryRepository outboxEntryRepository;
+
+    @Autowired
+    private OutboxPartitionRepository outboxPartitionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void writes_ShouldBeDeliveredInCommitOrderPerAccount() throws Exception {
+        UUID account = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        UUID first = create(account, "100.00");
+        UUID second = create(account, "50.00");
+        TransferRequest transfer = new TransferRequest();
+        transfer.setId(UUID.randomUUID());
+        transfer.setFromAccountId(account);
+        transfer.setToAccountId(other);
+        transfer.setAmount(new BigDecimal("20.00"));
+        transactionService.transfer(transfer);
+        TransactionDTO update = transactionService.getTransaction(first);
+        update.setAmount(new BigDecimal("120.00"));
+        transactionService.updateTransaction(first, update);
+        transactionService.deleteTransaction(second);
+
+        await(() -> destination.receivedFor(account).size() == 5 && destination.receivedFor(other).size() == 1);
+
+        List<OutboxMessage> messages = destination.receivedFor(account);
+        assertEquals(List.of(TransactionEventType.CREATED, TransactionEventType.CREATED, TransactionEventType.CREATED,
+                        TransactionEventType.UPDATED, TransactionEventType.DELETED),
+                messages.stream().map(OutboxMessage::type).toList());
+        assertEquals(List.of(first, second, transfer.getId(), first, second),
+                messages.stream().map(OutboxMessage::transactionId).toList());
+        for (int i = 1; i < messages.size(); i++) {
+            assertTrue(messages.get(i - 1).id() < messages.get(i).id());
+        }
+        TransactionDTO updated = objectMapper.readValue(messages.get(3).transaction(), TransactionDTO.class);
+        assertEquals(0, new BigDecimal("120.00").compareTo(updated.getAmount()));
+        assertEquals(TransactionType.TRANSFER_IN, objectMapper.readValue(
+                destination.receivedFor(other).get(0).transaction(), TransactionDTO.class).getType());
+        await(() -> outboxEntryRepository.count() == 0);
+    }
+
+    @Test
+    void failedDelivery_ShouldRetryWithoutReorderingOrBlockingOtherAccounts() {
+        UUID failing = UUID.randomUUID();
+        UUID healthy = UUID.randomUUID();
+        double failuresBefore = meterRegistry.counter("banking.outbox.failures").count();
+        destination.failNext(failing, 3);
+
+        UUID first = create(failing, "10.00");
+        create(healthy, "10.00");
+        UUID second = create(failing, "20.00");
+
+        await(() -> destination.receivedFor(healthy).size() == 1);
+        await(() -> destination.receivedFor(failing).size() == 2);
+
+        assertEquals(List.of(first, second),
+                destination.receivedFor(failing).stream().map(OutboxMessage::transactionId).toList());
+        assertTrue(meterRegistry.counter("banking.outbox.failures").count() - failuresBefore >= 3);
+    }
+
+    @Test
+    void secondInstance_ShouldSkipPartitionsLeasedByAnother() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InMemoryOutboxDestination otherDestination = new InMemoryOutboxDestination();
+        OutboxDispatcher other = new OutboxDispatcher(outboxEntryRepository, outboxPartitionRepository,
+                transactionTemplate, new ShardRouter(1), otherDestination, 100, 2, Duration.ofMillis(20), Duration.ofSeconds(30),
+                Duration.ofMillis(50), Duration.ofMillis(200), registry);
+        UUID account = UUID.randomUUID();
+
+        create(account, "10.00");
+        other.pollOnce();
+
+        assertEquals(0.0, registry.get("banking.outbox.partitions.owned").gauge().value());
+        assertTrue(otherDestination.receivedFor(account).isEmpty());
+        await(() -> destination.receivedFor(account).size() == 1);
+    }
+
+    private UUID create(UUID accountId, String amount) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(TransactionType.DEPOSIT);
+        dto.setAmount(new BigDecimal(amount));
+        dto.setAccountId(accountId);
+        return transactionService.createTransaction(dto).getId();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "等待投递超时");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
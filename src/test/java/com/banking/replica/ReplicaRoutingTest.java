@@ -0,0 +1,149 @@
+package com.banking.replica;
+
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 读副本路由集成测试：主库与副本是两个互不复制的内存H2，
+ * 只存在于其中一个库的数据可以直接看出读取走了哪个库
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:replica-primary",
+        "banking.replica.enabled=true",
+        "banking.replica.urls=" + ReplicaRoutingTest.REPLICA_URL,
+        "banking.replica.max-staleness=PT30S"
+})
+@AutoConfigureMockMvc
+class ReplicaRoutingTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-test-1;DB_CLOSE_DELAY=-1";
+
+    private static JdbcTemplate replica;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    static void migrateReplica() {
+        // 副本的表结构在真实部署中来自数据库复制，测试中手动迁移
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    }
+
+    @Test
+    void readsWithoutToken_ShouldGoToReplica_AndWritesToPrimary() throws Exception {
+        int replicaRows = replicaRowCount();
+        UUID id = UUID.randomUUID();
+
+        String token = create(id).andExpect(header().exists(ReadConsistency.TOKEN_HEADER))
+                .andReturn().getResponse().getHeader(ReadConsistency.TOKEN_HEADER);
+
+        // 副本没有这笔交易：不带令牌的查询读副本
+        perform(get("/api/transactions/{id}", id)).andExpect(status().isNotFound());
+        perform(get("/api/transactions").param("size", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", not(hasItem(id.toString()))));
+        // 带回令牌后读主库，读到自己的写入
+        perform(get("/api/transactions/{id}", id).header(ReadConsistency.TOKEN_HEADER, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id.toString()));
+        perform(get("/api/transactions").param("size", "1000").header(ReadConsistency.TOKEN_HEADER, token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem(id.toString())));
+
+        assertEquals(replicaRows, replicaRowCount());
+    }
+
+    @Test
+    void readsWithToken_ShouldNotSeeReplicaOnlyRows() throws Exception {
+        UUID id = insertIntoReplica();
+        String token = ReadConsistency.issueToken();
+
+        perform(get("/api/transactions/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id.toString()));
+        perform(get("/api/transactions/{id}", id).header(ReadConsistency.TOKEN_HEADER, token))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void readsWithExpiredToken_ShouldGoToReplica() throws Exception {
+        UUID id = insertIntoReplica();
+        String expired = Long.toString(System.currentTimeMillis() - 60_000);
+
+        perform(get("/api/transactions/{id}", id).header(ReadConsistency.TOKEN_HEADER, expired))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void readsWithMalformedToken_ShouldBeRejected() throws Exception {
+        mockMvc.perform(get("/api/transactions/{id}", UUID.randomUUID())
+                        .header(ReadConsistency.TOKEN_HEADER, "not-a-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ResultActions create(UUID id) throws Exception {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(id);
+        dto.setType(TransactionType.DEPOSIT);
+        dto.setAmount(new BigDecimal("25.00"));
+        dto.setAccountId(UUID.randomUUID());
+        return mockMvc.perform(post("/api/transactions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isOk());
+    }
+
+    /**
+     * 查询接口是异步的，等待执行器完成后再分派结果
+     */
+    private ResultActions perform(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private UUID insertIntoReplica() {
+        UUID id = UUID.randomUUID();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        replica.update("insert into transactions (id, type, amount, account_id, created_at, updated_at, version) "
+                + "values (?, 'DEPOSIT', 5.00, ?, ?, ?, 0)", id, UUID.randomUUID(), now, now);
+        return id;
+    }
+
+    private int replicaRowCount() {
+        return replica.queryForObject("select count(*) from transactions", Integer.class);
+    }
+}
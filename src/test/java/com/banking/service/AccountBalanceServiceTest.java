@@ -0,0 +1,137 @@
+package com.banking.service;
+
+import com.banking.dto.AccountBalanceDTO;
+import com.banking.replica.ReadConsistency;
+import com.banking.repository.AccountBalanceRepository;
+import com.banking.repository.TransactionRepository;
+import com.banking.service.impl.AccountBalanceServiceImpl;
+import com.banking.shard.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AccountBalanceServiceTest {
+    private AccountBalanceService accountBalanceService;
+
+    @Mock
+    private AccountBalanceRepository accountBalanceRepository;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        accountBalanceService = new AccountBalanceServiceImpl(accountBalanceRepository, transactionRepository,
+                new TransactionTemplate(transactionManager), new ShardRouter(1),
+                new ReadConsistency(false, Duration.ofSeconds(5)), 2, false, 1000, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getBalance_ShouldReturnZero_WhenAccountHasNoTransactions() {
+        UUID accountId = UUID.randomUUID();
+        when(accountBalanceRepository.findSnapshot(accountId)).thenReturn(Optional.empty());
+
+        AccountBalanceDTO balance = accountBalanceService.getBalance(accountId);
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(balance.getBalance()));
+        assertEquals(0, balance.getRevision());
+    }
+
+    @Test
+    void applyDelta_ShouldServeNewSnapshotFromMemory() {
+        // 准备测试数据
+        UUID accountId = UUID.randomUUID();
+        AccountBalanceDTO snapshot = new AccountBalanceDTO(accountId, new BigDecimal("150.00"), 2, LocalDateTime.now());
+
+        // 设置模拟行为
+        when(accountBalanceRepository.addDelta(eq(accountId), eq(new BigDecimal("50.00")), any())).thenReturn(1);
+        when(accountBalanceRepository.findSnapshot(accountId)).thenReturn(Optional.of(snapshot));
+
+        // 执行测试
+        accountBalanceService.applyDelta(accountId, new BigDecimal("50.00"));
+        AccountBalanceDTO first = accountBalanceService.getBalance(accountId);
+        AccountBalanceDTO second = accountBalanceService.getBalance(accountId);
+
+        // 验证结果：提交后的快照直接从内存读取，不再查库
+        assertEquals(snapshot, first);
+        assertEquals(snapshot, second);
+        verify(accountBalanceRepository, times(1)).findSnapshot(accountId);
+    }
+
+    @Test
+    void getBalance_ShouldReloadSnapshot_AfterCacheExpires() throws InterruptedException {
+        // 准备测试数据：另一个实例在本实例读取之后提交了新的余额
+        AccountBalanceService shortLived = new AccountBalanceServiceImpl(accountBalanceRepository,
+                transactionRepository, new TransactionTemplate(transactionManager), new ShardRouter(1),
+                new ReadConsistency(false, Duration.ofSeconds(5)), 2, false, 1000, Duration.ofMillis(50));
+        UUID accountId = UUID.randomUUID();
+        AccountBalanceDTO before = new AccountBalanceDTO(accountId, new BigDecimal("100.00"), 1, LocalDateTime.now());
+        AccountBalanceDTO after = new AccountBalanceDTO(accountId, new BigDecimal("70.00"), 2, LocalDateTime.now());
+        when(accountBalanceRepository.findSnapshot(accountId)).thenReturn(Optional.of(before), Optional.of(after));
+
+        // 执行测试
+        AccountBalanceDTO first = shortLived.getBalance(accountId);
+        AccountBalanceDTO cached = shortLived.getBalance(accountId);
+        Thread.sleep(200);
+        AccountBalanceDTO reloaded = shortLived.getBalance(accountId);
+
+        // 验证结果：过期前读内存，过期后重新读库看到其他实例的写入
+        assertEquals(before, first);
+        assertEquals(before, cached);
+        assertEquals(after, reloaded);
+        verify(accountBalanceRepository, times(2)).findSnapshot(accountId);
+    }
+
+    @Test
+    void rebuild_ShouldRecomputeEveryAccountFromLedger() {
+        // 准备测试数据
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+
+        // 设置模拟行为
+        when(transactionRepository.findDistinctAccountIds()).thenReturn(List.of(first));
+        when(accountBalanceRepository.findAllAccountIds()).thenReturn(List.of(first, second));
+        when(accountBalanceRepository.findExistingAccountIds(anyCollection())).thenReturn(List.of(first, second));
+        when(transactionRepository.sumSignedAmountByAccount(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{first, new BigDecimal("80.00")}));
+
+        // 执行测试
+        int rebuilt = accountBalanceService.rebuild();
+
+        // 验证结果：先锁余额行再读取账本汇总，并发增量不会在求和与写回之间丢失
+        assertEquals(2, rebuilt);
+        InOrder inOrder = inOrder(accountBalanceRepository, transactionRepository);
+        inOrder.verify(accountBalanceRepository).lockAccounts(List.of(first, second));
+        inOrder.verify(transactionRepository).sumSignedAmountByAccount(List.of(first, second));
+        verify(accountBalanceRepository).saveAll(argThat(balances -> {
+            BigDecimal total = BigDecimal.ZERO;
+            int count = 0;
+            for (var balance : balances) {
+                total = total.add(balance.getBalance());
+                count++;
+            }
+            return count == 2 && new BigDecimal("80.00").compareTo(total) == 0;
+        }));
+    }
+}
@@ -0,0 +1,151 @@
+package com.banking.service;
+
+import com.banking.dto.ImportJobDTO;
+import com.banking.dto.ImportRejectionDTO;
+import com.banking.dto.TransactionDTO;
+import com.banking.entity.ImportJob;
+import com.banking.enums.ImportStatus;
+import com.banking.enums.LedgerFormat;
+import com.banking.enums.TransactionType;
+import com.banking.repository.ImportJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 批量导入集成测试：小分块使一个文件跨越多个并行分块，验证计数、拒绝原因、余额以及从检查点恢复后不重复导入
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "banking.import.chunk-size=3"})
+class BulkImportTest {
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+
+    @Autowired
+    private ImportJobRepository importJobRepository;
+
+    @Test
+    void importCsv_ShouldImportValidRowsAndReportRejections() throws Exception {
+        UUID accountId = UUID.randomUUID();
+        UUID repeated = UUID.randomUUID();
+        String csv = "id,type,amount,accountId,relatedAccountId,description,createdAt,updatedAt\r\n"
+                + row(repeated, "DEPOSIT", "100.00", accountId, "工资") + "\r\n"
+                + row(UUID.randomUUID(), "WITHDRAWAL", "30.00", accountId, "\"房租,\n二月\"") + "\r\n"
+                + row(UUID.randomUUID(), "DEPOSIT", "-5", accountId, "") + "\r\n"
+                + "not-a-uuid,DEPOSIT,1,," + accountId + ",,,\r\n"
+                + row(repeated, "DEPOSIT", "100.00", accountId, "重复") + "\r\n"
+                + "\r\n"
+                + row(UUID.randomUUID(), "DEPOSIT", "20.50", accountId, "") + "\r\n"
+                + row(UUID.randomUUID(), "WITHDRAWAL", "0.50", accountId, "") + "\r\n";
+
+        ImportJobDTO job = awaitCompletion(importService.startImport(LedgerFormat.CSV, stream(csv)).getId());
+
+        assertEquals(ImportStatus.COMPLETED, job.getStatus());
+        assertEquals(4, job.getImportedRows());
+        assertEquals(1, job.getDuplicateRows());
+        assertEquals(2, job.getRejectedRows());
+        assertEquals(job.getTotalBytes(), job.getProcessedBytes());
+        assertEquals(0, new BigDecimal("90.00").compareTo(accountBalanceService.getBalance(accountId).getBalance()));
+
+        List<ImportRejectionDTO> rejections = importService.getRejections(job.getId(), 0, 10);
+        assertEquals(2, rejections.size());
+        // 第3行的描述跨两行，后续记录的行号随之后移
+        assertEquals(5, rejections.get(0).getLineNumber());
+        assertEquals("金额必须大于0", rejections.get(0).getReason());
+        assertEquals(6, rejections.get(1).getLineNumber());
+        assertTrue(rejections.get(1).getReason().startsWith("字段 id 格式错误"));
+        assertEquals(List.of(rejections.get(1)), importService.getRejections(job.getId(), 5, 10));
+    }
+
+    @Test
+    void importNdjson_ShouldCountExistingTransactionsAsDuplicates() throws Exception {
+        UUID accountId = UUID.randomUUID();
+        TransactionDTO existing = new TransactionDTO();
+        existing.setId(UUID.randomUUID());
+        existing.setType(TransactionType.DEPOSIT);
+        existing.setAmount(new BigDecimal("10.00"));
+        existing.setAccountId(accountId);
+        transactionService.createTransaction(existing);
+
+        StringBuilder ndjson = new StringBuilder();
+        ndjson.append(json(existing.getId(), "DEPOSIT", "10.00", accountId)).append('\n');
+        for (int i = 0; i < 7; i++) {
+            ndjson.append(json(UUID.randomUUID(), "DEPOSIT", "1.00", accountId)).append('\n');
+        }
+        ndjson.append("{\"id\":\"").append(UUID.randomUUID()).append("\",\"type\":\"DEPOSIT\"}\n");
+
+        ImportJobDTO job = awaitCompletion(importService.startImport(LedgerFormat.NDJSON, stream(ndjson.toString())).getId());
+
+        assertEquals(ImportStatus.COMPLETED, job.getStatus());
+        assertEquals(7, job.getImportedRows());
+        assertEquals(1, job.getDuplicateRows());
+        assertEquals(1, job.getRejectedRows());
+        assertEquals("账户ID不能为空; 金额不能为空", importService.getRejections(job.getId(), 0, 10).get(0).getReason());
+        assertEquals(0, new BigDecimal("17.00").compareTo(accountBalanceService.getBalance(accountId).getBalance()));
+    }
+
+    @Test
+    void resume_ShouldSkipCommittedChunks() throws Exception {
+        UUID accountId = UUID.randomUUID();
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            ndjson.append(json(UUID.randomUUID(), "DEPOSIT", "1.00", accountId)).append('\n');
+        }
+        ImportJobDTO completed = awaitCompletion(
+                importService.startImport(LedgerFormat.NDJSON, stream(ndjson.toString())).getId());
+
+        // 模拟检查点落后于已提交分块时进程中断：恢复后重新读取的分块应全部跳过
+        ImportJob job = importJobRepository.findById(completed.getId()).orElseThrow();
+        job.setCheckpointOffset(0);
+        job.setCheckpointLine(0);
+        job.setStatus(ImportStatus.INTERRUPTED);
+        importJobRepository.save(job);
+
+        importService.resume(job.getId());
+        ImportJobDTO resumed = awaitCompletion(job.getId());
+
+        assertEquals(ImportStatus.COMPLETED, resumed.getStatus());
+        assertEquals(10, resumed.getImportedRows());
+        assertEquals(0, resumed.getDuplicateRows());
+        assertEquals(resumed.getTotalBytes(), resumed.getProcessedBytes());
+        assertEquals(0, new BigDecimal("10.00").compareTo(accountBalanceService.getBalance(accountId).getBalance()));
+    }
+
+    private ImportJobDTO awaitCompletion(UUID id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        ImportJobDTO job = importService.getJob(id);
+        while (job.getStatus() == ImportStatus.RUNNING && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            job = importService.getJob(id);
+        }
+        return job;
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String row(UUID id, String type, String amount, UUID accountId, String description) {
+        return id + "," + type + "," + amount + "," + accountId + ",," + description + ",2020-01-01T08:00:00,";
+    }
+
+    private static String json(UUID id, String type, String amount, UUID accountId) {
+        return "{\"id\":\"" + id + "\",\"type\":\"" + type + "\",\"amount\":" + amount
+                + ",\"accountId\":\"" + accountId + "\",\"createdAt\":\"2020-01-01T08:00:00\"}";
+    }
+}
@@ -0,0 +1,198 @@
+package com.banking.service;
+
+import com.banking.dto.IdempotentResponse;
+import com.banking.dto.TransactionDTO;
+import com.banking.entity.IdempotencyRecord;
+import com.banking.enums.TransactionType;
+import com.banking.exception.DuplicateTransactionException;
+import com.banking.exception.IdempotencyKeyMismatchException;
+import com.banking.repository.IdempotencyRecordRepository;
+import com.banking.service.impl.IdempotencyServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTest {
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService idempotencyService;
+    private TransactionDTO request;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        idempotencyService = newService();
+        request = new TransactionDTO();
+        request.setId(UUID.randomUUID());
+        request.setType(TransactionType.DEPOSIT);
+        request.setAmount(new BigDecimal("100.00"));
+        request.setAccountId(UUID.randomUUID());
+        when(idempotencyRecordRepository.findById(anyString())).thenReturn(Optional.empty());
+    }
+
+    private IdempotencyService newService() {
+        return new IdempotencyServiceImpl(idempotencyRecordRepository, new TransactionTemplate(transactionManager),
+                objectMapper, Duration.ofHours(24), Duration.ofSeconds(5), 1000);
+    }
+
+    @Test
+    void execute_ShouldReplayStoredResponse_WhenKeyRepeated() {
+        // 准备测试数据
+        AtomicInteger calls = new AtomicInteger();
+
+        // 执行测试
+        IdempotentResponse<TransactionDTO> first = idempotencyService.execute("createTransaction", "k1", request,
+                TransactionDTO.class, () -> created(calls));
+        IdempotentResponse<TransactionDTO> second = idempotencyService.execute("createTransaction", "k1", request,
+                TransactionDTO.class, () -> created(calls));
+
+        // 验证结果
+        assertFalse(first.replayed());
+        assertTrue(second.replayed());
+        assertEquals(first.body(), second.body());
+        assertEquals(1, calls.get());
+
+        // 验证交互
+        verify(idempotencyRecordRepository).saveAndFlush(any(IdempotencyRecord.class));
+        verify(idempotencyRecordRepository).complete(eq("createTransaction:k1"), anyString());
+    }
+
+    @Test
+    void execute_ShouldRejectDifferentRequest_WhenKeyReused() {
+        // 准备测试数据
+        AtomicInteger calls = new AtomicInteger();
+        idempotencyService.execute("createTransaction", "k1", request, TransactionDTO.class, () -> created(calls));
+        TransactionDTO other = new TransactionDTO();
+        other.setId(UUID.randomUUID());
+
+        // 执行测试并验证结果
+        assertThrows(IdempotencyKeyMismatchException.class, () -> idempotencyService.execute(
+                "createTransaction", "k1", other, TransactionDTO.class, () -> created(calls)));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_ShouldReadPersistedResponse_WhenNotInLocalCache() throws Exception {
+        // 准备测试数据：先由一个实例执行并保存响应
+        AtomicInteger calls = new AtomicInteger();
+        IdempotencyRecord record = new IdempotencyRecord();
+        doAnswer(invocation -> {
+            IdempotencyRecord saved = invocation.getArgument(0);
+            record.setKey(saved.getKey());
+            record.setFingerprint(saved.getFingerprint());
+            record.setCreatedAt(saved.getCreatedAt());
+            record.setExpiresAt(saved.getExpiresAt());
+            return saved;
+        }).when(idempotencyRecordRepository).saveAndFlush(any(IdempotencyRecord.class));
+        TransactionDTO first = idempotencyService.execute("createTransaction", "k1", request, TransactionDTO.class,
+                () -> created(calls)).body();
+        record.setResponseBody(objectMapper.writeValueAsString(first));
+
+        // 设置模拟行为
+        when(idempotencyRecordRepository.findById("createTransaction:k1")).thenReturn(Optional.of(record));
+
+        // 执行测试：新实例的本地缓存为空
+        IdempotentResponse<TransactionDTO> replay = newService().execute("createTransaction", "k1", request,
+                TransactionDTO.class, () -> created(calls));
+
+        // 验证结果
+        assertTrue(replay.replayed());
+        assertEquals(first, replay.body());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_ShouldWaitForInFlightRequest_WhenDuplicateArrivesConcurrently() throws Exception {
+        // 准备测试数据
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // 执行测试
+        CompletableFuture<IdempotentResponse<TransactionDTO>> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("createTransaction", "k1", request, TransactionDTO.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return created(calls);
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<IdempotentResponse<TransactionDTO>> second = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("createTransaction", "k1", request, TransactionDTO.class,
+                        () -> created(calls)));
+        Thread.sleep(100);
+        assertFalse(second.isDone());
+        release.countDown();
+
+        // 验证结果
+        assertEquals(first.get(5, TimeUnit.SECONDS).body(), second.get(5, TimeUnit.SECONDS).body());
+        assertTrue(second.get().replayed());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_ShouldReleaseKey_WhenActionFails() {
+        // 准备测试数据
+        AtomicInteger calls = new AtomicInteger();
+
+        // 执行测试
+        assertThrows(DuplicateTransactionException.class, () -> idempotencyService.execute("createTransaction", "k1",
+                request, TransactionDTO.class, () -> {
+                    throw new DuplicateTransactionException("重复");
+                }));
+        IdempotentResponse<TransactionDTO> retry = idempotencyService.execute("createTransaction", "k1", request,
+                TransactionDTO.class, () -> created(calls));
+
+        // 验证结果
+        assertFalse(retry.replayed());
+        assertEquals(1, calls.get());
+
+        // 验证交互
+        verify(idempotencyRecordRepository).deleteById("createTransaction:k1");
+    }
+
+    private TransactionDTO created(AtomicInteger calls) {
+        calls.incrementAndGet();
+        TransactionDTO created = new TransactionDTO();
+        created.setId(request.getId());
+        created.setType(request.getType());
+        created.setAmount(request.getAmount());
+        created.setAccountId(request.getAccountId());
+        created.setCreatedAt(LocalDateTime.now());
+        created.setUpdatedAt(created.getCreatedAt());
+        return created;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
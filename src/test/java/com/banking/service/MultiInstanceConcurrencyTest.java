@@ -0,0 +1,179 @@
+package com.banking.service;
+
+import com.banking.BankingSystemApplication;
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionType;
+import com.banking.exception.DuplicateTransactionException;
+import com.banking.repository.AccountBalanceRepository;
+import com.banking.repository.TransactionRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 两个应用上下文共享同一个文件型H2数据库，模拟多副本部署：
+ * 各自的条带锁与缓存互不可见，重复检测和并发更新只能依赖数据库约束与乐观锁
+ */
+class MultiInstanceConcurrencyTest {
+    private static final int THREADS_PER_INSTANCE = 8;
+
+    @TempDir
+    static Path dataDir;
+
+    private static ConfigurableApplicationContext first;
+    private static ConfigurableApplicationContext second;
+
+    @BeforeAll
+    static void startInstances() {
+        String url = "jdbc:h2:file:" + dataDir.resolve("bankingdb").toAbsolutePath() + ";LOCK_TIMEOUT=10000";
+        first = startInstance(url);
+        second = startInstance(url);
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        if (second != null) {
+            second.close();
+        }
+        if (first != null) {
+            first.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext startInstance(String url) {
+        return new SpringApplicationBuilder(BankingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                // 以命令行参数传入，默认属性的优先级低于 application.yml，无法覆盖数据源地址
+                .run("--spring.datasource.url=" + url,
+                        "--spring.jpa.show-sql=false",
+                        "--spring.h2.console.enabled=false");
+    }
+
+    @Test
+    void concurrentCreatesOfSameIds_ShouldSucceedExactlyOnce() throws Exception {
+        List<TransactionDTO> transactions = new ArrayList<>();
+        UUID accountId = UUID.randomUUID();
+        for (int i = 0; i < 200; i++) {
+            transactions.add(deposit(UUID.randomUUID(), accountId, BigDecimal.TEN));
+        }
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+
+        runOnBothInstances(service -> {
+            for (TransactionDTO transaction : transactions) {
+                try {
+                    service.createTransaction(transaction);
+                    created.incrementAndGet();
+                } catch (DuplicateTransactionException e) {
+                    duplicates.incrementAndGet();
+                }
+            }
+        });
+
+        int attempts = 2 * THREADS_PER_INSTANCE * transactions.size();
+        assertEquals(transactions.size(), created.get());
+        assertEquals(attempts - transactions.size(), duplicates.get());
+        assertBalancesMatchLedger();
+    }
+
+    @Test
+    void concurrentUpdatesOfSameRows_ShouldKeepBalancesConsistent() throws Exception {
+        List<UUID> accounts = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        List<UUID> ids = new ArrayList<>();
+        TransactionService seed = first.getBean(TransactionService.class);
+        for (int i = 0; i < 20; i++) {
+            UUID id = UUID.randomUUID();
+            seed.createTransaction(deposit(id, accounts.get(i % accounts.size()), BigDecimal.TEN));
+            ids.add(id);
+        }
+        AtomicInteger updated = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+
+        runOnBothInstances(service -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 50; i++) {
+                UUID id = ids.get(random.nextInt(ids.size()));
+                TransactionDTO change = deposit(id, accounts.get(random.nextInt(accounts.size())),
+                        BigDecimal.valueOf(random.nextInt(1, 1000)));
+                change.setType(random.nextBoolean() ? TransactionType.DEPOSIT : TransactionType.WITHDRAWAL);
+                try {
+                    service.updateTransaction(id, change);
+                    updated.incrementAndGet();
+                } catch (OptimisticLockingFailureException e) {
+                    // 重试次数用尽，本次更新整体回滚，不影响一致性
+                    conflicts.incrementAndGet();
+                }
+            }
+        });
+
+        int attempts = 2 * THREADS_PER_INSTANCE * 50;
+        assertEquals(attempts, updated.get() + conflicts.get());
+        assertBalancesMatchLedger();
+    }
+
+    private interface InstanceWork {
+        void run(TransactionService service);
+    }
+
+    private void runOnBothInstances(InstanceWork work) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2 * THREADS_PER_INSTANCE);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (ConfigurableApplicationContext context : List.of(first, second)) {
+                TransactionService service = context.getBean(TransactionService.class);
+                for (int t = 0; t < THREADS_PER_INSTANCE; t++) {
+                    futures.add(executor.submit(() -> work.run(service)));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertBalancesMatchLedger() {
+        TransactionRepository transactionRepository = first.getBean(TransactionRepository.class);
+        AccountBalanceRepository accountBalanceRepository = first.getBean(AccountBalanceRepository.class);
+
+        List<UUID> accountIds = transactionRepository.findDistinctAccountIds();
+        Map<UUID, BigDecimal> ledger = new HashMap<>();
+        for (Object[] row : transactionRepository.sumSignedAmountByAccount(accountIds)) {
+            ledger.put((UUID) row[0], (BigDecimal) row[1]);
+        }
+        accountBalanceRepository.findAll().forEach(balance -> assertEquals(0,
+                ledger.getOrDefault(balance.getAccountId(), BigDecimal.ZERO).compareTo(balance.getBalance()),
+                "账户 " + balance.getAccountId() + " 的余额与账本不一致"));
+    }
+
+    private static TransactionDTO deposit(UUID id, UUID accountId, BigDecimal amount) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(id);
+        dto.setType(TransactionType.DEPOSIT);
+        dto.setAmount(amount);
+        dto.setAccountId(accountId);
+        return dto;
+    }
+}
@@ -0,0 +1,102 @@
+package com.banking.service;
+
+import com.banking.BankingSystemApplication;
+import com.banking.dto.TransactionDTO;
+import com.banking.enums.TransactionType;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * prod 配置：文件型H2由Flyway建表，数据在应用重启后仍然存在，余额投影从持久化的余额表恢复
+ */
+class ProductionProfileTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void prodProfile_ShouldMigrateSchemaAndPersistAcrossRestarts() {
+        TransactionDTO deposit = new TransactionDTO();
+        deposit.setId(UUID.randomUUID());
+        deposit.setType(TransactionType.DEPOSIT);
+        deposit.setAmount(new BigDecimal("42.50"));
+        deposit.setAccountId(UUID.randomUUID());
+
+        try (ConfigurableApplicationContext context = start()) {
+            assertFalse(context.getEnvironment().getProperty("spring.jpa.show-sql", Boolean.class));
+            assertEquals("4", context.getBean(Flyway.class).info().current().getVersion().getVersion());
+            context.getBean(TransactionService.class).createTransaction(deposit);
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            assertNotNull(context.getBean(TransactionService.class).getTransaction(deposit.getId()));
+            assertEquals(0, deposit.getAmount().compareTo(context.getBean(AccountBalanceService.class)
+                    .getBalance(deposit.getAccountId()).getBalance()));
+        }
+    }
+
+    @Test
+    void prodProfile_ShouldAdoptLegacyDdlAutoSchema() throws SQLException {
+        // 旧版由 ddl-auto: update 建出的库：只有 transactions 表，没有 version 列、索引与其他表
+        UUID accountId = UUID.randomUUID();
+        UUID legacyId = UUID.randomUUID();
+        try (Connection connection = DriverManager.getConnection(
+                "jdbc:h2:file:" + dataDir.toAbsolutePath() + "/bankingdb", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table transactions (amount numeric(19,4) not null, "
+                    + "created_at timestamp(6) not null, updated_at timestamp(6) not null, account_id uuid not null, "
+                    + "id uuid not null, related_account_id uuid, description varchar(255), "
+                    + "type varchar(255) not null check (type in ('DEPOSIT','WITHDRAWAL','TRANSFER_OUT','TRANSFER_IN')), "
+                    + "primary key (id))");
+            statement.execute("insert into transactions (amount, created_at, updated_at, account_id, id, type) values "
+                    + "(100.00, localtimestamp, localtimestamp, '" + accountId + "', '" + legacyId + "', 'DEPOSIT'), "
+                    + "(30.00, localtimestamp, localtimestamp, '" + accountId + "', '" + UUID.randomUUID()
+                    + "', 'WITHDRAWAL')");
+        }
+
+        TransactionDTO withdrawal = new TransactionDTO();
+        withdrawal.setId(UUID.randomUUID());
+        withdrawal.setType(TransactionType.WITHDRAWAL);
+        withdrawal.setAmount(new BigDecimal("20.00"));
+        withdrawal.setAccountId(accountId);
+
+        try (ConfigurableApplicationContext context = start()) {
+            assertEquals("4", context.getBean(Flyway.class).info().current().getVersion().getVersion());
+            TransactionService transactionService = context.getBean(TransactionService.class);
+            AccountBalanceService balanceService = context.getBean(AccountBalanceService.class);
+            assertEquals(accountId, transactionService.getTransaction(legacyId).getAccountId());
+            assertEquals(0, new BigDecimal("70.00").compareTo(balanceService.getBalance(accountId).getBalance()));
+
+            // 旧行补上了版本号，可以照常修改；新写入在补建的余额上累加
+            TransactionDTO update = transactionService.getTransaction(legacyId);
+            update.setDescription("迁移后修改");
+            transactionService.updateTransaction(legacyId, update);
+            transactionService.createTransaction(withdrawal);
+            assertEquals(0, new BigDecimal("50.00").compareTo(balanceService.getBalance(accountId).getBalance()));
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(BankingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=prod",
+                        "--BANKING_DATA_DIR=" + dataDir.toAbsolutePath(),
+                        "--BANKING_DB_POOL_SIZE=4");
+    }
+}
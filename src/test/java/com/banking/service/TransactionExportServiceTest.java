@@ -0,0 +1,144 @@
+package com.banking.service;
+
+import com.banking.entity.Transaction;
+import com.banking.enums.LedgerFormat;
+import com.banking.enums.TransactionType;
+import com.banking.exception.InvalidTransactionException;
+import com.banking.mapper.TransactionMapper;
+import com.banking.repository.TransactionRepository;
+import com.banking.service.impl.TransactionExportServiceImpl;
+import com.banking.shard.ShardRouter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TransactionExportServiceTest {
+    private TransactionExportService transactionExportService;
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private Transaction deposit;
+    private Transaction transferOut;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        transactionExportService = new TransactionExportServiceImpl(transactionRepository, new TransactionMapper(),
+                objectMapper, new TransactionTemplate(transactionManager), new ShardRouter(1), 2);
+
+        deposit = transaction(TransactionType.DEPOSIT, "工资");
+        transferOut = transaction(TransactionType.TRANSFER_OUT, "房租, 含\"物业费\"");
+        transferOut.setRelatedAccountId(UUID.randomUUID());
+    }
+
+    @Test
+    void export_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        // 准备测试数据
+        UUID accountId = deposit.getAccountId();
+        AtomicBoolean closed = new AtomicBoolean();
+        when(transactionRepository.streamForExport(eq(accountId), any(), any(), eq(2)))
+                .thenReturn(Stream.of(deposit, transferOut).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // 执行测试
+        long rows = transactionExportService.export(LedgerFormat.NDJSON, accountId, null, null, out);
+
+        // 验证结果
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, rows);
+        assertEquals(2, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(deposit.getId().toString(), first.get("id").asText());
+        assertEquals("DEPOSIT", first.get("type").asText());
+        assertEquals(transferOut.getRelatedAccountId().toString(),
+                objectMapper.readTree(lines[1]).get("relatedAccountId").asText());
+        assertTrue(closed.get(), "导出结束后必须关闭结果流以释放游标");
+    }
+
+    @Test
+    void export_ShouldFlushJsonOnlyEveryFetchSizeRows() throws Exception {
+        when(transactionRepository.streamForExport(any(), any(), any(), anyInt()))
+                .thenReturn(Stream.of(deposit, transferOut, deposit, transferOut, deposit));
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        transactionExportService.export(LedgerFormat.NDJSON, null, null, null, out);
+
+        // 第2、4行各刷出一次，结束时生成器与写出器各刷出一次；不随每行刷出
+        assertEquals(4, flushes.get());
+    }
+
+    @Test
+    void export_ShouldWriteCsvWithHeaderAndEscapedFields() throws Exception {
+        // 准备测试数据
+        when(transactionRepository.streamForExport(any(), any(), any(), anyInt()))
+                .thenReturn(Stream.of(deposit, transferOut));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // 执行测试
+        transactionExportService.export(LedgerFormat.CSV, null, null, null, out);
+
+        // 验证结果
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,type,amount,accountId,relatedAccountId,description,createdAt,updatedAt", lines[0]);
+        assertTrue(lines[1].startsWith(deposit.getId() + ",DEPOSIT,100.00," + deposit.getAccountId() + ",,工资,"));
+        assertTrue(lines[2].contains(",\"房租, 含\"\"物业费\"\"\","));
+    }
+
+    @Test
+    void export_ShouldRejectInvalidRange() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(InvalidTransactionException.class, () -> transactionExportService.export(
+                LedgerFormat.CSV, null, now, now.minusDays(1), new ByteArrayOutputStream()));
+
+        verifyNoInteractions(transactionRepository);
+    }
+
+    private static Transaction transaction(TransactionType type, String description) {
+        Transaction transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
+        transaction.setType(type);
+        transaction.setAmount(new BigDecimal("100.00"));
+        transaction.setAccountId(UUID.randomUUID());
+        transaction.setDescription(description);
+        transaction.setCreatedAt(LocalDateTime.now());
+        transaction.setUpdatedAt(LocalDateTime.now());
+        transaction.setVersion(0L);
+        return transaction;
+    }
+}
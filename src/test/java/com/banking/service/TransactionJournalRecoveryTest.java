@@ -0,0 +1,189 @@
+package com.banking.service;
+
+import com.banking.BankingSystemApplication;
+import com.banking.dto.TransactionDTO;
+import com.banking.entity.Transaction;
+import com.banking.enums.TransactionType;
+import com.banking.exception.DuplicateTransactionException;
+import com.banking.journal.TransactionJournal;
+import com.banking.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 预写日志：已确认的交易在进程崩溃后由下一次启动重放写入数据库，重复写入按交易ID去重，
+ * 崩溃时写了一半的记录由校验和识别并忽略
+ */
+class TransactionJournalRecoveryTest {
+    private static final int TRANSACTIONS = 100;
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void acknowledgedTransactions_ShouldSurviveCrashAndReplayOnce() throws IOException {
+        UUID accountId = UUID.randomUUID();
+        Path crashedJournal = dataDir.resolve("journal-crashed");
+
+        // 刷写间隔设为1小时，确认后的交易只存在于日志中
+        ConfigurableApplicationContext crashed = start(dataDir.resolve("journal"), "PT1H");
+        try {
+            TransactionService service = crashed.getBean(TransactionService.class);
+            for (int i = 0; i < TRANSACTIONS; i++) {
+                service.createTransaction(deposit(accountId));
+            }
+            TransactionDTO last = deposit(accountId);
+            service.createTransaction(last);
+            assertThrows(DuplicateTransactionException.class, () -> service.createTransaction(last));
+            assertNotNull(service.getTransaction(last.getId()));
+            assertEquals(0, crashed.getBean(TransactionRepository.class).count());
+
+            // 复制确认时已落盘的日志模拟崩溃现场，并在末尾追加一条写了一半的记录
+            copyJournal(dataDir.resolve("journal"), crashedJournal);
+            appendTornRecord(crashedJournal);
+
+            try (ConfigurableApplicationContext recovered = start(crashedJournal, "PT0.02S")) {
+                assertEquals(TRANSACTIONS + 1, recovered.getBean(TransactionRepository.class).count());
+                assertNotNull(recovered.getBean(TransactionService.class).getTransaction(last.getId()));
+
+                // 原进程关闭时再次写入同一批交易，按ID去重后不会重复入账
+                crashed.close();
+                assertEquals(TRANSACTIONS + 1, recovered.getBean(TransactionRepository.class).count());
+                assertEquals(0, BigDecimal.valueOf(TRANSACTIONS + 1).compareTo(
+                        recovered.getBean(AccountBalanceService.class).getBalance(accountId).getBalance()));
+            }
+        } finally {
+            crashed.close();
+        }
+
+        // 重放成功后推进了检查点，再次启动不会重放
+        try (ConfigurableApplicationContext restarted = start(crashedJournal, "PT0.02S")) {
+            assertEquals(TRANSACTIONS + 1, restarted.getBean(TransactionRepository.class).count());
+            assertEquals(0, BigDecimal.valueOf(TRANSACTIONS + 1).compareTo(
+                    restarted.getBean(AccountBalanceService.class).getBalance(accountId).getBalance()));
+        }
+    }
+
+    @Test
+    void updateAndDelete_ShouldFlushPendingTransactionFirst() {
+        UUID accountId = UUID.randomUUID();
+        // 刷写间隔设为1小时，只有修改、删除前的强制刷写会把交易写入数据库
+        try (ConfigurableApplicationContext context = start(dataDir.resolve("journal"), "PT1H")) {
+            TransactionService service = context.getBean(TransactionService.class);
+            TransactionRepository repository = context.getBean(TransactionRepository.class);
+            AccountBalanceService balances = context.getBean(AccountBalanceService.class);
+
+            TransactionDTO created = service.createTransaction(deposit(accountId));
+            assertEquals(0, repository.count());
+            created.setAmount(new BigDecimal("5"));
+            service.updateTransaction(created.getId(), created);
+            assertEquals(1, repository.count());
+            assertEquals(0, new BigDecimal("5").compareTo(balances.getBalance(accountId).getBalance()));
+
+            TransactionDTO deleted = service.createTransaction(deposit(accountId));
+            service.deleteTransaction(deleted.getId());
+            assertTrue(repository.findById(deleted.getId()).isEmpty());
+            assertEquals(0, new BigDecimal("5").compareTo(balances.getBalance(accountId).getBalance()));
+        }
+    }
+
+    @Test
+    void append_ShouldRejectAndReleaseId_WhenAlreadyStored() {
+        // 刷写线程在两次检查之间提交并移出 pending 的时序：ID不在日志中，但已在数据库中
+        try (TransactionJournal journal = new TransactionJournal(dataDir.resolve("journal"), 4096,
+                Duration.ofMillis(1), 16, Duration.ofHours(1), 100, new SimpleMeterRegistry())) {
+            journal.start(batch -> {
+            });
+            Transaction transaction = new Transaction();
+            transaction.setId(UUID.randomUUID());
+            transaction.setType(TransactionType.DEPOSIT);
+            transaction.setAmount(BigDecimal.ONE);
+            transaction.setAccountId(UUID.randomUUID());
+            transaction.setCreatedAt(LocalDateTime.now());
+            transaction.setUpdatedAt(transaction.getCreatedAt());
+
+            assertThrows(DuplicateTransactionException.class, () -> journal.append(transaction, id -> true));
+            assertTrue(journal.findPending(transaction.getId()).isEmpty());
+
+            journal.append(transaction, id -> false);
+            assertTrue(journal.findPending(transaction.getId()).isPresent());
+        }
+    }
+
+    private ConfigurableApplicationContext start(Path journalDir, String flushInterval) {
+        return new SpringApplicationBuilder(BankingSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=prod",
+                        "--BANKING_DATA_DIR=" + dataDir.toAbsolutePath(),
+                        "--BANKING_DB_POOL_SIZE=4",
+                        "--banking.journal.enabled=true",
+                        "--banking.journal.directory=" + journalDir.toAbsolutePath(),
+                        // 段很小，100条交易会跨越多个段
+                        "--banking.journal.segment-size=4KB",
+                        "--banking.journal.sync-interval=PT0.001S",
+                        "--banking.journal.flush-interval=" + flushInterval);
+    }
+
+    private static TransactionDTO deposit(UUID accountId) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(TransactionType.DEPOSIT);
+        dto.setAmount(BigDecimal.ONE);
+        dto.setAccountId(accountId);
+        dto.setDescription("日志恢复");
+        return dto;
+    }
+
+    private static void copyJournal(Path from, Path to) throws IOException {
+        Files.createDirectories(to);
+        try (Stream<Path> files = Files.list(from)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, to.resolve(file.getFileName()));
+            }
+        }
+    }
+
+    /**
+     * 在最后一个段的数据末尾写入长度完整但校验和不匹配的记录
+     */
+    private static void appendTornRecord(Path journalDir) throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(journalDir)) {
+            segments = files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+        assertTrue(segments.size() > 1);
+        try (RandomAccessFile file = new RandomAccessFile(segments.get(segments.size() - 1).toFile(), "rw")) {
+            long position = 0;
+            file.seek(position);
+            int length;
+            while ((length = file.readInt()) > 0) {
+                position += 8 + length;
+                file.seek(position);
+            }
+            file.seek(position);
+            file.writeInt(16);
+            file.writeInt(0xDEADBEEF);
+            file.write(new byte[]{1, 2, 3});
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.banking.service;
+
+import com.banking.dto.RollupBucketDTO;
+import com.banking.dto.TransactionDTO;
+import com.banking.dto.TransferRequest;
+import com.banking.entity.Transaction;
+import com.banking.enums.RollupGranularity;
+import com.banking.enums.TransactionType;
+import com.banking.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 交易汇总集成测试：写入、更新、删除时增量维护的汇总与按账本回填的结果一致
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class TransactionRollupTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRollupService rollupService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void writes_ShouldMaintainRollupsIncrementally() {
+        UUID account = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        create(account, TransactionType.DEPOSIT, "100.00");
+        UUID smallDeposit = create(account, TransactionType.DEPOSIT, "50.00");
+        UUID withdrawal = create(account, TransactionType.WITHDRAWAL, "30.00");
+        TransferRequest transfer = new TransferRequest();
+        transfer.setId(UUID.randomUUID());
+        transfer.setFromAccountId(account);
+        transfer.setToAccountId(other);
+        transfer.setAmount(new BigDecimal("20.00"));
+        transactionService.transfer(transfer);
+
+        TransactionDTO update = transactionService.getTransaction(withdrawal);
+        update.setAmount(new BigDecimal("40.00"));
+        transactionService.updateTransaction(withdrawal, update);
+        transactionService.deleteTransaction(smallDeposit);
+
+        // 各粒度的合计一致；按类型合计可避免测试恰好跨过小时边界时断言失败
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            Map<TransactionType, RollupBucketDTO> totals = totals(account, granularity);
+            assertTotal(totals.get(TransactionType.DEPOSIT), "100.00", 1);
+            assertTotal(totals.get(TransactionType.WITHDRAWAL), "40.00", 1);
+            assertTotal(totals.get(TransactionType.TRANSFER_OUT), "20.00", 1);
+            assertNull(totals.get(TransactionType.TRANSFER_IN));
+            assertTotal(totals(other, granularity).get(TransactionType.TRANSFER_IN), "20.00", 1);
+        }
+    }
+
+    @Test
+    void backfill_ShouldBucketExistingTransactionsByTime() {
+        UUID account = UUID.randomUUID();
+        LocalDateTime firstDay = LocalDateTime.of(2023, 5, 10, 9, 15);
+        // 直接写入账本，模拟汇总上线前已有的历史交易
+        insertHistorical(account, TransactionType.DEPOSIT, "10.00", firstDay);
+        insertHistorical(account, TransactionType.DEPOSIT, "15.00", firstDay.plusMinutes(30));
+        insertHistorical(account, TransactionType.DEPOSIT, "20.00", firstDay.plusHours(2));
+        insertHistorical(account, TransactionType.WITHDRAWAL, "5.00", firstDay.plusDays(1));
+
+        rollupService.backfill();
+
+        LocalDateTime from = LocalDateTime.of(2023, 5, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 6, 1, 0, 0);
+        List<RollupBucketDTO> hours = rollupService.summary(account, RollupGranularity.HOUR, from, to);
+        assertEquals(3, hours.size());
+        assertEquals(firstDay.withMinute(0), hours.get(0).getBucketStart());
+        assertTotal(hours.get(0), "25.00", 2);
+
+        List<RollupBucketDTO> days = rollupService.summary(account, RollupGranularity.DAY, from, to);
+        assertEquals(2, days.size());
+        assertEquals(LocalDateTime.of(2023, 5, 10, 0, 0), days.get(0).getBucketStart());
+        assertTotal(days.get(0), "45.00", 3);
+        assertEquals(TransactionType.WITHDRAWAL, days.get(1).getType());
+
+        List<RollupBucketDTO> months = rollupService.summary(account, RollupGranularity.MONTH, from, to);
+        assertEquals(2, months.size());
+        assertEquals(from, months.get(0).getBucketStart());
+
+        // 重复回填结果不变
+        rollupService.backfill();
+        assertEquals(days, rollupService.summary(account, RollupGranularity.DAY, from, to));
+    }
+
+    private UUID create(UUID accountId, TransactionType type, String amount) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(type);
+        dto.setAmount(new BigDecimal(amount));
+        dto.setAccountId(accountId);
+        return transactionService.createTransaction(dto).getId();
+    }
+
+    private void insertHistorical(UUID accountId, TransactionType type, String amount, LocalDateTime createdAt) {
+        Transaction transaction = new Transaction();
+        transaction.setId(UUID.randomUUID());
+        transaction.setType(type);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setAccountId(accountId);
+        transaction.setCreatedAt(createdAt);
+        transactionTemplate.executeWithoutResult(status -> transactionRepository.insert(transaction));
+    }
+
+    private Map<TransactionType, RollupBucketDTO> totals(UUID accountId, RollupGranularity granularity) {
+        Map<TransactionType, RollupBucketDTO> totals = new EnumMap<>(TransactionType.class);
+        LocalDateTime now = LocalDateTime.now();
+        for (RollupBucketDTO bucket : rollupService.summary(accountId, granularity, now.minusDays(40),
+                now.plusHours(1))) {
+            totals.merge(bucket.getType(), bucket, (a, b) -> new RollupBucketDTO(a.getBucketStart(), a.getType(),
+                    a.getTotalAmount().add(b.getTotalAmount()), a.getCount() + b.getCount()));
+        }
+        return totals;
+    }
+
+    private static void assertTotal(RollupBucketDTO bucket, String amount, long count) {
+        assertEquals(0, new BigDecimal(amount).compareTo(bucket.getTotalAmount()),
+                "期望 " + amount + "，实际 " + bucket.getTotalAmount());
+        assertEquals(count, bucket.getCount());
+    }
+}
@@ -0,0 +1,105 @@
+package com.banking.service;
+
+import com.banking.dto.TransactionDTO;
+import com.banking.dto.TransferRequest;
+import com.banking.enums.TransactionType;
+import com.banking.exception.InsufficientFundsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * 热点账户转账竞争测试：多线程在少量账户间双向转账，验证不会死锁且资金守恒；吞吐量见 jmh 配置中的 TransferContentionBenchmark
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class TransferContentionTest {
+    private static final int THREADS = 32;
+    private static final int TRANSFERS_PER_THREAD = 20;
+    private static final int HOT_ACCOUNTS = 4;
+    private static final BigDecimal INITIAL_BALANCE = new BigDecimal("1000000.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+
+    @Test
+    void concurrentTransfersBetweenHotAccounts_ShouldNotDeadlockAndConserveFunds() {
+        List<UUID> accounts = new ArrayList<>();
+        for (int i = 0; i < HOT_ACCOUNTS; i++) {
+            UUID accountId = UUID.randomUUID();
+            accounts.add(accountId);
+            TransactionDTO deposit = new TransactionDTO();
+            deposit.setId(UUID.randomUUID());
+            deposit.setType(TransactionType.DEPOSIT);
+            deposit.setAmount(INITIAL_BALANCE);
+            deposit.setAccountId(accountId);
+            transactionService.createTransaction(deposit);
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    futures.add(executor.submit(() -> {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                            int from = random.nextInt(HOT_ACCOUNTS);
+                            int to = (from + 1 + random.nextInt(HOT_ACCOUNTS - 1)) % HOT_ACCOUNTS;
+                            transactionService.transfer(transfer(accounts.get(from), accounts.get(to),
+                                    BigDecimal.valueOf(random.nextInt(1, 100))));
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        });
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (UUID accountId : accounts) {
+            total = total.add(accountBalanceService.getBalance(accountId).getBalance());
+        }
+        assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(HOT_ACCOUNTS)).compareTo(total));
+    }
+
+    @Test
+    void transfer_ShouldRejectOverdraft() {
+        UUID empty = UUID.randomUUID();
+        UUID target = UUID.randomUUID();
+
+        assertThrows(InsufficientFundsException.class,
+                () -> transactionService.transfer(transfer(empty, target, BigDecimal.ONE)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(accountBalanceService.getBalance(target).getBalance()));
+    }
+
+    private static TransferRequest transfer(UUID from, UUID to, BigDecimal amount) {
+        TransferRequest request = new TransferRequest();
+        request.setId(UUID.randomUUID());
+        request.setFromAccountId(from);
+        request.setToAccountId(to);
+        request.setAmount(amount);
+        return request;
+    }
+}
@@ -0,0 +1,113 @@
+package com.banking.service;
+
+import com.banking.dto.TransactionDTO;
+import com.banking.dto.TransferRequest;
+import com.banking.enums.TransactionType;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 虚拟线程模式测试：并发客户端在热点账户上创建交易、转账并查询，
+ * 通过JFR的 jdk.VirtualThreadPinned 事件确认锁与缓存路径不会钉住载体线程；
+ * 与平台线程池的吞吐量对比见 jmh 配置中的 VirtualThreadBenchmark
+ */
+@SpringBootTest(properties = {"spring.threads.virtual.enabled=true", "spring.jpa.show-sql=false"})
+class VirtualThreadPinningTest {
+    private static final int CLIENTS = 100;
+    private static final int HOT_ACCOUNTS = 4;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Test
+    void concurrentClientsOnVirtualThreads_ShouldNotPinCarrierThreads() throws Exception {
+        List<UUID> accounts = new ArrayList<>();
+        for (int i = 0; i < HOT_ACCOUNTS; i++) {
+            UUID accountId = UUID.randomUUID();
+            accounts.add(accountId);
+            transactionService.createTransaction(deposit(accountId, new BigDecimal("1000000.00")));
+        }
+        // 预热，排除类加载与首次初始化时的短暂钉住
+        run(Executors.newVirtualThreadPerTaskExecutor(), accounts);
+
+        Queue<String> pinned = new ConcurrentLinkedQueue<>();
+        try (RecordingStream recording = new RecordingStream()) {
+            // 阈值为0：只要在钉住状态下阻塞即记录，与阻塞时长无关，结果不受机器快慢影响
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.onEvent("jdk.VirtualThreadPinned", event -> pinned.add(describe(event)));
+            recording.startAsync();
+            run(Executors.newVirtualThreadPerTaskExecutor(), accounts);
+            recording.stop();
+        }
+
+        assertTrue(pinned.isEmpty(), () -> "检测到载体线程被钉住:\n" + String.join("\n\n", pinned));
+    }
+
+    private void run(ExecutorService executor, List<UUID> accounts) throws Exception {
+        try (executor) {
+            List<Future<?>> futures = new ArrayList<>(CLIENTS);
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(executor.submit(() -> client(accounts)));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private void client(List<UUID> accounts) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(HOT_ACCOUNTS);
+        int to = (from + 1 + random.nextInt(HOT_ACCOUNTS - 1)) % HOT_ACCOUNTS;
+
+        TransactionDTO created = transactionService.createTransaction(deposit(accounts.get(from), BigDecimal.ONE));
+        TransferRequest transfer = new TransferRequest();
+        transfer.setId(UUID.randomUUID());
+        transfer.setFromAccountId(accounts.get(from));
+        transfer.setToAccountId(accounts.get(to));
+        transfer.setAmount(BigDecimal.ONE);
+        transactionService.transfer(transfer);
+        transactionService.getTransaction(created.getId());
+        transactionService.transactionList(0, 20);
+    }
+
+    private static TransactionDTO deposit(UUID accountId, BigDecimal amount) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(TransactionType.DEPOSIT);
+        dto.setAmount(amount);
+        dto.setAccountId(accountId);
+        return dto;
+    }
+
+    private static String describe(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return event.getDuration().toString();
+        }
+        return event.getDuration() + "\n" + event.getStackTrace().getFrames().stream()
+                .limit(20)
+                .map(RecordedFrame::getMethod)
+                .map(method -> "  " + method.getType().getName() + "." + method.getName())
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,271 @@
+package com.banking.shard;
+
+import com.banking.dto.BatchTransactionResultDTO;
+import com.banking.dto.CursorPageDTO;
+import com.banking.dto.RollupBucketDTO;
+import com.banking.dto.TransactionDTO;
+import com.banking.dto.TransferRequest;
+import com.banking.dto.TransferResultDTO;
+import com.banking.enums.BatchItemStatus;
+import com.banking.enums.RollupGranularity;
+import com.banking.enums.TransactionType;
+import com.banking.exception.DuplicateTransactionException;
+import com.banking.exception.InvalidTransactionException;
+import com.banking.exception.TransactionNotFoundException;
+import com.banking.repository.TransactionRepository;
+import com.banking.service.AccountBalanceService;
+import com.banking.service.TransactionRollupService;
+import com.banking.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分片存储集成测试：3个内存H2分片，交易按账户落在所属分片，按ID查询、列表与游标分页跨分片合并
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.datasource.url=jdbc:h2:mem:sharded-test",
+        "banking.sharding.shards=3",
+        "banking.sharding.url-pattern=jdbc:h2:mem:sharded-test-%d"
+})
+class ShardedStorageTest {
+    private static final int SHARDS = 3;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+
+    @Autowired
+    private TransactionRollupService rollupService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private TransactionDirectory transactionDirectory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void create_ShouldStoreTransactionOnlyInAccountShard() {
+        for (int shard = 0; shard < SHARDS; shard++) {
+            UUID account = accountOnShard(shard);
+            UUID id = deposit(account, "10.00");
+
+            for (int candidate = 0; candidate < SHARDS; candidate++) {
+                boolean stored = shardRouter.on(candidate, () -> transactionRepository.existsById(id));
+                assertEquals(candidate == shard, stored);
+            }
+            assertEquals(account, transactionService.getTransaction(id).getAccountId());
+        }
+    }
+
+    @Test
+    void getTransaction_ShouldScatterWhenDirectoryMisses() {
+        UUID account = accountOnShard(2);
+        UUID id = deposit(account, "10.00");
+        transactionDirectory.remove(id);
+        cacheManager.getCache("transactions").clear();
+
+        assertEquals(id, transactionService.getTransaction(id).getId());
+        assertEquals(2, transactionDirectory.shardOf(id));
+        assertThrows(TransactionNotFoundException.class, () -> transactionService.getTransaction(UUID.randomUUID()));
+    }
+
+    @Test
+    void updateAndDelete_ShouldRouteToTransactionShard() {
+        UUID account = accountOnShard(1);
+        UUID id = deposit(account, "10.00");
+        transactionDirectory.remove(id);
+
+        TransactionDTO update = transactionService.getTransaction(id);
+        update.setAmount(new BigDecimal("25.00"));
+        transactionService.updateTransaction(id, update);
+        assertEquals(0, new BigDecimal("25.00").compareTo(accountBalanceService.getBalance(account).getBalance()));
+
+        // 改到其他分片的账户需要跨分片移动交易，不支持
+        update = transactionService.getTransaction(id);
+        update.setAccountId(accountOnShard(0));
+        TransactionDTO moved = update;
+        assertThrows(InvalidTransactionException.class, () -> transactionService.updateTransaction(id, moved));
+
+        transactionService.deleteTransaction(id);
+        assertFalse(shardRouter.on(1, () -> transactionRepository.existsById(id)));
+        assertNull(transactionDirectory.shardOf(id));
+        assertEquals(0, BigDecimal.ZERO.compareTo(accountBalanceService.getBalance(account).getBalance()));
+    }
+
+    @Test
+    void create_ShouldRejectIdAlreadyStoredOnAnotherShard() {
+        UUID id = deposit(accountOnShard(0), "10.00");
+        transactionDirectory.remove(id);
+
+        // 同一ID换到其他分片的账户：分片内主键约束拦不住，需要跨分片查重
+        TransactionDTO single = transaction(accountOnShard(1), TransactionType.DEPOSIT, "10.00");
+        single.setId(id);
+        assertThrows(DuplicateTransactionException.class, () -> transactionService.createTransaction(single));
+
+        TransactionDTO batched = transaction(accountOnShard(2), TransactionType.DEPOSIT, "10.00");
+        batched.setId(id);
+        TransactionDTO fresh = transaction(accountOnShard(2), TransactionType.DEPOSIT, "10.00");
+        List<BatchTransactionResultDTO> results = transactionService.createTransactions(List.of(batched, fresh));
+        assertEquals(BatchItemStatus.DUPLICATE, results.get(0).getStatus());
+        assertEquals(BatchItemStatus.CREATED, results.get(1).getStatus());
+
+        UUID from = accountOnShard(1);
+        deposit(from, "50.00");
+        TransferRequest request = transfer(from, accountOnShard(1), "20.00");
+        request.setId(id);
+        assertThrows(DuplicateTransactionException.class, () -> transactionService.transfer(request));
+
+        for (int shard = 1; shard < SHARDS; shard++) {
+            assertFalse(shardRouter.on(shard, () -> transactionRepository.existsById(id)));
+        }
+        assertEquals(0, new BigDecimal("50.00").compareTo(accountBalanceService.getBalance(from).getBalance()));
+    }
+
+    @Test
+    void batch_ShouldSplitByShardAndPreserveRequestOrder() {
+        List<TransactionDTO> batch = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            batch.add(transaction(accountOnShard(i % SHARDS), TransactionType.DEPOSIT, "5.00"));
+        }
+        batch.add(batch.get(4));
+
+        List<BatchTransactionResultDTO> results = transactionService.createTransactions(batch);
+
+        assertEquals(batch.size(), results.size());
+        for (int i = 0; i < 9; i++) {
+            assertEquals(batch.get(i).getId(), results.get(i).getId());
+            assertEquals(BatchItemStatus.CREATED, results.get(i).getStatus());
+            UUID id = batch.get(i).getId();
+            int shard = i % SHARDS;
+            assertTrue(shardRouter.on(shard, () -> transactionRepository.existsById(id)));
+        }
+        assertEquals(BatchItemStatus.DUPLICATE, results.get(9).getStatus());
+    }
+
+    @Test
+    void lists_ShouldMergeShardsInCreatedAtOrder() {
+        Set<UUID> created = new HashSet<>();
+        for (int i = 0; i < 12; i++) {
+            created.add(deposit(accountOnShard(i % SHARDS), "1.00"));
+        }
+
+        List<TransactionDTO> paged = new ArrayList<>();
+        for (int page = 0; ; page++) {
+            List<TransactionDTO> items = transactionService.transactionList(page, 5);
+            paged.addAll(items);
+            if (items.size() < 5) {
+                break;
+            }
+        }
+        List<TransactionDTO> cursored = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDTO<TransactionDTO> page = transactionService.transactionListAfter(cursor, 4);
+            cursored.addAll(page.getItems());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<UUID> pagedIds = paged.stream().map(TransactionDTO::getId).toList();
+        assertEquals(pagedIds, cursored.stream().map(TransactionDTO::getId).toList());
+        assertEquals(pagedIds.size(), new HashSet<>(pagedIds).size());
+        assertTrue(pagedIds.containsAll(created));
+        for (int i = 1; i < paged.size(); i++) {
+            assertFalse(paged.get(i).getCreatedAt().isBefore(paged.get(i - 1).getCreatedAt()));
+        }
+    }
+
+    @Test
+    void accountReads_ShouldUseAccountShard() {
+        UUID account = accountOnShard(2);
+        deposit(account, "100.00");
+        create(transaction(account, TransactionType.WITHDRAWAL, "30.00"));
+
+        CursorPageDTO<TransactionDTO> history = transactionService.accountTransactions(account, null, null, null,
+                null, 20);
+        assertEquals(2, history.getItems().size());
+        assertEquals(0, new BigDecimal("70.00").compareTo(accountBalanceService.getBalance(account).getBalance()));
+        List<RollupBucketDTO> buckets = rollupService.summary(account, RollupGranularity.DAY, null, null);
+        assertEquals(2, buckets.size());
+
+        // 重建与回填逐个分片执行，结果与增量维护一致
+        assertTrue(accountBalanceService.rebuild() >= 1);
+        rollupService.backfill();
+        assertEquals(0, new BigDecimal("70.00").compareTo(accountBalanceService.getBalance(account).getBalance()));
+        assertEquals(buckets, rollupService.summary(account, RollupGranularity.DAY, null, null));
+    }
+
+    @Test
+    void transfer_ShouldRequireAccountsOnSameShard() {
+        UUID from = accountOnShard(0);
+        UUID sameShard = accountOnShard(0);
+        UUID otherShard = accountOnShard(1);
+        deposit(from, "100.00");
+
+        TransferResultDTO result = transactionService.transfer(transfer(from, sameShard, "40.00"));
+        assertEquals(sameShard, transactionService.getTransaction(result.getIncoming().getId()).getAccountId());
+        assertEquals(0, new BigDecimal("40.00").compareTo(accountBalanceService.getBalance(sameShard).getBalance()));
+
+        assertThrows(InvalidTransactionException.class,
+                () -> transactionService.transfer(transfer(from, otherShard, "10.00")));
+        assertEquals(0, new BigDecimal("60.00").compareTo(accountBalanceService.getBalance(from).getBalance()));
+    }
+
+    private UUID accountOnShard(int shard) {
+        while (true) {
+            UUID account = UUID.randomUUID();
+            if (shardRouter.shardOf(account) == shard) {
+                return account;
+            }
+        }
+    }
+
+    private UUID deposit(UUID account, String amount) {
+        return create(transaction(account, TransactionType.DEPOSIT, amount));
+    }
+
+    private UUID create(TransactionDTO dto) {
+        return transactionService.createTransaction(dto).getId();
+    }
+
+    private static TransactionDTO transaction(UUID account, TransactionType type, String amount) {
+        TransactionDTO dto = new TransactionDTO();
+        dto.setId(UUID.randomUUID());
+        dto.setType(type);
+        dto.setAmount(new BigDecimal(amount));
+        dto.setAccountId(account);
+        return dto;
+    }
+
+    private static TransferRequest transfer(UUID from, UUID to, String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setId(UUID.randomUUID());
+        request.setFromAccountId(from);
+        request.setToAccountId(to);
+        request.setAmount(new BigDecimal(amount));
+        return request;
+    }
+}